@@ -0,0 +1,24 @@
+package com.erp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * @file RedisConfig.java
+ * @description Redis 配置 / Redis Config
+ * @description_en Shared Redis pub/sub listener container used to propagate
+ *                 cache invalidations between backend instances
+ * @description_zh 共用的 Redis 發布/訂閱監聽容器，用於在多個後端實例間同步快取失效
+ */
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,56 @@
+package com.erp.config.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * @file ClientIpResolver.java
+ * @description 用戶端 IP 解析 / Client IP Resolver
+ * @description_en Resolves the client address for login throttling. X-Real-IP is
+ *                 only honoured when the connection comes from a configured
+ *                 proxy (IPs or CIDR ranges); anyone else gets the socket
+ *                 address, so a caller reaching the backend directly cannot
+ *                 pick the IP its failures are counted against
+ * @description_zh 解析登入限流所用的用戶端 IP。只有連線來自設定的代理（IP 或 CIDR）時
+ *                 才採用 X-Real-IP，其餘一律使用連線位址，避免直接連到後端的呼叫者
+ *                 自行指定失敗次數記在哪個 IP 上
+ */
+@Component
+public class ClientIpResolver {
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(
+            @Value("${application.security.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String realIp = request.getHeader("X-Real-IP");
+        if (realIp != null && !realIp.isBlank()) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String remoteAddr) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(remoteAddr)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.erp.config.security;
+
+import com.erp.config.UserAdapter;
+import com.erp.entity.User;
+import com.erp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * @file CurrentUser.java
+ * @description 目前登入使用者 / Current User Context
+ * @description_en View of the logged-in user. Id and role come straight from the
+ *                 token principal; the full entity is loaded at most once per
+ *                 request and only when actually needed. On a request thread the
+ *                 resolved user is kept in the request attributes; off it (async,
+ *                 scheduled or fan-out work) it falls back to the thread's
+ *                 SecurityContext, so callers there must propagate the context or
+ *                 pass the user id in
+ * @description_zh 登入者資訊。ID 與角色直接取自 Token 主體；完整實體每個請求最多只載入
+ *                 一次，且僅在需要時載入。在請求執行緒上，解析結果存放於請求屬性；在請求
+ *                 執行緒以外（非同步、排程或平行子工作）則改由該執行緒的 SecurityContext
+ *                 解析，呼叫端需自行傳遞安全環境或直接傳入使用者 ID
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private static final String ATTRIBUTE = CurrentUser.class.getName();
+
+    private final UserRepository userRepository;
+
+    /** 單一請求內解析出的使用者 / The user resolved for one request */
+    private static final class Resolved {
+        private final String id;
+        private final User.Role role;
+        private User entity;
+
+        private Resolved(String id, User.Role role, User entity) {
+            this.id = id;
+            this.role = role;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * 使用者 ID（不查詢資料庫）/ User id, no database access
+     */
+    public String getId() {
+        return resolve().id;
+    }
+
+    /**
+     * 使用者角色（不查詢資料庫）/ User role, no database access
+     */
+    public User.Role getRole() {
+        return resolve().role;
+    }
+
+    public boolean isAdmin() {
+        return getRole() == User.Role.ADMIN;
+    }
+
+    /**
+     * 延遲載入的實體參照，適用於設定關聯或作為查詢參數，不會觸發查詢
+     * Lazy entity reference for associations and query parameters; does not hit
+     * the database.
+     */
+    public User getReference() {
+        Resolved resolved = resolve();
+        return resolved.entity != null ? resolved.entity : userRepository.getReferenceById(resolved.id);
+    }
+
+    /**
+     * 完整使用者實體，每個請求最多載入一次
+     * Fully loaded user entity, fetched at most once per request.
+     */
+    public User get() {
+        Resolved resolved = resolve();
+        if (resolved.entity == null) {
+            resolved.entity = userRepository.findById(resolved.id)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        return resolved.entity;
+    }
+
+    private Resolved resolve() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return fromSecurityContext();
+        }
+        Resolved resolved = (Resolved) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved == null) {
+            resolved = fromSecurityContext();
+            attributes.setAttribute(ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
+    }
+
+    private Resolved fromSecurityContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getPrincipal())) {
+            throw new RuntimeException("Unauthorized");
+        }
+
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtUserPrincipal jwtPrincipal) {
+            return new Resolved(jwtPrincipal.getId(), jwtPrincipal.getRole(), null);
+        }
+        if (principal instanceof UserAdapter adapter) {
+            // 舊版 Token：過濾器已載入實體，直接沿用 / Legacy token: reuse the entity the filter loaded
+            User entity = adapter.getUser();
+            return new Resolved(entity.getId(), entity.getRole(), entity);
+        }
+        String loginId = authentication.getName();
+        User entity = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return new Resolved(entity.getId(), entity.getRole(), entity);
+    }
+}
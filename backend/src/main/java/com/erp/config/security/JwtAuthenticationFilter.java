@@ -1,5 +1,6 @@
 package com.erp.config.security;
 
+import com.erp.entity.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +29,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final SecurityStampStore securityStampStore;
+    private final TokenRevocationStore tokenRevocationStore;
 
     @Override
     protected void doFilterInternal(
@@ -36,7 +39,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        String userEmail = null;
+        final VerifiedToken token;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,17 +48,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // 單次解析與驗簽，後續檢查沿用結果 / Parse and verify once, reuse the result below
+            token = jwtService.verify(jwt);
         } catch (Exception e) {
             // Token 過期或無效，跳過驗證 (交由 Spring Security 判斷權限)
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        // 布隆過濾器判定未撤銷時無網路往返 / No network hop unless the Bloom filter hits
+        if (tokenRevocationStore.isRevoked(token)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (token.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(token);
+
+            if (userDetails != null && jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -67,4 +77,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * 由 Token 聲明建立主體；僅舊版無 uid 聲明的 Token 才回退查詢資料庫
+     * Builds the principal from claims; only legacy tokens without a uid claim
+     * fall back to a database lookup.
+     */
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        if (token.getUserId() == null || token.getRole() == null) {
+            return this.userDetailsService.loadUserByUsername(token.getSubject());
+        }
+
+        // 戳記已輪替代表帳號被修改或重設密碼 / A rotated stamp means the account was changed
+        if (!securityStampStore.matches(token)) {
+            return null;
+        }
+
+        try {
+            return new JwtUserPrincipal(token.getUserId(), token.getSubject(), User.Role.valueOf(token.getRole()),
+                    token.getTokenId(), token.getExpiration() != null ? token.getExpiration().getTime() : 0L);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.erp.config.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * @file JwtKeyCipher.java
+ * @description JWT 私鑰加密 / JWT Private Key Cipher
+ * @description_en Encrypts signing private keys before they are stored in
+ *                 Postgres, with AES-GCM under a key taken from the
+ *                 environment. The kid is bound as associated data so a
+ *                 ciphertext cannot be moved to another row. Values written
+ *                 before encryption (plain Base64) are still readable
+ * @description_zh 簽章私鑰寫入 Postgres 前以 AES-GCM 加密，金鑰來自環境變數。kid 作為
+ *                 附加資料綁定，密文無法搬到其他列使用。加密前寫入的舊值（純 Base64）
+ *                 仍可讀取
+ */
+@Component
+public class JwtKeyCipher {
+
+    private static final String PREFIX = "enc:v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public JwtKeyCipher(@Value("${application.security.jwt.key-encryption-key:}") String encodedKey) {
+        if (encodedKey == null || encodedKey.isBlank()) {
+            throw new IllegalStateException(
+                    "JWT_KEY_ENCRYPTION_KEY is not set; generate one with: openssl rand -base64 32");
+        }
+        byte[] raw = Base64.getDecoder().decode(encodedKey.trim());
+        if (raw.length != 16 && raw.length != 24 && raw.length != 32) {
+            throw new IllegalStateException("JWT_KEY_ENCRYPTION_KEY must be a Base64 AES key of 16, 24 or 32 bytes");
+        }
+        this.key = new SecretKeySpec(raw, "AES");
+    }
+
+    public String encrypt(String kid, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(plaintext);
+            return PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt JWT signing key " + kid, e);
+        }
+    }
+
+    public byte[] decrypt(String kid, String stored) {
+        if (!isEncrypted(stored)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        try {
+            byte[] payload = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, payload, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to decrypt JWT signing key " + kid
+                    + "; is JWT_KEY_ENCRYPTION_KEY the one it was written with?", e);
+        }
+    }
+
+    public boolean isEncrypted(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+}
@@ -0,0 +1,285 @@
+package com.erp.config.security;
+
+import com.erp.entity.JwtSigningKey;
+import com.erp.repository.JwtSigningKeyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @file JwtKeyRing.java
+ * @description JWT 金鑰環 / JWT Key Ring
+ * @description_en RS256 key ring persisted in Postgres so every instance signs
+ *                 and verifies with the same keys. The newest active key signs;
+ *                 keys are rotated on a schedule and retired keys keep verifying
+ *                 until their last token has expired. Public keys are published
+ *                 as a JWKS so other services can verify tokens locally. Private
+ *                 keys are stored encrypted, and rotation runs under a Postgres
+ *                 advisory lock so only one instance rotates at a time
+ * @description_zh 存放於 Postgres 的 RS256 金鑰環，使所有實例以相同金鑰簽發與驗證。最新的
+ *                 有效金鑰負責簽發；金鑰定期輪替，退役金鑰持續驗證至其最後一個 Token
+ *                 過期。公鑰以 JWKS 公開，讓其他服務可在本地驗證 Token。私鑰加密儲存，
+ *                 輪替時持有 Postgres advisory lock，同一時間只有一個實例執行輪替
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String ALGORITHM = "RS256";
+    private static final int KEY_SIZE = 2048;
+    private static final long UNKNOWN_KID_REFRESH_INTERVAL_MS = 10_000;
+    private static final String ROTATION_LOCK = "jwt-key-rotation";
+
+    private final JwtSigningKeyRepository repository;
+    private final JwtKeyCipher cipher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration rotationPeriod;
+    private final Duration verificationGrace;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastRefreshAt;
+
+    /** 目前簽發金鑰與所有驗證用公鑰的不可變快照 / Immutable view of the ring */
+    private record Snapshot(String signingKid, PrivateKey signingKey, LocalDateTime signingCreatedAt,
+            Map<String, RSAPublicKey> publicKeys) {
+    }
+
+    public JwtKeyRing(
+            JwtSigningKeyRepository repository,
+            JwtKeyCipher cipher,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.security.jwt.key-rotation-days:30}") long rotationDays,
+            @Value("${application.security.jwt.expiration:86400000}") long jwtExpiration) {
+        this.repository = repository;
+        this.cipher = cipher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rotationPeriod = Duration.ofDays(rotationDays);
+        // 多保留一小時以容許時鐘誤差 / An extra hour absorbs clock skew
+        this.verificationGrace = Duration.ofMillis(jwtExpiration).plusHours(1);
+    }
+
+    @PostConstruct
+    void init() {
+        encryptStoredKeys();
+        refresh();
+        if (snapshot.signingKid() == null) {
+            rotate(false);
+        }
+    }
+
+    // ========================================
+    // 查詢 / Lookup
+    // ========================================
+
+    public String currentKeyId() {
+        return snapshot.signingKid();
+    }
+
+    public PrivateKey currentSigningKey() {
+        return snapshot.signingKey();
+    }
+
+    /**
+     * 依 kid 取得驗證用公鑰；未知的 kid 可能是其他實例剛輪替的新金鑰，會重新載入一次
+     * Public key for a kid. An unknown kid may be a key another instance just
+     * rotated in, so the ring is reloaded (at most every ten seconds).
+     */
+    public RSAPublicKey publicKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        RSAPublicKey key = snapshot.publicKeys().get(kid);
+        if (key == null && System.currentTimeMillis() - lastRefreshAt > UNKNOWN_KID_REFRESH_INTERVAL_MS) {
+            refresh();
+            key = snapshot.publicKeys().get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * 以 JWKS (RFC 7517) 格式輸出所有驗證用公鑰
+     * All verification keys as a JSON Web Key Set (RFC 7517).
+     */
+    public Map<String, Object> toJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (Map.Entry<String, RSAPublicKey> entry : snapshot.publicKeys().entrySet()) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", ALGORITHM);
+            jwk.put("kid", entry.getKey());
+            jwk.put("n", base64UrlUnsigned(entry.getValue().getModulus()));
+            jwk.put("e", base64UrlUnsigned(entry.getValue().getPublicExponent()));
+            keys.add(jwk);
+        }
+        return Map.of("keys", keys);
+    }
+
+    // ========================================
+    // 輪替 / Rotation
+    // ========================================
+
+    /**
+     * 每小時檢查目前金鑰是否已到輪替期限，並清除已無作用的舊金鑰
+     * Hourly: rotate when the signing key is past its period and drop keys that
+     * no longer verify anything.
+     */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public void rotateIfDue() {
+        refresh();
+        LocalDateTime createdAt = snapshot.signingCreatedAt();
+        if (createdAt == null || createdAt.isBefore(LocalDateTime.now().minus(rotationPeriod))) {
+            rotate(false);
+        }
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Removed {} expired JWT signing keys", removed);
+        }
+    }
+
+    /**
+     * 產生新金鑰並退役目前的簽發金鑰 / Create a new key and retire current signers
+     */
+    public void rotate() {
+        rotate(true);
+    }
+
+    /**
+     * 在 advisory lock 下輪替；非強制時若其他實例已換上未到期的金鑰則略過
+     * Rotate under an advisory lock. Unless forced, the ring is re-read under
+     * the lock and left alone when another instance already put a signing key
+     * in place that is not yet due.
+     */
+    private synchronized void rotate(boolean force) {
+        KeyPair pair = generateKeyPair();
+        String created = transactionTemplate.execute(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null, ROTATION_LOCK);
+            LocalDateTime now = LocalDateTime.now();
+            List<JwtSigningKey> keys = repository.findVerificationKeys(now);
+            List<JwtSigningKey> signers = keys.stream().filter(key -> key.getRetiredAt() == null).toList();
+            if (!force && !signers.isEmpty() && !signers.get(0).getCreatedAt().isBefore(now.minus(rotationPeriod))) {
+                return null;
+            }
+
+            List<JwtSigningKey> changed = new ArrayList<>();
+            for (JwtSigningKey key : signers) {
+                key.setRetiredAt(now);
+                key.setExpiresAt(now.plus(verificationGrace));
+                changed.add(key);
+            }
+
+            String kid = UUID.randomUUID().toString();
+            changed.add(JwtSigningKey.builder()
+                    .id(kid)
+                    .algorithm(ALGORITHM)
+                    .publicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()))
+                    .privateKey(cipher.encrypt(kid, pair.getPrivate().getEncoded()))
+                    .createdAt(now)
+                    .build());
+            repository.saveAll(changed);
+            return kid;
+        });
+        if (created != null) {
+            log.info("Rotated JWT signing key, new kid {}", created);
+        }
+        refresh();
+    }
+
+    /**
+     * 將加密前寫入的明文私鑰改為加密儲存 / Encrypt private keys stored before encryption
+     */
+    private void encryptStoredKeys() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null, ROTATION_LOCK);
+            List<JwtSigningKey> plaintext = repository.findAll().stream()
+                    .filter(key -> !cipher.isEncrypted(key.getPrivateKey()))
+                    .toList();
+            for (JwtSigningKey key : plaintext) {
+                key.setPrivateKey(cipher.encrypt(key.getId(), Base64.getDecoder().decode(key.getPrivateKey())));
+            }
+            if (!plaintext.isEmpty()) {
+                repository.saveAll(plaintext);
+                log.info("Encrypted {} stored JWT signing keys", plaintext.size());
+            }
+        });
+    }
+
+    /**
+     * 由資料庫重新載入金鑰環 (每 5 分鐘)，以得知其他實例的輪替
+     * Reload the ring from Postgres every five minutes to pick up rotations made
+     * by other instances.
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public synchronized void refresh() {
+        lastRefreshAt = System.currentTimeMillis();
+        String signingKid = null;
+        PrivateKey signingKey = null;
+        LocalDateTime signingCreatedAt = null;
+        Map<String, RSAPublicKey> publicKeys = new LinkedHashMap<>();
+
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            // 依建立時間由新到舊，第一個未退役者即為簽發金鑰 / Newest non-retired key signs
+            for (JwtSigningKey key : repository.findVerificationKeys(LocalDateTime.now())) {
+                publicKeys.put(key.getId(), (RSAPublicKey) factory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey()))));
+                if (signingKid == null && key.getRetiredAt() == null) {
+                    signingKid = key.getId();
+                    signingKey = factory.generatePrivate(
+                            new PKCS8EncodedKeySpec(cipher.decrypt(key.getId(), key.getPrivateKey())));
+                    signingCreatedAt = key.getCreatedAt();
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to load JWT signing keys", e);
+        }
+
+        this.snapshot = new Snapshot(signingKid, signingKey, signingCreatedAt, publicKeys);
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(KEY_SIZE);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+    }
+
+    private static String base64UrlUnsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            bytes = trimmed;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
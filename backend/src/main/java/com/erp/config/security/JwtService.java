@@ -1,10 +1,16 @@
 package com.erp.config.security;
 
+import com.erp.config.UserAdapter;
+import com.erp.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,30 +19,114 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * @file JwtService.java
  * @description JWT 服務 / JWT Service
- * @description_en Handles JWT token generation and validation
- * @description_zh 負責產生與驗證 JWT Token
+ * @description_en Handles JWT token generation and validation. Tokens are
+ *                 signed with RS256 by the current key of {@link JwtKeyRing} and
+ *                 carry its id in the kid header
+ * @description_zh 負責產生與驗證 JWT Token。Token 以 {@link JwtKeyRing} 目前的金鑰進行
+ *                 RS256 簽章，並於 kid 標頭記錄金鑰 ID
  */
 @Component
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
-    private String secretKey;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SECURITY_STAMP = "sst";
+    public static final String CLAIM_NAME = "name";
 
     @Value("${application.security.jwt.expiration:86400000}")
     private long jwtExpiration;
 
+    @Value("${application.security.jwt.cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private final JwtKeyRing keyRing;
+
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // Parser 為不可變物件，依 kid 向金鑰環取得公鑰 / Immutable parser, resolves keys by kid
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyRing.publicKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
+    }
+
+    // ========================================
+    // 驗證 / Verification
+    // ========================================
+
+    /**
+     * 解析並驗證 Token（僅一次），結果會被快取至到期為止
+     * Parses and verifies the token once; the result is cached until it expires.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered or
+     *                                      expired
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims);
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired(System.currentTimeMillis());
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).getClaims());
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    // ========================================
+    // 產生 / Generation
+    // ========================================
+
+    /**
+     * 產生含使用者 ID、角色與安全戳記的 Token，供無資料庫認證使用
+     * Mints a token carrying user id, role and security stamp so requests can be
+     * authenticated from claims alone.
+     */
+    public String generateToken(User user, String securityStamp) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_SECURITY_STAMP, securityStamp);
+        // 顯示名稱供下游服務本地驗證後直接使用 / Display name for services verifying locally
+        claims.put(CLAIM_NAME, user.getName());
+        return generateToken(claims, new UserAdapter(user));
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -50,38 +140,13 @@ public class JwtService {
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.currentKeyId())
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(keyRing.currentSigningKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
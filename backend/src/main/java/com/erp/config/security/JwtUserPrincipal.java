@@ -0,0 +1,67 @@
+package com.erp.config.security;
+
+import com.erp.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @file JwtUserPrincipal.java
+ * @description Token 聲明主體 / Token Claims Principal
+ * @description_en Lightweight principal built purely from verified token claims,
+ *                 so authenticating a request never touches the database
+ * @description_zh 僅由已驗證 Token 聲明組成的輕量主體，請求認證時無須查詢資料庫
+ */
+@Getter
+public class JwtUserPrincipal implements UserDetails {
+
+    private final String id;
+    private final String username;
+    private final User.Role role;
+
+    /** 產生此主體的 Token ID 與到期時間，用於登出撤銷 / Source token id and expiry, for logout */
+    private final String tokenId;
+    private final long tokenExpiresAt;
+
+    public JwtUserPrincipal(String id, String username, User.Role role, String tokenId, long tokenExpiresAt) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.tokenId = tokenId;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
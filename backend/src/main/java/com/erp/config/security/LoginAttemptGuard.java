@@ -0,0 +1,117 @@
+package com.erp.config.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @file LoginAttemptGuard.java
+ * @description 登入嘗試防護 / Login Attempt Guard
+ * @description_en Per-account and per-IP failure counters in Redis, checked before
+ *                 any password hash is computed. Counters expire with a fixed
+ *                 window; Redis outages fail open so logins keep working
+ * @description_zh 以 Redis 保存每個帳號與每個 IP 的失敗次數，在計算任何密碼雜湊前
+ *                 先行檢查。計數於固定時間窗後過期；Redis 無法使用時不阻擋登入
+ */
+@Component
+@Slf4j
+public class LoginAttemptGuard {
+
+    private static final String ACCOUNT_PREFIX = "auth:fail:acct:";
+    private static final String IP_PREFIX = "auth:fail:ip:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxAccountFailures;
+    private final int maxIpFailures;
+    private final Duration window;
+    private final Counter blockedCounter;
+
+    public LoginAttemptGuard(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.security.login.max-account-failures:5}") int maxAccountFailures,
+            @Value("${application.security.login.max-ip-failures:50}") int maxIpFailures,
+            @Value("${application.security.login.failure-window-seconds:900}") long windowSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.blockedCounter = Counter.builder("auth.login.blocked")
+                .description("Logins refused by failure counters before hashing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 若帳號或 IP 失敗次數已達上限則拋出例外（一次 MGET，不做任何雜湊）
+     * Throws when either counter is over its limit; a single MGET, no hashing.
+     */
+    public void checkAllowed(String loginId, String clientIp) {
+        String accountKey = accountKey(loginId);
+        String ipKey = IP_PREFIX + clientIp;
+        try {
+            List<String> counts = redisTemplate.opsForValue().multiGet(List.of(accountKey, ipKey));
+            if (counts == null) {
+                return;
+            }
+            if (exceeds(counts.get(0), maxAccountFailures)) {
+                reject(accountKey);
+            }
+            if (exceeds(counts.get(1), maxIpFailures)) {
+                reject(ipKey);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Login failure counters unavailable, skipping check: {}", e.getMessage());
+        }
+    }
+
+    public void recordFailure(String loginId, String clientIp) {
+        try {
+            increment(accountKey(loginId));
+            increment(IP_PREFIX + clientIp);
+        } catch (DataAccessException e) {
+            log.warn("Failed to record login failure: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 登入成功後清除帳號計數；IP 計數保留至時間窗結束
+     * Clears the account counter on success; the IP counter runs out its window.
+     */
+    public void recordSuccess(String loginId) {
+        try {
+            redisTemplate.delete(accountKey(loginId));
+        } catch (DataAccessException e) {
+            log.warn("Failed to reset login failures: {}", e.getMessage());
+        }
+    }
+
+    private void increment(String key) {
+        Long count = redisTemplate.opsForValue().increment(key);
+        if (count != null && count == 1L) {
+            redisTemplate.expire(key, window);
+        }
+    }
+
+    private void reject(String key) {
+        blockedCounter.increment();
+        Long ttl = redisTemplate.getExpire(key);
+        long retryAfter = ttl != null && ttl > 0 ? ttl : window.toSeconds();
+        throw new LoginThrottledException("Too many failed login attempts", retryAfter);
+    }
+
+    private boolean exceeds(String count, int limit) {
+        return count != null && Long.parseLong(count) >= limit;
+    }
+
+    private String accountKey(String loginId) {
+        return ACCOUNT_PREFIX + (loginId == null ? "" : loginId.trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,22 @@
+package com.erp.config.security;
+
+import lombok.Getter;
+
+/**
+ * @file LoginThrottledException.java
+ * @description 登入受限例外 / Login Throttled Exception
+ * @description_en Thrown when a login is refused before any password check, either
+ *                 because too many attempts failed or the hashing pool is full
+ * @description_zh 登入在密碼比對前即被拒絕時拋出：失敗次數過多或雜湊執行緒池已滿
+ */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    /** 建議用戶端重試前等待的秒數 / Suggested Retry-After in seconds */
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
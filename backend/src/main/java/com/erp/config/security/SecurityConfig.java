@@ -36,8 +36,14 @@ public class SecurityConfig {
                                                 .requestMatchers("/api/auth/**", "/api/v1/auth/**", "/swagger-ui/**",
                                                                 "/v3/api-docs/**",
                                                                 "/api/v1/share-links/public/**",
+                                                                "/api/v1/internal/**",
+                                                                "/actuator/health",
                                                                 "/error")
                                                 .permitAll()
+                                                // 以 HMAC 簽章驗證 / Authenticated by its HMAC signature
+                                                .requestMatchers(org.springframework.http.HttpMethod.POST,
+                                                                "/api/v1/github/webhooks")
+                                                .permitAll()
                                                 .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**")
                                                 .permitAll() // Explicitly permit OPTIONS
                                                 .anyRequest().authenticated())
@@ -53,7 +59,7 @@ public class SecurityConfig {
         public org.springframework.web.cors.CorsConfigurationSource corsConfigurationSource() {
                 org.springframework.web.cors.CorsConfiguration configuration = new org.springframework.web.cors.CorsConfiguration();
                 configuration.setAllowedOriginPatterns(java.util.List.of("*")); // Allow all origins (dev/prod)
-                configuration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD"));
+                configuration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD"));
                 configuration.setAllowedHeaders(java.util.List.of("*"));
                 configuration.setAllowCredentials(true);
 
@@ -0,0 +1,219 @@
+package com.erp.config.security;
+
+import com.erp.entity.User;
+import com.erp.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file SecurityStampStore.java
+ * @description 安全戳記儲存 / Security Stamp Store
+ * @description_en Keeps each user's current security stamp in process, so token
+ *                 checks need neither the database nor a network hop. A stamp is
+ *                 read from Postgres the first time a user is seen, or when a
+ *                 token carries a different one. Rotations are recorded in a
+ *                 Redis hash and announced over pub/sub once the transaction
+ *                 saving them has committed; a periodic resync from the hash
+ *                 repairs missed messages. Every stamp carries the time it was
+ *                 rotated or read, and the newer one always wins
+ * @description_zh 將使用者目前的安全戳記保存在行程內，Token 檢查既不查詢資料庫也不需網路往返。
+ *                 首次遇到某使用者，或 Token 帶有不同戳記時才回讀 Postgres。輪替於儲存它的交易
+ *                 提交後記錄在 Redis 雜湊並透過發布/訂閱通知，定期由雜湊重新同步以補上遺漏的
+ *                 訊息。每個戳記都帶有輪替或讀取的時間，一律以較新者為準
+ */
+@Component
+@Slf4j
+public class SecurityStampStore implements MessageListener {
+
+    private static final String ROTATIONS_KEY = "auth:stamp:rotations";
+    private static final String CHANNEL = "auth:stamp:changed";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final UserRepository userRepository;
+    private final long jwtExpiration;
+
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    /** 戳記與其輪替或讀取時間 / A stamp with the time it was rotated or read */
+    private record Stamp(String value, long at) {
+        Stamp newer(Stamp other) {
+            return other.at() >= at ? other : this;
+        }
+    }
+
+    public SecurityStampStore(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+            UserRepository userRepository,
+            @Value("${application.security.jwt.expiration:86400000}") long jwtExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.userRepository = userRepository;
+        this.jwtExpiration = jwtExpiration;
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        resync();
+    }
+
+    /**
+     * 檢查 Token 內的戳記是否仍為該使用者目前的戳記。不一致且 Token 晚於本地戳記簽發時
+     * 回讀資料庫一次，以免錯過其他實例的輪替而誤拒新 Token；早於本地戳記者必為舊 Token
+     * Whether the stamp carried by a token is still the user's current one. On
+     * a mismatch the database is read once if the token may have been issued
+     * after the local stamp was current, so a missed rotation never rejects new
+     * tokens; a token issued earlier is simply stale.
+     */
+    public boolean matches(VerifiedToken token) {
+        String tokenStamp = token.getSecurityStamp();
+        if (tokenStamp == null) {
+            return false;
+        }
+        Stamp current = stamps.get(token.getUserId());
+        if (current != null && tokenStamp.equals(current.value())) {
+            return true;
+        }
+        // iat 只有秒精度 / iat only carries whole seconds
+        if (current != null && token.getIssuedAt() != null && token.getIssuedAt().getTime() + 1000 <= current.at()) {
+            return false;
+        }
+        current = load(token.getUserId());
+        return current != null && tokenStamp.equals(current.value());
+    }
+
+    /**
+     * 取得使用者目前的戳記；若從未產生則建立並儲存一個
+     * Current stamp of a user, creating and saving one on first use. It is not
+     * cached here: the entity may predate a concurrent rotation.
+     */
+    public String stampFor(User user) {
+        if (user.getSecurityStamp() == null) {
+            user.setSecurityStamp(UUID.randomUUID().toString());
+            userRepository.save(user);
+        }
+        return user.getSecurityStamp();
+    }
+
+    /**
+     * 產生新戳記並寫回使用者（呼叫端於同一交易中儲存實體），交易提交後既有 Token 將全部失效
+     * Issues a new stamp on the user, which the caller saves in the same
+     * transaction. The stamp is published after commit, so a rolled back change
+     * never invalidates tokens; from then on every token minted with the
+     * previous stamp stops validating.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String rotate(User user) {
+        String stamp = UUID.randomUUID().toString();
+        user.setSecurityStamp(stamp);
+        if (user.getId() != null) {
+            String userId = user.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, stamp);
+                }
+            });
+        }
+        return stamp;
+    }
+
+    private void publish(String userId, String value) {
+        Stamp stamp = new Stamp(value, System.currentTimeMillis());
+        stamps.merge(userId, stamp, Stamp::newer);
+        String encoded = stamp.at() + ":" + stamp.value();
+        try {
+            redisTemplate.opsForHash().put(ROTATIONS_KEY, userId, encoded);
+            redisTemplate.convertAndSend(CHANNEL, userId + "|" + encoded);
+        } catch (DataAccessException e) {
+            log.error("Failed to announce security stamp rotation for user {}", userId, e);
+        }
+    }
+
+    /**
+     * 套用其他實例的輪替 / Apply a rotation announced by another instance
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        Stamp stamp = separator > 0 ? decode(body.substring(separator + 1)) : null;
+        if (stamp == null) {
+            log.warn("Ignoring malformed security stamp message: {}", body);
+            return;
+        }
+        stamps.merge(body.substring(0, separator), stamp, Stamp::newer);
+    }
+
+    // ========================================
+    // 同步 / Sync
+    // ========================================
+
+    /**
+     * 由 Redis 補上遺漏的輪替並清除早於 Token 效期者 (每分鐘)
+     * Merge in rotations whose messages were missed and prune those older than
+     * a token lifetime, every minute. On failure the local stamps are kept.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void resync() {
+        long oldest = System.currentTimeMillis() - jwtExpiration;
+        try {
+            Map<Object, Object> rotations = redisTemplate.opsForHash().entries(ROTATIONS_KEY);
+            for (Map.Entry<Object, Object> entry : rotations.entrySet()) {
+                Stamp stamp = decode(entry.getValue().toString());
+                if (stamp != null && stamp.at() > oldest) {
+                    stamps.merge(entry.getKey().toString(), stamp, Stamp::newer);
+                } else {
+                    redisTemplate.opsForHash().delete(ROTATIONS_KEY, entry.getKey());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to resync security stamps, keeping local copies: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 由資料庫讀取並合併；讀取時間取自查詢前，讀到舊值時不會蓋過較新的輪替
+     * Read from the database and merge. The time is taken before the query, so
+     * a value read before a rotation committed never overrides it.
+     */
+    private Stamp load(String userId) {
+        long readAt = System.currentTimeMillis();
+        String value = userRepository.findSecurityStampById(userId).orElse(null);
+        if (value == null) {
+            return stamps.get(userId);
+        }
+        return stamps.merge(userId, new Stamp(value, readAt), Stamp::newer);
+    }
+
+    private static Stamp decode(String encoded) {
+        int separator = encoded.indexOf(':');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return new Stamp(encoded.substring(separator + 1), Long.parseLong(encoded.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.erp.config.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file TokenRevocationStore.java
+ * @description Token 撤銷清單 / Token Revocation Store
+ * @description_en Revoked token ids (jti) live in Redis with a TTL equal to the
+ *                 token's remaining life and are mirrored into an in-process Bloom
+ *                 filter, so the common "not revoked" answer needs no network hop.
+ *                 "Log out all sessions" stores a per-user issued-before cutoff,
+ *                 mirrored as an exact in-memory map. Other instances learn about
+ *                 changes over Redis pub/sub
+ * @description_zh 已撤銷的 Token ID (jti) 存於 Redis，存活時間等於 Token 剩餘效期，並同步
+ *                 至行程內的布隆過濾器，使最常見的「未撤銷」判斷無須網路往返。「登出所有
+ *                 裝置」則記錄每位使用者的簽發時間下限，以記憶體對照表精確同步。其他實例
+ *                 透過 Redis 發布/訂閱得知變更
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore implements MessageListener {
+
+    private static final String INDEX_KEY = "auth:revoked";
+    private static final String TOKEN_PREFIX = "auth:revoked:jti:";
+    private static final String USERS_KEY = "auth:revoked:users";
+    private static final String CHANNEL = "auth:revoked:changed";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long jwtExpiration;
+
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+    private final Object filterLock = new Object();
+    private volatile BloomFilter tokenFilter = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+    /** 重建期間收到的 jti，換上新過濾器前補入 / Token ids seen while a rebuild runs, replayed before the swap */
+    private List<String> pendingTokenIds;
+
+    public TokenRevocationStore(
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${application.security.jwt.expiration:86400000}") long jwtExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.jwtExpiration = jwtExpiration;
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    // ========================================
+    // 檢查 / Check
+    // ========================================
+
+    /**
+     * 判斷 Token 是否已撤銷。過濾器判定不存在時不會存取 Redis
+     * Whether the token was revoked. Redis is only consulted when the Bloom
+     * filter reports a possible hit; if Redis is then unreachable the token is
+     * treated as revoked.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        String userId = token.getUserId();
+        if (userId != null && token.getIssuedAt() != null) {
+            Long cutoff = userCutoffs.get(userId);
+            // 下限與 iat 皆為整秒，同一秒內簽發者一併撤銷 / Both are whole seconds, so the cutoff second itself is revoked
+            if (cutoff != null && token.getIssuedAt().getTime() <= cutoff) {
+                return true;
+            }
+        }
+
+        String tokenId = token.getTokenId();
+        if (tokenId == null || !tokenFilter.mightContain(tokenId)) {
+            return false;
+        }
+
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(TOKEN_PREFIX + tokenId));
+        } catch (DataAccessException e) {
+            log.warn("Cannot confirm revocation of token {}, rejecting it: {}", tokenId, e.getMessage());
+            return true;
+        }
+    }
+
+    // ========================================
+    // 撤銷 / Revoke
+    // ========================================
+
+    /**
+     * 撤銷單一 Token，直到其原本的到期時間為止
+     * Revoke a single token until its original expiry.
+     */
+    public void revokeToken(String tokenId, long expiresAtMillis) {
+        long ttl = expiresAtMillis - System.currentTimeMillis();
+        if (tokenId == null || ttl <= 0) {
+            return;
+        }
+
+        addToFilter(tokenId);
+        try {
+            redisTemplate.opsForValue().set(TOKEN_PREFIX + tokenId, "1", Duration.ofMillis(ttl));
+            redisTemplate.opsForZSet().add(INDEX_KEY, tokenId, expiresAtMillis);
+            redisTemplate.convertAndSend(CHANNEL, "jti:" + tokenId);
+        } catch (DataAccessException e) {
+            log.error("Failed to persist revocation of token {}", tokenId, e);
+        }
+    }
+
+    /**
+     * 撤銷使用者在此刻之前簽發的所有 Token（登出所有裝置）
+     * Revoke every token issued to the user before now ("log out all sessions").
+     */
+    public void revokeAllForUser(String userId) {
+        // iat 以秒為單位，下限取整秒 / iat has second precision, so truncate the cutoff
+        long cutoff = System.currentTimeMillis() / 1000 * 1000;
+        userCutoffs.merge(userId, cutoff, Math::max);
+        try {
+            redisTemplate.opsForHash().put(USERS_KEY, userId, Long.toString(cutoff));
+            redisTemplate.convertAndSend(CHANNEL, "uid:" + userId + ":" + cutoff);
+        } catch (DataAccessException e) {
+            log.error("Failed to persist session revocation for user {}", userId, e);
+        }
+    }
+
+    /**
+     * 接收其他實例的變更並直接套用，不必重建
+     * Apply a change announced by another instance without a full rebuild.
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith("jti:")) {
+            addToFilter(body.substring(4));
+        } else if (body.startsWith("uid:")) {
+            int separator = body.lastIndexOf(':');
+            if (separator > 4) {
+                try {
+                    long cutoff = Long.parseLong(body.substring(separator + 1));
+                    userCutoffs.merge(body.substring(4, separator), cutoff, Math::max);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed revocation message: {}", body);
+                }
+            }
+        }
+    }
+
+    // ========================================
+    // 重建 / Rebuild
+    // ========================================
+
+    /**
+     * 由 Redis 重建過濾器並合併使用者下限，清除已過期項目 (每分鐘)
+     * Rebuild the filter from Redis and merge the user cutoffs into the live
+     * map, pruning expired entries. Runs every minute so the filter never grows
+     * past its sizing. Token ids added while Redis is being read are replayed
+     * into the new filter before it is swapped in. On failure the previous
+     * filter is kept.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void rebuild() {
+        long now = System.currentTimeMillis();
+        synchronized (filterLock) {
+            pendingTokenIds = new ArrayList<>();
+        }
+        BloomFilter filter = null;
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, 0, now);
+            Set<String> revoked = redisTemplate.opsForZSet().range(INDEX_KEY, 0, -1);
+            Map<Object, Object> users = redisTemplate.opsForHash().entries(USERS_KEY);
+
+            int size = revoked != null ? revoked.size() : 0;
+            filter = new BloomFilter(Math.max(MIN_CAPACITY, size * 2), FALSE_POSITIVE_RATE);
+            if (revoked != null) {
+                revoked.forEach(filter::put);
+            }
+
+            // 下限早於最長 Token 效期者已無作用 / Cutoffs older than a token lifetime no longer matter
+            long oldest = now - jwtExpiration;
+            for (Map.Entry<Object, Object> entry : users.entrySet()) {
+                long cutoff = Long.parseLong(entry.getValue().toString());
+                if (cutoff > oldest) {
+                    userCutoffs.merge(entry.getKey().toString(), cutoff, Math::max);
+                } else {
+                    redisTemplate.opsForHash().delete(USERS_KEY, entry.getKey());
+                }
+            }
+            userCutoffs.values().removeIf(cutoff -> cutoff <= oldest);
+        } catch (DataAccessException e) {
+            log.warn("Failed to rebuild token revocation filter, keeping previous snapshot: {}", e.getMessage());
+        } finally {
+            synchronized (filterLock) {
+                if (filter != null) {
+                    pendingTokenIds.forEach(filter::put);
+                    tokenFilter = filter;
+                }
+                pendingTokenIds = null;
+            }
+        }
+    }
+
+    private void addToFilter(String tokenId) {
+        synchronized (filterLock) {
+            tokenFilter.put(tokenId);
+            if (pendingTokenIds != null) {
+                pendingTokenIds.add(tokenId);
+            }
+        }
+    }
+}
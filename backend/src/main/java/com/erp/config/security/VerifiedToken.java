@@ -0,0 +1,48 @@
+package com.erp.config.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * @file VerifiedToken.java
+ * @description 已驗證的 Token / Verified Token
+ * @description_en Result of a single parse + signature check of a JWT, passed
+ *                 along instead of re-parsing the raw token
+ * @description_zh 單次解析與簽章驗證後的 JWT 結果，取代重複解析原始 Token
+ */
+@Getter
+@RequiredArgsConstructor
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Date expiration;
+    private final Claims claims;
+
+    public String getUserId() {
+        return claims.get(JwtService.CLAIM_USER_ID, String.class);
+    }
+
+    public String getRole() {
+        return claims.get(JwtService.CLAIM_ROLE, String.class);
+    }
+
+    public String getSecurityStamp() {
+        return claims.get(JwtService.CLAIM_SECURITY_STAMP, String.class);
+    }
+
+    /** Token ID (jti)，舊版 Token 為 null / Token id, null for legacy tokens */
+    public String getTokenId() {
+        return claims.getId();
+    }
+
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
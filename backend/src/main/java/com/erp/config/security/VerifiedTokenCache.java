@@ -0,0 +1,114 @@
+package com.erp.config.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @file VerifiedTokenCache.java
+ * @description 已驗證 Token 快取 / Verified Token Cache
+ * @description_en Bounded, expiry-aware cache of already verified JWTs so a hot
+ *                 token costs a single hash lookup instead of an HMAC check.
+ *                 Lookups take no lock: a hit only sets the entry's referenced
+ *                 bit. Past the limit, one thread at a time sweeps a CLOCK hand
+ *                 over the map, giving referenced entries a second chance and
+ *                 evicting the first one not read since the hand last passed,
+ *                 which approximates LRU at amortized O(1) per insert
+ * @description_zh 有上限且會依到期時間失效的已驗證 JWT 快取，熱門 Token 只需一次雜湊查找。
+ *                 查詢不加鎖，命中時只標記該項目已被讀取。超過上限時由單一執行緒以 CLOCK
+ *                 指針掃過快取：已標記者清除標記再給一次機會，移除第一個自上次掃過後未被讀取
+ *                 的項目，以攤銷 O(1) 近似 LRU
+ */
+class VerifiedTokenCache {
+
+    private final Map<String, Cached> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /** CLOCK 指針，由 evictionLock 保護 / The CLOCK hand, guarded by evictionLock */
+    private Iterator<Map.Entry<String, Cached>> hand;
+
+    private static final class Cached {
+        final VerifiedToken token;
+        volatile boolean referenced;
+
+        Cached(VerifiedToken token) {
+            this.token = token;
+        }
+    }
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    VerifiedToken get(String token) {
+        Cached cached = entries.get(token);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.token.isExpired(System.currentTimeMillis())) {
+            entries.remove(token, cached);
+            return null;
+        }
+        // 已標記時不再寫入，熱門 Token 不會爭用同一快取行 / Skip the write when set, so a hot token is read-only
+        if (!cached.referenced) {
+            cached.referenced = true;
+        }
+        return cached.token;
+    }
+
+    void put(String token, VerifiedToken verified) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(token, new Cached(verified));
+        if (entries.size() > maxSize) {
+            evict(token);
+        }
+    }
+
+    /**
+     * 推進 CLOCK 指針直到回到上限內；已有執行緒在淘汰時直接返回，由它代勞
+     * Advance the CLOCK hand until the cache is back within its limit. If
+     * another thread is already evicting, leave the work to it. The token just
+     * inserted is never the victim.
+     */
+    private void evict(String inserted) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            // 兩圈內必能清除標記並找到受害者 / Two laps always clear the bits and find a victim
+            int budget = 2 * (maxSize + 1);
+            while (entries.size() > maxSize && budget-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = entries.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Cached> entry = hand.next();
+                Cached cached = entry.getValue();
+                if (entry.getKey().equals(inserted) && !cached.token.isExpired(now)) {
+                    continue;
+                }
+                if (cached.referenced && !cached.token.isExpired(now)) {
+                    cached.referenced = false;
+                    continue;
+                }
+                entries.remove(entry.getKey(), cached);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+}
@@ -1,11 +1,18 @@
 package com.erp.controller;
 
+import com.erp.config.security.ClientIpResolver;
+import com.erp.config.security.JwtKeyRing;
+import com.erp.config.security.LoginThrottledException;
 import com.erp.dto.ApiResponse;
 import com.erp.dto.AuthRequest;
 import com.erp.dto.AuthResponse;
 import com.erp.dto.ChangePasswordRequest;
 import com.erp.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +20,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * @file AuthController.java
  * @description 認證控制器 / Auth Controller
@@ -25,6 +35,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtKeyRing jwtKeyRing;
+    private final ClientIpResolver clientIpResolver;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(
@@ -34,18 +46,33 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticate(
-            @RequestBody AuthRequest request) {
+            @RequestBody AuthRequest request,
+            HttpServletRequest httpRequest) {
         try {
-            return ResponseEntity.ok(authService.authenticate(request));
+            return ResponseEntity.ok(authService.authenticate(request, clientIpResolver.resolve(httpRequest)));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(ApiResponse.error("登入嘗試過於頻繁，請稍後再試 / Too many login attempts, please retry later"));
         } catch (org.springframework.security.authentication.BadCredentialsException e) {
             return ResponseEntity.status(401).body(ApiResponse.error("帳號或密碼錯誤 / Invalid credentials"));
-        } catch (java.util.NoSuchElementException e) {
-            return ResponseEntity.status(401).body(ApiResponse.error("找不到此使用者 / User not found"));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(ApiResponse.error("登入發生伺服器錯誤: " + e.getMessage()));
         }
     }
 
+    /**
+     * 驗證用公鑰 (JWKS)，供其他服務在本地驗證 Token；未知 kid 時應重新取得
+     * Public verification keys as a JWKS. Verifiers may cache it and should
+     * refetch when they meet an unknown kid.
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyRing.toJwks());
+    }
+
     @GetMapping("/me")
     public ResponseEntity<AuthResponse.UserInfo> getCurrentUser() {
         AuthResponse.UserInfo user = authService.getCurrentUser();
@@ -56,11 +83,12 @@ public class AuthController {
     }
 
     @PostMapping("/change-password")
-    public ResponseEntity<ApiResponse<Void>> changePassword(
+    public ResponseEntity<ApiResponse<AuthResponse>> changePassword(
             @RequestBody ChangePasswordRequest request) {
         try {
-            authService.changePassword(request);
-            return ResponseEntity.ok(ApiResponse.success("Password changed successfully", null));
+            // 其他 Token 已失效，回傳新的 Token 讓目前的工作階段延續 / Other tokens are revoked; keep this session going
+            AuthResponse response = authService.changePassword(request);
+            return ResponseEntity.ok(ApiResponse.success("Password changed successfully", response));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -71,4 +99,14 @@ public class AuthController {
         authService.logout();
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse<Void>> logoutAll() {
+        try {
+            authService.logoutAll();
+            return ResponseEntity.ok(ApiResponse.success("All sessions logged out", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(401).body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
@@ -1,12 +1,22 @@
 package com.erp.controller;
 
 import com.erp.dto.ApiResponse;
+import com.erp.dto.GitHubReconciliationReport;
+import com.erp.service.GitHubArchiveCache;
+import com.erp.service.GitHubCollaboratorReconciler;
 import com.erp.service.GitHubService;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +32,32 @@ import java.util.Map;
 public class GitHubController {
 
     private final GitHubService githubService;
+    private final GitHubCollaboratorReconciler collaboratorReconciler;
+
+    /**
+     * 啟動全組織協作者校正（背景執行）/ Start org-wide collaborator reconciliation in the background
+     */
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> startReconciliation() {
+        if (!collaboratorReconciler.startAll()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Reconciliation is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Reconciliation started", null));
+    }
+
+    /**
+     * 最近一次校正報告 / Report of the latest finished reconciliation
+     */
+    @GetMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<GitHubReconciliationReport>> getReconciliationReport() {
+        String message = collaboratorReconciler.isRunning() ? "Reconciliation is running"
+                : "Reconciliation report retrieved successfully";
+        return ResponseEntity.ok(ApiResponse.success(message, collaboratorReconciler.getLastReport().orElse(null)));
+    }
 
     /**
      * Create a new GitHub repository / 建立新的 GitHub 儲存庫
@@ -109,11 +145,26 @@ public class GitHubController {
             @PathVariable String owner,
             @PathVariable String repo,
             @RequestParam(required = false) String path,
+            @RequestParam(required = false) String branch,
             @RequestParam(required = false) String token) throws IOException {
-        List<Map<String, Object>> content = githubService.getRepoContent(token, owner + "/" + repo, path);
+        List<Map<String, Object>> content = githubService.getRepoContent(token, owner + "/" + repo, path, branch);
         return ResponseEntity.ok(ApiResponse.success("Repository content retrieved", content));
     }
 
+    /**
+     * Get the download URL of one file / 獲取單一檔案的下載連結
+     */
+    @GetMapping("/repos/{owner}/{repo}/contents/download-url")
+    public ResponseEntity<ApiResponse<String>> getFileDownloadUrl(
+            @PathVariable String owner,
+            @PathVariable String repo,
+            @RequestParam String path,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String token) throws IOException {
+        String url = githubService.getFileDownloadUrl(token, owner + "/" + repo, path, branch);
+        return ResponseEntity.ok(ApiResponse.success("Download URL retrieved", url));
+    }
+
     /**
      * Download repository archive (File Stream) / 下載儲存庫檔案流
      */
@@ -123,11 +174,68 @@ public class GitHubController {
             @PathVariable String repo,
             @RequestParam String branch,
             @RequestParam(required = false) String token,
-            jakarta.servlet.http.HttpServletResponse response) throws IOException {
-
-        response.setContentType("application/zip");
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + repo + "-" + branch + ".zip\"");
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        try (GitHubArchiveCache.Archive archive = githubService.getRepoArchive(token, owner + "/" + repo, branch)) {
+            String etag = "\"" + archive.sha() + "\"";
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + repo + "-" + branch + ".zip\"");
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            if (!archive.isComplete()) {
+                // 仍在下載：長度未知，邊下載邊傳送整個檔案 / Still downloading: stream it all, length unknown
+                archive.transferTo(out);
+                return;
+            }
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            sendRange(archive, request, response, out);
+        }
+    }
 
-        githubService.downloadRepoArchive(token, owner + "/" + repo, branch, response.getOutputStream());
+    /**
+     * 傳送已開啟的壓縮檔，支援單一 Range
+     * Send an opened archive with single-range support.
+     */
+    private void sendRange(GitHubArchiveCache.Archive archive, HttpServletRequest request,
+            HttpServletResponse response, WritableByteChannel out) throws IOException {
+        long length = archive.length();
+        long start = 0;
+        long end = length - 1;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean rangeApplies = range != null && range.startsWith("bytes=") && !range.contains(",")
+                && (ifRange == null || ifRange.equals(response.getHeader(HttpHeaders.ETAG)));
+        if (rangeApplies) {
+            String[] bounds = range.substring("bytes=".length()).trim().split("-", 2);
+            try {
+                if (bounds[0].isEmpty()) {
+                    // 末尾 N 位元組 / Last N bytes
+                    start = Math.max(0, length - Long.parseLong(bounds[1]));
+                } else {
+                    start = Long.parseLong(bounds[0]);
+                    if (bounds.length > 1 && !bounds[1].isEmpty()) {
+                        end = Math.min(Long.parseLong(bounds[1]), length - 1);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                start = length;
+            }
+            if (start >= length || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        archive.transferTo(start, end, out);
     }
 }
@@ -0,0 +1,74 @@
+package com.erp.controller;
+
+import com.erp.dto.ApiResponse;
+import com.erp.service.GitHubWebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file GitHubWebhookController.java
+ * @description GitHub Webhook 控制器 / GitHub Webhook Controller
+ * @description_en Receives GitHub webhook deliveries (authenticated by their
+ *                 HMAC signature, not a JWT) and lets admins inspect and replay
+ *                 stored deliveries
+ * @description_zh 接收 GitHub Webhook 投遞（以 HMAC 簽章驗證，而非 JWT），並提供管理員
+ *                 查看與重播已保存的投遞
+ */
+@RestController
+@RequestMapping("/api/v1/github/webhooks")
+@RequiredArgsConstructor
+public class GitHubWebhookController {
+
+    private final GitHubWebhookService webhookService;
+
+    /**
+     * 接收投遞；保存後立即回應，處理在背景進行
+     * Receive a delivery; respond as soon as it is stored and process it in the background.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<String>> receive(
+            @RequestHeader(value = "X-GitHub-Event", required = false) String event,
+            @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
+            @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+            @RequestBody byte[] body) {
+        try {
+            GitHubWebhookService.Result result = webhookService.receive(event, deliveryId, signature, body);
+            HttpStatus status = result == GitHubWebhookService.Result.ACCEPTED ? HttpStatus.ACCEPTED : HttpStatus.OK;
+            return ResponseEntity.status(status).body(ApiResponse.success("Webhook " + result.name().toLowerCase(),
+                    deliveryId));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 最近的投遞 / Recent deliveries
+     */
+    @GetMapping("/deliveries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getDeliveries() {
+        return ResponseEntity.ok(ApiResponse.success("Webhook deliveries retrieved successfully",
+                webhookService.getRecentDeliveries()));
+    }
+
+    /**
+     * 重播已保存的投遞 / Replay a stored delivery
+     */
+    @PostMapping("/deliveries/{deliveryId}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> replay(@PathVariable String deliveryId) {
+        webhookService.replay(deliveryId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Webhook delivery re-queued", null));
+    }
+}
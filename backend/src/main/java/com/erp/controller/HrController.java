@@ -1,5 +1,6 @@
 package com.erp.controller;
 
+import com.erp.config.security.CurrentUser;
 import com.erp.service.HrService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,11 +24,12 @@ import org.springframework.security.access.prepost.PreAuthorize;
 public class HrController {
 
     private final HrService hrService;
+    private final CurrentUser currentUser;
 
     @PostMapping("/heartbeat")
     public ResponseEntity<Void> heartbeat(Authentication auth) {
         if (auth != null && auth.getName() != null) {
-            hrService.updateHeartbeat(auth.getName());
+            hrService.updateHeartbeat(currentUser.getId());
         }
         return ResponseEntity.ok().build();
     }
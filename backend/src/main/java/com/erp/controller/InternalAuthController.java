@@ -0,0 +1,79 @@
+package com.erp.controller;
+
+import com.erp.dto.ApiResponse;
+import com.erp.dto.TokenIntrospectionRequest;
+import com.erp.dto.TokenIntrospectionResponse;
+import com.erp.service.TokenIntrospectionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * @file InternalAuthController.java
+ * @description 內部認證控制器 / Internal Auth Controller
+ * @description_en Token introspection for internal services such as the Go
+ *                 messaging-service. Authenticated by a shared API key header
+ *                 instead of a user token
+ * @description_zh 供內部服務（例如 Go 即時通訊服務）使用的 Token 檢查 API，以共用的
+ *                 API 金鑰標頭認證，而非使用者 Token
+ */
+@RestController
+@RequestMapping("/api/v1/internal/auth")
+@RequiredArgsConstructor
+public class InternalAuthController {
+
+    private static final String API_KEY_HEADER = "X-Internal-Api-Key";
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final TokenIntrospectionService introspectionService;
+
+    @Value("${application.internal.api-key:}")
+    private String internalApiKey;
+
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody TokenIntrospectionRequest request) {
+        if (!isAuthorized(apiKey)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Invalid internal API key"));
+        }
+        return ResponseEntity.ok(introspectionService.introspect(request.getToken()));
+    }
+
+    @PostMapping("/introspect/batch")
+    public ResponseEntity<?> introspectBatch(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody TokenIntrospectionRequest request) {
+        if (!isAuthorized(apiKey)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Invalid internal API key"));
+        }
+        List<String> tokens = request.getTokens() != null ? request.getTokens() : List.of();
+        if (tokens.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("At most " + MAX_BATCH_SIZE + " tokens per batch"));
+        }
+        List<TokenIntrospectionResponse> results = introspectionService.introspectAll(tokens);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * 未設定金鑰時一律拒絕；以常數時間比較 / Rejects all when unset; constant-time compare
+     */
+    private boolean isAuthorized(String apiKey) {
+        if (internalApiKey == null || internalApiKey.isBlank() || apiKey == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                internalApiKey.getBytes(StandardCharsets.UTF_8),
+                apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
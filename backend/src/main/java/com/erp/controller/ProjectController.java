@@ -1,13 +1,24 @@
 package com.erp.controller;
 
 import com.erp.dto.ApiResponse;
+import com.erp.dto.GitHubReconciliationReport;
+import com.erp.dto.ProjectActivityResponse;
+import com.erp.dto.ProjectOverviewResponse;
+import com.erp.dto.ProjectPageResponse;
 import com.erp.dto.ProjectRequest;
 import com.erp.dto.ProjectResponse;
+import com.erp.entity.ProjectStatus;
+import com.erp.service.ProjectActivityService;
+import com.erp.service.ProjectOverviewService;
 import com.erp.service.ProjectService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -22,6 +33,8 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final ProjectOverviewService projectOverviewService;
+    private final ProjectActivityService projectActivityService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<ProjectResponse>>> getAllProjects() {
@@ -29,6 +42,61 @@ public class ProjectController {
                 .ok(ApiResponse.success("Projects retrieved successfully", projectService.getAllProjects()));
     }
 
+    /**
+     * 游標分頁與篩選 / Keyset pagination with filters
+     * 例如 GET /api/v1/projects/page?limit=20&status=IN_PROGRESS&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<ProjectPageResponse>> getProjectPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) ProjectStatus status,
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String memberId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Projects retrieved successfully",
+                    projectService.getProjectPage(cursor, limit, status, client, from, to, memberId)));
+        } catch (IllegalArgumentException e) {
+            // 僅無效游標屬於用戶端錯誤，其餘交由預設處理回傳 500 / Only a bad cursor is the client's fault
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 專案頁面總覽：專案、成員、任務、財務摘要與檔案一次取得
+     * Project page overview: project, members, tasks, financial summary and files in one call
+     */
+    @GetMapping("/{id}/overview")
+    public ResponseEntity<ApiResponse<ProjectOverviewResponse>> getProjectOverview(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Project overview retrieved successfully",
+                    projectOverviewService.getOverview(id)));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 專案 GitHub 活動統計（由本機資料提供）/ GitHub activity aggregates, served from local tables
+     */
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<ApiResponse<ProjectActivityResponse>> getProjectActivity(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "12") int weeks) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Project activity retrieved successfully",
+                    projectActivityService.getActivity(id, weeks)));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProjectResponse>> getProjectById(@PathVariable String id) {
         return ResponseEntity
@@ -64,8 +132,22 @@ public class ProjectController {
     }
 
     @PostMapping("/{id}/github/sync-members")
-    public ResponseEntity<ApiResponse<Void>> syncGithubMembers(@PathVariable String id) {
-        projectService.forceSyncGithubCollaborators(id);
-        return ResponseEntity.ok(ApiResponse.success("GitHub members synced successfully", null));
+    public ResponseEntity<ApiResponse<GitHubReconciliationReport.ProjectResult>> syncGithubMembers(
+            @PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success("GitHub members synced successfully",
+                projectService.forceSyncGithubCollaborators(id)));
+    }
+
+    /**
+     * 重試失敗的 GitHub 操作（建立倉庫、協作者變更）/ Retry failed GitHub operations
+     */
+    @PostMapping("/{id}/github/retry")
+    public ResponseEntity<ApiResponse<Integer>> retryGithubSync(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("GitHub operations re-queued",
+                    projectService.retryGithubSync(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
 }
@@ -1,12 +1,21 @@
 package com.erp.controller;
 
+import com.erp.dto.ApiResponse;
+import com.erp.dto.CalendarTaskResponse;
+import com.erp.dto.TaskBulkUpdateRequest;
+import com.erp.dto.TaskBulkUpdateResponse;
+import com.erp.dto.TaskMoveRequest;
+import com.erp.dto.TaskMoveResponse;
+import com.erp.dto.TaskReminderResponse;
 import com.erp.dto.TaskRequest;
 import com.erp.dto.TaskResponse;
 import com.erp.service.TaskService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -27,13 +36,27 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getTasksByProjectId(projectId));
     }
 
+    /**
+     * 行事曆任務，截止日落在 [from, to)；未指定時為本月前後各一週
+     * Calendar tasks due in [from, to); defaults to this month plus a week either side
+     */
     @GetMapping("/tasks/my-calendar-tasks")
-    public ResponseEntity<List<TaskResponse>> getMyCalendarTasks() {
-        return ResponseEntity.ok(taskService.getMyCalendarTasks());
+    public ResponseEntity<?> getMyCalendarTasks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now().withDayOfMonth(1).minusWeeks(1);
+        LocalDate end = to != null ? to : start.plusWeeks(1).plusMonths(1).plusWeeks(1);
+        try {
+            List<CalendarTaskResponse> tasks = taskService.getMyCalendarTasks(start, end);
+            return ResponseEntity.ok(tasks);
+        } catch (IllegalArgumentException e) {
+            // 無效的時間範圍屬於用戶端錯誤 / An invalid window is the client's fault
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/tasks/reminders")
-    public ResponseEntity<List<TaskResponse>> getReminders() {
+    public ResponseEntity<List<TaskReminderResponse>> getReminders() {
         return ResponseEntity.ok(taskService.getReminders());
     }
 
@@ -49,6 +72,28 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTask(id, request));
     }
 
+    /**
+     * 移動看板卡片（換欄與排序一次完成）/ Move a board card: column and position in one call
+     */
+    @PostMapping("/tasks/move")
+    public ResponseEntity<TaskMoveResponse> moveTask(@RequestBody TaskMoveRequest request) {
+        return ResponseEntity.ok(taskService.moveTask(request));
+    }
+
+    /**
+     * 批次修改狀態、負責人或優先度 / Bulk-change status, assignee or priority
+     */
+    @PatchMapping("/tasks/bulk")
+    public ResponseEntity<?> bulkUpdateTasks(@RequestBody TaskBulkUpdateRequest request) {
+        try {
+            TaskBulkUpdateResponse response = taskService.bulkUpdateTasks(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            // 空的或過多的 taskIds 屬於用戶端錯誤 / Missing or too many taskIds is the client's fault
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/tasks/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable String id) {
         taskService.deleteTask(id);
@@ -1,5 +1,6 @@
 package com.erp.controller;
 
+import com.erp.config.security.CurrentUser;
 import com.erp.entity.User;
 import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final CurrentUser currentUser;
 
     @PostMapping("/avatar")
     public ResponseEntity<Void> uploadAvatar(@RequestParam("file") MultipartFile file) {
@@ -38,10 +40,6 @@ public class UserController {
             return ResponseEntity.status(401).build();
         }
 
-        String loginId = authentication.getName();
-        User currentUser = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         userService.updateAvatar(currentUser.getId(), file);
         return ResponseEntity.ok().build();
     }
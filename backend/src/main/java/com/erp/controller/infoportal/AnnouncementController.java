@@ -1,14 +1,11 @@
 package com.erp.controller.infoportal;
 
-import com.erp.entity.User;
+import com.erp.config.security.CurrentUser;
 import com.erp.entity.infoportal.Announcement;
-import com.erp.repository.UserRepository;
 import com.erp.service.infoportal.AnnouncementService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,7 +16,7 @@ import java.util.List;
 public class AnnouncementController {
 
     private final AnnouncementService announcementService;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @GetMapping
     public ResponseEntity<List<Announcement>> getAnnouncements() {
@@ -28,12 +25,8 @@ public class AnnouncementController {
 
     @PostMapping
     public ResponseEntity<Announcement> createAnnouncement(@RequestBody CreateAnnouncementRequest request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User author = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         return ResponseEntity.ok(announcementService.createAnnouncement(
-                request.getTitle(), request.getContent(), request.getType(), author.getId()));
+                request.getTitle(), request.getContent(), request.getType(), currentUser.getId()));
     }
 
     @GetMapping("/{id}")
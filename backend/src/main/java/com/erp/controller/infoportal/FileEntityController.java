@@ -1,16 +1,13 @@
 package com.erp.controller.infoportal;
 
-import com.erp.entity.User;
+import com.erp.config.security.CurrentUser;
 import com.erp.entity.infoportal.FileEntity;
-import com.erp.repository.UserRepository;
 import com.erp.service.infoportal.FileEntityService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,7 +20,7 @@ import java.util.List;
 public class FileEntityController {
 
     private final FileEntityService fileEntityService;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @GetMapping
     public ResponseEntity<List<FileEntity>> getFiles(@RequestParam String directoryId) {
@@ -35,13 +32,7 @@ public class FileEntityController {
             @RequestParam("directoryId") String directoryId,
             @RequestParam("file") MultipartFile file) {
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User uploader = userRepository.findByUsernameOrEmployeeIdOrEmail(auth.getName(), auth.getName(), auth.getName())
-                .orElse(null); // Should exist if authenticated
-
-        String uploaderId = (uploader != null) ? uploader.getId() : null;
-
-        return ResponseEntity.ok(fileEntityService.uploadFile(directoryId, uploaderId, file));
+        return ResponseEntity.ok(fileEntityService.uploadFile(directoryId, currentUser.getId(), file));
     }
 
     @GetMapping("/download/{id}")
@@ -1,16 +1,13 @@
 package com.erp.controller.infoportal;
 
-import com.erp.entity.User;
+import com.erp.config.security.CurrentUser;
 import com.erp.entity.infoportal.FileEntity;
 import com.erp.entity.infoportal.ShareLink;
-import com.erp.repository.UserRepository;
 import com.erp.service.infoportal.FileEntityService;
 import com.erp.service.infoportal.ShareLinkService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,16 +21,12 @@ public class ShareLinkController {
 
     private final ShareLinkService shareLinkService;
     private final FileEntityService fileEntityService;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @PostMapping
     public ResponseEntity<ShareLink> createShareLink(@RequestBody CreateShareLinkRequest request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User creator = userRepository.findByUsernameOrEmployeeIdOrEmail(auth.getName(), auth.getName(), auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         return ResponseEntity.ok(shareLinkService.createShareLink(
-                request.getDirectoryId(), creator.getId(), request.getExpireDays()));
+                request.getDirectoryId(), currentUser.getId(), request.getExpireDays()));
     }
 
     // Public endpoint for non-logged-in users
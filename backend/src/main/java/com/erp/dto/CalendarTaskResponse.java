@@ -0,0 +1,54 @@
+package com.erp.dto;
+
+import com.erp.entity.TaskPriority;
+import com.erp.entity.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file CalendarTaskResponse.java
+ * @description 行事曆任務 DTO / Calendar Task Response DTO
+ * @description_en Slim task row for the calendar, built directly by a JPQL
+ *                 constructor expression so no entity or lazy association is loaded
+ * @description_zh 行事曆用的精簡任務資料，由 JPQL 建構式直接產生，不載入實體或延遲關聯
+ */
+@Data
+@NoArgsConstructor
+public class CalendarTaskResponse {
+    private String id;
+    private String title;
+    private TaskStatus status;
+    private TaskPriority priority;
+    private LocalDateTime deadline;
+    private String description;
+    private String projectId;
+    private String projectTitle;
+    private Person assignee;
+    private Person reporter;
+
+    public CalendarTaskResponse(String id, String title, TaskStatus status, TaskPriority priority,
+            LocalDateTime deadline, String description, String projectId, String projectTitle,
+            String assigneeId, String assigneeName, String reporterId, String reporterName) {
+        this.id = id;
+        this.title = title;
+        this.status = status;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.description = description;
+        this.projectId = projectId;
+        this.projectTitle = projectTitle;
+        this.assignee = assigneeId != null ? new Person(assigneeId, assigneeName) : null;
+        this.reporter = reporterId != null ? new Person(reporterId, reporterName) : null;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Person {
+        private String id;
+        private String name;
+    }
+}
@@ -0,0 +1,59 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file GitHubReconciliationReport.java
+ * @description GitHub 協作者校正報告 DTO / GitHub Reconciliation Report DTO
+ * @description_en Outcome of one collaborator reconciliation run, per project
+ * @description_zh 一次協作者校正作業的結果，依專案列出
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GitHubReconciliationReport {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+    private int projectCount;
+    private int changedCount;
+    private int failedCount;
+    private List<ProjectResult> projects;
+
+    public enum Outcome {
+        /** 已一致 / Already in sync */
+        UNCHANGED,
+        CHANGED,
+        /** 發件匣仍有待處理的操作 / Outbox still has pending operations */
+        SKIPPED,
+        FAILED
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProjectResult {
+        private String projectId;
+        private String title;
+        private String githubRepo;
+        private Outcome outcome;
+        @Builder.Default
+        private List<String> added = new ArrayList<>();
+        @Builder.Default
+        private List<String> removed = new ArrayList<>();
+        /** 不在團隊中但保留的直接協作者（倉庫或組織管理員）/ Direct collaborators kept although not on the team: repo or org admins */
+        @Builder.Default
+        private List<String> kept = new ArrayList<>();
+        @Builder.Default
+        private List<String> errors = new ArrayList<>();
+    }
+}
@@ -0,0 +1,44 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @file ProjectActivityResponse.java
+ * @description 專案 GitHub 活動統計 DTO / Project Activity Response DTO
+ * @description_en GitHub activity aggregates of a project's linked repository,
+ *                 computed from locally ingested data
+ * @description_zh 專案綁定倉庫的 GitHub 活動統計，由本機已同步的資料計算
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjectActivityResponse {
+
+    private String githubRepo;
+    private String githubBranch;
+    /** 每週提交數（由舊到新，包含 0 的週）/ Commits per week, oldest first, including empty weeks */
+    private List<WeeklyCommits> commitsPerWeek;
+    private long openPullRequests;
+    private long pullRequestsMergedLast30Days;
+    private long openIssues;
+    /** 最後一次成功同步時間，null 表示尚未同步 / Last successful sync, null if never synced */
+    private LocalDateTime lastSyncedAt;
+    private String lastSyncError;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WeeklyCommits {
+        /** 該週週一 / Monday of the week */
+        private LocalDate weekStart;
+        private long commits;
+    }
+}
@@ -0,0 +1,32 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file ProjectOverviewResponse.java
+ * @description 專案總覽回應 DTO / Project Overview Response DTO
+ * @description_en Everything the project page needs in one payload. A section
+ *                 that failed or timed out is null and its reason is listed in
+ *                 {@code errors} under the same name
+ * @description_zh 專案頁面所需的全部資料。失敗或逾時的區塊為 null，原因以相同名稱記錄於
+ *                 {@code errors}
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjectOverviewResponse {
+    private ProjectResponse project;
+    private List<ProjectResponse.MemberInfo> members;
+    private List<TaskResponse> tasks;
+    private Map<String, Object> financialSummary;
+    private List<String> files;
+    /** 區塊名稱 → 失敗原因 / Section name to failure reason */
+    private Map<String, String> errors;
+}
@@ -0,0 +1,25 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @file ProjectPageResponse.java
+ * @description 專案分頁回應 DTO / Project Page Response DTO
+ * @description_en One page of projects plus the opaque cursor of the next page
+ * @description_zh 一頁專案資料，以及取得下一頁用的游標
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjectPageResponse {
+    private List<ProjectResponse> items;
+    /** 下一頁游標，沒有更多資料時為 null / Cursor of the next page, null on the last page */
+    private String nextCursor;
+    private boolean hasMore;
+}
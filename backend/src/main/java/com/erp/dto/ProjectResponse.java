@@ -1,5 +1,6 @@
 package com.erp.dto;
 
+import com.erp.entity.GitHubSyncStatus;
 import com.erp.entity.ProjectStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,7 +35,8 @@ public class ProjectResponse {
     private String githubRepo;
     private String githubBranch;
     private String backupConfig;
-    private String githubToken;
+    private GitHubSyncStatus githubSyncStatus;
+    private String githubSyncError;
     private String fileLocation;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,28 @@
+package com.erp.dto;
+
+import com.erp.entity.TaskPriority;
+import com.erp.entity.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @file TaskBulkUpdateRequest.java
+ * @description 任務批次修改請求 DTO / Task Bulk Update Request DTO
+ * @description_en One patch applied to many tasks; null fields are unchanged and
+ *                 an empty assigneeId unassigns
+ * @description_zh 套用到多個任務的同一組修改；null 欄位不變，assigneeId 為空字串時取消指派
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBulkUpdateRequest {
+    private List<String> taskIds;
+    private TaskStatus status;
+    private TaskPriority priority;
+    private String assigneeId;
+}
@@ -0,0 +1,23 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @file TaskBulkUpdateResponse.java
+ * @description 任務批次修改回應 DTO / Task Bulk Update Response DTO
+ * @description_en Number of tasks updated and the requested ids that do not exist
+ * @description_zh 更新的任務數，以及不存在的任務 ID
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBulkUpdateResponse {
+    private int updated;
+    private List<String> notFound;
+}
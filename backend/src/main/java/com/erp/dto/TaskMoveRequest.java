@@ -0,0 +1,28 @@
+package com.erp.dto;
+
+import com.erp.entity.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @file TaskMoveRequest.java
+ * @description 看板移動請求 DTO / Task Move Request DTO
+ * @description_en Moves one card to a column and position. Give the card it now
+ *                 follows (prevTaskId) or precedes (nextTaskId); with neither,
+ *                 the card goes to the end of the column
+ * @description_zh 將一張卡片移到指定欄與位置。提供其上方 (prevTaskId) 或下方 (nextTaskId)
+ *                 的卡片；皆未提供時放到該欄最後
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskMoveRequest {
+    private String taskId;
+    /** 目標欄，null 表示不變 / Target column, null to keep the current one */
+    private TaskStatus status;
+    private String prevTaskId;
+    private String nextTaskId;
+}
@@ -0,0 +1,23 @@
+package com.erp.dto;
+
+import com.erp.entity.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @file TaskMoveResponse.java
+ * @description 看板移動回應 DTO / Task Move Response DTO
+ * @description_en New column and rank of the moved card
+ * @description_zh 移動後卡片所在的欄與排序鍵
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskMoveResponse {
+    private String id;
+    private TaskStatus status;
+    private String rank;
+}
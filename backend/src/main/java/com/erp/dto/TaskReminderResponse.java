@@ -0,0 +1,31 @@
+package com.erp.dto;
+
+import com.erp.entity.TaskPriority;
+import com.erp.entity.TaskReminderState;
+import com.erp.entity.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file TaskReminderResponse.java
+ * @description 任務提醒回應 DTO / Task Reminder Response DTO
+ * @description_en A task that is due soon or overdue, served from the reminder engine
+ * @description_zh 即將到期或已逾期的任務，由提醒引擎直接提供
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskReminderResponse {
+    private String id;
+    private String title;
+    private String projectId;
+    private TaskStatus status;
+    private TaskPriority priority;
+    private LocalDateTime deadline;
+    private TaskReminderState reminder;
+}
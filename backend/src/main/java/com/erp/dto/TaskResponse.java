@@ -24,6 +24,7 @@ public class TaskResponse {
     private String title;
     private TaskStatus status;
     private Integer orderIndex;
+    private String rank;
     private String projectId;
     private AssigneeInfo assignee;
     private LocalDateTime createdAt;
@@ -0,0 +1,23 @@
+package com.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @file TokenIntrospectionRequest.java
+ * @description Token 檢查請求 DTO / Token Introspection Request DTO
+ * @description_en Single token for /introspect, or a list for /introspect/batch
+ * @description_zh 單一 Token 用於 /introspect，多個 Token 用於 /introspect/batch
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospectionRequest {
+    private String token;
+    private List<String> tokens;
+}
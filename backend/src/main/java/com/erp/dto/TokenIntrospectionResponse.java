@@ -0,0 +1,31 @@
+package com.erp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @file TokenIntrospectionResponse.java
+ * @description Token 檢查回應 DTO / Token Introspection Response DTO
+ * @description_en Whether a token is active and, if so, who it belongs to
+ * @description_zh Token 是否有效，以及有效時的所屬使用者
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionResponse {
+    private boolean active;
+    private String id;
+    private String name;
+    private String username;
+    private String role;
+    private String avatar;
+
+    public static TokenIntrospectionResponse inactive() {
+        return TokenIntrospectionResponse.builder().active(false).build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file GitHubActivityCursor.java
+ * @description GitHub 活動同步游標實體 / GitHub Activity Cursor Entity
+ * @description_en Per-repository high-water marks of the activity ingestion;
+ *                 the next run only asks GitHub for changes after them
+ * @description_zh 每個倉庫活動同步的進度標記，下次同步只向 GitHub 取得之後的變更
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "github_activity_cursors")
+public class GitHubActivityCursor {
+
+    /** 小寫的 owner/repo / Lower-case owner/repo */
+    @Id
+    private String repo;
+
+    /** 追蹤的分支，null 為預設分支 / Tracked branch, null for the default branch */
+    private String branch;
+
+    /** 上次同步時分支的最新提交，下次由此比對 / Branch head at the last sync, compared from next time */
+    private String commitsHead;
+
+    /** 已取得的最新提交時間，無法比對時使用 / Latest commit time ingested, used when no comparison is possible */
+    private LocalDateTime commitsSince;
+
+    /** 已取得的合併請求最新更新時間 / Latest pull request update ingested */
+    private LocalDateTime pullsSince;
+
+    /** 已取得的 Issue 最新更新時間 / Latest issue update ingested */
+    private LocalDateTime issuesSince;
+
+    private LocalDateTime lastSyncedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+}
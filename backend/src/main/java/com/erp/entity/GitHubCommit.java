@@ -0,0 +1,49 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file GitHubCommit.java
+ * @description GitHub 提交紀錄實體 / GitHub Commit Entity
+ * @description_en A commit on a linked repository's tracked branch, copied
+ *                 locally by GitHubActivityIngester
+ * @description_zh 已綁定倉庫追蹤分支上的一筆提交，由 GitHubActivityIngester 複製到本機
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "github_commits", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_github_commits_repo_sha", columnNames = { "repo", "sha" })
+}, indexes = {
+        @Index(name = "idx_github_commits_repo_time", columnList = "repo, committed_at")
+})
+public class GitHubCommit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 小寫的 owner/repo / Lower-case owner/repo */
+    @Column(nullable = false)
+    private String repo;
+
+    @Column(nullable = false, length = 40)
+    private String sha;
+
+    private String authorName;
+
+    /** 提交訊息第一行 / First line of the commit message */
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "committed_at", nullable = false)
+    private LocalDateTime committedAt;
+}
@@ -0,0 +1,89 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file GitHubOutboxEntry.java
+ * @description GitHub 發件匣項目實體 / GitHub Outbox Entry Entity
+ * @description_en One GitHub side effect written in the same transaction as the
+ *                 project change that caused it, and executed later by
+ *                 GitHubOutboxWorker. Entries of a project run one at a time in
+ *                 id order
+ * @description_zh 與觸發它的專案變更於同一交易寫入的 GitHub 操作，稍後由
+ *                 GitHubOutboxWorker 執行。同一專案的項目依 ID 順序逐一執行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "github_outbox", indexes = {
+        @Index(name = "idx_github_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_github_outbox_project", columnList = "project_id, id")
+})
+public class GitHubOutboxEntry {
+
+    public enum Operation {
+        CREATE_REPOSITORY,
+        ADD_COLLABORATOR,
+        REMOVE_COLLABORATOR
+    }
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    /** 遞增 ID，決定同一專案內的執行順序 / Increasing id, the per-project execution order */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private String projectId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    /** 組織內的倉庫名稱（不含組織前綴）/ Repository name inside the organization */
+    @Column(nullable = false)
+    private String repoName;
+
+    private String githubUsername;
+
+    /** GHOrganization.Permission 名稱 / GHOrganization.Permission name */
+    private String permission;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private Boolean privateRepo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** 下次可執行時間；處理中時為租約到期時間 / Next run time; the lease expiry while running */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,60 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file GitHubPullRequest.java
+ * @description GitHub 合併請求實體 / GitHub Pull Request Entity
+ * @description_en Latest known state of a pull request on a linked repository
+ * @description_zh 已綁定倉庫上合併請求的最新狀態
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "github_pull_requests", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_github_pull_requests_repo_number", columnNames = { "repo", "number" })
+}, indexes = {
+        @Index(name = "idx_github_pull_requests_repo_state", columnList = "repo, state")
+})
+public class GitHubPullRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 小寫的 owner/repo / Lower-case owner/repo */
+    @Column(nullable = false)
+    private String repo;
+
+    @Column(nullable = false)
+    private Integer number;
+
+    @Column(length = 500)
+    private String title;
+
+    /** OPEN 或 CLOSED / OPEN or CLOSED */
+    @Column(nullable = false)
+    private String state;
+
+    private String authorLogin;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Column(name = "merged_at")
+    private LocalDateTime mergedAt;
+}
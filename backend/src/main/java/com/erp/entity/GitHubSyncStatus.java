@@ -0,0 +1,14 @@
+package com.erp.entity;
+
+/**
+ * @file GitHubSyncStatus.java
+ * @description GitHub 同步狀態枚舉 / GitHub Sync Status Enum
+ * @description_en State of a project's queued GitHub side effects; null when the
+ *                 project never queued any
+ * @description_zh 專案待執行 GitHub 操作的狀態 (已同步, 處理中, 失敗)；從未排入操作時為 null
+ */
+public enum GitHubSyncStatus {
+    SYNCED,
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,76 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file GitHubWebhookDelivery.java
+ * @description GitHub Webhook 投遞實體 / GitHub Webhook Delivery Entity
+ * @description_en One verified webhook delivery, stored as received before the
+ *                 response is sent and processed later by GitHubWebhookWorker.
+ *                 The GitHub delivery id is unique, so redeliveries are ignored
+ * @description_zh 一筆已驗證的 Webhook 投遞，於回應前原樣保存，稍後由
+ *                 GitHubWebhookWorker 處理。GitHub 投遞 ID 唯一，重送時直接略過
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "github_webhook_deliveries", indexes = {
+        @Index(name = "idx_github_webhook_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_github_webhook_repo", columnList = "repo_full_name, id")
+})
+public class GitHubWebhookDelivery {
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** X-GitHub-Delivery 標頭 / The X-GitHub-Delivery header */
+    @Column(nullable = false, unique = true)
+    private String deliveryId;
+
+    /** X-GitHub-Event 標頭，例如 push、member / The X-GitHub-Event header, e.g. push, member */
+    @Column(nullable = false)
+    private String event;
+
+    private String action;
+
+    /** owner/repo */
+    private String repoFullName;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** 下次可處理時間；處理中時為租約到期時間 / Next run time; the lease expiry while running */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
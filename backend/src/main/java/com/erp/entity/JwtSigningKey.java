@@ -0,0 +1,51 @@
+package com.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * @file JwtSigningKey.java
+ * @description JWT 簽章金鑰實體 / JWT Signing Key Entity
+ * @description_en One RSA key pair of the JWT key ring. The newest non-retired
+ *                 key signs new tokens; retired keys keep verifying until every
+ *                 token they signed has expired
+ * @description_zh JWT 金鑰環中的一組 RSA 金鑰。最新且未退役的金鑰負責簽發新 Token；
+ *                 退役金鑰持續用於驗證，直到其簽發的 Token 全部過期
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    /** 金鑰 ID，即 JWT 標頭中的 kid / Key id, the kid header of a JWT */
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String algorithm;
+
+    /** Base64 編碼的 X.509 公鑰 / Base64 X.509 public key */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    /** 以 AES-GCM 加密的 PKCS#8 私鑰 (見 JwtKeyCipher) / AES-GCM encrypted PKCS#8 private key, see JwtKeyCipher */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /** 停止簽發新 Token 的時間 / When the key stopped signing new tokens */
+    private LocalDateTime retiredAt;
+
+    /** 不再用於驗證的時間 / When the key stops verifying tokens */
+    private LocalDateTime expiresAt;
+}
@@ -25,7 +25,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        // 支援 (updatedAt, id) 游標分頁與各篩選條件 / Back keyset paging and its filters
+        @Index(name = "idx_projects_updated_id", columnList = "updated_at DESC, id DESC"),
+        @Index(name = "idx_projects_status_updated_id", columnList = "status, updated_at DESC, id DESC"),
+        @Index(name = "idx_projects_client_updated_id", columnList = "client, updated_at DESC, id DESC"),
+        @Index(name = "idx_projects_creator_updated_id", columnList = "creator_id, updated_at DESC, id DESC")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Project {
 
@@ -52,9 +58,29 @@ public class Project {
     @Column(nullable = false)
     private ProjectStatus status;
 
-    @Column(nullable = false)
+    /** 由任務計數器維護，讀取時不需統計任務 / Maintained from the task counters below */
+    @Column(nullable = false, updatable = false)
     private Integer progress;
 
+    // ========================================
+    // 任務計數器 / Task Counters
+    // 僅由 ProjectRepository 的原子更新修改；實體儲存時不寫入，避免覆蓋並行的變更
+    // Only changed by atomic updates in ProjectRepository; entity saves never
+    // write them, so a stale copy cannot overwrite concurrent changes.
+    // ========================================
+
+    @Builder.Default
+    @Column(name = "task_todo_count", updatable = false, columnDefinition = "integer default 0 not null")
+    private Integer taskTodoCount = 0;
+
+    @Builder.Default
+    @Column(name = "task_doing_count", updatable = false, columnDefinition = "integer default 0 not null")
+    private Integer taskDoingCount = 0;
+
+    @Builder.Default
+    @Column(name = "task_done_count", updatable = false, columnDefinition = "integer default 0 not null")
+    private Integer taskDoneCount = 0;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -70,6 +96,17 @@ public class Project {
     @Column
     private String githubToken;
 
+    /**
+     * 待執行 GitHub 操作的狀態，僅由 ProjectRepository 的更新修改
+     * State of queued GitHub side effects; only changed by ProjectRepository updates.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private GitHubSyncStatus githubSyncStatus;
+
+    @Column(columnDefinition = "TEXT", updatable = false)
+    private String githubSyncError;
+
     @Column
     private String fileLocation;
 
@@ -77,8 +114,9 @@ public class Project {
     @JoinColumn(name = "creator_id")
     private User creator;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(name = "project_members", joinColumns = @JoinColumn(name = "project_id"), inverseJoinColumns = @JoinColumn(name = "user_id"))
+    // 延遲載入；列表以批次查詢取得成員 / Lazy; list views fetch members in one batch
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "project_members", joinColumns = @JoinColumn(name = "project_id"), inverseJoinColumns = @JoinColumn(name = "user_id"), indexes = @Index(name = "idx_project_members_user_project", columnList = "user_id, project_id"))
     @Builder.Default
     private Set<User> team = new HashSet<>();
 
@@ -22,7 +22,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_board_rank", columnList = "project_id, status, board_rank"),
+        @Index(name = "idx_tasks_project_deadline", columnList = "project_id, deadline")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Task {
 
@@ -37,9 +40,14 @@ public class Task {
     @Column(nullable = false)
     private TaskStatus status;
 
+    /** 舊的整數排序，已由 rank 取代 / Legacy integer order, superseded by rank */
     @Column(name = "order_index")
     private Integer orderIndex;
 
+    /** 看板欄內的分數排序鍵，見 TaskRank / Fractional order within its board column, see TaskRank */
+    @Column(name = "board_rank", columnDefinition = "varchar(64) COLLATE \"C\"")
+    private String rank;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     private Project project;
@@ -75,4 +83,15 @@ public class Task {
 
     @Column(name = "spent_minutes")
     private Integer spentMinutes;
+
+    /**
+     * 已送出的截止提醒，改截止時間時重設；null 視為 NONE。僅由條件式 UPDATE 寫入，
+     * 儲存實體時不會把讀到的舊值寫回
+     * Reminder already sent, reset with the deadline; null means NONE. Only
+     * written by targeted UPDATEs, so saving the entity never writes back a
+     * stale value.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reminder_state", length = 20, updatable = false)
+    private TaskReminderState reminderState;
 }
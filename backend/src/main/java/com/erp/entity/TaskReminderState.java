@@ -0,0 +1,14 @@
+package com.erp.entity;
+
+/**
+ * @file TaskReminderState.java
+ * @description 任務提醒狀態枚舉 / Task Reminder State Enum
+ * @description_en Deadline reminder already sent for a task; only moves forward
+ *                 until the deadline changes
+ * @description_zh 任務已送出的截止提醒 (未提醒, 即將到期, 已逾期)，截止時間變更前只會前進
+ */
+public enum TaskReminderState {
+    NONE,
+    DUE_SOON,
+    OVERDUE
+}
@@ -64,6 +64,14 @@ public class User {
 
     private String avatar;
 
+    /**
+     * 安全戳記：變更時使既有 Token 全部失效
+     * Security stamp; rotating it invalidates every token issued before.
+     */
+    @Column(name = "security_stamp")
+    private String securityStamp;
+
+    // 舊欄位：在線狀態已改由 PresenceService (Redis) 維護 / Legacy, presence now lives in Redis
     @Builder.Default
     @Column(name = "is_online", nullable = false, columnDefinition = "boolean default false")
     private boolean isOnline = false;
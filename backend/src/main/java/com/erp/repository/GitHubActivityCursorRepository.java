@@ -0,0 +1,21 @@
+package com.erp.repository;
+
+import com.erp.entity.GitHubActivityCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * @file GitHubActivityCursorRepository.java
+ * @description GitHub 活動同步游標資料庫操作介面 / GitHub Activity Cursor Repository
+ * @description_en Database operations for per-repository ingestion cursors
+ * @description_zh 提供各倉庫活動同步游標的資料庫存取
+ */
+@Repository
+public interface GitHubActivityCursorRepository extends JpaRepository<GitHubActivityCursor, String> {
+
+    @Query("SELECT c.repo FROM GitHubActivityCursor c")
+    List<String> findAllRepos();
+}
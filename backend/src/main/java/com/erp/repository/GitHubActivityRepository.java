@@ -0,0 +1,63 @@
+package com.erp.repository;
+
+import com.erp.entity.GitHubCommit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @file GitHubActivityRepository.java
+ * @description GitHub 活動資料庫操作介面 / GitHub Activity Repository
+ * @description_en Aggregates over the locally ingested commits, pull requests
+ *                 and issues of a repository
+ * @description_zh 針對本機已同步的提交、合併請求與 Issue 的統計查詢
+ */
+@Repository
+public interface GitHubActivityRepository extends JpaRepository<GitHubCommit, Long> {
+
+    /**
+     * 每週提交數，week 為該週週一 (yyyy-MM-dd) / Commits per week, keyed by its Monday (yyyy-MM-dd)
+     */
+    interface WeekCount {
+        String getWeek();
+
+        long getCount();
+    }
+
+    @Query(value = "SELECT to_char(date_trunc('week', c.committed_at), 'YYYY-MM-DD') AS week, COUNT(*) AS count " +
+            "FROM github_commits c WHERE c.repo = :repo AND c.committed_at >= :from " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<WeekCount> countCommitsPerWeek(@Param("repo") String repo, @Param("from") LocalDateTime from);
+
+    @Query("SELECT COUNT(p) FROM GitHubPullRequest p WHERE p.repo = :repo AND p.state = 'OPEN'")
+    long countOpenPullRequests(@Param("repo") String repo);
+
+    @Query("SELECT COUNT(p) FROM GitHubPullRequest p WHERE p.repo = :repo AND p.mergedAt >= :from")
+    long countPullRequestsMergedSince(@Param("repo") String repo, @Param("from") LocalDateTime from);
+
+    @Query("SELECT COUNT(i) FROM GitHubIssue i WHERE i.repo = :repo AND i.state = 'OPEN'")
+    long countOpenIssues(@Param("repo") String repo);
+
+    /**
+     * 追蹤分支變更時清除舊分支的提交 / Drop commits of the old branch when the tracked branch changes
+     */
+    @Modifying
+    @Query("DELETE FROM GitHubCommit c WHERE c.repo = :repo")
+    int deleteCommitsByRepo(@Param("repo") String repo);
+
+    /**
+     * 倉庫已無專案綁定時清除其合併請求與 Issue / Drop pull requests and issues of a repository no project links
+     */
+    @Modifying
+    @Query("DELETE FROM GitHubPullRequest p WHERE p.repo = :repo")
+    int deletePullRequestsByRepo(@Param("repo") String repo);
+
+    @Modifying
+    @Query("DELETE FROM GitHubIssue i WHERE i.repo = :repo")
+    int deleteIssuesByRepo(@Param("repo") String repo);
+}
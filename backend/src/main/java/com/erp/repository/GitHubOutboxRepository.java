@@ -0,0 +1,67 @@
+package com.erp.repository;
+
+import com.erp.entity.GitHubOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @file GitHubOutboxRepository.java
+ * @description GitHub 發件匣資料庫操作介面 / GitHub Outbox Repository
+ * @description_en Database operations for queued GitHub side effects
+ * @description_zh 提供待執行 GitHub 操作的資料庫存取
+ */
+@Repository
+public interface GitHubOutboxRepository extends JpaRepository<GitHubOutboxEntry, Long> {
+
+    /**
+     * 鎖定到期的項目；每個專案只取最舊的待處理項目，已被其他工作者鎖定的列直接略過
+     * Lock due entries, only the oldest pending one per project, skipping rows
+     * another worker has locked. Must run inside a transaction.
+     */
+    @Query(value = "SELECT o.* FROM github_outbox o " +
+            "WHERE o.status = 'PENDING' AND o.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM github_outbox e " +
+            "WHERE e.project_id = o.project_id AND e.status = 'PENDING' AND e.id < o.id) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<GitHubOutboxEntry> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    boolean existsByProjectIdAndStatus(String projectId, GitHubOutboxEntry.Status status);
+
+    Optional<GitHubOutboxEntry> findFirstByProjectIdAndOperationAndStatusOrderByIdDesc(String projectId,
+            GitHubOutboxEntry.Operation operation, GitHubOutboxEntry.Status status);
+
+    /**
+     * 將專案其餘待處理項目一併標記為失敗（倉庫建立失敗時）
+     * Fail a project's remaining pending entries, used when its repository
+     * could not be created.
+     */
+    @Modifying
+    @Query("UPDATE GitHubOutboxEntry o SET o.status = com.erp.entity.GitHubOutboxEntry$Status.FAILED, " +
+            "o.lastError = :error, o.updatedAt = :now " +
+            "WHERE o.projectId = :projectId AND o.status = com.erp.entity.GitHubOutboxEntry$Status.PENDING")
+    int failPending(@Param("projectId") String projectId, @Param("error") String error,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 將失敗的項目重新排入 / Re-queue a project's failed entries
+     */
+    @Modifying
+    @Query("UPDATE GitHubOutboxEntry o SET o.status = com.erp.entity.GitHubOutboxEntry$Status.PENDING, " +
+            "o.attempts = 0, o.nextAttemptAt = :now, o.updatedAt = :now " +
+            "WHERE o.projectId = :projectId AND o.status = com.erp.entity.GitHubOutboxEntry$Status.FAILED")
+    int requeueFailed(@Param("projectId") String projectId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GitHubOutboxEntry o " +
+            "WHERE o.status = com.erp.entity.GitHubOutboxEntry$Status.DONE AND o.updatedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,48 @@
+package com.erp.repository;
+
+import com.erp.entity.GitHubWebhookDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @file GitHubWebhookDeliveryRepository.java
+ * @description GitHub Webhook 投遞資料庫操作介面 / GitHub Webhook Delivery Repository
+ * @description_en Database operations for received webhook deliveries
+ * @description_zh 提供已接收 Webhook 投遞的資料庫存取
+ */
+@Repository
+public interface GitHubWebhookDeliveryRepository extends JpaRepository<GitHubWebhookDelivery, Long> {
+
+    /**
+     * 依接收順序鎖定到期的投遞；每個倉庫只取最舊的待處理投遞，已被其他工作者鎖定的列直接略過
+     * Lock due deliveries in arrival order, only the oldest pending one per
+     * repository, skipping rows another worker has locked. Deliveries without
+     * a repository are not ordered. Must run inside a transaction.
+     */
+    @Query(value = "SELECT d.* FROM github_webhook_deliveries d " +
+            "WHERE d.status = 'PENDING' AND d.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM github_webhook_deliveries e " +
+            "WHERE e.repo_full_name = d.repo_full_name AND e.status = 'PENDING' AND e.id < d.id) " +
+            "ORDER BY d.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<GitHubWebhookDelivery> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    boolean existsByDeliveryId(String deliveryId);
+
+    Optional<GitHubWebhookDelivery> findByDeliveryId(String deliveryId);
+
+    List<GitHubWebhookDelivery> findTop50ByOrderByIdDesc();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GitHubWebhookDelivery d " +
+            "WHERE d.status = com.erp.entity.GitHubWebhookDelivery$Status.DONE AND d.updatedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
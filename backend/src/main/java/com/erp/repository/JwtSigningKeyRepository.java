@@ -0,0 +1,36 @@
+package com.erp.repository;
+
+import com.erp.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @file JwtSigningKeyRepository.java
+ * @description JWT 簽章金鑰資料庫操作介面 / JWT Signing Key Repository
+ * @description_en Database operations for the JWT key ring
+ * @description_zh 提供 JWT 金鑰環的資料庫操作
+ */
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    /**
+     * 仍可用於驗證的金鑰（最新者在前）
+     *
+     * @param now 目前時間
+     * @return keys that still verify tokens, newest first
+     */
+    @Query("SELECT k FROM JwtSigningKey k WHERE k.expiresAt IS NULL OR k.expiresAt > :now ORDER BY k.createdAt DESC")
+    List<JwtSigningKey> findVerificationKeys(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt IS NOT NULL AND k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
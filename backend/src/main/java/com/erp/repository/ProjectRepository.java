@@ -1,10 +1,16 @@
 package com.erp.repository;
 
+import com.erp.entity.GitHubSyncStatus;
 import com.erp.entity.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.erp.entity.User;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,6 +20,159 @@ import java.util.List;
  * @description_zh 專案實體的 JPA 存取介面
  */
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, String> {
-    List<Project> findByCreatorOrTeamContaining(User creator, User member);
+public interface ProjectRepository extends JpaRepository<Project, String>, ProjectRepositoryCustom {
+
+    /**
+     * 所有專案的列表欄位 / List columns of every project
+     */
+    @Query(ProjectRow.SELECT)
+    List<ProjectRow> findAllRows();
+
+    /**
+     * 使用者建立或參與之專案的列表欄位 / List columns of projects the user created or belongs to
+     */
+    @Query(ProjectRow.SELECT + "WHERE p.creator.id = :userId " +
+            "OR EXISTS (SELECT 1 FROM Project p2 JOIN p2.team m WHERE p2.id = p.id AND m.id = :userId)")
+    List<ProjectRow> findRowsVisibleTo(@Param("userId") String userId);
+
+    @Query(ProjectRow.SELECT + "WHERE p.id = :id")
+    java.util.Optional<ProjectRow> findRowById(@Param("id") String id);
+
+    /**
+     * 專案成員的精簡欄位，供列表批次組裝 / Slim member row for batched list mapping
+     */
+    interface MemberRow {
+        String getProjectId();
+
+        String getId();
+
+        String getName();
+
+        String getEmail();
+
+        User.Role getRole();
+
+        String getGithubUsername();
+    }
+
+    /**
+     * 一次取得多個專案的成員（只選取需要的欄位）
+     * Members of many projects in one query, selecting only the needed columns.
+     */
+    @Query("SELECT p.id AS projectId, u.id AS id, u.name AS name, u.email AS email, " +
+            "u.role AS role, u.githubUsername AS githubUsername " +
+            "FROM Project p JOIN p.team u WHERE p.id IN :projectIds")
+    List<MemberRow> findMembersByProjectIds(@Param("projectIds") Collection<String> projectIds);
+
+    /**
+     * 已綁定 GitHub 倉庫的專案精簡欄位 / Slim row of a project linked to a GitHub repository
+     */
+    interface GithubRepoRow {
+        String getId();
+
+        String getTitle();
+
+        String getGithubRepo();
+
+        String getGithubBranch();
+
+        GitHubSyncStatus getGithubSyncStatus();
+    }
+
+    @Query("SELECT p.id AS id, p.title AS title, p.githubRepo AS githubRepo, p.githubBranch AS githubBranch, " +
+            "p.githubSyncStatus AS githubSyncStatus " +
+            "FROM Project p WHERE p.githubRepo IS NOT NULL AND p.githubRepo <> ''")
+    List<GithubRepoRow> findAllWithGithubRepo();
+
+    @Query("SELECT p.id AS id, p.title AS title, p.githubRepo AS githubRepo, p.githubBranch AS githubBranch, " +
+            "p.githubSyncStatus AS githubSyncStatus " +
+            "FROM Project p WHERE p.id = :id")
+    java.util.Optional<GithubRepoRow> findGithubRepoRowById(@Param("id") String id);
+
+    /**
+     * 綁定指定倉庫的專案（GitHub 名稱不分大小寫）/ Projects linked to a repository, case-insensitively like GitHub
+     */
+    @Query("SELECT p.id FROM Project p WHERE LOWER(p.githubRepo) = LOWER(:githubRepo)")
+    List<String> findIdsByGithubRepo(@Param("githubRepo") String githubRepo);
+
+    @Query("SELECT COUNT(u) > 0 FROM Project p JOIN p.team u WHERE p.id = :projectId AND u.id = :userId")
+    boolean isMember(@Param("projectId") String projectId, @Param("userId") String userId);
+
+    @Query("SELECT p.creator.id FROM Project p WHERE p.id = :id")
+    java.util.Optional<String> findCreatorIdById(@Param("id") String id);
+
+    /**
+     * 專案與建立者的對應 / Project to creator pair
+     */
+    interface CreatorRow {
+        String getProjectId();
+
+        String getCreatorId();
+    }
+
+    @Query("SELECT p.id AS projectId, p.creator.id AS creatorId FROM Project p WHERE p.id IN :projectIds")
+    List<CreatorRow> findCreatorsByProjectIds(@Param("projectIds") Collection<String> projectIds);
+
+    /**
+     * 以增量調整任務計數並同步重算進度（單列原子更新，不掃描 tasks）
+     * Atomically applies deltas to the task counters and recomputes progress in
+     * the same statement; never touches the tasks table.
+     */
+    @Modifying
+    @Query(value = "UPDATE projects SET " +
+            "task_todo_count = task_todo_count + :todo, " +
+            "task_doing_count = task_doing_count + :doing, " +
+            "task_done_count = task_done_count + :done, " +
+            "progress = CASE " +
+            "WHEN task_todo_count + task_doing_count + task_done_count + :todo + :doing + :done <= 0 THEN 0 " +
+            "ELSE ROUND(100.0 * (task_done_count + :done) / " +
+            "(task_todo_count + task_doing_count + task_done_count + :todo + :doing + :done)) END " +
+            "WHERE id = :projectId", nativeQuery = true)
+    int applyTaskCountDelta(@Param("projectId") String projectId, @Param("todo") int todo,
+            @Param("doing") int doing, @Param("done") int done);
+
+    /**
+     * 由 tasks 重新統計並修正偏差的計數器，回傳修正的專案數
+     * Recounts tasks and fixes every project whose counters drifted; returns the
+     * number of projects repaired.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE projects p SET " +
+            "task_todo_count = c.todo, task_doing_count = c.doing, task_done_count = c.done, " +
+            "progress = CASE WHEN c.total = 0 THEN 0 ELSE ROUND(100.0 * c.done / c.total) END " +
+            "FROM (SELECT p2.id AS id, " +
+            "COUNT(t.id) FILTER (WHERE t.status = 'TODO') AS todo, " +
+            "COUNT(t.id) FILTER (WHERE t.status = 'DOING') AS doing, " +
+            "COUNT(t.id) FILTER (WHERE t.status = 'DONE') AS done, " +
+            "COUNT(t.id) AS total " +
+            "FROM projects p2 LEFT JOIN tasks t ON t.project_id = p2.id GROUP BY p2.id) c " +
+            "WHERE p.id = c.id AND (p.task_todo_count IS DISTINCT FROM c.todo " +
+            "OR p.task_doing_count IS DISTINCT FROM c.doing " +
+            "OR p.task_done_count IS DISTINCT FROM c.done " +
+            "OR p.progress IS DISTINCT FROM " +
+            "(CASE WHEN c.total = 0 THEN 0 ELSE ROUND(100.0 * c.done / c.total) END))", nativeQuery = true)
+    int repairTaskCounters();
+
+    // ========================================
+    // GitHub 同步狀態 / GitHub Sync State
+    // ========================================
+
+    @Modifying
+    @Query("UPDATE Project p SET p.githubSyncStatus = :status, p.githubSyncError = :error WHERE p.id = :projectId")
+    int updateGithubSync(@Param("projectId") String projectId, @Param("status") GitHubSyncStatus status,
+            @Param("error") String error);
+
+    /**
+     * 僅在仍為處理中時標記為已同步，保留期間發生的失敗
+     * Mark synced only while still pending, so a failure in between is kept.
+     */
+    @Modifying
+    @Query("UPDATE Project p SET p.githubSyncStatus = com.erp.entity.GitHubSyncStatus.SYNCED, p.githubSyncError = NULL " +
+            "WHERE p.id = :projectId AND p.githubSyncStatus = com.erp.entity.GitHubSyncStatus.PENDING")
+    int markGithubSynced(@Param("projectId") String projectId);
+
+    @Modifying
+    @Query("UPDATE Project p SET p.githubRepo = :githubRepo WHERE p.id = :projectId")
+    int updateGithubRepo(@Param("projectId") String projectId, @Param("githubRepo") String githubRepo);
 }
@@ -0,0 +1,43 @@
+package com.erp.repository;
+
+import com.erp.entity.ProjectStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @file ProjectRepositoryCustom.java
+ * @description 專案自訂查詢介面 / Project Custom Repository
+ * @description_en Keyset-paginated, filterable project search
+ * @description_zh 以游標 (keyset) 分頁並可篩選的專案查詢
+ */
+public interface ProjectRepositoryCustom {
+
+    /**
+     * 查詢條件；null 代表不篩選 / Search filter, null fields are ignored
+     */
+    @Getter
+    @Builder
+    class ProjectFilter {
+        private final ProjectStatus status;
+        private final String client;
+        /** 與 [from, to] 有重疊的專案 / Projects overlapping [from, to] */
+        private final LocalDate from;
+        private final LocalDate to;
+        private final String memberId;
+        /** 非管理員時限定為建立者或成員 / Restrict to creator or member for non-admins */
+        private final String visibleToUserId;
+        /** 上一頁最後一筆的 (updatedAt, id) / (updatedAt, id) of the previous page's last row */
+        private final LocalDateTime afterUpdatedAt;
+        private final String afterId;
+    }
+
+    /**
+     * 依 (updatedAt DESC, id DESC) 取得下一頁，最多 limit 筆
+     * Next page ordered by (updatedAt DESC, id DESC), at most {@code limit} rows.
+     */
+    List<ProjectRow> findPage(ProjectFilter filter, int limit);
+}
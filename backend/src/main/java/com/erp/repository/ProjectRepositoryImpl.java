@@ -0,0 +1,95 @@
+package com.erp.repository;
+
+import com.erp.entity.Project;
+import com.erp.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file ProjectRepositoryImpl.java
+ * @description 專案自訂查詢實作 / Project Custom Repository Implementation
+ * @description_en Criteria implementation of the keyset project search. The
+ *                 seek predicate on (updated_at, id) lets Postgres walk the
+ *                 composite indexes instead of counting or skipping rows
+ * @description_zh 以 Criteria API 實作的游標分頁查詢。以 (updated_at, id) 作為起點條件，
+ *                 讓 Postgres 直接沿複合索引讀取，而非計數或略過資料列
+ */
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProjectRow> findPage(ProjectFilter filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProjectRow> query = cb.createQuery(ProjectRow.class);
+        Root<Project> project = query.from(Project.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(project.get("status"), filter.getStatus()));
+        }
+        if (filter.getClient() != null && !filter.getClient().isBlank()) {
+            predicates.add(cb.equal(project.get("client"), filter.getClient()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(project.get("startDate"), filter.getTo()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(project.get("endDate"), filter.getFrom()));
+        }
+        if (filter.getMemberId() != null && !filter.getMemberId().isBlank()) {
+            predicates.add(cb.exists(memberSubquery(query, project, cb, filter.getMemberId())));
+        }
+        if (filter.getVisibleToUserId() != null) {
+            String userId = filter.getVisibleToUserId();
+            predicates.add(cb.or(
+                    cb.equal(project.get("creator").get("id"), userId),
+                    cb.exists(memberSubquery(query, project, cb, userId))));
+        }
+
+        // 游標條件：(updatedAt, id) < (afterUpdatedAt, afterId) / Seek past the cursor
+        if (filter.getAfterUpdatedAt() != null && filter.getAfterId() != null) {
+            LocalDateTime afterUpdatedAt = filter.getAfterUpdatedAt();
+            predicates.add(cb.or(
+                    cb.lessThan(project.get("updatedAt"), afterUpdatedAt),
+                    cb.and(
+                            cb.equal(project.get("updatedAt"), afterUpdatedAt),
+                            cb.lessThan(project.get("id"), filter.getAfterId()))));
+        }
+
+        query.select(cb.construct(ProjectRow.class,
+                        project.get("id"), project.get("title"), project.get("client"), project.get("budget"),
+                        project.get("startDate"), project.get("endDate"), project.get("status"),
+                        project.get("progress"), project.get("description"), project.get("githubRepo"),
+                        project.get("githubBranch"), project.get("backupConfig"),
+                        project.get("githubSyncStatus"), project.get("githubSyncError"),
+                        project.get("fileLocation"), project.get("createdAt"), project.get("updatedAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(project.get("updatedAt")), cb.desc(project.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private Subquery<String> memberSubquery(CriteriaQuery<?> query, Root<Project> project,
+            CriteriaBuilder cb, String userId) {
+        Subquery<String> subquery = query.subquery(String.class);
+        Root<Project> correlated = subquery.correlate(project);
+        Join<Project, User> member = correlated.join("team");
+        return subquery.select(member.get("id"))
+                .where(cb.equal(member.get("id"), userId));
+    }
+}
@@ -0,0 +1,56 @@
+package com.erp.repository;
+
+import com.erp.entity.GitHubSyncStatus;
+import com.erp.entity.Project;
+import com.erp.entity.ProjectStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * @file ProjectRow.java
+ * @description 專案列表投影 / Project List Projection
+ * @description_en The project columns a list response needs, selected with a
+ *                 constructor expression so list queries never materialise
+ *                 managed Project entities or touch their associations. The
+ *                 project's GitHub token is deliberately left out: responses are
+ *                 cached in Redis and sent to every member
+ * @description_zh 專案列表回應所需的欄位，以建構式查詢直接選取，列表查詢不會建立受管理的
+ *                 Project 實體，也不會觸及其關聯。刻意不含專案的 GitHub Token：回應會快取
+ *                 於 Redis 並傳給所有成員
+ */
+public record ProjectRow(
+        String id,
+        String title,
+        String client,
+        Double budget,
+        LocalDate startDate,
+        LocalDate endDate,
+        ProjectStatus status,
+        Integer progress,
+        String description,
+        String githubRepo,
+        String githubBranch,
+        String backupConfig,
+        GitHubSyncStatus githubSyncStatus,
+        String githubSyncError,
+        String fileLocation,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /** JPQL 建構式選取子句，別名須為 p / JPQL constructor select; the project alias must be p */
+    static final String SELECT = "SELECT new com.erp.repository.ProjectRow(p.id, p.title, p.client, p.budget, "
+            + "p.startDate, p.endDate, p.status, p.progress, p.description, p.githubRepo, p.githubBranch, "
+            + "p.backupConfig, p.githubSyncStatus, p.githubSyncError, p.fileLocation, "
+            + "p.createdAt, p.updatedAt) FROM Project p ";
+
+    /** 已載入實體（建立、更新後）的同一投影 / Same projection of an entity already in hand */
+    public static ProjectRow of(Project project) {
+        return new ProjectRow(project.getId(), project.getTitle(), project.getClient(), project.getBudget(),
+                project.getStartDate(), project.getEndDate(), project.getStatus(), project.getProgress(),
+                project.getDescription(), project.getGithubRepo(), project.getGithubBranch(),
+                project.getBackupConfig(), project.getGithubSyncStatus(),
+                project.getGithubSyncError(), project.getFileLocation(), project.getCreatedAt(),
+                project.getUpdatedAt());
+    }
+}
@@ -1,12 +1,18 @@
 package com.erp.repository;
 
 import com.erp.entity.Task;
+import com.erp.entity.TaskStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
-
-import com.erp.entity.Project;
+import java.util.Optional;
 
 /**
  * @file TaskRepository.java
@@ -15,22 +21,141 @@ import com.erp.entity.Project;
  * @description_zh 任務實體的 JPA 存取介面
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, String> {
+public interface TaskRepository extends JpaRepository<Task, String>, TaskRepositoryCustom {
         List<Task> findByProjectId(String projectId);
 
+        /** 載入任務並鎖定其列直到交易結束 / Load a task, locking its row until the transaction ends */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT t FROM Task t WHERE t.id = :id")
+        Optional<Task> findByIdForUpdate(@Param("id") String id);
+
         Integer countByProjectId(String projectId);
 
         Integer countByProjectIdAndStatus(String projectId, com.erp.entity.TaskStatus status);
 
-        List<Task> findByProjectIn(List<Project> projects);
-
-        @org.springframework.data.jpa.repository.Query("SELECT t FROM Task t " +
-                        "WHERE t.project IN :projects " +
-                        "AND t.status != 'DONE' " +
-                        "AND t.deadline IS NOT NULL " +
-                        "AND t.deadline <= :thresholdDate " +
-                        "ORDER BY t.deadline ASC")
-        List<Task> findUpcomingAndOverdueTasks(
-                        @org.springframework.data.repository.query.Param("projects") List<Project> projects,
-                        @org.springframework.data.repository.query.Param("thresholdDate") java.time.LocalDateTime thresholdDate);
+        /**
+         * 使用者可見專案（建立者或成員）中，截止時間落在 [from, to) 的任務，
+         * 以建構式直接產生 DTO 並一併取得負責人與回報人名稱
+         * Tasks due in [from, to) in projects the user created or belongs to,
+         * built straight into DTOs together with assignee and reporter names.
+         */
+        @Query("SELECT new com.erp.dto.CalendarTaskResponse(t.id, t.title, t.status, t.priority, t.deadline, " +
+                        "t.description, p.id, p.title, a.id, a.name, r.id, r.name) " +
+                        "FROM Task t JOIN t.project p LEFT JOIN t.assignee a LEFT JOIN t.reporter r " +
+                        "WHERE t.deadline >= :from AND t.deadline < :to " +
+                        "AND (p.creator.id = :userId " +
+                        "OR p.id IN (SELECT pm.id FROM Project pm JOIN pm.team m WHERE m.id = :userId)) " +
+                        "ORDER BY t.deadline, t.id")
+        List<com.erp.dto.CalendarTaskResponse> findCalendarTasks(@Param("userId") String userId,
+                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+        // ========================================
+        // 看板排序 / Board Ordering
+        // ========================================
+
+        /**
+         * 移動卡片所需的精簡欄位 / Slim row for moving a card
+         */
+        interface RankRow {
+                String getId();
+
+                String getProjectId();
+
+                TaskStatus getStatus();
+
+                String getRank();
+        }
+
+        @Query("SELECT t.id AS id, t.project.id AS projectId, t.status AS status, t.rank AS rank " +
+                        "FROM Task t WHERE t.id = :id")
+        Optional<RankRow> findRankRowById(@Param("id") String id);
+
+        @Query("SELECT t.id AS id, t.project.id AS projectId, t.status AS status, t.rank AS rank " +
+                        "FROM Task t WHERE t.id IN :ids")
+        List<RankRow> findRankRowsByIdIn(@Param("ids") java.util.Collection<String> ids);
+
+        /**
+         * 依 id 順序鎖定任務列直到交易結束 / Lock task rows in id order until the transaction ends
+         */
+        @Query(value = "SELECT t.id FROM tasks t WHERE t.id IN (:ids) ORDER BY t.id FOR UPDATE", nativeQuery = true)
+        List<String> lockByIdIn(@Param("ids") java.util.Collection<String> ids);
+
+        @Query("SELECT MAX(t.rank) FROM Task t " +
+                        "WHERE t.project.id = :projectId AND t.status = :status AND t.id <> :excludeId")
+        Optional<String> findLastRank(@Param("projectId") String projectId, @Param("status") TaskStatus status,
+                        @Param("excludeId") String excludeId);
+
+        /** 欄內緊接在指定鍵之後的鍵 / The next rank after the given one in a column */
+        @Query("SELECT MIN(t.rank) FROM Task t WHERE t.project.id = :projectId AND t.status = :status " +
+                        "AND t.rank > :rank AND t.id <> :excludeId")
+        Optional<String> findRankAfter(@Param("projectId") String projectId, @Param("status") TaskStatus status,
+                        @Param("rank") String rank, @Param("excludeId") String excludeId);
+
+        /** 欄內緊接在指定鍵之前的鍵 / The previous rank before the given one in a column */
+        @Query("SELECT MAX(t.rank) FROM Task t WHERE t.project.id = :projectId AND t.status = :status " +
+                        "AND t.rank < :rank AND t.id <> :excludeId")
+        Optional<String> findRankBefore(@Param("projectId") String projectId, @Param("status") TaskStatus status,
+                        @Param("rank") String rank, @Param("excludeId") String excludeId);
+
+        /** 單列更新狀態與排序 / Move a card with a single-row update */
+        @Modifying
+        @Query("UPDATE Task t SET t.status = :status, t.rank = :rank, t.updatedAt = :now WHERE t.id = :id")
+        int moveTo(@Param("id") String id, @Param("status") TaskStatus status, @Param("rank") String rank,
+                        @Param("now") LocalDateTime now);
+
+        /**
+         * 需要重新整理的看板欄：有未排序的卡片或鍵過長 / Columns with unranked cards or overlong keys
+         */
+        @Query("SELECT DISTINCT t.project.id, t.status FROM Task t " +
+                        "WHERE t.rank IS NULL OR LENGTH(t.rank) > :maxLength")
+        List<Object[]> findColumnsNeedingRebalance(@Param("maxLength") int maxLength);
+
+        /** 欄內卡片依目前順序排列，未排序的依舊的 orderIndex 接在最後 / Current order, unranked cards last by orderIndex */
+        @Query("SELECT t.id FROM Task t WHERE t.project.id = :projectId AND t.status = :status " +
+                        "ORDER BY CASE WHEN t.rank IS NULL THEN 1 ELSE 0 END, t.rank, t.orderIndex, t.createdAt, t.id")
+        List<String> findIdsInBoardOrder(@Param("projectId") String projectId, @Param("status") TaskStatus status);
+
+        // ========================================
+        // 截止提醒 / Deadline Reminders
+        // ========================================
+
+        /**
+         * 提醒引擎追蹤的精簡欄位 / Slim row tracked by the reminder engine
+         */
+        interface ReminderRow {
+                String getId();
+
+                String getTitle();
+
+                String getProjectId();
+
+                TaskStatus getStatus();
+
+                com.erp.entity.TaskPriority getPriority();
+
+                LocalDateTime getDeadline();
+
+                /** 已記錄的提醒狀態，可能為 null / Reminder state already recorded, possibly null */
+                com.erp.entity.TaskReminderState getReminderState();
+        }
+
+        /** 所有未完成且有截止時間的任務 / Every open task with a deadline */
+        @Query("SELECT t.id AS id, t.title AS title, t.project.id AS projectId, " +
+                        "t.status AS status, t.priority AS priority, t.deadline AS deadline, " +
+                        "t.reminderState AS reminderState " +
+                        "FROM Task t " +
+                        "WHERE t.status <> com.erp.entity.TaskStatus.DONE AND t.deadline IS NOT NULL")
+        List<ReminderRow> findReminderRows();
+
+        /** 新的截止時間重新提醒 / A new deadline gets its own reminders */
+        @Modifying
+        @Query("UPDATE Task t SET t.reminderState = com.erp.entity.TaskReminderState.NONE WHERE t.id = :id")
+        int resetReminderState(@Param("id") String id);
+
+        /** 不篩選狀態，讓引擎得以移除已完成者 / Unfiltered, so the engine can drop finished tasks */
+        @Query("SELECT t.id AS id, t.title AS title, t.project.id AS projectId, " +
+                        "t.status AS status, t.priority AS priority, t.deadline AS deadline, " +
+                        "t.reminderState AS reminderState " +
+                        "FROM Task t WHERE t.id IN :ids")
+        List<ReminderRow> findReminderRowsByIdIn(@Param("ids") java.util.Collection<String> ids);
 }
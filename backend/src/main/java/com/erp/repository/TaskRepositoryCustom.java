@@ -0,0 +1,43 @@
+package com.erp.repository;
+
+import com.erp.entity.TaskPriority;
+import com.erp.entity.TaskStatus;
+import com.erp.entity.User;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * @file TaskRepositoryCustom.java
+ * @description 任務自訂查詢介面 / Task Custom Repository
+ * @description_en Set-based bulk update of tasks
+ * @description_zh 以單一陳述式批次更新任務
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * 批次修改內容；null 代表不變 / Bulk patch, null fields are left unchanged
+     */
+    @Getter
+    @Builder
+    class TaskPatch {
+        private final TaskStatus status;
+        private final TaskPriority priority;
+        /** 為 true 時將負責人設為 assignee（可為 null 以取消指派）/ When true, set the assignee (null unassigns) */
+        private final boolean assigneeChanged;
+        private final User assignee;
+
+        public boolean isEmpty() {
+            return status == null && priority == null && !assigneeChanged;
+        }
+    }
+
+    /**
+     * 以一個 UPDATE 陳述式套用到所有指定任務，回傳更新的列數
+     * Apply the patch to every given task with one UPDATE statement; returns
+     * the number of rows updated.
+     */
+    int bulkUpdate(Collection<String> taskIds, TaskPatch patch, LocalDateTime now);
+}
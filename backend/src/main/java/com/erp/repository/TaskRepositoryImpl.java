@@ -0,0 +1,48 @@
+package com.erp.repository;
+
+import com.erp.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * @file TaskRepositoryImpl.java
+ * @description 任務自訂查詢實作 / Task Custom Repository Implementation
+ * @description_en Criteria implementation of the bulk task update. Only the
+ *                 fields present in the patch end up in the SET clause
+ * @description_zh 以 Criteria API 實作的任務批次更新，SET 子句只包含有提供的欄位
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int bulkUpdate(Collection<String> taskIds, TaskPatch patch, LocalDateTime now) {
+        if (taskIds.isEmpty() || patch.isEmpty()) {
+            return 0;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+
+        if (patch.getStatus() != null) {
+            update.set(task.get("status"), patch.getStatus());
+        }
+        if (patch.getPriority() != null) {
+            update.set(task.get("priority"), patch.getPriority());
+        }
+        if (patch.isAssigneeChanged()) {
+            update.set(task.get("assignee"), patch.getAssignee());
+        }
+        update.set(task.get("updatedAt"), now)
+                .where(task.get("id").in(taskIds));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
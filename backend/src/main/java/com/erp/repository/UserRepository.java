@@ -2,6 +2,8 @@ package com.erp.repository;
 
 import com.erp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -48,4 +50,13 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return Optional User
      */
     Optional<User> findTopByEmployeeIdStartingWithOrderByEmployeeIdDesc(String prefix);
+
+    /**
+     * 只讀取安全戳記欄位，不載入整個使用者
+     *
+     * @param id User ID
+     * @return Optional security stamp
+     */
+    @Query("SELECT u.securityStamp FROM User u WHERE u.id = :id")
+    Optional<String> findSecurityStampById(@Param("id") String id);
 }
@@ -1,11 +1,13 @@
 package com.erp.service;
 
+import com.erp.config.security.SecurityStampStore;
 import com.erp.dto.AuthResponse;
 import com.erp.entity.User;
 import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,6 +25,8 @@ public class AccountService {
 
         private final UserRepository userRepository;
         private final PasswordEncoder passwordEncoder;
+        private final SecurityStampStore securityStampStore;
+        private final UserProfileCache userProfileCache;
 
         @org.springframework.beans.factory.annotation.Value("${app.default-password:ERP@123456}")
         private String defaultPassword;
@@ -93,12 +97,15 @@ public class AccountService {
                                 .build();
         }
 
+        @Transactional
         public AuthResponse.UserInfo resetPassword(String userId) {
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
 
                 user.setPassword(passwordEncoder.encode(defaultPassword));
                 user.setDefaultPassword(true);
+                // 重設密碼後撤銷所有既有 Token / Revoke every token issued before the reset
+                securityStampStore.rotate(user);
 
                 User savedUser = userRepository.save(user);
 
@@ -113,6 +120,7 @@ public class AccountService {
                                 .build();
         }
 
+        @Transactional
         public AuthResponse.UserInfo updateUser(String userId, User updatedData) {
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
@@ -160,7 +168,11 @@ public class AccountService {
                         }
                 }
 
+                // 角色或帳號變更後，舊 Token 的聲明已過時 / Claims in older tokens are now stale
+                securityStampStore.rotate(user);
+
                 User savedUser = userRepository.save(user);
+                userProfileCache.put(savedUser);
 
                 return AuthResponse.UserInfo.builder()
                                 .id(savedUser.getId())
@@ -1,17 +1,23 @@
 package com.erp.service;
 
+import com.erp.config.security.CurrentUser;
 import com.erp.config.security.JwtService;
+import com.erp.config.security.JwtUserPrincipal;
+import com.erp.config.security.LoginAttemptGuard;
+import com.erp.config.security.PasswordHashingExecutor;
+import com.erp.config.security.SecurityStampStore;
+import com.erp.config.security.TokenRevocationStore;
 import com.erp.dto.AuthRequest;
 import com.erp.dto.AuthResponse;
 import com.erp.dto.ChangePasswordRequest;
 import com.erp.entity.User;
 import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @file AuthService.java
@@ -27,7 +33,17 @@ public class AuthService {
         private final UserRepository userRepository;
         private final PasswordEncoder passwordEncoder;
         private final JwtService jwtService;
-        private final AuthenticationManager authenticationManager;
+        private final PasswordHashingExecutor passwordHashing;
+        private final LoginAttemptGuard loginAttemptGuard;
+        private final SecurityStampStore securityStampStore;
+        private final CurrentUser currentUser;
+        private final PresenceService presenceService;
+        private final TokenRevocationStore tokenRevocationStore;
+        private final UserProfileCache userProfileCache;
+        private final TransactionTemplate transactionTemplate;
+
+        /** 帳號不存在時比對用的雜湊，使回應時間與帳號存在時一致 / Keeps unknown-user timing equal */
+        private volatile String dummyPasswordHash;
 
         public AuthResponse register(AuthRequest request) {
                 // For demo purposes, creating a default ADMIN user if not exists
@@ -40,8 +56,7 @@ public class AuthService {
                                 .build();
 
                 userRepository.save(user);
-                var userDetails = new com.erp.config.UserAdapter(user);
-                var jwtToken = jwtService.generateToken(userDetails);
+                var jwtToken = issueToken(user);
 
                 return AuthResponse.builder()
                                 .token(jwtToken)
@@ -57,23 +72,35 @@ public class AuthService {
                                 .build();
         }
 
-        public AuthResponse authenticate(AuthRequest request) {
-                authenticationManager.authenticate(
-                                new UsernamePasswordAuthenticationToken(
-                                                request.getLoginId(),
-                                                request.getPassword()));
+        /**
+         * 登入：先檢查失敗計數（不做雜湊），再於專用執行緒池比對密碼
+         * Login: failure counters are checked before any hashing, then the BCrypt
+         * comparison runs on the bounded hashing pool.
+         *
+         * @throws com.erp.config.security.LoginThrottledException when throttled or
+         *                                                         the pool is full
+         */
+        public AuthResponse authenticate(AuthRequest request, String clientIp) {
+                String loginId = request.getLoginId();
+                loginAttemptGuard.checkAllowed(loginId, clientIp);
 
                 var user = userRepository
-                                .findByUsernameOrEmployeeIdOrEmail(request.getLoginId(), request.getLoginId(),
-                                                request.getLoginId())
-                                .orElseThrow();
+                                .findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
+                                .orElse(null);
+                String storedHash = user != null ? user.getPassword() : dummyPasswordHash();
+
+                boolean matches = passwordHashing.execute(
+                                () -> passwordEncoder.matches(request.getPassword(), storedHash));
+                if (user == null || !matches) {
+                        loginAttemptGuard.recordFailure(loginId, clientIp);
+                        throw new BadCredentialsException("Bad credentials");
+                }
+                loginAttemptGuard.recordSuccess(loginId);
 
-                user.setOnline(true);
-                user.setLastLoginAt(java.time.LocalDateTime.now());
-                userRepository.save(user);
+                // 在線狀態與最後登入時間交由 PresenceService 批次寫回 / Written behind by PresenceService
+                presenceService.heartbeat(user.getId());
 
-                var userDetails = new com.erp.config.UserAdapter(user);
-                var jwtToken = jwtService.generateToken(userDetails);
+                var jwtToken = issueToken(user);
 
                 return AuthResponse.builder()
                                 .token(jwtToken)
@@ -89,6 +116,26 @@ public class AuthService {
                                 .build();
         }
 
+        /**
+         * 產生含使用者 ID、角色與安全戳記的 Token / Issue a claims-bearing token
+         * 首次登入的使用者尚無戳記，會在此建立並儲存
+         */
+        private String issueToken(User user) {
+                String stamp = securityStampStore.stampFor(user);
+                // 預先寫入快取，供內部服務檢查 Token / Warm the cache used by token introspection
+                userProfileCache.put(user);
+                return jwtService.generateToken(user, stamp);
+        }
+
+        private String dummyPasswordHash() {
+                String hash = dummyPasswordHash;
+                if (hash == null) {
+                        hash = passwordHashing.execute(() -> passwordEncoder.encode("user-not-found"));
+                        dummyPasswordHash = hash;
+                }
+                return hash;
+        }
+
         public AuthResponse.UserInfo getCurrentUser() {
                 var authentication = SecurityContextHolder.getContext().getAuthentication();
                 if (authentication == null || !authentication.isAuthenticated() ||
@@ -96,9 +143,7 @@ public class AuthService {
                         return null;
                 }
 
-                String loginId = authentication.getName();
-                var user = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+                var user = currentUser.get();
 
                 return AuthResponse.UserInfo.builder()
                                 .id(user.getId())
@@ -111,38 +156,61 @@ public class AuthService {
                                 .build();
         }
 
-        public void changePassword(ChangePasswordRequest request) {
+        /**
+         * 修改密碼並輪替安全戳記，使其他裝置的 Token 失效；回傳呼叫端的新 Token
+         * Change the password and rotate the security stamp so tokens on every
+         * other device stop working; the caller gets a fresh token.
+         */
+        public AuthResponse changePassword(ChangePasswordRequest request) {
                 var authentication = SecurityContextHolder.getContext().getAuthentication();
                 if (authentication == null || !authentication.isAuthenticated() ||
                                 authentication.getPrincipal().equals("anonymousUser")) {
                         throw new RuntimeException("User not authenticated");
                 }
 
-                String loginId = authentication.getName();
-                var user = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+                var user = currentUser.get();
 
                 // Verify old password
-                if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
+                if (!passwordHashing.execute(
+                                () -> passwordEncoder.matches(request.getOldPassword(), user.getPassword()))) {
                         throw new RuntimeException("Current password is incorrect");
                 }
 
-                // Encode and save new password
-                user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-                user.setDefaultPassword(false);
-                userRepository.save(user);
+                // Encode and save new password; hashing stays outside the transaction
+                String encoded = passwordHashing.execute(() -> passwordEncoder.encode(request.getNewPassword()));
+                String stamp = transactionTemplate.execute(status -> {
+                        user.setPassword(encoded);
+                        user.setDefaultPassword(false);
+                        String rotated = securityStampStore.rotate(user);
+                        userRepository.save(user);
+                        return rotated;
+                });
+                userProfileCache.put(user);
+
+                return AuthResponse.builder()
+                                .token(jwtService.generateToken(user, stamp))
+                                .build();
         }
 
         public void logout() {
                 var authentication = SecurityContextHolder.getContext().getAuthentication();
                 if (authentication != null && authentication.isAuthenticated() &&
                                 !authentication.getPrincipal().equals("anonymousUser")) {
-                        String loginId = authentication.getName();
-                        userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                                        .ifPresent(user -> {
-                                                user.setOnline(false);
-                                                userRepository.save(user);
-                                        });
+                        // 撤銷目前的 Token，使其立即失效 / Revoke the calling token right away
+                        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+                                tokenRevocationStore.revokeToken(principal.getTokenId(), principal.getTokenExpiresAt());
+                        }
+                        presenceService.markOffline(currentUser.getId());
                 }
         }
+
+        /**
+         * 登出所有裝置：撤銷此使用者目前為止簽發的所有 Token
+         * Log out everywhere: revoke every token issued to this user so far.
+         */
+        public void logoutAll() {
+                String userId = currentUser.getId();
+                tokenRevocationStore.revokeAllForUser(userId);
+                presenceService.markOffline(userId);
+        }
 }
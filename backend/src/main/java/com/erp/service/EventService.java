@@ -1,11 +1,10 @@
 package com.erp.service;
 
+import com.erp.config.security.CurrentUser;
 import com.erp.dto.EventRequest;
 import com.erp.dto.EventResponse;
 import com.erp.entity.Event;
-import com.erp.entity.User;
 import com.erp.repository.EventRepository;
-import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,15 +25,14 @@ import java.util.stream.Collectors;
 public class EventService {
 
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     /**
      * 獲取當前登入使用者的所有事件 / Get all events for the current user
      */
     @Transactional(readOnly = true)
     public List<EventResponse> getMyEvents() {
-        User currentUser = getCurrentUser();
-        return eventRepository.findByCreatorOrderByStartDateAsc(currentUser)
+        return eventRepository.findByCreatorOrderByStartDateAsc(currentUser.getReference())
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
@@ -44,8 +42,6 @@ public class EventService {
      * 建立新事件 / Create new event
      */
     public EventResponse createEvent(EventRequest request) {
-        User currentUser = getCurrentUser();
-
         Event event = Event.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
@@ -54,7 +50,7 @@ public class EventService {
                 .category(request.getCategory())
                 .priority(request.getPriority() != null ? request.getPriority() : Event.Priority.Medium)
                 .repeatType(request.getRepeatType() != null ? request.getRepeatType() : Event.RepeatType.None)
-                .creator(currentUser)
+                .creator(currentUser.getReference())
                 .build();
 
         Event savedEvent = eventRepository.save(event);
@@ -65,12 +61,11 @@ public class EventService {
      * 更新事件 / Update event
      */
     public EventResponse updateEvent(String id, EventRequest request) {
-        User currentUser = getCurrentUser();
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
 
         // Basic authorization check - only creator (or Admin) can update
-        if (!event.getCreator().getId().equals(currentUser.getId()) && currentUser.getRole() != User.Role.ADMIN) {
+        if (!event.getCreator().getId().equals(currentUser.getId()) && !currentUser.isAdmin()) {
             throw new RuntimeException("Unauthorized to update this event");
         }
 
@@ -90,29 +85,16 @@ public class EventService {
      * 刪除事件 / Delete event
      */
     public void deleteEvent(String id) {
-        User currentUser = getCurrentUser();
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
 
-        if (!event.getCreator().getId().equals(currentUser.getId()) && currentUser.getRole() != User.Role.ADMIN) {
+        if (!event.getCreator().getId().equals(currentUser.getId()) && !currentUser.isAdmin()) {
             throw new RuntimeException("Unauthorized to delete this event");
         }
 
         eventRepository.deleteById(id);
     }
 
-    private User getCurrentUser() {
-        var authentication = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()
-                || "anonymousUser".equals(authentication.getPrincipal())) {
-            throw new RuntimeException("Unauthorized");
-        }
-        String loginId = authentication.getName();
-        return userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
     private EventResponse mapToResponse(Event event) {
         return EventResponse.builder()
                 .id(event.getId())
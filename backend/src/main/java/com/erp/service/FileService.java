@@ -94,7 +94,15 @@ public class FileService {
     @Transactional(readOnly = true)
     public List<String> getAllFiles(String projectId) throws IOException {
         Project project = getProjectAndCheckAccess(projectId);
-        String uploadDir = project.getFileLocation();
+        return listFiles(projectId, project.getFileLocation());
+    }
+
+    /**
+     * 列出檔案但不檢查權限，呼叫端須已完成存取檢查
+     * Lists files without an access check; the caller must already have done it.
+     */
+    public List<String> listFiles(String projectId, String fileLocation) throws IOException {
+        String uploadDir = fileLocation;
 
         if (uploadDir == null || uploadDir.trim().isEmpty()) {
             uploadDir = "/app/uploads/" + projectId;
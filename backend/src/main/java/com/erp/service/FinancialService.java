@@ -1,16 +1,14 @@
 package com.erp.service;
 
+import com.erp.config.security.CurrentUser;
 import com.erp.dto.FinancialRecordRequest;
 import com.erp.dto.FinancialRecordResponse;
 import com.erp.entity.FinancialRecord;
 import com.erp.entity.FinancialType;
-import com.erp.entity.User;
 import com.erp.repository.FinancialRepository;
 import com.erp.repository.ProjectRepository;
-import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -35,7 +33,7 @@ public class FinancialService {
 
     private final FinancialRepository financialRepository;
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @Transactional(readOnly = true)
     public List<FinancialRecordResponse> getRecordsByProject(String projectId) {
@@ -60,8 +58,6 @@ public class FinancialService {
                     .orElseThrow(() -> new RuntimeException("Project not found: " + request.getProjectId()));
         }
 
-        User currentUser = getCurrentUser();
-
         Double finalAmount = request.getAmount();
         if (request.isTaxIncluded() && finalAmount != null) {
             double rate = request.getTaxRate() != null ? request.getTaxRate() : 5.0;
@@ -125,6 +121,16 @@ public class FinancialService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getProjectFinancialSummary(String projectId) {
+        var project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found"));
+        return getProjectFinancialSummary(projectId, project.getBudget());
+    }
+
+    /**
+     * 已知預算時直接統計，不再載入專案 / Summarize with a known budget, no project load
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProjectFinancialSummary(String projectId, Double projectBudget) {
         List<FinancialRecord> records = financialRepository.findByProjectId(projectId);
 
         double totalIncome = records.stream()
@@ -137,9 +143,7 @@ public class FinancialService {
                 .mapToDouble(FinancialRecord::getAmount)
                 .sum();
 
-        var project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
-        double budget = project.getBudget() != null ? project.getBudget() : 0;
+        double budget = projectBudget != null ? projectBudget : 0;
 
         double netProfit = totalIncome - totalExpense;
         double burnRate = (budget > 0) ? (totalExpense / budget) * 100 : 0;
@@ -218,7 +222,7 @@ public class FinancialService {
 
             String line;
             boolean isFirstLine = true;
-            User currentUser = getCurrentUser();
+            String creatorId = currentUser.getId();
 
             while ((line = br.readLine()) != null) {
                 if (isFirstLine) {
@@ -256,7 +260,7 @@ public class FinancialService {
                             .category(category)
                             .transactionDate(transactionDate)
                             .description(description)
-                            .createdBy(currentUser.getId())
+                            .createdBy(creatorId)
                             .build();
 
                     financialRepository.save(record);
@@ -271,15 +275,4 @@ public class FinancialService {
         }
         return count;
     }
-
-    private User getCurrentUser() {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()
-                || "anonymousUser".equals(authentication.getPrincipal())) {
-            throw new RuntimeException("Unauthorized");
-        }
-        String loginId = authentication.getName();
-        return userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found: " + loginId));
-    }
 }
@@ -0,0 +1,398 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubActivityCursor;
+import com.erp.repository.GitHubActivityCursorRepository;
+import com.erp.repository.GitHubActivityRepository;
+import com.erp.repository.ProjectRepository;
+import com.erp.repository.ProjectRepository.GithubRepoRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GHCommit;
+import org.kohsuke.github.GHCompare;
+import org.kohsuke.github.GHDirection;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestQueryBuilder;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHUser;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @file GitHubActivityIngester.java
+ * @description GitHub 活動同步作業 / GitHub Activity Ingester
+ * @description_en Copies commits, pull requests and issues of every linked
+ *                 repository into local tables, so project dashboards are served
+ *                 from Postgres and never call GitHub at read time. Commits are
+ *                 compared from the branch head of the previous run, so commits
+ *                 merged with older dates are not missed; pull requests and
+ *                 issues are asked for after the stored update time (minus a
+ *                 small overlap for clock skew). Rows are upserted, so re-reading
+ *                 one is harmless. Repositories no project links any more are
+ *                 purged
+ * @description_zh 將每個已綁定倉庫的提交、合併請求與 Issue 複製到本機資料表，專案儀表板
+ *                 直接由 Postgres 提供，讀取時不需呼叫 GitHub。提交由上次同步時的分支最新
+ *                 提交比對而來，合併進來的舊日期提交不會遺漏；合併請求與 Issue 只取得游標
+ *                 時間之後（扣除少許重疊以容忍時鐘誤差）的變更。皆以 upsert 寫入，重複讀到
+ *                 同一筆不會有影響。已無專案綁定的倉庫會被清除
+ */
+@Service
+@Slf4j
+public class GitHubActivityIngester {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_TEXT_LENGTH = 500;
+    private static final Duration OVERLAP = Duration.ofMinutes(5);
+
+    private final ProjectRepository projectRepository;
+    private final GitHubActivityCursorRepository cursorRepository;
+    private final GitHubActivityRepository activityRepository;
+    private final GitHubService githubService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final Duration backfill;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter ingestedCommits;
+    private final Counter ingestedPullRequests;
+    private final Counter ingestedIssues;
+
+    public GitHubActivityIngester(ProjectRepository projectRepository,
+            GitHubActivityCursorRepository cursorRepository, GitHubActivityRepository activityRepository,
+            GitHubService githubService, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${github.activity.parallelism:4}") int parallelism,
+            @Value("${github.activity.backfill-days:90}") int backfillDays) {
+        this.projectRepository = projectRepository;
+        this.cursorRepository = cursorRepository;
+        this.activityRepository = activityRepository;
+        this.githubService = githubService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism;
+        this.backfill = Duration.ofDays(backfillDays);
+        this.ingestedCommits = counter(meterRegistry, "commit");
+        this.ingestedPullRequests = counter(meterRegistry, "pull_request");
+        this.ingestedIssues = counter(meterRegistry, "issue");
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("github.activity.ingested")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    /** 一次同步取得的資料列 / Rows fetched by one repository sync */
+    private record Batch(List<Object[]> commits, List<Object[]> pulls, List<Object[]> issues,
+            String commitsHead, LocalDateTime commitsSince, LocalDateTime pullsSince, LocalDateTime issuesSince) {
+    }
+
+    // ========================================
+    // 排程 / Scheduling
+    // ========================================
+
+    @Scheduled(fixedDelayString = "${github.activity.interval-ms:900000}",
+            initialDelayString = "${github.activity.initial-delay-ms:60000}")
+    public void ingestAll() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // 同一倉庫只同步一次，分支取第一個有設定的 / One sync per repository, first configured branch wins
+            Map<String, String> repos = new LinkedHashMap<>();
+            for (GithubRepoRow row : projectRepository.findAllWithGithubRepo()) {
+                String repo = row.getGithubRepo().trim().toLowerCase(Locale.ROOT);
+                String branch = row.getGithubBranch() != null && !row.getGithubBranch().isBlank()
+                        ? row.getGithubBranch() : null;
+                repos.merge(repo, branch == null ? "" : branch, (current, next) -> current.isEmpty() ? next : current);
+            }
+            purgeUnlinked(repos.keySet());
+            if (repos.isEmpty()) {
+                return;
+            }
+
+            GitHub github = githubService.getOrganizationClient();
+            long start = System.nanoTime();
+            Map<String, Future<?>> runs = new LinkedHashMap<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                    Thread.ofVirtual().name("github-activity-", 0).factory())) {
+                repos.forEach((repo, branch) -> runs.put(repo, executor.submit(
+                        () -> ingest(github, repo, branch.isEmpty() ? null : branch))));
+            }
+            int failed = 0;
+            for (Map.Entry<String, Future<?>> run : runs.entrySet()) {
+                try {
+                    run.getValue().get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("GitHub activity ingestion of {} failed", run.getKey(), e.getCause());
+                }
+            }
+            log.info("GitHub activity of {} repositories ingested in {} ms, {} failed", repos.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis(), failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("GitHub activity ingestion failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 清除已無專案綁定之倉庫的游標與資料 / Drop cursors and rows of repositories no project links any more
+     */
+    private void purgeUnlinked(Set<String> linked) {
+        for (String repo : cursorRepository.findAllRepos()) {
+            if (linked.contains(repo)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                activityRepository.deleteCommitsByRepo(repo);
+                activityRepository.deletePullRequestsByRepo(repo);
+                activityRepository.deleteIssuesByRepo(repo);
+                cursorRepository.deleteById(repo);
+            });
+            log.info("Purged GitHub activity of unlinked repository {}", repo);
+        }
+    }
+
+    // ========================================
+    // 同步 / Ingestion
+    // ========================================
+
+    private void ingest(GitHub github, String repoName, String branch) {
+        GitHubActivityCursor cursor = cursorRepository.findById(repoName)
+                .orElseGet(() -> GitHubActivityCursor.builder().repo(repoName).branch(branch).build());
+        boolean branchChanged = !Objects.equals(cursor.getBranch(), branch);
+        if (branchChanged) {
+            cursor.setBranch(branch);
+            cursor.setCommitsHead(null);
+            cursor.setCommitsSince(null);
+        }
+
+        Batch batch;
+        try {
+            batch = fetch(github.getRepository(repoName), cursor);
+        } catch (Exception e) {
+            log.warn("Failed to ingest GitHub activity of {}: {}", repoName, e.getMessage());
+            String error = e.getMessage() != null && e.getMessage().length() > MAX_TEXT_LENGTH
+                    ? e.getMessage().substring(0, MAX_TEXT_LENGTH) : e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> {
+                cursor.setLastError(error);
+                cursorRepository.save(cursor);
+            });
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (branchChanged) {
+                activityRepository.deleteCommitsByRepo(repoName);
+            }
+            upsertCommits(batch.commits());
+            upsertPullRequests(batch.pulls());
+            upsertIssues(batch.issues());
+            cursor.setCommitsHead(batch.commitsHead());
+            cursor.setCommitsSince(batch.commitsSince());
+            cursor.setPullsSince(batch.pullsSince());
+            cursor.setIssuesSince(batch.issuesSince());
+            cursor.setLastSyncedAt(LocalDateTime.now());
+            cursor.setLastError(null);
+            cursorRepository.save(cursor);
+        });
+        ingestedCommits.increment(batch.commits().size());
+        ingestedPullRequests.increment(batch.pulls().size());
+        ingestedIssues.increment(batch.issues().size());
+    }
+
+    private Batch fetch(GHRepository repo, GitHubActivityCursor cursor) throws IOException {
+        String repoName = cursor.getRepo();
+        LocalDateTime floor = LocalDateTime.now().minus(backfill);
+
+        // 提交：比對上次的最新提交與目前最新提交，取得之間所有新提交（與提交日期無關）
+        // Commits: everything reachable from the current head but not the previous one, whatever its date
+        String head = repo.getBranch(cursor.getBranch() != null ? cursor.getBranch() : repo.getDefaultBranch())
+                .getSHA1();
+        LocalDateTime commitsSince = cursor.getCommitsSince();
+        List<Object[]> commits = new ArrayList<>();
+        for (GHCommit commit : newCommits(repo, cursor, head, start(commitsSince, floor))) {
+            // 比對結果的提交資料在內層物件，讀取外層會逐筆重新查詢 / Compare results carry their data in an inner object
+            GitUser author;
+            GitUser committer;
+            String message;
+            if (commit instanceof GHCompare.Commit compared) {
+                author = compared.getCommit().getAuthor();
+                committer = compared.getCommit().getCommitter();
+                message = compared.getCommit().getMessage();
+            } else {
+                GHCommit.ShortInfo info = commit.getCommitShortInfo();
+                author = info.getAuthor();
+                committer = info.getCommitter();
+                message = info.getMessage();
+            }
+            LocalDateTime committedAt = toLocalDateTime(committer.getDate());
+            commits.add(new Object[] { repoName, commit.getSHA1(), author != null ? truncate(author.getName()) : null,
+                    truncate(firstLine(message)), Timestamp.valueOf(committedAt) });
+            commitsSince = max(commitsSince, committedAt);
+        }
+
+        // 合併請求：依更新時間由新到舊，讀到游標之前即停止 / Newest updates first, stop past the cursor
+        LocalDateTime pullsSince = cursor.getPullsSince();
+        LocalDateTime pullsStart = start(pullsSince, floor);
+        List<Object[]> pulls = new ArrayList<>();
+        for (GHPullRequest pull : repo.queryPullRequests().state(GHIssueState.ALL)
+                .sort(GHPullRequestQueryBuilder.Sort.UPDATED).direction(GHDirection.DESC)
+                .list().withPageSize(PAGE_SIZE)) {
+            LocalDateTime updatedAt = toLocalDateTime(pull.getUpdatedAt());
+            if (updatedAt != null && updatedAt.isBefore(pullsStart)) {
+                break;
+            }
+            pulls.add(new Object[] { repoName, pull.getNumber(), truncate(pull.getTitle()), pull.getState().name(),
+                    login(pull.getUser()), timestamp(pull.getCreatedAt()), timestamp(pull.getUpdatedAt()),
+                    timestamp(pull.getClosedAt()), timestamp(pull.getMergedAt()) });
+            pullsSince = max(pullsSince, updatedAt);
+        }
+
+        // Issue：issues API 也會回傳合併請求，需略過 / The issues API also returns pull requests
+        LocalDateTime issuesSince = cursor.getIssuesSince();
+        List<Object[]> issues = new ArrayList<>();
+        for (GHIssue issue : repo.queryIssues().state(GHIssueState.ALL).since(toDate(start(issuesSince, floor)))
+                .pageSize(PAGE_SIZE).list()) {
+            LocalDateTime updatedAt = toLocalDateTime(issue.getUpdatedAt());
+            issuesSince = max(issuesSince, updatedAt);
+            if (issue.isPullRequest()) {
+                continue;
+            }
+            issues.add(new Object[] { repoName, issue.getNumber(), truncate(issue.getTitle()),
+                    issue.getState().name(), login(issue.getUser()), timestamp(issue.getCreatedAt()),
+                    timestamp(issue.getUpdatedAt()), timestamp(issue.getClosedAt()) });
+        }
+
+        return new Batch(commits, pulls, issues, head, commitsSince, pullsSince, issuesSince);
+    }
+
+    /**
+     * 上次最新提交之後的提交；首次同步或舊提交已不存在（例如強制推送）時退回依時間查詢
+     * Commits since the previous head. On the first sync, or when the previous
+     * head is gone (e.g. after a force push), fall back to a time window.
+     */
+    private static Iterable<? extends GHCommit> newCommits(GHRepository repo, GitHubActivityCursor cursor,
+            String head, LocalDateTime since) throws IOException {
+        String previous = cursor.getCommitsHead();
+        if (head.equals(previous)) {
+            return List.of();
+        }
+        if (previous != null) {
+            try {
+                repo.setCompareUsePaginatedCommits(true);
+                return repo.getCompare(previous, head).listCommits().withPageSize(PAGE_SIZE);
+            } catch (GHFileNotFoundException e) {
+                log.info("Previous head {} of {} is gone, listing commits by time", previous, cursor.getRepo());
+            }
+        }
+        return repo.queryCommits().from(head).since(toDate(since)).pageSize(PAGE_SIZE).list();
+    }
+
+    // ========================================
+    // 寫入 / Upserts
+    // ========================================
+
+    private void upsertCommits(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO github_commits (repo, sha, author_name, message, committed_at) " +
+                    "VALUES (?, ?, ?, ?, ?) ON CONFLICT (repo, sha) DO NOTHING", rows);
+        }
+    }
+
+    private void upsertPullRequests(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO github_pull_requests " +
+                    "(repo, number, title, state, author_login, created_at, updated_at, closed_at, merged_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (repo, number) DO UPDATE SET " +
+                    "title = EXCLUDED.title, state = EXCLUDED.state, updated_at = EXCLUDED.updated_at, " +
+                    "closed_at = EXCLUDED.closed_at, merged_at = EXCLUDED.merged_at", rows);
+        }
+    }
+
+    private void upsertIssues(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO github_issues " +
+                    "(repo, number, title, state, author_login, created_at, updated_at, closed_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (repo, number) DO UPDATE SET " +
+                    "title = EXCLUDED.title, state = EXCLUDED.state, updated_at = EXCLUDED.updated_at, " +
+                    "closed_at = EXCLUDED.closed_at", rows);
+        }
+    }
+
+    // ========================================
+    // 工具 / Helpers
+    // ========================================
+
+    /** 從游標減去重疊時間開始，首次同步則從回填起點開始 / Cursor minus overlap, or the backfill floor */
+    private static LocalDateTime start(LocalDateTime since, LocalDateTime floor) {
+        return since != null ? since.minus(OVERLAP) : floor;
+    }
+
+    private static LocalDateTime max(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private static Timestamp timestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+
+    private static String login(GHUser user) {
+        return user != null ? user.getLogin() : null;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return null;
+        }
+        int newline = message.indexOf('\n');
+        return newline >= 0 ? message.substring(0, newline) : message;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+}
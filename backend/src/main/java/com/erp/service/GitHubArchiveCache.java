@@ -0,0 +1,392 @@
+package com.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GitHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file GitHubArchiveCache.java
+ * @description GitHub 壓縮檔快取 / GitHub Archive Cache
+ * @description_en Local disk cache of repository zip archives keyed by commit
+ *                 SHA. A branch is resolved to its head commit first, so every
+ *                 download of an unchanged branch is served from disk. An
+ *                 uncached commit is fetched once in the background and every
+ *                 request for it streams the file while it is being written.
+ *                 The least recently used archives are evicted once the cache
+ *                 exceeds its size limit; archives are opened before they are
+ *                 served, so eviction never pulls one away mid-response
+ * @description_zh 以提交 SHA 為鍵的倉庫壓縮檔本機磁碟快取。先將分支解析為最新提交，
+ *                 分支未變更時的下載皆由磁碟提供。未快取的提交只在背景向 GitHub 下載一次，
+ *                 所有請求在檔案寫入的同時即開始傳送。快取超過容量上限時移除最久未使用的
+ *                 壓縮檔；壓縮檔先開啟再傳送，傳送中不會因移除而中斷
+ */
+@Service
+@Slf4j
+public class GitHubArchiveCache {
+
+    private static final String TEMP_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final GitHubTreeCache treeCache;
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Download> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public GitHubArchiveCache(GitHubTreeCache treeCache, MeterRegistry meterRegistry,
+            @Value("${github.archive-cache.dir:${java.io.tmpdir}/github-archives}") String directory,
+            @Value("${github.archive-cache.max-size-mb:2048}") long maxSizeMb) throws IOException {
+        this.treeCache = treeCache;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        Files.createDirectories(this.directory);
+        removeLeftovers();
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("github.archive.cache.requests")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * 已開啟的壓縮檔。先開啟再傳送，傳送中被移除仍可讀完；下載中的壓縮檔邊寫邊讀
+     * An opened archive. It is opened before it is served, so eviction cannot
+     * pull it away mid-response; an archive still downloading is read as it is
+     * written.
+     */
+    public static final class Archive implements Closeable {
+
+        private final String sha;
+        private final FileChannel channel;
+        /** 下載完成前為進行中的下載 / The running download, null once complete */
+        private final Download download;
+
+        private Archive(String sha, FileChannel channel, Download download) {
+            this.sha = sha;
+            this.channel = channel;
+            this.download = download;
+        }
+
+        public String sha() {
+            return sha;
+        }
+
+        /** 是否已完整下載；否則長度未知且不支援 Range / Whether fully downloaded; otherwise the length is unknown */
+        public boolean isComplete() {
+            return download == null;
+        }
+
+        public long length() throws IOException {
+            return channel.size();
+        }
+
+        /** 傳送已完成壓縮檔的位元組範圍 [start, end] / Send bytes start..end of a complete archive */
+        public void transferTo(long start, long end, WritableByteChannel out) throws IOException {
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+
+        /** 傳送整個壓縮檔，下載中則跟著寫入進度傳送 / Send the whole archive, following a running download */
+        public void transferTo(WritableByteChannel out) throws IOException {
+            if (download == null) {
+                transferTo(0, channel.size() - 1, out);
+                return;
+            }
+            long position = 0;
+            while (true) {
+                long available = download.awaitBeyond(position);
+                if (available > position) {
+                    position += channel.transferTo(position, available - position, out);
+                } else {
+                    // 下載結束；失敗時拋出 / The download ended; rethrow its failure
+                    await(download.result);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /** 進行中的下載與已寫入的位元組數 / A running download and how much of it is on disk */
+    private static final class Download {
+
+        private final Path temp;
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
+        private long written;
+
+        private Download(Path temp) {
+            this.temp = temp;
+        }
+
+        synchronized void advance(long bytes) {
+            written += bytes;
+            notifyAll();
+        }
+
+        synchronized void finish(Path file, Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(file);
+            }
+            notifyAll();
+        }
+
+        /** 等到寫入超過指定位置或下載結束 / Wait until bytes past the position are written or the download ends */
+        synchronized long awaitBeyond(long position) throws IOException {
+            try {
+                while (written <= position && !result.isDone()) {
+                    wait();
+                }
+                return written;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for archive download", e);
+            }
+        }
+
+        /**
+         * 加入下載；已完成時開啟最終檔案，若已被移除則回傳 null
+         * Join the download. Once finished the final file is opened instead,
+         * and null means it was already evicted.
+         */
+        Archive open(String sha) throws IOException {
+            while (!result.isDone()) {
+                try {
+                    return new Archive(sha, FileChannel.open(temp, StandardOpenOption.READ), this);
+                } catch (NoSuchFileException e) {
+                    // 暫存檔剛被搬移或刪除，等待結果 / The temp file was just moved or deleted
+                    await(result);
+                }
+            }
+            FileChannel channel = openIfPresent(await(result));
+            return channel != null ? new Archive(sha, channel, null) : null;
+        }
+    }
+
+    /**
+     * 取得分支目前提交的壓縮檔，必要時下載；呼叫端負責關閉
+     * Archive of the branch's current commit, downloading it if needed. The
+     * caller closes it.
+     */
+    public Archive get(GitHub github, String token, String repoName, String branch) throws IOException {
+        String sha = treeCache.resolveCommitSha(github, token, repoName, branch);
+        String key = repoName.replace('/', '_') + "-" + sha;
+        Path file = directory.resolve(key + ".zip");
+
+        while (true) {
+            Archive cached = openCached(file, sha);
+            if (cached != null) {
+                return cached;
+            }
+
+            // 同一提交只下載一次，其餘請求跟著同一份下載讀取 / One fetch per commit; others read along
+            Download mine = new Download(Files.createTempFile(directory, file.getFileName().toString(), TEMP_SUFFIX));
+            Download existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                Files.deleteIfExists(mine.temp);
+                Archive joined = existing.open(sha);
+                if (joined != null) {
+                    coalesced.increment();
+                    return joined;
+                }
+                continue;
+            }
+
+            // 前一個下載可能剛完成 / A previous fetch may have just finished
+            cached = openCached(file, sha);
+            if (cached != null) {
+                mine.finish(file, null);
+                inFlight.remove(key, mine);
+                Files.deleteIfExists(mine.temp);
+                return cached;
+            }
+            misses.increment();
+            Archive reader = mine.open(sha);
+            GitHubRequestScheduler.Priority priority = GitHubRequestScheduler.currentPriority();
+            Thread.ofVirtual().name("github-archive-" + key).start(() -> GitHubRequestScheduler.runAs(priority,
+                    () -> download(github, repoName, sha, file, key, mine)));
+            return reader;
+        }
+    }
+
+    /** 開啟快取檔；不存在（或剛被移除）即為未命中 / Open a cached file; missing or just evicted is a miss */
+    private Archive openCached(Path file, String sha) throws IOException {
+        FileChannel channel = openIfPresent(file);
+        if (channel == null) {
+            return null;
+        }
+        hits.increment();
+        touch(file);
+        return new Archive(sha, channel, null);
+    }
+
+    private static FileChannel openIfPresent(Path file) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void download(GitHub github, String repoName, String sha, Path file, String key, Download download) {
+        long start = System.nanoTime();
+        boolean cached = false;
+        try {
+            github.getRepository(repoName).readZip(in -> {
+                copy(in, download);
+                return null;
+            }, sha);
+            Files.move(download.temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Cached archive of {}@{} ({} bytes) in {} ms", repoName, sha, Files.size(file),
+                    (System.nanoTime() - start) / 1_000_000);
+            download.finish(file, null);
+            cached = true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to download archive of {}@{}: {}", repoName, sha, e.getMessage());
+            download.finish(null, e);
+        } finally {
+            inFlight.remove(key, download);
+            try {
+                Files.deleteIfExists(download.temp);
+            } catch (IOException e) {
+                log.warn("Failed to remove partial archive {}: {}", download.temp.getFileName(), e.getMessage());
+            }
+        }
+        if (cached) {
+            evictIfNeeded(file);
+        }
+    }
+
+    private static void copy(InputStream in, Download download) throws IOException {
+        try (FileChannel out = FileChannel.open(download.temp, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+                download.advance(read);
+            }
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    // ========================================
+    // 容量控管 / Eviction
+    // ========================================
+
+    /** 以修改時間記錄最後使用時間 / The modification time doubles as last access */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // 已被移除也無妨 / Already evicted, nothing to update
+        }
+    }
+
+    /**
+     * 超過上限時刪除最久未使用的壓縮檔；正在傳送中的檔案刪除後仍可讀完
+     * Delete least recently used archives beyond the limit. Files being served
+     * stay readable after unlinking.
+     */
+    private synchronized void evictIfNeeded(Path keep) {
+        List<Path> archives = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.zip")) {
+            for (Path archive : stream) {
+                archives.add(archive);
+                total += Files.size(archive);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to scan archive cache: {}", e.getMessage());
+            return;
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        archives.sort(Comparator.comparing(GitHubArchiveCache::lastModified));
+        for (Path archive : archives) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (archive.equals(keep)) {
+                continue;
+            }
+            try {
+                long size = Files.size(archive);
+                Files.deleteIfExists(archive);
+                total -= size;
+                log.info("Evicted cached archive {}", archive.getFileName());
+            } catch (IOException e) {
+                log.warn("Failed to evict {}: {}", archive.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /** 清除上次中斷留下的暫存檔 / Remove partial downloads left by a previous run */
+    private void removeLeftovers() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path partial : stream) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+}
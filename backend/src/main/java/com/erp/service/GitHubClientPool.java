@@ -0,0 +1,173 @@
+package com.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @file GitHubClientPool.java
+ * @description GitHub 用戶端池 / GitHub Client Pool
+ * @description_en Keeps one GitHub client per token. All clients share one
+ *                 OkHttp connection pool and one on-disk HTTP cache. Every GET is
+ *                 revalidated with If-None-Match, so unchanged resources come
+ *                 back as 304s that GitHub does not count against the rate limit.
+ *                 The API URL is validated only when a client is created; a 401
+ *                 or a network failure drops the client, so the next call
+ *                 rebuilds and revalidates it
+ * @description_zh 每個 Token 保留一個 GitHub 用戶端，全部共用同一個 OkHttp 連線池與磁碟
+ *                 HTTP 快取。每個 GET 都以 If-None-Match 重新驗證，未變更的資源回傳 304，
+ *                 不計入 GitHub 配額。API 位址只在建立用戶端時驗證；遇到 401 或網路錯誤
+ *                 時移除該用戶端，下次呼叫會重新建立並驗證
+ */
+@Service
+@Slf4j
+public class GitHubClientPool {
+
+    /** 標記由快取提供的回應 / Marks responses served through the cache */
+    static final String CACHE_HEADER = "X-Erp-Http-Cache";
+
+    private final GitHubRequestScheduler requestScheduler;
+    private final String apiUrl;
+    private final OkHttpClient httpClient;
+    private final GitHubConnector connector;
+    private final Map<String, GitHub> clients;
+
+    public GitHubClientPool(GitHubRequestScheduler requestScheduler, MeterRegistry meterRegistry,
+            @Value("${github.api-url:https://api.github.com}") String apiUrl,
+            @Value("${github.client-pool.max-size:100}") int maxClients,
+            @Value("${github.http-cache.dir:${java.io.tmpdir}/github-http-cache}") String cacheDir,
+            @Value("${github.http-cache.max-size-mb:100}") long cacheSizeMb) {
+        this.requestScheduler = requestScheduler;
+        this.apiUrl = apiUrl;
+
+        Counter hits = cacheCounter(meterRegistry, "hit");
+        Counter revalidated = cacheCounter(meterRegistry, "revalidated");
+        Counter misses = cacheCounter(meterRegistry, "miss");
+        this.httpClient = new OkHttpClient.Builder()
+                .cache(new Cache(new File(cacheDir), cacheSizeMb * 1024 * 1024))
+                .connectionPool(new ConnectionPool(20, 5, TimeUnit.MINUTES))
+                .connectTimeout(Duration.ofSeconds(10))
+                .readTimeout(Duration.ofSeconds(60))
+                .addInterceptor(chain -> {
+                    Response response = chain.proceed(chain.request());
+                    String result = classify(response);
+                    switch (result) {
+                        case "hit" -> hits.increment();
+                        case "revalidated" -> revalidated.increment();
+                        default -> misses.increment();
+                    }
+                    return response.newBuilder().header(CACHE_HEADER, result).build();
+                })
+                .build();
+        // cacheMaxAge 0：每次都以條件式請求重新驗證 / Always revalidate with a conditional request
+        this.connector = new OkHttpGitHubConnector(httpClient, 0);
+
+        this.clients = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GitHub> eldest) {
+                return size() > maxClients;
+            }
+        };
+        Gauge.builder("github.clients.pooled", this, pool -> pool.size()).register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String result) {
+        return Counter.builder("github.http.cache")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static String classify(Response response) {
+        if (response.cacheResponse() == null) {
+            return "miss";
+        }
+        return response.networkResponse() != null ? "revalidated" : "hit";
+    }
+
+    /**
+     * 取得 Token 的用戶端；不存在時建立並驗證 API 位址
+     * Client for the token; created and validated on first use.
+     */
+    public GitHub get(String token) throws IOException {
+        synchronized (clients) {
+            GitHub cached = clients.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        GitHub github = new GitHubBuilder()
+                .withEndpoint(apiUrl)
+                .withOAuthToken(token)
+                .withConnector(requestScheduler.connectorFor(token, evictingOnFailure(token)))
+                .withRateLimitHandler(requestScheduler.rateLimitHandler())
+                .withAbuseLimitHandler(requestScheduler.abuseLimitHandler())
+                .build();
+        github.checkApiUrlValidity();
+        synchronized (clients) {
+            clients.putIfAbsent(token, github);
+            return clients.get(token);
+        }
+    }
+
+    public void invalidate(String token) {
+        synchronized (clients) {
+            clients.remove(token);
+        }
+    }
+
+    private int size() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    /**
+     * 401 或網路錯誤時移除用戶端，下次使用時重新驗證
+     * Drop the client on a 401 or network failure so it is revalidated on next use.
+     */
+    private GitHubConnector evictingOnFailure(String token) {
+        return request -> {
+            try {
+                GitHubConnectorResponse response = connector.send(request);
+                if (response.statusCode() == 401) {
+                    invalidate(token);
+                }
+                return response;
+            } catch (IOException e) {
+                invalidate(token);
+                throw e;
+            }
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+        try {
+            httpClient.cache().close();
+        } catch (IOException e) {
+            log.warn("Failed to close GitHub HTTP cache: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.erp.service;
+
+import com.erp.dto.GitHubReconciliationReport;
+import com.erp.dto.GitHubReconciliationReport.Outcome;
+import com.erp.dto.GitHubReconciliationReport.ProjectResult;
+import com.erp.entity.GitHubSyncStatus;
+import com.erp.entity.User;
+import com.erp.repository.ProjectRepository;
+import com.erp.repository.ProjectRepository.GithubRepoRow;
+import com.erp.repository.ProjectRepository.MemberRow;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHPermissionType;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHUser;
+import org.kohsuke.github.GitHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * @file GitHubCollaboratorReconciler.java
+ * @description GitHub 協作者校正作業 / GitHub Collaborator Reconciler
+ * @description_en Makes the collaborators of every linked repository match the
+ *                 project team. One GitHub client serves the whole run;
+ *                 collaborator sets are fetched concurrently, diffs are computed
+ *                 in memory, and the changes are applied with bounded parallelism.
+ *                 Pacing against the rate limit is left to GitHubRequestScheduler,
+ *                 which runs these calls at background priority. Each GitHub user
+ *                 is resolved at most once per run. Only direct collaborators are
+ *                 ever removed, and repository or organization admins are kept
+ *                 and reported instead
+ * @description_zh 讓每個已綁定倉庫的協作者與專案成員一致。整次作業共用一個 GitHub 用戶端；
+ *                 並行取得協作者清單、在記憶體中計算差異，再以有限並行度套用變更，
+ *                 配額控管交由 GitHubRequestScheduler 以背景優先權處理。每個 GitHub 使用者
+ *                 每次作業最多查詢一次。只會移除直接協作者，倉庫或組織管理員一律保留並
+ *                 列於報告中
+ */
+@Service
+@Slf4j
+public class GitHubCollaboratorReconciler {
+
+    private final ProjectRepository projectRepository;
+    private final GitHubService githubService;
+    private final int parallelism;
+    private final int writeParallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<GitHubReconciliationReport> lastReport = new AtomicReference<>();
+
+    public GitHubCollaboratorReconciler(ProjectRepository projectRepository, GitHubService githubService,
+            @Value("${github.reconcile.parallelism:8}") int parallelism,
+            @Value("${github.reconcile.write-parallelism:2}") int writeParallelism) {
+        this.projectRepository = projectRepository;
+        this.githubService = githubService;
+        this.parallelism = parallelism;
+        this.writeParallelism = writeParallelism;
+    }
+
+    /** 一個專案的協作者差異 / Collaborator diff of one project */
+    private record Plan(ProjectResult result, GHRepository repo, List<Change> changes) {
+    }
+
+    /** permission 為 null 表示移除 / A null permission means removal */
+    private record Change(String login, GHOrganization.Permission permission) {
+    }
+
+    // ========================================
+    // 觸發 / Triggers
+    // ========================================
+
+    @Scheduled(cron = "${github.reconcile.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("GitHub reconciliation already running, skipping scheduled run");
+            return;
+        }
+        try {
+            runAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 於背景啟動全組織校正 / Start an org-wide run in the background
+     *
+     * @return 已有作業執行中時為 false / false if a run is already in progress
+     */
+    public boolean startAll() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("github-reconcile").start(() -> {
+            try {
+                runAll();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<GitHubReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    /**
+     * 校正單一專案（手動同步成員）/ Reconcile a single project (manual member sync)
+     */
+    public ProjectResult reconcileProject(String projectId) {
+        GithubRepoRow row = projectRepository.findGithubRepoRowById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
+        if (row.getGithubRepo() == null || row.getGithubRepo().isEmpty()) {
+            throw new RuntimeException("專案尚未綁定 GitHub 倉庫");
+        }
+        return reconcile(List.of(row)).getProjects().get(0);
+    }
+
+    private void runAll() {
+        try {
+            GitHubReconciliationReport report = reconcile(projectRepository.findAllWithGithubRepo());
+            lastReport.set(report);
+            log.info("GitHub reconciliation of {} projects finished in {} ms: {} changed, {} failed",
+                    report.getProjectCount(), report.getDurationMs(), report.getChangedCount(),
+                    report.getFailedCount());
+        } catch (RuntimeException e) {
+            log.error("GitHub reconciliation failed", e);
+        }
+    }
+
+    // ========================================
+    // 校正 / Reconciliation
+    // ========================================
+
+    private GitHubReconciliationReport reconcile(List<GithubRepoRow> rows) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        GitHub github;
+        try {
+            github = githubService.getOrganizationClient();
+        } catch (IOException e) {
+            throw new RuntimeException("GitHub 連線失敗: " + e.getMessage(), e);
+        }
+        String organization = githubService.getOrganizationName();
+        Set<String> orgAdmins;
+        try {
+            // 組織管理員經由組織取得權限，絕不移除 / Org admins get access through the org and are never removed
+            orgAdmins = github.getOrganization(organization).listMembersWithRole("admin").toList().stream()
+                    .map(admin -> admin.getLogin().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new RuntimeException("無法取得組織管理員: " + e.getMessage(), e);
+        }
+
+        Map<String, List<MemberRow>> members = rows.isEmpty() ? Map.of()
+                : projectRepository.findMembersByProjectIds(rows.stream().map(GithubRepoRow::getId).toList())
+                        .stream().collect(Collectors.groupingBy(MemberRow::getProjectId));
+        Map<String, GHUser> users = new ConcurrentHashMap<>();
+        Semaphore writes = new Semaphore(writeParallelism);
+
+        List<Plan> plans = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofVirtual().name("github-reconcile-", 0).factory())) {
+            // 1. 並行取得目前協作者並計算差異 / Fetch current collaborators and diff
+            List<Future<Plan>> fetches = rows.stream()
+                    .map(row -> executor.submit(() -> plan(github, organization, row,
+                            members.getOrDefault(row.getId(), List.of()), users, orgAdmins)))
+                    .toList();
+            for (Future<Plan> fetch : fetches) {
+                plans.add(join(fetch));
+            }
+
+            // 2. 以有限並行度套用變更 / Apply the changes with bounded parallelism
+            List<Future<?>> applies = new ArrayList<>();
+            for (Plan plan : plans) {
+                for (Change change : plan.changes()) {
+                    applies.add(executor.submit(() -> apply(github, plan, change, users, writes)));
+                }
+            }
+            applies.forEach(GitHubCollaboratorReconciler::join);
+        }
+
+        List<ProjectResult> results = new ArrayList<>();
+        for (Plan plan : plans) {
+            ProjectResult result = plan.result();
+            if (result.getOutcome() == null) {
+                result.setOutcome(!result.getErrors().isEmpty() ? Outcome.FAILED
+                        : result.getAdded().isEmpty() && result.getRemoved().isEmpty() ? Outcome.UNCHANGED
+                                : Outcome.CHANGED);
+            }
+            results.add(result);
+        }
+
+        return GitHubReconciliationReport.builder()
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .durationMs(Duration.ofNanos(System.nanoTime() - start).toMillis())
+                .projectCount(results.size())
+                .changedCount((int) results.stream().filter(r -> r.getOutcome() == Outcome.CHANGED).count())
+                .failedCount((int) results.stream().filter(r -> r.getOutcome() == Outcome.FAILED).count())
+                .projects(results)
+                .build();
+    }
+
+    private Plan plan(GitHub github, String organization, GithubRepoRow row, List<MemberRow> team,
+            Map<String, GHUser> users, Set<String> orgAdmins) {
+        ProjectResult result = ProjectResult.builder()
+                .projectId(row.getId())
+                .title(row.getTitle())
+                .githubRepo(row.getGithubRepo())
+                .build();
+        // 發件匣尚未完成（例如倉庫仍在建立中）時不做校正 / Leave projects the outbox is still working on
+        if (row.getGithubSyncStatus() == GitHubSyncStatus.PENDING) {
+            result.setOutcome(Outcome.SKIPPED);
+            return new Plan(result, null, List.of());
+        }
+
+        try {
+            GHRepository repo = github.getRepository(organization + "/" + repoName(row.getGithubRepo()));
+
+            // GitHub 帳號不分大小寫 / GitHub logins are case-insensitive
+            // 所有可存取者用於判斷是否需加入；只有直接協作者可能被移除
+            // Everyone with access decides additions; only direct collaborators can be removed
+            Set<String> withAccess = new HashSet<>();
+            for (GHUser collaborator : repo.listCollaborators()) {
+                String key = collaborator.getLogin().toLowerCase(Locale.ROOT);
+                withAccess.add(key);
+                users.putIfAbsent(key, collaborator);
+            }
+            Map<String, GHUser> direct = new HashMap<>();
+            for (GHUser collaborator : repo.listCollaborators(GHRepository.CollaboratorAffiliation.DIRECT)) {
+                direct.put(collaborator.getLogin().toLowerCase(Locale.ROOT), collaborator);
+            }
+
+            Map<String, MemberRow> desired = new HashMap<>();
+            for (MemberRow member : team) {
+                String login = member.getGithubUsername();
+                if (login != null && !login.trim().isEmpty()) {
+                    desired.put(login.trim().toLowerCase(Locale.ROOT), member);
+                }
+            }
+
+            List<Change> changes = new ArrayList<>();
+            desired.forEach((key, member) -> {
+                if (!withAccess.contains(key)) {
+                    changes.add(new Change(member.getGithubUsername().trim(), member.getRole() == User.Role.DEV
+                            ? GHOrganization.Permission.PUSH
+                            : GHOrganization.Permission.PULL));
+                }
+            });
+            for (Map.Entry<String, GHUser> entry : direct.entrySet()) {
+                if (desired.containsKey(entry.getKey())) {
+                    continue;
+                }
+                GHUser collaborator = entry.getValue();
+                if (orgAdmins.contains(entry.getKey()) || repo.getPermission(collaborator) == GHPermissionType.ADMIN) {
+                    result.getKept().add(collaborator.getLogin());
+                } else {
+                    changes.add(new Change(collaborator.getLogin(), null));
+                }
+            }
+            return new Plan(result, repo, changes);
+        } catch (Exception e) {
+            log.warn("Failed to read collaborators of {}: {}", row.getGithubRepo(), e.getMessage());
+            result.setOutcome(Outcome.FAILED);
+            result.getErrors().add(e.getMessage());
+            return new Plan(result, null, List.of());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void apply(GitHub github, Plan plan, Change change, Map<String, GHUser> users, Semaphore writes) {
+        ProjectResult result = plan.result();
+        try {
+            writes.acquire();
+            try {
+                GHUser user = resolveUser(github, change.login(), users);
+                if (change.permission() != null) {
+                    plan.repo().addCollaborators(Collections.singletonList(user), change.permission());
+                } else {
+                    plan.repo().removeCollaborators(user);
+                }
+            } finally {
+                writes.release();
+            }
+            synchronized (result) {
+                (change.permission() != null ? result.getAdded() : result.getRemoved()).add(change.login());
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Failed to {} collaborator {} on {}: {}", change.permission() != null ? "add" : "remove",
+                    change.login(), result.getGithubRepo(), e.getMessage());
+            synchronized (result) {
+                result.getErrors().add(change.login() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static GHUser resolveUser(GitHub github, String login, Map<String, GHUser> users) throws IOException {
+        String key = login.toLowerCase(Locale.ROOT);
+        GHUser user = users.get(key);
+        if (user == null) {
+            user = github.getUser(login);
+            users.put(key, user);
+        }
+        return user;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("GitHub reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /** 去除組織前綴 / Strip the organization prefix of "org/repo" */
+    private static String repoName(String fullRepoName) {
+        String[] parts = fullRepoName.split("/");
+        return parts.length == 2 ? parts[1] : fullRepoName;
+    }
+}
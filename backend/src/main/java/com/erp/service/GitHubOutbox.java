@@ -0,0 +1,121 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubOutboxEntry;
+import com.erp.entity.GitHubSyncStatus;
+import com.erp.entity.User;
+import com.erp.repository.GitHubOutboxRepository;
+import com.erp.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.kohsuke.github.GHOrganization;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * @file GitHubOutbox.java
+ * @description GitHub 發件匣 / GitHub Outbox
+ * @description_en Queues GitHub side effects inside the caller's transaction, so
+ *                 they are recorded if and only if the project change commits.
+ *                 The request never waits on GitHub; GitHubOutboxWorker runs the
+ *                 queued operations afterwards
+ * @description_zh 於呼叫端的交易中排入 GitHub 操作，確保操作只在專案變更提交時才被記錄。
+ *                 請求不需等待 GitHub，由 GitHubOutboxWorker 於之後執行
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class GitHubOutbox {
+
+    private final GitHubOutboxRepository outboxRepository;
+    private final ProjectRepository projectRepository;
+
+    public void enqueueCreateRepository(String projectId, String repoName, String description, boolean isPrivate) {
+        enqueue(projectId, GitHubOutboxEntry.builder()
+                .operation(GitHubOutboxEntry.Operation.CREATE_REPOSITORY)
+                .repoName(repoName)
+                .description(description)
+                .privateRepo(isPrivate));
+    }
+
+    /**
+     * 為有 GitHub 帳號的使用者排入加入協作者操作；DEV 取得寫入權限，其餘為唯讀
+     * Queue collaborator additions for users with a GitHub login; DEV users get
+     * push access, everyone else pull.
+     */
+    public void enqueueAddCollaborators(String projectId, String fullRepoName, Collection<User> users) {
+        for (User user : users) {
+            if (hasGithubUsername(user)) {
+                GHOrganization.Permission permission = user.getRole() == User.Role.DEV
+                        ? GHOrganization.Permission.PUSH
+                        : GHOrganization.Permission.PULL;
+                enqueue(projectId, GitHubOutboxEntry.builder()
+                        .operation(GitHubOutboxEntry.Operation.ADD_COLLABORATOR)
+                        .repoName(repoName(fullRepoName))
+                        .githubUsername(user.getGithubUsername())
+                        .permission(permission.name()));
+            }
+        }
+    }
+
+    public void enqueueRemoveCollaborators(String projectId, String fullRepoName, Collection<User> users) {
+        for (User user : users) {
+            if (hasGithubUsername(user)) {
+                enqueue(projectId, GitHubOutboxEntry.builder()
+                        .operation(GitHubOutboxEntry.Operation.REMOVE_COLLABORATOR)
+                        .repoName(repoName(fullRepoName))
+                        .githubUsername(user.getGithubUsername()));
+            }
+        }
+    }
+
+    /**
+     * 尚待建立的倉庫名稱（不含組織）；倉庫建立後才會寫入專案的 githubRepo
+     * Name of the repository still waiting to be created, without the
+     * organization. The project's githubRepo is only set once it exists.
+     */
+    public Optional<String> pendingRepositoryName(String projectId) {
+        return outboxRepository.findFirstByProjectIdAndOperationAndStatusOrderByIdDesc(projectId,
+                GitHubOutboxEntry.Operation.CREATE_REPOSITORY, GitHubOutboxEntry.Status.PENDING)
+                .map(GitHubOutboxEntry::getRepoName);
+    }
+
+    /**
+     * 重新排入專案中失敗的操作 / Retry a project's failed operations
+     *
+     * @return 重新排入的數量 / number of re-queued entries
+     */
+    public int retryFailed(String projectId) {
+        int requeued = outboxRepository.requeueFailed(projectId, LocalDateTime.now());
+        if (requeued > 0) {
+            projectRepository.updateGithubSync(projectId, GitHubSyncStatus.PENDING, null);
+        }
+        return requeued;
+    }
+
+    private void enqueue(String projectId, GitHubOutboxEntry.GitHubOutboxEntryBuilder entry) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(entry
+                .projectId(projectId)
+                .status(GitHubOutboxEntry.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        projectRepository.updateGithubSync(projectId, GitHubSyncStatus.PENDING, null);
+    }
+
+    private static boolean hasGithubUsername(User user) {
+        return user.getGithubUsername() != null && !user.getGithubUsername().trim().isEmpty();
+    }
+
+    /** 去除組織前綴 / Strip the organization prefix of "org/repo" */
+    private static String repoName(String fullRepoName) {
+        String[] parts = fullRepoName.split("/");
+        return parts.length == 2 ? parts[1] : fullRepoName;
+    }
+}
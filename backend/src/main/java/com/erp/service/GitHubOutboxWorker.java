@@ -0,0 +1,302 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubOutboxEntry;
+import com.erp.entity.GitHubSyncStatus;
+import com.erp.repository.GitHubOutboxRepository;
+import com.erp.repository.ProjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.HttpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @file GitHubOutboxWorker.java
+ * @description GitHub 發件匣工作者 / GitHub Outbox Worker
+ * @description_en Runs queued GitHub operations outside any request. Entries are
+ *                 claimed with FOR UPDATE SKIP LOCKED under a short lease, so
+ *                 several backend instances can poll safely and no database
+ *                 connection is held while GitHub responds. Failures are retried
+ *                 with exponential backoff; the outcome is written to the project's
+ *                 githubSyncStatus. When a repository cannot be created, the
+ *                 project's remaining entries fail with it
+ * @description_zh 於請求之外執行排入的 GitHub 操作。以 FOR UPDATE SKIP LOCKED 搭配短租約
+ *                 領取項目，多個後端實例可安全地同時輪詢，且等待 GitHub 回應時不占用
+ *                 資料庫連線。失敗時以指數退避重試，結果寫入專案的 githubSyncStatus。
+ *                 倉庫無法建立時，專案其餘的項目一併標記為失敗
+ */
+@Service
+@Slf4j
+public class GitHubOutboxWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    /** 比對倉庫建立時間時容許的時鐘誤差 / Clock skew allowed when comparing creation times */
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private final GitHubOutboxRepository outboxRepository;
+    private final ProjectRepository projectRepository;
+    private final GitHubService githubService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Counter succeeded;
+    private final Counter retried;
+    private final Counter failed;
+
+    public GitHubOutboxWorker(GitHubOutboxRepository outboxRepository, ProjectRepository projectRepository,
+            GitHubService githubService, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${github.outbox.batch-size:20}") int batchSize,
+            @Value("${github.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${github.outbox.base-backoff-seconds:5}") long baseBackoffSeconds,
+            @Value("${github.outbox.max-backoff-seconds:600}") long maxBackoffSeconds,
+            @Value("${github.outbox.lease-seconds:120}") long leaseSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.projectRepository = projectRepository;
+        this.githubService = githubService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.succeeded = counter(meterRegistry, "success");
+        this.retried = counter(meterRegistry, "retry");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("github.outbox.operations")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // ========================================
+    // 輪詢 / Polling
+    // ========================================
+
+    /**
+     * 持續領取並執行到期的項目，直到沒有可執行的項目
+     * Claim and run due entries until none are left.
+     */
+    @Scheduled(fixedDelayString = "${github.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        try {
+            List<GitHubOutboxEntry> claimed = claim();
+            while (!claimed.isEmpty()) {
+                claimed.forEach(this::process);
+                claimed = claim();
+            }
+        } catch (Exception e) {
+            log.error("GitHub outbox poll failed", e);
+        }
+    }
+
+    /**
+     * 在短交易中鎖定項目並延後其執行時間作為租約；工作者中斷時租約到期即可重試
+     * Lock entries in a short transaction and push their next attempt out as a
+     * lease; if this worker dies the entry becomes due again when it expires.
+     */
+    private List<GitHubOutboxEntry> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<GitHubOutboxEntry> due = outboxRepository.lockDue(now, batchSize);
+            for (GitHubOutboxEntry entry : due) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plus(lease));
+                entry.setUpdatedAt(now);
+            }
+            return due;
+        });
+    }
+
+    private void process(GitHubOutboxEntry entry) {
+        try {
+            execute(entry);
+            complete(entry);
+        } catch (Exception e) {
+            fail(entry, e);
+        }
+    }
+
+    // ========================================
+    // 執行 / Execution
+    // ========================================
+
+    private void execute(GitHubOutboxEntry entry) throws IOException {
+        switch (entry.getOperation()) {
+            case CREATE_REPOSITORY -> createRepository(entry);
+            case ADD_COLLABORATOR -> githubService.addCollaboratorToRepo(entry.getRepoName(),
+                    entry.getGithubUsername(), GHOrganization.Permission.valueOf(entry.getPermission()));
+            case REMOVE_COLLABORATOR -> {
+                try {
+                    githubService.removeCollaboratorFromRepo(entry.getRepoName(), entry.getGithubUsername());
+                } catch (GHFileNotFoundException e) {
+                    // 倉庫或使用者已不存在，視為完成 / Repository or user already gone
+                    log.info("Collaborator {} of {} already gone", entry.getGithubUsername(), entry.getRepoName());
+                }
+            }
+        }
+    }
+
+    private void createRepository(GitHubOutboxEntry entry) throws IOException {
+        String orgAndRepo = githubService.getOrganizationName() + "/" + entry.getRepoName();
+        try {
+            String repoUrl = githubService.createOrganizationRepository(entry.getRepoName(),
+                    entry.getDescription(), Boolean.TRUE.equals(entry.getPrivateRepo()));
+            String[] parts = repoUrl.split("/");
+            if (parts.length >= 2) {
+                orgAndRepo = parts[parts.length - 2] + "/" + parts[parts.length - 1];
+            }
+        } catch (HttpException e) {
+            // 先前的嘗試可能已建立倉庫但未能記錄完成 / An earlier attempt may have created it
+            boolean alreadyExists = e.getMessage() != null && e.getMessage().contains("name already exists");
+            if (!alreadyExists || entry.getAttempts() <= 1) {
+                throw e;
+            }
+            GHRepository existing = githubService.findOrganizationRepository(entry.getRepoName());
+            if (existing == null || !createdForEntry(entry, existing)) {
+                throw new IllegalStateException("Repository " + orgAndRepo
+                        + " already exists and was not created for this project");
+            }
+            orgAndRepo = existing.getFullName();
+            log.info("Repository {} was created by an earlier attempt, treating retry as done", orgAndRepo);
+        }
+        String githubRepo = orgAndRepo;
+        transactionTemplate.executeWithoutResult(
+                status -> projectRepository.updateGithubRepo(entry.getProjectId(), githubRepo));
+    }
+
+    /**
+     * 同名倉庫是否為先前嘗試所建立：建立時間不早於排入時間、描述相同，且未綁定其他專案
+     * Whether an existing repository of that name came from an earlier attempt:
+     * created after the entry was queued, with the same description, and not
+     * linked to another project.
+     */
+    private boolean createdForEntry(GitHubOutboxEntry entry, GHRepository existing) throws IOException {
+        Date createdAt = existing.getCreatedAt();
+        Date queuedAt = Date.from(entry.getCreatedAt().minus(CLOCK_SKEW).atZone(ZoneId.systemDefault()).toInstant());
+        if (createdAt == null || createdAt.before(queuedAt)) {
+            return false;
+        }
+        if (!Objects.equals(blankToNull(existing.getDescription()), blankToNull(entry.getDescription()))) {
+            return false;
+        }
+        return projectRepository.findIdsByGithubRepo(existing.getFullName()).stream()
+                .allMatch(entry.getProjectId()::equals);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private void complete(GitHubOutboxEntry entry) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entry.setStatus(GitHubOutboxEntry.Status.DONE);
+            entry.setLastError(null);
+            entry.setUpdatedAt(LocalDateTime.now());
+            outboxRepository.save(entry);
+            if (!outboxRepository.existsByProjectIdAndStatus(entry.getProjectId(), GitHubOutboxEntry.Status.PENDING)
+                    && projectRepository.markGithubSynced(entry.getProjectId()) > 0) {
+                eventPublisher.publishEvent(new ProjectChangedEvent(entry.getProjectId()));
+            }
+        });
+        succeeded.increment();
+    }
+
+    private void fail(GitHubOutboxEntry entry, Exception e) {
+        String error = describe(entry, e);
+        boolean retry = isRetryable(e) && entry.getAttempts() < maxAttempts;
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            entry.setLastError(error);
+            entry.setUpdatedAt(now);
+            if (retry) {
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+                projectRepository.updateGithubSync(entry.getProjectId(), GitHubSyncStatus.PENDING, error);
+            } else {
+                entry.setStatus(GitHubOutboxEntry.Status.FAILED);
+                projectRepository.updateGithubSync(entry.getProjectId(), GitHubSyncStatus.FAILED, error);
+            }
+            outboxRepository.save(entry);
+            if (!retry && entry.getOperation() == GitHubOutboxEntry.Operation.CREATE_REPOSITORY) {
+                // 倉庫不存在，後續協作者操作不會成功；重試同步時一併重新排入
+                // Without the repository the queued collaborator changes cannot succeed; a sync retry re-queues them all
+                outboxRepository.failPending(entry.getProjectId(), "Repository was not created: " + error, now);
+            }
+            eventPublisher.publishEvent(new ProjectChangedEvent(entry.getProjectId()));
+        });
+        if (retry) {
+            retried.increment();
+            log.warn("GitHub outbox entry {} failed (attempt {}), retrying: {}", entry.getId(), entry.getAttempts(),
+                    error);
+        } else {
+            failed.increment();
+            log.error("GitHub outbox entry {} failed permanently after {} attempts: {}", entry.getId(),
+                    entry.getAttempts(), error);
+        }
+    }
+
+    /**
+     * 設定錯誤與 4xx 請求錯誤不會因重試而成功；限流 (403/429) 與 5xx、網路錯誤可重試
+     * Configuration errors and 4xx request errors will not succeed on retry;
+     * rate limits (403/429), 5xx and network errors may.
+     */
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return false;
+        }
+        if (e instanceof HttpException http) {
+            int code = http.getResponseCode();
+            return code < 400 || code >= 500 || code == 403 || code == 429;
+        }
+        return true;
+    }
+
+    /** 指數退避並加入最多 20% 的隨機延遲 / Exponential backoff with up to 20% jitter */
+    private Duration backoff(int attempts) {
+        long millis = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+        millis = Math.min(millis, maxBackoff.toMillis());
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+    }
+
+    private static String describe(GitHubOutboxEntry entry, Exception e) {
+        String message = entry.getOperation() + " " + entry.getRepoName()
+                + (entry.getGithubUsername() != null ? " " + entry.getGithubUsername() : "") + ": " + e.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    // ========================================
+    // 清理 / Cleanup
+    // ========================================
+
+    @Scheduled(cron = "0 0 4 * * *")
+    public void purgeDone() {
+        int deleted = outboxRepository.deleteDoneBefore(LocalDateTime.now().minusDays(7));
+        if (deleted > 0) {
+            log.info("Purged {} completed GitHub outbox entries", deleted);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @file GitHubRequestScheduler.java
+ * @description GitHub 請求排程器 / GitHub Request Scheduler
+ * @description_en Single gate for every outbound GitHub call. Each token has a
+ *                 bucket whose refill rate is derived from the live
+ *                 X-RateLimit-* headers, so the remaining quota is spread over
+ *                 the time left until reset. Waiting calls are served
+ *                 interactive-first; background work may not dip into the share
+ *                 of the quota reserved for interactive calls. Retry-After and
+ *                 secondary-limit responses block the token until they expire.
+ *                 A call made on an HTTP request thread is interactive, any other
+ *                 thread (outbox worker, reconciliation) is background
+ * @description_zh 所有對外 GitHub 呼叫的統一關卡。每個 Token 一個令牌桶，補充速率取自即時的
+ *                 X-RateLimit-* 標頭，讓剩餘配額平均分配到重置前的時間。等待中的呼叫以
+ *                 互動請求優先；背景工作不得使用保留給互動請求的配額。遇到 Retry-After 或
+ *                 次級限流回應時，該 Token 暫停直到時間到期。於 HTTP 請求執行緒上的呼叫
+ *                 視為互動，其他執行緒（發件匣、校正作業）視為背景
+ */
+@Service
+@Slf4j
+public class GitHubRequestScheduler {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Duration SECONDARY_LIMIT_BACKOFF = Duration.ofMinutes(1);
+    private static final Duration MAX_SECONDARY_LIMIT_BACKOFF = Duration.ofMinutes(15);
+    /** 尚未收到標頭前假設的每小時配額 / Hourly quota assumed until headers arrive */
+    private static final int DEFAULT_HOURLY_LIMIT = 5000;
+    private static final ThreadLocal<Priority> ASSIGNED_PRIORITY = new ThreadLocal<>();
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int burst;
+    private final double backgroundReserve;
+    private final Duration mutationInterval;
+    private final Duration interactiveMaxWait;
+    private final Duration backgroundMaxWait;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer interactiveWait;
+    private final Timer backgroundWait;
+
+    public GitHubRequestScheduler(MeterRegistry meterRegistry,
+            @Value("${github.scheduler.burst:20}") int burst,
+            @Value("${github.scheduler.background-reserve:0.2}") double backgroundReserve,
+            @Value("${github.scheduler.mutation-interval-ms:1000}") long mutationIntervalMs,
+            @Value("${github.scheduler.interactive-max-wait-ms:30000}") long interactiveMaxWaitMs,
+            @Value("${github.scheduler.background-max-wait-ms:900000}") long backgroundMaxWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.burst = burst;
+        this.backgroundReserve = backgroundReserve;
+        this.mutationInterval = Duration.ofMillis(mutationIntervalMs);
+        this.interactiveMaxWait = Duration.ofMillis(interactiveMaxWaitMs);
+        this.backgroundMaxWait = Duration.ofMillis(backgroundMaxWaitMs);
+        this.interactiveWait = waitTimer(Priority.INTERACTIVE);
+        this.backgroundWait = waitTimer(Priority.BACKGROUND);
+        Gauge.builder("github.requests.queued", queued, AtomicInteger::get).register(meterRegistry);
+    }
+
+    private Timer waitTimer(Priority priority) {
+        return Timer.builder("github.requests.queue.wait")
+                .tag("priority", priority.name().toLowerCase())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    // ========================================
+    // 用戶端整合 / Client Integration
+    // ========================================
+
+    /**
+     * 以排程器包裝連線器，該 Token 的所有請求都會經過令牌桶
+     * Wrap a connector so every request made with the token passes the bucket.
+     */
+    public GitHubConnector connectorFor(String token, GitHubConnector delegate) {
+        Bucket bucket = bucketFor(token);
+        return request -> {
+            bucket.acquire(currentPriority(), MUTATING_METHODS.contains(request.method()));
+            GitHubConnectorResponse response = null;
+            try {
+                response = delegate.send(request);
+                return response;
+            } finally {
+                bucket.release(response);
+            }
+        };
+    }
+
+    /**
+     * 限流回應處理：互動請求立即失敗，背景請求重試（重試時會在令牌桶中等待）
+     * Limit responses: interactive calls fail fast, background calls retry and
+     * wait in the bucket on the way back in.
+     */
+    public GitHubRateLimitHandler rateLimitHandler() {
+        return new GitHubRateLimitHandler() {
+            @Override
+            public void onError(GitHubConnectorResponse response) throws IOException {
+                failIfInteractive(response);
+            }
+        };
+    }
+
+    public GitHubAbuseLimitHandler abuseLimitHandler() {
+        return new GitHubAbuseLimitHandler() {
+            @Override
+            public void onError(GitHubConnectorResponse response) throws IOException {
+                failIfInteractive(response);
+            }
+        };
+    }
+
+    private static void failIfInteractive(GitHubConnectorResponse response) throws IOException {
+        if (currentPriority() == Priority.INTERACTIVE) {
+            throw new HttpException(response);
+        }
+    }
+
+    static Priority currentPriority() {
+        Priority assigned = ASSIGNED_PRIORITY.get();
+        if (assigned != null) {
+            return assigned;
+        }
+        return RequestContextHolder.getRequestAttributes() != null ? Priority.INTERACTIVE : Priority.BACKGROUND;
+    }
+
+    /**
+     * 在其他執行緒上代替請求執行工作時沿用其優先順序（例如請求正在等待的下載）
+     * Run work on another thread with the priority of the request it is done
+     * for, e.g. a download the request is waiting on.
+     */
+    static void runAs(Priority priority, Runnable task) {
+        ASSIGNED_PRIORITY.set(priority);
+        try {
+            task.run();
+        } finally {
+            ASSIGNED_PRIORITY.remove();
+        }
+    }
+
+    private Bucket bucketFor(String token) {
+        return buckets.computeIfAbsent(fingerprint(token), Bucket::new);
+    }
+
+    /** Token 僅以雜湊前綴識別，不會出現在日誌、指標或快取鍵中 / Tokens are only known by a hash prefix */
+    static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========================================
+    // 令牌桶 / Token Bucket
+    // ========================================
+
+    private record Ticket(Priority priority, long sequence, boolean mutating) implements Comparable<Ticket> {
+        @Override
+        public int compareTo(Ticket other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final class Bucket {
+
+        private final String name;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final PriorityQueue<Ticket> waiting = new PriorityQueue<>();
+        private final Counter primaryLimited;
+        private final Counter secondaryLimited;
+        private final AtomicLong remainingGauge = new AtomicLong(-1);
+        private long sequence;
+
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+        /** 來自標頭；-1 表示尚未得知 / From headers; -1 until known */
+        private int limit = -1;
+        private int remaining = -1;
+        private long resetAt;
+        private long blockedUntil;
+        private long nextMutationAt;
+        private int consecutiveLimited;
+
+        Bucket(String name) {
+            this.name = name;
+            this.tokens = burst;
+            this.primaryLimited = limitedCounter("primary");
+            this.secondaryLimited = limitedCounter("secondary");
+            Gauge.builder("github.ratelimit.remaining", remainingGauge, AtomicLong::get)
+                    .tag("token", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter limitedCounter(String kind) {
+            return Counter.builder("github.requests.limited")
+                    .tag("token", name)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        void acquire(Priority priority, boolean mutating) throws IOException {
+            long start = System.nanoTime();
+            long deadline = start + (priority == Priority.INTERACTIVE ? interactiveMaxWait : backgroundMaxWait).toNanos();
+            queued.incrementAndGet();
+            lock.lock();
+            Ticket ticket = new Ticket(priority, sequence++, mutating);
+            waiting.add(ticket);
+            try {
+                while (true) {
+                    long now = System.currentTimeMillis();
+                    refill(now);
+                    long delay = waiting.peek() == ticket ? delay(ticket, now) : Long.MAX_VALUE;
+                    if (delay <= 0) {
+                        waiting.poll();
+                        tokens -= 1;
+                        if (remaining > 0) {
+                            remaining--;
+                        }
+                        if (mutating) {
+                            nextMutationAt = now + mutationInterval.toMillis();
+                        }
+                        changed.signalAll();
+                        return;
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        waiting.remove(ticket);
+                        changed.signalAll();
+                        throw new IOException("GitHub request for token " + name + " waited longer than allowed ("
+                                + priority.name().toLowerCase() + ")");
+                    }
+                    changed.await(Math.min(TimeUnit.MILLISECONDS.toNanos(delay), left), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                waiting.remove(ticket);
+                changed.signalAll();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for GitHub rate limit", e);
+            } finally {
+                lock.unlock();
+                queued.decrementAndGet();
+                (priority == Priority.INTERACTIVE ? interactiveWait : backgroundWait)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * 距離此請求可送出的毫秒數 / Milliseconds until the ticket may go out
+         */
+        private long delay(Ticket ticket, long now) {
+            long delay = blockedUntil - now;
+            if (remaining == 0) {
+                delay = Math.max(delay, resetAt - now);
+            }
+            if (ticket.priority() == Priority.BACKGROUND && limit > 0 && remaining >= 0
+                    && remaining <= limit * backgroundReserve) {
+                // 保留給互動請求 / Left for interactive calls
+                delay = Math.max(delay, resetAt - now);
+            }
+            if (ticket.mutating()) {
+                delay = Math.max(delay, nextMutationAt - now);
+            }
+            // 互動請求可預支一個突發量 / Interactive calls may borrow one burst
+            double floor = ticket.priority() == Priority.INTERACTIVE ? 1 - burst : 1;
+            if (tokens < floor) {
+                delay = Math.max(delay, (long) Math.ceil((floor - tokens) / refillPerMs(now)));
+            }
+            return Math.max(delay, 0);
+        }
+
+        /**
+         * 將剩餘配額平均分配到重置前 / Spread the remaining quota over the time left until reset
+         */
+        private double refillPerMs(long now) {
+            if (remaining < 0 || resetAt <= now) {
+                return DEFAULT_HOURLY_LIMIT / 3_600_000.0;
+            }
+            return Math.max(remaining, 1) / (double) (resetAt - now);
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * refillPerMs(now));
+                refilledAt = now;
+            }
+        }
+
+        void release(GitHubConnectorResponse response) {
+            lock.lock();
+            try {
+                if (response != null) {
+                    refundIfCached(response);
+                    observe(response, System.currentTimeMillis());
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 由快取提供或 304 重新驗證的回應不計入 GitHub 配額，退回令牌
+         * Cached and 304-revalidated responses do not count against the quota;
+         * give the token back.
+         */
+        private void refundIfCached(GitHubConnectorResponse response) {
+            String cache = response.header(GitHubClientPool.CACHE_HEADER);
+            if ("hit".equals(cache) || "revalidated".equals(cache)) {
+                tokens = Math.min(burst, tokens + 1);
+            }
+        }
+
+        private void observe(GitHubConnectorResponse response, long now) {
+            String resource = response.header("X-RateLimit-Resource");
+            if (resource == null || "core".equals(resource)) {
+                Integer headerLimit = intHeader(response, "X-RateLimit-Limit");
+                Integer headerRemaining = intHeader(response, "X-RateLimit-Remaining");
+                Integer headerReset = intHeader(response, "X-RateLimit-Reset");
+                if (headerLimit != null && headerRemaining != null && headerReset != null) {
+                    limit = headerLimit;
+                    remaining = headerRemaining;
+                    resetAt = headerReset * 1000L;
+                    remainingGauge.set(remaining);
+                }
+            }
+
+            int status = response.statusCode();
+            if (status != 403 && status != 429) {
+                consecutiveLimited = 0;
+                return;
+            }
+            Integer retryAfter = intHeader(response, "Retry-After");
+            if (retryAfter != null) {
+                secondaryLimited.increment();
+                blockedUntil = Math.max(blockedUntil, now + retryAfter * 1000L);
+            } else if (remaining == 0) {
+                primaryLimited.increment();
+                blockedUntil = Math.max(blockedUntil, resetAt);
+            } else if (status == 429) {
+                // 次級限流未附 Retry-After 時以指數退避 / Exponential backoff when no Retry-After is given
+                secondaryLimited.increment();
+                long backoff = Math.min(SECONDARY_LIMIT_BACKOFF.toMillis() << Math.min(consecutiveLimited, 10),
+                        MAX_SECONDARY_LIMIT_BACKOFF.toMillis());
+                consecutiveLimited++;
+                blockedUntil = Math.max(blockedUntil, now + backoff);
+            } else {
+                // 其餘 403 為權限錯誤 / Any other 403 is a permission error
+                return;
+            }
+            log.warn("GitHub token {} limited (HTTP {}), paused for {} ms", name, status, blockedUntil - now);
+        }
+
+        private static Integer intHeader(GitHubConnectorResponse response, String name) {
+            String value = response.header(name);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
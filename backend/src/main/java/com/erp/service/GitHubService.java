@@ -2,14 +2,13 @@ package com.erp.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GHFileNotFoundException;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,28 +25,46 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class GitHubService {
 
+    private final GitHubClientPool clientPool;
+    private final GitHubTreeCache treeCache;
+    private final GitHubArchiveCache archiveCache;
+
     @Value("${github.org.name:}")
     private String organizationName;
 
     @Value("${github.org.token:}")
     private String organizationToken;
 
+    public String getOrganizationName() {
+        return organizationName;
+    }
+
+    private String resolveToken(String token) {
+        return (token == null || token.isBlank()) ? organizationToken : token;
+    }
+
     private GitHub getGitHubClient(String token) throws IOException {
-        String actualToken = (token == null || token.isBlank()) ? organizationToken : token;
+        String actualToken = resolveToken(token);
 
         if (actualToken == null || actualToken.isBlank() || "ghp_placeholder".equals(actualToken)) {
             throw new IllegalArgumentException("GitHub Organization Token 未配置，請設定 GITHUB_ORG_TOKEN 環境變數");
         }
         try {
-            GitHub github = new GitHubBuilder().withOAuthToken(actualToken).build();
-            github.checkApiUrlValidity();
-            return github;
+            return clientPool.get(actualToken);
         } catch (IOException e) {
             log.error("Failed to initialize GitHub client: {}", e.getMessage());
             throw new RuntimeException("GitHub 連線失敗，請檢查 Token 權限是否正確: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 組織 Token 的用戶端，供需要連續多次呼叫的批次作業共用
+     * Organization-token client, shared by batch jobs that make many calls.
+     */
+    public GitHub getOrganizationClient() throws IOException {
+        return getGitHubClient(organizationToken);
+    }
+
     /**
      * Create a new GitHub repository / 建立新的 GitHub 儲存庫
      */
@@ -84,6 +101,20 @@ public class GitHubService {
         return repo.getHtmlUrl().toString();
     }
 
+    /**
+     * 組織中的既有倉庫，不存在時回傳 null / An existing organization repository, or null
+     */
+    public GHRepository findOrganizationRepository(String name) throws IOException {
+        if (organizationName == null || organizationName.isEmpty()) {
+            throw new IllegalStateException("GitHub Organization Name is not configured");
+        }
+        try {
+            return getGitHubClient(organizationToken).getRepository(organizationName + "/" + name);
+        } catch (GHFileNotFoundException e) {
+            return null;
+        }
+    }
+
     /**
      * Add a collaborator to an organization's repository
      */
@@ -146,11 +177,9 @@ public class GitHubService {
      * Get branches for a repository / 獲取儲存庫的分支列表
      */
     public List<String> getBranches(String token, String repoName) throws IOException {
-        log.info("Fetching branches for repository: {}", repoName);
         try {
             GitHub github = getGitHubClient(token);
-            GHRepository repo = github.getRepository(repoName);
-            return new ArrayList<>(repo.getBranches().keySet());
+            return treeCache.getBranches(github, resolveToken(token), repoName);
         } catch (IOException e) {
             log.error("Error fetching branches for {}: {}", repoName, e.getMessage());
             throw e;
@@ -188,6 +217,7 @@ public class GitHubService {
         GHRepository repo = github.getRepository(repoName);
         String sha = repo.getBranch(sourceBranch).getSHA1();
         repo.createRef("refs/heads/" + newBranch, sha);
+        treeCache.evictBranches(resolveToken(token), repoName);
     }
 
     /**
@@ -201,36 +231,34 @@ public class GitHubService {
 
     /**
      * Get repository content (files and directories) / 獲取儲存庫內容
+     * 由分支的完整目錄樹快取提供 / Served from the cached tree of the branch
+     *
+     * @param branch 分支，null 為預設分支 / branch, null for the default branch
      */
-    public List<Map<String, Object>> getRepoContent(String token, String repoName, String path) throws IOException {
+    public List<Map<String, Object>> getRepoContent(String token, String repoName, String path, String branch)
+            throws IOException {
         GitHub github = getGitHubClient(token);
-        GHRepository repo = github.getRepository(repoName);
-        List<org.kohsuke.github.GHContent> contents = repo.getDirectoryContent(path != null ? path : "");
-
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (org.kohsuke.github.GHContent content : contents) {
-            result.add(Map.of(
-                    "name", content.getName(),
-                    "path", content.getPath(),
-                    "type", content.isDirectory() ? "dir" : "file",
-                    "size", content.getSize(),
-                    "html_url", content.getHtmlUrl() != null ? content.getHtmlUrl().toString() : "",
-                    "download_url", content.getDownloadUrl() != null ? content.getDownloadUrl() : ""));
-        }
-        return result;
+        return treeCache.listDirectory(github, resolveToken(token), repoName, branch, path);
+    }
+
+    /**
+     * Get the download URL of one file / 獲取單一檔案的下載連結
+     * 私有倉庫的帶 Token 網址只在此時向 GitHub 取得 / A private repository's tokenized URL is only fetched here
+     *
+     * @param branch 分支，null 為預設分支 / branch, null for the default branch
+     */
+    public String getFileDownloadUrl(String token, String repoName, String path, String branch) throws IOException {
+        GitHub github = getGitHubClient(token);
+        return treeCache.resolveDownloadUrl(github, resolveToken(token), repoName, branch, path);
     }
 
     /**
      * Download repository archive (proxied via backend) / 下載儲存庫壓縮檔
+     * 依提交 SHA 快取於本機磁碟 / Cached on local disk by commit SHA
      */
-    public void downloadRepoArchive(String token, String repoName, String branch, java.io.OutputStream outputStream)
+    public GitHubArchiveCache.Archive getRepoArchive(String token, String repoName, String branch)
             throws IOException {
         GitHub github = getGitHubClient(token);
-        GHRepository repo = github.getRepository(repoName);
-        // Using readZip to stream content to the output stream
-        repo.readZip(is -> {
-            is.transferTo(outputStream);
-            return null;
-        }, branch);
+        return archiveCache.get(github, resolveToken(token), repoName, branch);
     }
 }
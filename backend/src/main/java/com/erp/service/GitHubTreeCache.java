@@ -0,0 +1,418 @@
+package com.erp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHTree;
+import org.kohsuke.github.GHTreeEntry;
+import org.kohsuke.github.GitHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * @file GitHubTreeCache.java
+ * @description GitHub 倉庫目錄快取 / GitHub Repository Tree Cache
+ * @description_en Serves repository browsing from Redis. The whole tree of a
+ *                 commit is fetched once with a recursive git-trees call and
+ *                 stored as one hash keyed by commit SHA, one field per folder,
+ *                 so every sub-path is a single HGET. Branch heads are resolved
+ *                 per token with a short TTL; when a head moves, the tree of
+ *                 the previous commit is only given a short TTL, so tokens still
+ *                 holding the old head do not refetch it. Cached entries carry
+ *                 no download URL: public repositories get the raw URL pinned to
+ *                 the commit when read, while a private repository's URL holds a
+ *                 short-lived token GitHub issues per caller, so it is resolved
+ *                 only when a file is downloaded. Redis failures fall back to
+ *                 the live contents API
+ * @description_zh 由 Redis 提供倉庫瀏覽資料。每個提交的完整目錄樹只以一次遞迴 git-trees
+ *                 呼叫取得，並以提交 SHA 為鍵存成一個雜湊，每個資料夾一個欄位，任何子路徑
+ *                 都只需一次 HGET。分支最新提交依 Token 解析並短暫快取；分支前進時舊提交的
+ *                 目錄樹只改為短暫保留，仍持有舊提交的 Token 不會重新取得。快取的項目不含下載
+ *                 網址：公開倉庫於讀取時補上固定於該提交的 raw 網址；私有倉庫的網址帶有 GitHub
+ *                 依呼叫者發出的短期 Token，僅於實際下載檔案時才解析。Redis 失敗時退回即時的
+ *                 contents API
+ */
+@Service
+@Slf4j
+public class GitHubTreeCache {
+
+    private static final String HEAD_PREFIX = "github:head:";
+    private static final String LATEST_PREFIX = "github:tree:latest:";
+    private static final String TREE_PREFIX = "github:tree:";
+    private static final String BRANCHES_PREFIX = "github:branches:";
+    private static final String RAW_URL = "https://raw.githubusercontent.com/";
+
+    private static final Duration TREE_TTL = Duration.ofHours(24);
+    private static final Duration BRANCHES_TTL = Duration.ofSeconds(60);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JavaType entriesType;
+    private final JavaType branchesType;
+    private final Counter treeHits;
+    private final Counter treeMisses;
+    /** 分支最新提交的快取時間；未設定 Webhook 時也是看到新推送的最長延遲 / Without webhooks, also the longest delay before a push shows */
+    private final Duration headTtl;
+
+    public GitHubTreeCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${github.tree-cache.head-ttl-seconds:30}") long headTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.headTtl = Duration.ofSeconds(headTtlSeconds);
+        this.objectMapper = objectMapper;
+        this.entriesType = objectMapper.getTypeFactory().constructCollectionType(List.class,
+                objectMapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, Object.class));
+        this.branchesType = objectMapper.getTypeFactory().constructCollectionType(List.class, String.class);
+        this.treeHits = counter(meterRegistry, "hit");
+        this.treeMisses = counter(meterRegistry, "miss");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("github.tree.cache.requests")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /** 分支最新提交與倉庫資訊 / Head commit of a branch and the repository it belongs to */
+    private record Head(String branch, String sha, boolean privateRepo, String htmlUrl) {
+    }
+
+    // ========================================
+    // 目錄 / Directory Listing
+    // ========================================
+
+    /**
+     * 列出資料夾內容，格式與 contents API 相同
+     * List a folder in the same shape as the contents API.
+     *
+     * @param branch 分支，null 為預設分支 / branch, null for the default branch
+     * @param path   資料夾路徑，null 或空字串為根目錄 / folder path, null or empty for the root
+     */
+    public List<Map<String, Object>> listDirectory(GitHub github, String token, String repoName, String branch,
+            String path) throws IOException {
+        String folder = normalize(path);
+        Head head = resolveHead(github, token, repoName, branch);
+        String treeKey = TREE_PREFIX + repoName + ":" + head.sha();
+
+        String cached = hget(treeKey, folder);
+        if (cached != null) {
+            treeHits.increment();
+            return withDownloadUrls(read(cached, entriesType), repoName, head);
+        }
+        treeMisses.increment();
+
+        GHRepository repo = github.getRepository(repoName);
+        GHTree tree = repo.getTreeRecursive(head.sha(), 1);
+        if (tree.isTruncated()) {
+            // 超大倉庫：退回逐層查詢 / Oversized repository: fall back to per-folder calls
+            log.info("Tree of {}@{} is truncated, listing {} live", repoName, head.sha(), folder);
+            return liveListing(repo, head.sha(), folder);
+        }
+
+        Map<String, List<Map<String, Object>>> folders = index(tree, head);
+        store(treeKey, folders);
+        List<Map<String, Object>> entries = folders.get(folder);
+        if (entries == null) {
+            throw new FileNotFoundException("Path not found in " + repoName + "@" + head.branch() + ": " + folder);
+        }
+        return withDownloadUrls(entries, repoName, head);
+    }
+
+    /**
+     * 檔案的下載網址：公開倉庫為固定於提交的 raw 網址，私有倉庫於此時向 GitHub 取得帶 Token 的網址
+     * Download URL of a file: the commit-pinned raw URL for a public
+     * repository; for a private one, the tokenized URL fetched from GitHub now.
+     *
+     * @param branch 分支，null 為預設分支 / branch, null for the default branch
+     */
+    public String resolveDownloadUrl(GitHub github, String token, String repoName, String branch, String path)
+            throws IOException {
+        String file = normalize(path);
+        Head head = resolveHead(github, token, repoName, branch);
+        if (!head.privateRepo()) {
+            return rawUrl(repoName, head, file);
+        }
+        org.kohsuke.github.GHContent content = github.getRepository(repoName).getFileContent(file, head.sha());
+        if (content.getDownloadUrl() == null) {
+            throw new FileNotFoundException("Not a file in " + repoName + "@" + head.branch() + ": " + file);
+        }
+        return content.getDownloadUrl();
+    }
+
+    /**
+     * 依資料夾分組；每個資料夾一個欄位（根目錄為空字串），空資料夾也有欄位
+     * Group entries by parent folder; every folder gets a field, including the
+     * root ("") and empty ones. Download URLs are added when read.
+     */
+    private static Map<String, List<Map<String, Object>>> index(GHTree tree, Head head) {
+        Map<String, List<Map<String, Object>>> folders = new HashMap<>();
+        folders.put("", new ArrayList<>());
+        for (GHTreeEntry entry : tree.getTree()) {
+            String entryPath = entry.getPath();
+            int slash = entryPath.lastIndexOf('/');
+            String parent = slash < 0 ? "" : entryPath.substring(0, slash);
+            boolean isDir = "tree".equals(entry.getType());
+            if (isDir) {
+                folders.computeIfAbsent(entryPath, k -> new ArrayList<>());
+            }
+            folders.computeIfAbsent(parent, k -> new ArrayList<>()).add(Map.of(
+                    "name", entryPath.substring(slash + 1),
+                    "path", entryPath,
+                    "type", isDir ? "dir" : "commit".equals(entry.getType()) ? "submodule" : "file",
+                    "size", isDir ? 0 : entry.getSize(),
+                    "sha", entry.getSha(),
+                    "html_url", head.htmlUrl() + (isDir ? "/tree/" : "/blob/") + head.branch() + "/" + entryPath));
+        }
+        return folders;
+    }
+
+    /**
+     * 補上下載網址，格式與 contents API 相同；私有倉庫留空，由 resolveDownloadUrl 於下載時取得
+     * Add download URLs as the contents API shapes them. Private repositories
+     * get an empty one; resolveDownloadUrl fetches it when a file is downloaded.
+     */
+    private static List<Map<String, Object>> withDownloadUrls(List<Map<String, Object>> entries, String repoName,
+            Head head) {
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Map<String, Object> entry : entries) {
+            Map<String, Object> copy = new LinkedHashMap<>(entry);
+            boolean file = "file".equals(entry.get("type"));
+            copy.put("download_url", file && !head.privateRepo()
+                    ? rawUrl(repoName, head, String.valueOf(entry.get("path"))) : "");
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static String rawUrl(String repoName, Head head, String path) {
+        return RAW_URL + repoName + "/" + head.sha() + "/" + path;
+    }
+
+    private static List<Map<String, Object>> liveListing(GHRepository repo, String ref, String folder)
+            throws IOException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (org.kohsuke.github.GHContent content : repo.getDirectoryContent(folder, ref)) {
+            result.add(Map.of(
+                    "name", content.getName(),
+                    "path", content.getPath(),
+                    "type", content.isDirectory() ? "dir" : "file",
+                    "size", content.getSize(),
+                    "sha", content.getSha(),
+                    "html_url", content.getHtmlUrl() != null ? content.getHtmlUrl() : "",
+                    "download_url", content.getDownloadUrl() != null ? content.getDownloadUrl() : ""));
+        }
+        return result;
+    }
+
+    // ========================================
+    // 分支 / Branches
+    // ========================================
+
+    public List<String> getBranches(GitHub github, String token, String repoName) throws IOException {
+        String key = BRANCHES_PREFIX + GitHubRequestScheduler.fingerprint(token) + ":" + repoName;
+        String cached = get(key);
+        if (cached != null) {
+            return read(cached, branchesType);
+        }
+        List<String> branches = new ArrayList<>(github.getRepository(repoName).getBranches().keySet());
+        set(key, write(branches), BRANCHES_TTL);
+        return branches;
+    }
+
+    public void evictBranches(String token, String repoName) {
+        delete(BRANCHES_PREFIX + GitHubRequestScheduler.fingerprint(token) + ":" + repoName);
+    }
+
+    /**
+     * 立即讓分支的最新提交失效（例如收到推送通知時），所有 Token 皆適用
+     * Forget a branch head right away, e.g. on a push notification, for every token.
+     */
+    public void evictHead(String repoName, String branch) {
+        deleteMatching(HEAD_PREFIX + "*:" + repoName + ":*", key -> key.endsWith(":" + branch) || key.endsWith(":"));
+    }
+
+    /**
+     * 清除倉庫所有分支的最新提交與分支列表（例如分支建立/刪除、倉庫更名時），所有 Token 皆適用
+     * Forget every branch head and branch list of a repository, e.g. when a
+     * branch is created or deleted or the repository is renamed, for every token.
+     */
+    public void evictRepository(String repoName) {
+        deleteMatching(HEAD_PREFIX + "*:" + repoName + ":*", key -> true);
+        deleteMatching(BRANCHES_PREFIX + "*:" + repoName, key -> true);
+    }
+
+    private void deleteMatching(String pattern, Predicate<String> filter) {
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(500).build())) {
+            cursor.forEachRemaining(key -> {
+                if (filter.test(key)) {
+                    keys.add(key);
+                }
+            });
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict GitHub cache entries {}: {}", pattern, e.getMessage());
+        }
+    }
+
+    // ========================================
+    // 分支最新提交 / Branch Heads
+    // ========================================
+
+    /**
+     * 分支目前指向的提交 SHA（短暫快取）/ Commit SHA the branch points at (briefly cached)
+     *
+     * @param branch 分支，null 為預設分支 / branch, null for the default branch
+     */
+    public String resolveCommitSha(GitHub github, String token, String repoName, String branch) throws IOException {
+        return resolveHead(github, token, repoName, branch).sha();
+    }
+
+    /**
+     * 解析分支最新提交。快取鍵含 Token 指紋：能取得 SHA 即代表該 Token 已通過 GitHub 權限檢查，
+     * 因此依 SHA 共用的目錄樹不會洩漏給無權限的 Token
+     * Resolve a branch head. The key includes the token fingerprint: holding the
+     * SHA proves GitHub granted that token access, so trees shared by SHA never
+     * leak to a token without it.
+     */
+    private Head resolveHead(GitHub github, String token, String repoName, String branch) throws IOException {
+        String requested = branch != null && !branch.isBlank() ? branch : "";
+        String headKey = HEAD_PREFIX + GitHubRequestScheduler.fingerprint(token) + ":" + repoName + ":" + requested;
+        String cached = get(headKey);
+        if (cached != null) {
+            String[] parts = cached.split("\n", 4);
+            if (parts.length == 4) {
+                return new Head(parts[0], parts[1], Boolean.parseBoolean(parts[2]), parts[3]);
+            }
+        }
+
+        GHRepository repo = github.getRepository(repoName);
+        String resolvedBranch = requested.isEmpty() ? repo.getDefaultBranch() : requested;
+        Head head = new Head(resolvedBranch, repo.getBranch(resolvedBranch).getSHA1(), repo.isPrivate(),
+                repo.getHtmlUrl().toString());
+        set(headKey, head.branch() + "\n" + head.sha() + "\n" + head.privateRepo() + "\n" + head.htmlUrl(),
+                headTtl);
+
+        // 目前的最新提交：延長其目錄樹（可能是其他分支的舊提交）
+        // Current head: keep its tree, which may be another branch's previous commit
+        expire(TREE_PREFIX + repoName + ":" + head.sha(), TREE_TTL);
+        // 分支前進時舊提交的目錄樹只再保留到其他 Token 的快取到期
+        // The branch moved: keep the previous tree only until other tokens' cached heads expire
+        String latestKey = LATEST_PREFIX + repoName + ":" + resolvedBranch;
+        String previous = get(latestKey);
+        if (previous != null && !previous.equals(head.sha())) {
+            expire(TREE_PREFIX + repoName + ":" + previous, headTtl.multipliedBy(2));
+        }
+        set(latestKey, head.sha(), TREE_TTL);
+        return head;
+    }
+
+    // ========================================
+    // Redis 存取 / Redis Access
+    // ========================================
+
+    private static String normalize(String path) {
+        if (path == null) {
+            return "";
+        }
+        String trimmed = path.trim();
+        while (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private void store(String treeKey, Map<String, List<Map<String, Object>>> folders) {
+        try {
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, List<Map<String, Object>>> folder : folders.entrySet()) {
+                fields.put(folder.getKey(), objectMapper.writeValueAsString(folder.getValue()));
+            }
+            redisTemplate.opsForHash().putAll(treeKey, fields);
+            redisTemplate.expire(treeKey, TREE_TTL);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to cache tree {}: {}", treeKey, e.getMessage());
+        }
+    }
+
+    private String hget(String key, String field) {
+        try {
+            Object value = redisTemplate.opsForHash().get(key, field);
+            return value != null ? value.toString() : null;
+        } catch (DataAccessException e) {
+            log.warn("Failed to read tree cache {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private String get(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read GitHub cache entry {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void set(String key, String value, Duration ttl) {
+        if (value == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } catch (DataAccessException e) {
+            log.warn("Failed to write GitHub cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void expire(String key, Duration ttl) {
+        try {
+            redisTemplate.expire(key, ttl);
+        } catch (DataAccessException e) {
+            log.warn("Failed to expire GitHub cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warn("Failed to delete GitHub cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private <T> T read(String json, JavaType type) throws IOException {
+        return objectMapper.readValue(json, type);
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
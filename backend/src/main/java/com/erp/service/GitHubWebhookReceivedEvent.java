@@ -0,0 +1,20 @@
+package com.erp.service;
+
+import lombok.Getter;
+
+/**
+ * @file GitHubWebhookReceivedEvent.java
+ * @description GitHub Webhook 已接收事件 / GitHub Webhook Received Event
+ * @description_en Published when a webhook delivery is stored or re-queued, so
+ *                 the worker starts right away instead of on its next poll
+ * @description_zh Webhook 投遞寫入或重新排入時發布，讓工作者立即處理而不必等待下次輪詢
+ */
+@Getter
+public class GitHubWebhookReceivedEvent {
+
+    private final Long deliveryId;
+
+    public GitHubWebhookReceivedEvent(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+}
@@ -0,0 +1,197 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubWebhookDelivery;
+import com.erp.repository.GitHubWebhookDeliveryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @file GitHubWebhookService.java
+ * @description GitHub Webhook 接收服務 / GitHub Webhook Service
+ * @description_en Verifies the X-Hub-Signature-256 HMAC of incoming deliveries
+ *                 and stores the supported ones unchanged, so the HTTP response
+ *                 never waits on processing. Deliveries can be re-queued for
+ *                 replay by their GitHub delivery id
+ * @description_zh 驗證接收到的投遞的 X-Hub-Signature-256 HMAC，並將支援的事件原樣保存，
+ *                 HTTP 回應不需等待處理。可依 GitHub 投遞 ID 重新排入以重播
+ */
+@Service
+@Slf4j
+public class GitHubWebhookService {
+
+    /** 會寫入佇列的事件 / Events that are queued for processing */
+    public static final Set<String> SUPPORTED_EVENTS = Set.of("push", "member", "repository");
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+
+    public enum Result {
+        ACCEPTED,
+        DUPLICATE,
+        IGNORED
+    }
+
+    private final GitHubWebhookDeliveryRepository deliveryRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final byte[] secret;
+
+    public GitHubWebhookService(GitHubWebhookDeliveryRepository deliveryRepository, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${github.webhook.secret:}") String secret) {
+        this.deliveryRepository = deliveryRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ========================================
+    // 接收 / Receive
+    // ========================================
+
+    /**
+     * 驗證並保存一筆投遞 / Verify and store one delivery
+     *
+     * @throws IllegalStateException 未設定密鑰 / no secret is configured
+     * @throws AccessDeniedException 簽章不符 / the signature does not match
+     */
+    public Result receive(String event, String deliveryId, String signature, byte[] body) {
+        if (secret.length == 0) {
+            throw new IllegalStateException("GitHub webhook secret is not configured");
+        }
+        if (!verify(signature, body)) {
+            count(event, "rejected");
+            throw new AccessDeniedException("Invalid webhook signature");
+        }
+        if (event == null || deliveryId == null || !SUPPORTED_EVENTS.contains(event)) {
+            count(event, "ignored");
+            return Result.IGNORED;
+        }
+        if (deliveryRepository.existsByDeliveryId(deliveryId)) {
+            count(event, "duplicate");
+            return Result.DUPLICATE;
+        }
+
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Webhook payload is not valid JSON");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        GitHubWebhookDelivery delivery = GitHubWebhookDelivery.builder()
+                .deliveryId(deliveryId)
+                .event(event)
+                .action(payload.path("action").asText(null))
+                .repoFullName(payload.path("repository").path("full_name").asText(null))
+                .payload(new String(body, StandardCharsets.UTF_8))
+                .status(GitHubWebhookDelivery.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .receivedAt(now)
+                .updatedAt(now)
+                .build();
+        try {
+            delivery = deliveryRepository.save(delivery);
+        } catch (DataIntegrityViolationException e) {
+            // 同一投遞的並行重送 / A concurrent redelivery won the insert
+            count(event, "duplicate");
+            return Result.DUPLICATE;
+        }
+        count(event, "accepted");
+        eventPublisher.publishEvent(new GitHubWebhookReceivedEvent(delivery.getId()));
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * 以常數時間比對 HMAC-SHA256 簽章 / Compare the HMAC-SHA256 signature in constant time
+     */
+    private boolean verify(String signature, byte[] body) {
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            expected = mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+        byte[] actual;
+        try {
+            actual = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private void count(String event, String result) {
+        meterRegistry.counter("github.webhook.deliveries",
+                "event", event != null && SUPPORTED_EVENTS.contains(event) ? event : "other",
+                "result", result).increment();
+    }
+
+    // ========================================
+    // 重播 / Replay
+    // ========================================
+
+    /**
+     * 重新排入一筆已保存的投遞 / Re-queue a stored delivery for processing
+     */
+    public void replay(String deliveryId) {
+        GitHubWebhookDelivery delivery = deliveryRepository.findByDeliveryId(deliveryId)
+                .orElseThrow(() -> new RuntimeException("Webhook delivery not found: " + deliveryId));
+        LocalDateTime now = LocalDateTime.now();
+        delivery.setStatus(GitHubWebhookDelivery.Status.PENDING);
+        delivery.setAttempts(0);
+        delivery.setNextAttemptAt(now);
+        delivery.setLastError(null);
+        delivery.setUpdatedAt(now);
+        deliveryRepository.save(delivery);
+        log.info("Re-queued GitHub webhook delivery {} ({})", deliveryId, delivery.getEvent());
+        eventPublisher.publishEvent(new GitHubWebhookReceivedEvent(delivery.getId()));
+    }
+
+    /**
+     * 最近的投遞（不含內容）/ Recent deliveries without their payloads
+     */
+    public List<Map<String, Object>> getRecentDeliveries() {
+        return deliveryRepository.findTop50ByOrderByIdDesc().stream()
+                .map(delivery -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("deliveryId", delivery.getDeliveryId());
+                    row.put("event", delivery.getEvent());
+                    row.put("action", delivery.getAction());
+                    row.put("repository", delivery.getRepoFullName());
+                    row.put("status", delivery.getStatus());
+                    row.put("attempts", delivery.getAttempts());
+                    row.put("lastError", delivery.getLastError());
+                    row.put("receivedAt", delivery.getReceivedAt());
+                    return row;
+                })
+                .toList();
+    }
+}
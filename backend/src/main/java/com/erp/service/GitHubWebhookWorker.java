@@ -0,0 +1,342 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubSyncStatus;
+import com.erp.entity.GitHubWebhookDelivery;
+import com.erp.repository.GitHubWebhookDeliveryRepository;
+import com.erp.repository.ProjectRepository;
+import com.erp.repository.ProjectRepository.MemberRow;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * @file GitHubWebhookWorker.java
+ * @description GitHub Webhook 工作者 / GitHub Webhook Worker
+ * @description_en Processes stored webhook deliveries: pushes evict cached branch
+ *                 heads, member changes that diverge from the project team
+ *                 trigger a collaborator reconciliation, and repository renames,
+ *                 transfers and deletions update the linked projects. Deliveries
+ *                 are claimed with FOR UPDATE SKIP LOCKED under a lease and run on
+ *                 a small pool, one repository at a time in arrival order
+ * @description_zh 處理已保存的 Webhook 投遞：推送會清除快取的分支最新提交；與專案成員
+ *                 不一致的協作者變更會觸發校正；倉庫更名、轉移與刪除會更新綁定的專案。
+ *                 以 FOR UPDATE SKIP LOCKED 搭配租約領取投遞，並在小型執行緒池中處理，
+ *                 同一倉庫依接收順序逐一處理
+ */
+@Service
+@Slf4j
+public class GitHubWebhookWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GitHubWebhookDeliveryRepository deliveryRepository;
+    private final ProjectRepository projectRepository;
+    private final GitHubTreeCache treeCache;
+    private final GitHubCollaboratorReconciler collaboratorReconciler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration lease;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    public GitHubWebhookWorker(GitHubWebhookDeliveryRepository deliveryRepository,
+            ProjectRepository projectRepository, GitHubTreeCache treeCache,
+            GitHubCollaboratorReconciler collaboratorReconciler, ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${github.webhook.batch-size:50}") int batchSize,
+            @Value("${github.webhook.workers:4}") int workers,
+            @Value("${github.webhook.max-attempts:5}") int maxAttempts,
+            @Value("${github.webhook.retry-delay-seconds:30}") long retryDelaySeconds,
+            @Value("${github.webhook.lease-seconds:120}") long leaseSeconds) {
+        this.deliveryRepository = deliveryRepository;
+        this.projectRepository = projectRepository;
+        this.treeCache = treeCache;
+        this.collaboratorReconciler = collaboratorReconciler;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    // ========================================
+    // 輪詢 / Polling
+    // ========================================
+
+    /**
+     * 收到投遞後立即開始處理 / Start right away when a delivery arrives
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReceived(GitHubWebhookReceivedEvent event) {
+        wakeRequested.set(true);
+        Thread.ofVirtual().name("github-webhook-drain").start(this::drain);
+    }
+
+    /**
+     * 補處理重試與其他實例遺留的投遞 / Pick up retries and deliveries left by other instances
+     */
+    @Scheduled(fixedDelayString = "${github.webhook.poll-interval-ms:5000}")
+    public void poll() {
+        drain();
+    }
+
+    /**
+     * 同一時間只有一個迴圈在領取；處理期間到達的喚醒會讓迴圈再跑一輪
+     * Only one loop claims at a time; a wake-up that arrives meanwhile makes
+     * the running loop go round once more.
+     */
+    private void drain() {
+        while (draining.compareAndSet(false, true)) {
+            try {
+                wakeRequested.set(false);
+                List<GitHubWebhookDelivery> claimed = claim();
+                while (!claimed.isEmpty()) {
+                    processAll(claimed);
+                    claimed = claim();
+                }
+            } catch (Exception e) {
+                log.error("GitHub webhook poll failed", e);
+            } finally {
+                draining.set(false);
+            }
+            if (!wakeRequested.get()) {
+                return;
+            }
+        }
+    }
+
+    private List<GitHubWebhookDelivery> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<GitHubWebhookDelivery> due = deliveryRepository.lockDue(now, batchSize);
+            for (GitHubWebhookDelivery delivery : due) {
+                delivery.setAttempts(delivery.getAttempts() + 1);
+                delivery.setNextAttemptAt(now.plus(lease));
+                delivery.setUpdatedAt(now);
+            }
+            return due;
+        });
+    }
+
+    /**
+     * 依倉庫分組並行處理，組內保持接收順序 / Run repositories in parallel, each in arrival order
+     */
+    private void processAll(List<GitHubWebhookDelivery> claimed) {
+        Map<String, List<GitHubWebhookDelivery>> byRepo = new LinkedHashMap<>();
+        for (GitHubWebhookDelivery delivery : claimed) {
+            String repo = delivery.getRepoFullName() != null ? delivery.getRepoFullName().toLowerCase() : "";
+            byRepo.computeIfAbsent(repo, key -> new ArrayList<>()).add(delivery);
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers,
+                Thread.ofVirtual().name("github-webhook-", 0).factory())) {
+            for (List<GitHubWebhookDelivery> deliveries : byRepo.values()) {
+                executor.submit(() -> deliveries.forEach(this::process));
+            }
+        }
+    }
+
+    private void process(GitHubWebhookDelivery delivery) {
+        try {
+            handle(delivery);
+            complete(delivery);
+        } catch (Exception e) {
+            fail(delivery, e);
+        }
+    }
+
+    // ========================================
+    // 事件處理 / Event Handling
+    // ========================================
+
+    private void handle(GitHubWebhookDelivery delivery) throws IOException {
+        JsonNode payload = objectMapper.readTree(delivery.getPayload());
+        String repoName = delivery.getRepoFullName();
+        if (repoName == null) {
+            return;
+        }
+        switch (delivery.getEvent()) {
+            case "push" -> handlePush(repoName, payload);
+            case "member" -> handleMember(repoName, payload);
+            case "repository" -> handleRepository(repoName, payload);
+            default -> log.debug("Ignoring GitHub webhook event {}", delivery.getEvent());
+        }
+    }
+
+    /**
+     * 推送：清除該分支的最新提交；建立或刪除分支時一併清除分支列表
+     * Push: forget the branch head; creating or deleting a branch also drops
+     * the cached branch lists.
+     */
+    private void handlePush(String repoName, JsonNode payload) {
+        String ref = payload.path("ref").asText("");
+        if (!ref.startsWith("refs/heads/")) {
+            return;
+        }
+        if (payload.path("created").asBoolean() || payload.path("deleted").asBoolean()) {
+            treeCache.evictRepository(repoName);
+        } else {
+            treeCache.evictHead(repoName, ref.substring("refs/heads/".length()));
+        }
+    }
+
+    /**
+     * 協作者變更：只有與專案成員不一致（或權限被修改）時才校正，避免自身同步造成的事件再觸發呼叫
+     * Collaborator change: reconcile only when it diverges from the team (or a
+     * permission was edited), so events caused by our own sync do not trigger
+     * more GitHub calls.
+     */
+    private void handleMember(String repoName, JsonNode payload) {
+        String login = payload.path("member").path("login").asText(null);
+        String action = payload.path("action").asText("");
+        if (login == null) {
+            return;
+        }
+        for (String projectId : projectRepository.findIdsByGithubRepo(repoName)) {
+            boolean onTeam = projectRepository.findMembersByProjectIds(List.of(projectId)).stream()
+                    .map(MemberRow::getGithubUsername)
+                    .anyMatch(login::equalsIgnoreCase);
+            boolean diverged = switch (action) {
+                case "added" -> !onTeam;
+                case "edited" -> true;
+                case "removed" -> onTeam;
+                default -> false;
+            };
+            if (diverged) {
+                log.info("Collaborator {} {} on {} outside the project team, reconciling project {}", login, action,
+                        repoName, projectId);
+                collaboratorReconciler.reconcileProject(projectId);
+            }
+        }
+    }
+
+    /**
+     * 倉庫更名或轉移時更新綁定的專案；刪除時標記同步失敗
+     * Follow renames and transfers in the linked projects; mark them failed
+     * when the repository is deleted.
+     */
+    private void handleRepository(String repoName, JsonNode payload) {
+        String action = payload.path("action").asText("");
+        switch (action) {
+            case "renamed", "transferred" -> {
+                String previous = previousFullName(repoName, payload, action);
+                if (previous == null) {
+                    return;
+                }
+                treeCache.evictRepository(previous);
+                updateProjects(previous, projectId -> projectRepository.updateGithubRepo(projectId, repoName));
+                log.info("GitHub repository {} is now {}", previous, repoName);
+            }
+            case "deleted" -> {
+                treeCache.evictRepository(repoName);
+                updateProjects(repoName, projectId -> projectRepository.updateGithubSync(projectId,
+                        GitHubSyncStatus.FAILED, "Repository " + repoName + " was deleted on GitHub"));
+                log.warn("GitHub repository {} was deleted", repoName);
+            }
+            default -> treeCache.evictRepository(repoName);
+        }
+    }
+
+    private static String previousFullName(String repoName, JsonNode payload, String action) {
+        String[] current = repoName.split("/", 2);
+        if (current.length != 2) {
+            return null;
+        }
+        JsonNode changes = payload.path("changes");
+        if ("renamed".equals(action)) {
+            String from = changes.path("repository").path("name").path("from").asText(null);
+            return from != null ? current[0] + "/" + from : null;
+        }
+        JsonNode owner = changes.path("owner").path("from");
+        String from = owner.path("organization").path("login").asText(owner.path("user").path("login").asText(null));
+        return from != null ? from + "/" + current[1] : null;
+    }
+
+    private void updateProjects(String repoName, Consumer<String> update) {
+        List<String> projectIds = projectRepository.findIdsByGithubRepo(repoName);
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String projectId : projectIds) {
+                update.accept(projectId);
+                eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+            }
+        });
+    }
+
+    // ========================================
+    // 結果 / Outcome
+    // ========================================
+
+    private void complete(GitHubWebhookDelivery delivery) {
+        transactionTemplate.executeWithoutResult(status -> {
+            delivery.setStatus(GitHubWebhookDelivery.Status.DONE);
+            delivery.setLastError(null);
+            delivery.setUpdatedAt(LocalDateTime.now());
+            deliveryRepository.save(delivery);
+        });
+    }
+
+    private void fail(GitHubWebhookDelivery delivery, Exception e) {
+        String message = delivery.getEvent() + " " + delivery.getRepoFullName() + ": " + e.getMessage();
+        String error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        boolean retry = delivery.getAttempts() < maxAttempts;
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            delivery.setLastError(error);
+            delivery.setUpdatedAt(now);
+            if (retry) {
+                delivery.setNextAttemptAt(now.plus(retryDelay.multipliedBy(delivery.getAttempts())));
+            } else {
+                delivery.setStatus(GitHubWebhookDelivery.Status.FAILED);
+            }
+            deliveryRepository.save(delivery);
+        });
+        if (retry) {
+            log.warn("GitHub webhook delivery {} failed (attempt {}), retrying: {}", delivery.getDeliveryId(),
+                    delivery.getAttempts(), error);
+        } else {
+            log.error("GitHub webhook delivery {} failed permanently: {}", delivery.getDeliveryId(), error);
+        }
+    }
+
+    // ========================================
+    // 清理 / Cleanup
+    // ========================================
+
+    @Scheduled(cron = "0 10 4 * * *")
+    public void purgeDone() {
+        int deleted = deliveryRepository.deleteDoneBefore(LocalDateTime.now().minusDays(14));
+        if (deleted > 0) {
+            log.info("Purged {} processed GitHub webhook deliveries", deleted);
+        }
+    }
+}
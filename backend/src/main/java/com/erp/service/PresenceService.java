@@ -0,0 +1,143 @@
+package com.erp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file PresenceService.java
+ * @description 在線狀態服務 / Presence Service
+ * @description_en Keeps online presence in a Redis sorted set (score = last
+ *                 seen) and writes last activity back to Postgres in coalesced
+ *                 batches, so a heartbeat never touches the database
+ * @description_zh 以 Redis 有序集合（分數為最後活動時間）保存在線狀態，並批次合併寫回
+ *                 Postgres 的最後活動時間，心跳不再直接寫入資料庫
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    private static final String ONLINE_KEY = "presence:online";
+    private static final long ONLINE_WINDOW_MS = 5 * 60 * 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 待寫回的最後活動時間，同一使用者多次心跳只保留最新一筆 / Pending write-behind, latest wins */
+    private final Map<String, Long> pendingLastSeen = new ConcurrentHashMap<>();
+
+    /**
+     * 記錄心跳：一次 ZADD，無資料庫寫入
+     * Record a heartbeat: a single ZADD, no database write.
+     */
+    public void heartbeat(String userId) {
+        long now = System.currentTimeMillis();
+        pendingLastSeen.merge(userId, now, Math::max);
+        try {
+            redisTemplate.opsForZSet().add(ONLINE_KEY, userId, now);
+        } catch (DataAccessException e) {
+            log.warn("Failed to record presence for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void markOffline(String userId) {
+        try {
+            redisTemplate.opsForZSet().remove(ONLINE_KEY, userId);
+        } catch (DataAccessException e) {
+            log.warn("Failed to clear presence for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 取得目前在線使用者及其最後活動時間 / Online users with their last-seen time
+     */
+    public Map<String, LocalDateTime> getOnlineUsers() {
+        long threshold = System.currentTimeMillis() - ONLINE_WINDOW_MS;
+        Map<String, LocalDateTime> online = new HashMap<>();
+        try {
+            Set<ZSetOperations.TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(ONLINE_KEY, threshold, Double.MAX_VALUE);
+            if (entries != null) {
+                for (ZSetOperations.TypedTuple<String> entry : entries) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        online.put(entry.getValue(), toLocalDateTime(entry.getScore().longValue()));
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to read presence: {}", e.getMessage());
+        }
+        return online;
+    }
+
+    // ========================================
+    // 定期工作 / Scheduled Jobs
+    // ========================================
+
+    /**
+     * 移除超過 5 分鐘未活動的使用者 (每 3 分鐘執行一次)
+     * Drop users idle for more than five minutes; runs every three minutes.
+     */
+    @Scheduled(fixedRate = 180000)
+    public void evictStale() {
+        long threshold = System.currentTimeMillis() - ONLINE_WINDOW_MS;
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(ONLINE_KEY, 0, threshold);
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict stale presence: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 將累積的最後活動時間以單一批次寫回資料庫 (每分鐘)
+     * Flush accumulated last-seen times to Postgres in one JDBC batch, every
+     * minute. A plain UPDATE leaves users.updated_at untouched.
+     */
+    @Scheduled(fixedDelay = 60000)
+    @PreDestroy
+    public void flushLastSeen() {
+        if (pendingLastSeen.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (String userId : new ArrayList<>(pendingLastSeen.keySet())) {
+            Long lastSeen = pendingLastSeen.remove(userId);
+            if (lastSeen != null) {
+                batch.add(new Object[] { Timestamp.valueOf(toLocalDateTime(lastSeen)), userId });
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("UPDATE users SET last_login_at = ? WHERE id = ?", batch);
+        } catch (DataAccessException e) {
+            log.error("Failed to flush last-seen times for {} users, will retry", batch.size(), e);
+            for (Object[] row : batch) {
+                long lastSeen = ((Timestamp) row[0]).getTime();
+                pendingLastSeen.merge((String) row[1], lastSeen, Math::max);
+            }
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
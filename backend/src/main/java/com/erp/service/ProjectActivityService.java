@@ -0,0 +1,94 @@
+package com.erp.service;
+
+import com.erp.config.security.CurrentUser;
+import com.erp.dto.ProjectActivityResponse;
+import com.erp.dto.ProjectActivityResponse.WeeklyCommits;
+import com.erp.entity.GitHubActivityCursor;
+import com.erp.entity.Project;
+import com.erp.repository.GitHubActivityCursorRepository;
+import com.erp.repository.GitHubActivityRepository;
+import com.erp.repository.GitHubActivityRepository.WeekCount;
+import com.erp.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @file ProjectActivityService.java
+ * @description 專案 GitHub 活動服務 / Project Activity Service
+ * @description_en Serves the GitHub activity aggregates of a project from the
+ *                 tables filled by GitHubActivityIngester; never calls GitHub
+ * @description_zh 由 GitHubActivityIngester 寫入的資料表提供專案的 GitHub 活動統計，
+ *                 不會呼叫 GitHub
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectActivityService {
+
+    private static final int MAX_WEEKS = 104;
+
+    private final ProjectRepository projectRepository;
+    private final GitHubActivityRepository activityRepository;
+    private final GitHubActivityCursorRepository cursorRepository;
+    private final CurrentUser currentUser;
+
+    @Transactional(readOnly = true)
+    public ProjectActivityResponse getActivity(String projectId, int weeks) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
+        checkAccess(project);
+        if (project.getGithubRepo() == null || project.getGithubRepo().isBlank()) {
+            throw new RuntimeException("專案尚未綁定 GitHub 倉庫");
+        }
+
+        String repo = project.getGithubRepo().trim().toLowerCase(Locale.ROOT);
+        int weekCount = Math.max(1, Math.min(weeks, MAX_WEEKS));
+        LocalDate firstWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .minusWeeks(weekCount - 1);
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (WeekCount row : activityRepository.countCommitsPerWeek(repo, firstWeek.atStartOfDay())) {
+            counts.put(LocalDate.parse(row.getWeek()), row.getCount());
+        }
+        List<WeeklyCommits> commitsPerWeek = new ArrayList<>(weekCount);
+        for (int i = 0; i < weekCount; i++) {
+            LocalDate week = firstWeek.plusWeeks(i);
+            commitsPerWeek.add(new WeeklyCommits(week, counts.getOrDefault(week, 0L)));
+        }
+
+        GitHubActivityCursor cursor = cursorRepository.findById(repo).orElse(null);
+        return ProjectActivityResponse.builder()
+                .githubRepo(project.getGithubRepo())
+                .githubBranch(project.getGithubBranch())
+                .commitsPerWeek(commitsPerWeek)
+                .openPullRequests(activityRepository.countOpenPullRequests(repo))
+                .pullRequestsMergedLast30Days(
+                        activityRepository.countPullRequestsMergedSince(repo, LocalDateTime.now().minusDays(30)))
+                .openIssues(activityRepository.countOpenIssues(repo))
+                .lastSyncedAt(cursor != null ? cursor.getLastSyncedAt() : null)
+                .lastSyncError(cursor != null ? cursor.getLastError() : null)
+                .build();
+    }
+
+    private void checkAccess(Project project) {
+        if (currentUser.isAdmin()) {
+            return;
+        }
+        String userId = currentUser.getId();
+        boolean isCreator = project.getCreator() != null && userId.equals(project.getCreator().getId());
+        if (!isCreator && !projectRepository.isMember(project.getId(), userId)) {
+            throw new AccessDeniedException("You do not have permission to access this project.");
+        }
+    }
+}
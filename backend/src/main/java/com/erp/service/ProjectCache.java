@@ -0,0 +1,234 @@
+package com.erp.service;
+
+import com.erp.dto.ProjectResponse;
+import com.erp.repository.ProjectRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * @file ProjectCache.java
+ * @description 專案快取 / Project Cache
+ * @description_en Redis cache of serialized project responses: one list per
+ *                 user (a single shared list for admins) and one entry per
+ *                 project. Entries are evicted after commit by
+ *                 {@link ProjectChangedEvent}; the TTL only bounds staleness from
+ *                 changes made outside these services. Every key has a generation
+ *                 that eviction bumps; a fill is written only if the generation it
+ *                 read before loading is still current, so a load that raced an
+ *                 eviction cannot put stale data back
+ * @description_zh 以 Redis 快取序列化後的專案回應：每位使用者一份列表（管理員共用一份），
+ *                 每個專案一筆。於交易提交後依 {@link ProjectChangedEvent} 清除；存活
+ *                 時間僅用於限制其他途徑變更造成的過期資料。每個鍵都有世代編號，清除時
+ *                 遞增；只有載入前讀到的世代仍有效時才寫入，避免與清除競爭的載入寫回舊資料
+ */
+@Service
+@Slf4j
+public class ProjectCache {
+
+    /** 管理員可見全部專案，共用同一份列表 / Admins see every project and share one list */
+    public static final String ADMIN_SCOPE = "admin";
+
+    private static final String LIST_PREFIX = "project:list:";
+    private static final String ITEM_PREFIX = "project:item:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final String GENERATION_PREFIX = "project:gen:";
+    /** evictAll 遞增的全域世代 / Global generation bumped by evictAll */
+    private static final String EPOCH_KEY = "project:epoch";
+    /** 須長於任何一次載入 / Must outlive any single load */
+    private static final Duration GENERATION_TTL = Duration.ofHours(1);
+
+    /** 世代未變才寫入 / Write only while both generations are unchanged */
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') == ARGV[1] and (redis.call('GET', KEYS[3]) or '0') == ARGV[2] "
+                    + "then redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4]) return 1 end return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProjectRepository projectRepository;
+    private final JavaType listType;
+    private final Counter listHits;
+    private final Counter listMisses;
+    private final Counter itemHits;
+    private final Counter itemMisses;
+
+    public ProjectCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            ProjectRepository projectRepository, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.projectRepository = projectRepository;
+        this.listType = objectMapper.getTypeFactory().constructCollectionType(List.class, ProjectResponse.class);
+        this.listHits = counter(meterRegistry, "list", "hit");
+        this.listMisses = counter(meterRegistry, "list", "miss");
+        this.itemHits = counter(meterRegistry, "item", "hit");
+        this.itemMisses = counter(meterRegistry, "item", "miss");
+    }
+
+    private static Counter counter(MeterRegistry registry, String cache, String result) {
+        return Counter.builder("project.cache.requests")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // ========================================
+    // 讀取 / Read-through
+    // ========================================
+
+    /**
+     * @param scope 使用者 ID，或管理員的 {@link #ADMIN_SCOPE}
+     */
+    public List<ProjectResponse> getList(String scope, Supplier<List<ProjectResponse>> loader) {
+        String key = LIST_PREFIX + scope;
+        List<ProjectResponse> cached = read(key, listType);
+        if (cached != null) {
+            listHits.increment();
+            return cached;
+        }
+        listMisses.increment();
+        List<String> generation = generation(key);
+        List<ProjectResponse> loaded = loader.get();
+        write(key, generation, loaded);
+        return loaded;
+    }
+
+    public ProjectResponse getItem(String projectId, Supplier<ProjectResponse> loader) {
+        String key = ITEM_PREFIX + projectId;
+        ProjectResponse cached = read(key, objectMapper.constructType(ProjectResponse.class));
+        if (cached != null) {
+            itemHits.increment();
+            return cached;
+        }
+        itemMisses.increment();
+        List<String> generation = generation(key);
+        ProjectResponse loaded = loader.get();
+        write(key, generation, loaded);
+        return loaded;
+    }
+
+    // ========================================
+    // 失效 / Invalidation
+    // ========================================
+
+    /**
+     * 交易提交後清除：專案本身、管理員列表，以及建立者、成員與先前相關使用者的列表
+     * After commit, evict the project, the admin list and the lists of its
+     * creator, members and any formerly linked users.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        Set<String> userIds = new HashSet<>(event.getFormerUserIds());
+        try {
+            projectRepository.findCreatorIdById(event.getProjectId()).ifPresent(userIds::add);
+            projectRepository.findMembersByProjectIds(List.of(event.getProjectId()))
+                    .forEach(member -> userIds.add(member.getId()));
+        } catch (DataAccessException e) {
+            log.warn("Cannot resolve users of project {}, evicting every list: {}", event.getProjectId(),
+                    e.getMessage());
+            evictAll();
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        keys.add(ITEM_PREFIX + event.getProjectId());
+        keys.add(LIST_PREFIX + ADMIN_SCOPE);
+        userIds.forEach(userId -> keys.add(LIST_PREFIX + userId));
+        try {
+            // 先遞增世代再刪除，進行中的載入便不會寫回 / Bump generations first so in-flight loads are discarded
+            for (String key : keys) {
+                bump(GENERATION_PREFIX + key);
+            }
+            redisTemplate.delete(keys);
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict project cache for {}: {}", event.getProjectId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 清除所有專案快取（僅用於大量修正後）/ Drop every cached project entry
+     */
+    public void evictAll() {
+        try {
+            bump(EPOCH_KEY);
+        } catch (DataAccessException e) {
+            log.warn("Failed to bump project cache epoch: {}", e.getMessage());
+        }
+        for (String pattern : List.of(LIST_PREFIX + "*", ITEM_PREFIX + "*")) {
+            List<String> keys = new ArrayList<>();
+            try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(500).build())) {
+                cursor.forEachRemaining(keys::add);
+                if (!keys.isEmpty()) {
+                    redisTemplate.delete(keys);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to clear project cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    private <T> T read(String key, JavaType type) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            return json != null ? objectMapper.readValue(json, type) : null;
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to read project cache entry {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 載入前讀取鍵的世代與全域世代；Redis 無法使用時回傳 null，之後也不寫入
+     * The key's generation and the global one, read before loading; null when
+     * Redis is unavailable, in which case nothing is written afterwards.
+     */
+    private List<String> generation(String key) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(GENERATION_PREFIX + key, EPOCH_KEY));
+            if (values == null) {
+                return null;
+            }
+            return values.stream().map(value -> value != null ? value : "0").toList();
+        } catch (DataAccessException e) {
+            log.warn("Failed to read project cache generation {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void bump(String generationKey) {
+        redisTemplate.opsForValue().increment(generationKey);
+        redisTemplate.expire(generationKey, GENERATION_TTL);
+    }
+
+    private void write(String key, List<String> generation, Object value) {
+        if (generation == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(FILL_SCRIPT, List.of(key, GENERATION_PREFIX + key, EPOCH_KEY),
+                    generation.get(0), generation.get(1), objectMapper.writeValueAsString(value),
+                    Long.toString(TTL.toMillis()));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to write project cache entry {}: {}", key, e.getMessage());
+        }
+    }
+}
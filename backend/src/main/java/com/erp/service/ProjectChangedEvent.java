@@ -0,0 +1,30 @@
+package com.erp.service;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * @file ProjectChangedEvent.java
+ * @description 專案變更事件 / Project Changed Event
+ * @description_en Published when a project or anything shown in its response
+ *                 (team, task progress) changes. Carries users who may no longer
+ *                 be linked to the project, e.g. removed members
+ * @description_zh 專案本身或其回應內容（成員、任務進度）變更時發布。會附帶可能已不再
+ *                 與專案相關的使用者，例如被移除的成員
+ */
+@Getter
+public class ProjectChangedEvent {
+
+    private final String projectId;
+    private final Set<String> formerUserIds;
+
+    public ProjectChangedEvent(String projectId) {
+        this(projectId, Set.of());
+    }
+
+    public ProjectChangedEvent(String projectId, Set<String> formerUserIds) {
+        this.projectId = projectId;
+        this.formerUserIds = formerUserIds;
+    }
+}
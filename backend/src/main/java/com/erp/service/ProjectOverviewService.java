@@ -0,0 +1,132 @@
+package com.erp.service;
+
+import com.erp.config.security.CurrentUser;
+import com.erp.dto.ProjectOverviewResponse;
+import com.erp.dto.ProjectResponse;
+import com.erp.dto.TaskResponse;
+import com.erp.entity.Project;
+import com.erp.repository.ProjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @file ProjectOverviewService.java
+ * @description 專案總覽服務 / Project Overview Service
+ * @description_en Builds the project page in one call. Access is checked once on
+ *                 the request thread, then the project, tasks, financial summary
+ *                 and file list are loaded concurrently on virtual threads under
+ *                 a shared deadline. A failing section is reported in the
+ *                 response instead of failing the whole request
+ * @description_zh 一次建立專案頁面所需資料。於請求執行緒檢查一次權限後，在虛擬執行緒上
+ *                 同時載入專案、任務、財務摘要與檔案列表，並共用同一個期限。單一區塊
+ *                 失敗只會記錄在回應中，不會讓整個請求失敗
+ */
+@Service
+@Slf4j
+public class ProjectOverviewService {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectService projectService;
+    private final TaskService taskService;
+    private final FinancialService financialService;
+    private final FileService fileService;
+    private final CurrentUser currentUser;
+    private final Duration timeout;
+
+    public ProjectOverviewService(ProjectRepository projectRepository, ProjectService projectService,
+            TaskService taskService, FinancialService financialService, FileService fileService,
+            CurrentUser currentUser,
+            @Value("${application.projects.overview-timeout-ms:5000}") long timeoutMs) {
+        this.projectRepository = projectRepository;
+        this.projectService = projectService;
+        this.taskService = taskService;
+        this.financialService = financialService;
+        this.fileService = fileService;
+        this.currentUser = currentUser;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    public ProjectOverviewResponse getOverview(String projectId) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
+        checkAccess(project);
+
+        Double budget = project.getBudget();
+        String fileLocation = project.getFileLocation();
+        Map<String, String> errors = new TreeMap<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        ProjectOverviewResponse.ProjectOverviewResponseBuilder overview = ProjectOverviewResponse.builder();
+        // 子工作沿用請求的安全環境 / Sections run with the request's security context
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(
+                Executors.newVirtualThreadPerTaskExecutor());
+        try {
+            Future<ProjectResponse> projectSection = executor.submit(
+                    () -> projectService.getProjectById(projectId));
+            Future<List<TaskResponse>> taskSection = executor.submit(
+                    () -> taskService.getTasksByProjectId(projectId));
+            Future<Map<String, Object>> financialSection = executor.submit(
+                    () -> financialService.getProjectFinancialSummary(projectId, budget));
+            Future<List<String>> fileSection = executor.submit(
+                    () -> fileService.listFiles(projectId, fileLocation));
+
+            ProjectResponse projectResponse = await("project", projectSection, deadline, errors);
+            overview.project(projectResponse)
+                    .members(projectResponse != null ? projectResponse.getTeam() : null)
+                    .tasks(await("tasks", taskSection, deadline, errors))
+                    .financialSummary(await("financialSummary", financialSection, deadline, errors))
+                    .files(await("files", fileSection, deadline, errors));
+        } finally {
+            // 不用 close()：它會等待逾時的區塊結束，期限便失去作用 / Not close(), which would wait out timed-out sections
+            executor.shutdownNow();
+        }
+        return overview.errors(errors).build();
+    }
+
+    private void checkAccess(Project project) {
+        if (currentUser.isAdmin()) {
+            return;
+        }
+        String userId = currentUser.getId();
+        boolean isCreator = project.getCreator() != null && userId.equals(project.getCreator().getId());
+        if (!isCreator && !projectRepository.isMember(project.getId(), userId)) {
+            throw new AccessDeniedException("You do not have permission to access this project.");
+        }
+    }
+
+    /**
+     * 等待區塊結果；失敗或超過期限時回傳 null 並記錄原因
+     * Wait for a section; on failure or past the deadline return null and record why.
+     */
+    private <T> T await(String section, Future<T> future, long deadline, Map<String, String> errors) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Project overview section {} timed out", section);
+            errors.put(section, "Timed out");
+        } catch (ExecutionException e) {
+            log.warn("Project overview section {} failed: {}", section, e.getCause().getMessage());
+            errors.put(section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            errors.put(section, "Interrupted");
+        }
+        return null;
+    }
+}
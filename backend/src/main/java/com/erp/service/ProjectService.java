@@ -1,22 +1,35 @@
 package com.erp.service;
 
+import com.erp.config.security.CurrentUser;
+import com.erp.dto.GitHubReconciliationReport;
+import com.erp.dto.ProjectPageResponse;
 import com.erp.dto.ProjectRequest;
 import com.erp.dto.ProjectResponse;
+import com.erp.entity.GitHubSyncStatus;
 import com.erp.entity.Project;
 import com.erp.entity.ProjectStatus;
 import com.erp.entity.User;
 import com.erp.repository.ProjectRepository;
+import com.erp.repository.ProjectRepositoryCustom.ProjectFilter;
+import com.erp.repository.ProjectRow;
 import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.kohsuke.github.GHOrganization;
-import org.kohsuke.github.HttpException;
-import java.io.IOException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,36 +46,87 @@ import java.util.stream.Collectors;
 @SuppressWarnings("null")
 public class ProjectService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
-    private final com.erp.repository.TaskRepository taskRepository;
     private final GitHubService githubService;
+    private final GitHubOutbox githubOutbox;
+    private final GitHubCollaboratorReconciler collaboratorReconciler;
+    private final CurrentUser currentUser;
+    private final ProjectCache projectCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all projects / 獲取所有專案
      */
     @Transactional(readOnly = true)
     public List<ProjectResponse> getAllProjects() {
-        var authentication = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()
-                || "anonymousUser".equals(authentication.getPrincipal())) {
-            throw new RuntimeException("Unauthorized");
+        if (currentUser.isAdmin()) {
+            return projectCache.getList(ProjectCache.ADMIN_SCOPE,
+                    () -> mapToResponses(projectRepository.findAllRows()));
         }
-        String loginId = authentication.getName();
-        User currentUser = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Project> projects;
-        if (currentUser.getRole() == User.Role.ADMIN) {
-            projects = projectRepository.findAll();
-        } else {
-            projects = projectRepository.findByCreatorOrTeamContaining(currentUser, currentUser);
+        String userId = currentUser.getId();
+        return projectCache.getList(userId, () -> mapToResponses(projectRepository.findRowsVisibleTo(userId)));
+    }
+
+    /**
+     * 游標分頁查詢專案，依最後更新時間由新到舊
+     * Keyset-paginated project search, most recently updated first. Each page
+     * costs the same regardless of how deep it is.
+     *
+     * @param cursor 上一頁回傳的 nextCursor，第一頁為 null
+     */
+    @Transactional(readOnly = true)
+    public ProjectPageResponse getProjectPage(String cursor, int limit, ProjectStatus status, String client,
+            LocalDate from, LocalDate to, String memberId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        ProjectFilter.ProjectFilterBuilder filter = ProjectFilter.builder()
+                .status(status)
+                .client(client)
+                .from(from)
+                .to(to)
+                .memberId(memberId)
+                .visibleToUserId(currentUser.isAdmin() ? null : currentUser.getId());
+        if (cursor != null && !cursor.isBlank()) {
+            applyCursor(filter, cursor);
         }
 
-        return projects.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        // 多取一筆以判斷是否還有下一頁 / Fetch one extra row to know whether more exist
+        List<ProjectRow> rows = projectRepository.findPage(filter.build(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProjectRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProjectRow last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.updatedAt(), last.id());
+        }
+
+        return ProjectPageResponse.builder()
+                .items(mapToResponses(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private String encodeCursor(LocalDateTime updatedAt, String id) {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void applyCursor(ProjectFilter.ProjectFilterBuilder filter, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            filter.afterUpdatedAt(LocalDateTime.parse(position[0])).afterId(position[1]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 
     /**
@@ -70,9 +134,8 @@ public class ProjectService {
      */
     @Transactional(readOnly = true)
     public ProjectResponse getProjectById(String id) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
-        return mapToResponse(project);
+        return projectCache.getItem(id, () -> mapToResponses(List.of(projectRepository.findRowById(id)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id)))).get(0));
     }
 
     /**
@@ -84,12 +147,6 @@ public class ProjectService {
             team.addAll(userRepository.findAllById(request.getTeamIds()));
         }
 
-        var authentication = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication();
-        String loginId = authentication.getName();
-        User currentUser = userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         Project project = Project.builder()
                 .title(request.getTitle())
                 .client(request.getClient())
@@ -105,47 +162,32 @@ public class ProjectService {
                 .fileLocation(request.getFileLocation())
                 .progress(0) // Default progress
                 .team(team)
-                .creator(currentUser)
+                .creator(currentUser.getReference())
                 .build();
 
+        // 倉庫於提交後由發件匣建立，建立成功才寫入 githubRepo
+        // The outbox creates the repository after commit and sets githubRepo once it exists
+        String repoNameToCreate = null;
         if (Boolean.TRUE.equals(request.getCreateGithubRepo())) {
-            try {
-                String repoNameToUse = (request.getGithubRepoName() != null && !request.getGithubRepoName().isBlank())
-                        ? request.getGithubRepoName().trim().replaceAll("\\s+", "-").toLowerCase()
-                        : request.getTitle().replaceAll("\\s+", "-").toLowerCase();
-
-                String repoUrl = githubService.createOrganizationRepository(
-                        repoNameToUse,
-                        request.getGithubRepoDescription() != null ? request.getGithubRepoDescription()
-                                : request.getDescription(),
-                        Boolean.TRUE.equals(request.getGithubPrivate()));
-                // We'll store the full URL or simply owner/repo format. The UI expects
-                // owner/repo
-                // Extract "bill-project-manage-system/repo-name" from URL
-                String[] parts = repoUrl.split("/");
-                if (parts.length >= 2) {
-                    String orgAndRepo = parts[parts.length - 2] + "/" + parts[parts.length - 1];
-                    project.setGithubRepo(orgAndRepo);
-
-                    // Add collaborators (only the newly created repo needs to do this
-                    // automatically)
-                    syncGithubCollaborators(orgAndRepo, team);
-                }
-            } catch (HttpException e) {
-                log.error("GitHub API error while creating repository: {} - {}", e.getResponseCode(), e.getMessage());
-                String detail = e.getMessage();
-                if (detail != null && detail.contains("name already exists")) {
-                    throw new RuntimeException(
-                            "GitHub 倉庫建立失敗：名稱 [" + request.getGithubRepoName() + "] 在組織中已存在，請嘗試其他名稱。");
-                }
-                throw new RuntimeException("GitHub 倉庫建立失敗 (API 錯誤): " + e.getMessage());
-            } catch (IOException e) {
-                log.error("Failed to create GitHub repository for project: {}", request.getTitle(), e);
-                throw new RuntimeException("專案建立成功但 GitHub 倉庫建立失敗: " + e.getMessage());
+            String organization = githubService.getOrganizationName();
+            if (organization == null || organization.isBlank()) {
+                throw new RuntimeException("GitHub Organization Name is not configured");
             }
+            repoNameToCreate = (request.getGithubRepoName() != null && !request.getGithubRepoName().isBlank())
+                    ? request.getGithubRepoName().trim().replaceAll("\\s+", "-").toLowerCase()
+                    : request.getTitle().replaceAll("\\s+", "-").toLowerCase();
+            project.setGithubSyncStatus(GitHubSyncStatus.PENDING);
         }
 
         Project savedProject = projectRepository.save(project);
+        if (repoNameToCreate != null) {
+            githubOutbox.enqueueCreateRepository(savedProject.getId(), repoNameToCreate,
+                    request.getGithubRepoDescription() != null ? request.getGithubRepoDescription()
+                            : request.getDescription(),
+                    Boolean.TRUE.equals(request.getGithubPrivate()));
+            githubOutbox.enqueueAddCollaborators(savedProject.getId(), repoNameToCreate, team);
+        }
+        eventPublisher.publishEvent(new ProjectChangedEvent(savedProject.getId()));
         return mapToResponse(savedProject);
     }
 
@@ -185,7 +227,12 @@ public class ProjectService {
         if (request.getFileLocation() != null)
             project.setFileLocation(request.getFileLocation());
 
+        // 被移除的成員也需清除其列表快取 / Removed members' cached lists must be evicted too
+        Set<String> formerMemberIds = new HashSet<>();
         if (request.getTeamIds() != null) {
+            if (project.getTeam() != null) {
+                project.getTeam().forEach(u -> formerMemberIds.add(u.getId()));
+            }
             Set<User> newTeam = new HashSet<>(userRepository.findAllById(request.getTeamIds()));
             Set<User> oldTeam = project.getTeam() != null ? new HashSet<>(project.getTeam()) : new HashSet<>();
 
@@ -193,8 +240,11 @@ public class ProjectService {
                     oldTeam.stream().map(User::getUsername).collect(Collectors.toList()),
                     newTeam.stream().map(User::getUsername).collect(Collectors.toList()));
 
-            // Only sync collaborators if the project already has a GitHub repo linked
-            if (project.getGithubRepo() != null && !project.getGithubRepo().isEmpty()) {
+            // 已綁定倉庫，或倉庫仍待建立時才同步協作者 / Sync collaborators for a linked repo or one still being created
+            String githubRepo = project.getGithubRepo() != null && !project.getGithubRepo().isEmpty()
+                    ? project.getGithubRepo()
+                    : githubOutbox.pendingRepositoryName(id).orElse(null);
+            if (githubRepo != null) {
                 // Find users who are in newTeam but not in oldTeam
                 Set<User> addedMembers = newTeam.stream()
                         .filter(u -> !oldTeam.contains(u))
@@ -203,7 +253,7 @@ public class ProjectService {
                 if (!addedMembers.isEmpty()) {
                     log.info("Adding members to GitHub: {}",
                             addedMembers.stream().map(User::getUsername).collect(Collectors.toList()));
-                    syncGithubCollaborators(project.getGithubRepo(), addedMembers);
+                    githubOutbox.enqueueAddCollaborators(id, githubRepo, addedMembers);
                 }
 
                 // Find users who were removed (in oldTeam but not in newTeam)
@@ -214,7 +264,7 @@ public class ProjectService {
                 if (!removedMembers.isEmpty()) {
                     log.info("Removing members from GitHub: {}",
                             removedMembers.stream().map(User::getUsername).collect(Collectors.toList()));
-                    syncGithubCollaboratorRemovals(project.getGithubRepo(), removedMembers);
+                    githubOutbox.enqueueRemoveCollaborators(id, githubRepo, removedMembers);
                 }
             }
 
@@ -222,185 +272,107 @@ public class ProjectService {
         }
 
         Project updatedProject = projectRepository.save(project);
+        eventPublisher.publishEvent(new ProjectChangedEvent(updatedProject.getId(), formerMemberIds));
         return mapToResponse(updatedProject);
     }
 
     /**
-     * Remove team members as collaborators from the project's GitHub repository.
+     * 重新排入失敗的 GitHub 操作 / Retry the project's failed GitHub operations
      */
-    private void syncGithubCollaboratorRemovals(String fullRepoName, Set<User> users) {
-        if (fullRepoName == null || fullRepoName.isEmpty())
-            return;
-
-        String repoName = fullRepoName;
-        String[] parts = fullRepoName.split("/");
-        if (parts.length == 2) {
-            repoName = parts[1];
+    public int retryGithubSync(String projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new RuntimeException("Project not found with id: " + projectId);
         }
-
-        for (User user : users) {
-            String githubUsername = user.getGithubUsername();
-            if (githubUsername != null && !githubUsername.trim().isEmpty()) {
-                try {
-                    githubService.removeCollaboratorFromRepo(repoName, githubUsername);
-                } catch (Exception e) {
-                    log.error("Failed to remove collaborator {} from repository {}", githubUsername, repoName, e);
-                }
-            }
+        int requeued = githubOutbox.retryFailed(projectId);
+        if (requeued > 0) {
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
         }
+        return requeued;
     }
 
     /**
-     * Add team members as collaborators to the project's GitHub repository.
+     * Force sync all team members to GitHub repository as collaborators
      */
-    private void syncGithubCollaborators(String fullRepoName, Set<User> users) {
-        if (fullRepoName == null || fullRepoName.isEmpty())
-            return;
-
-        // Ensure we only use the repo name, not the owner/repo format if organization
-        // name is already prefixed in GitHubService
-        String repoName = fullRepoName;
-        String[] parts = fullRepoName.split("/");
-        if (parts.length == 2) {
-            repoName = parts[1];
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GitHubReconciliationReport.ProjectResult forceSyncGithubCollaborators(String projectId) {
+        GitHubReconciliationReport.ProjectResult result = collaboratorReconciler.reconcileProject(projectId);
+        if (result.getOutcome() == GitHubReconciliationReport.Outcome.SKIPPED) {
+            throw new RuntimeException("GitHub 操作仍在處理中，請稍後再同步");
         }
-
-        for (User user : users) {
-            String githubUsername = user.getGithubUsername();
-            if (githubUsername != null && !githubUsername.trim().isEmpty()) {
-                try {
-                    // Assign WRITE permission to DEV roles, and READ permission to others. Or set
-                    // default to PUSH.
-                    GHOrganization.Permission permission = user.getRole() == User.Role.DEV
-                            ? GHOrganization.Permission.PUSH
-                            : GHOrganization.Permission.PULL;
-                    githubService.addCollaboratorToRepo(repoName, githubUsername, permission);
-                } catch (Exception e) {
-                    log.error("Failed to add collaborator {} to repository {}", githubUsername, repoName, e);
-                }
-            }
+        if (result.getOutcome() == GitHubReconciliationReport.Outcome.FAILED) {
+            log.error("Failed to force sync GitHub collaborators for project {}: {}", projectId, result.getErrors());
+            throw new RuntimeException("同步 GitHub 成員失敗: " + String.join("; ", result.getErrors()));
         }
+        return result;
     }
 
     /**
-     * Force sync all team members to GitHub repository as collaborators
+     * Delete project / 刪除專案
      */
-    public void forceSyncGithubCollaborators(String projectId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
-
-        Set<User> team = project.getTeam();
-        if (team == null) {
-            team = new HashSet<>();
-        }
+    public void deleteProject(String id) {
+        Project project = projectRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
 
-        String githubRepo = project.getGithubRepo();
-        if (githubRepo == null || githubRepo.isEmpty()) {
-            throw new RuntimeException("專案尚未綁定 GitHub 倉庫");
+        // 刪除後無法再查詢成員，先記下 / Capture linked users before they become unreachable
+        Set<String> linkedUserIds = new HashSet<>();
+        if (project.getCreator() != null) {
+            linkedUserIds.add(project.getCreator().getId());
         }
+        project.getTeam().forEach(u -> linkedUserIds.add(u.getId()));
 
-        try {
-            // Get actual repo name avoiding org prefix if there
-            String repoName = githubRepo;
-            String[] parts = githubRepo.split("/");
-            if (parts.length == 2) {
-                repoName = parts[1];
-            }
-
-            // Get current collaborators from GitHub
-            Set<String> currentGithubCollaborators = githubService.getRepoCollaborators(repoName);
-
-            // Determine desired collaborators based on ERP team (only those with GitHub
-            // usernames)
-            Set<String> desiredGithubUsernames = team.stream()
-                    .map(User::getGithubUsername)
-                    .filter(u -> u != null && !u.trim().isEmpty())
-                    .collect(Collectors.toSet());
-
-            // 1. Members to Add (in ERP team but not on GitHub)
-            Set<User> membersToAdd = team.stream()
-                    .filter(u -> {
-                        String ghUsername = u.getGithubUsername();
-                        return ghUsername != null && !ghUsername.trim().isEmpty()
-                                && !currentGithubCollaborators.contains(ghUsername);
-                    })
-                    .collect(Collectors.toSet());
-
-            if (!membersToAdd.isEmpty()) {
-                log.info("Force sync: Adding missing members to GitHub: {}",
-                        membersToAdd.stream().map(User::getUsername).collect(Collectors.toList()));
-                syncGithubCollaborators(githubRepo, membersToAdd);
-            }
+        projectRepository.delete(project);
+        eventPublisher.publishEvent(new ProjectChangedEvent(id, linkedUserIds));
+    }
 
-            // 2. Members to Remove (on GitHub but not in ERP team)
-            Set<String> usernamesToRemove = currentGithubCollaborators.stream()
-                    .filter(ghUser -> !desiredGithubUsernames.contains(ghUser))
-                    .collect(Collectors.toSet());
-
-            if (!usernamesToRemove.isEmpty()) {
-                log.info("Force sync: Removing extra collaborators from GitHub: {}", usernamesToRemove);
-                for (String ghUsername : usernamesToRemove) {
-                    try {
-                        githubService.removeCollaboratorFromRepo(repoName, ghUsername);
-                    } catch (Exception e) {
-                        log.error("Failed to remove collaborator {} from repository {}", ghUsername, repoName, e);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("Failed to force sync GitHub collaborators for project: {}", projectId, e);
-            throw new RuntimeException("同步 GitHub 成員失敗", e);
-        }
+    private ProjectResponse mapToResponse(Project project) {
+        return mapToResponses(List.of(ProjectRow.of(project))).get(0);
     }
 
     /**
-     * Delete project / 刪除專案
+     * 批次組裝回應：不論專案數量，只需一次成員查詢；進度取自已儲存的計數器
+     * Builds responses with a fixed query budget: one member fetch, however many
+     * projects are passed in. Progress comes from the stored counters, so the
+     * tasks table is never scanned.
      */
-    public void deleteProject(String id) {
-        if (!projectRepository.existsById(id)) {
-            throw new RuntimeException("Project not found with id: " + id);
+    private List<ProjectResponse> mapToResponses(List<ProjectRow> projects) {
+        if (projects.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> projectIds = projects.stream().map(ProjectRow::id).toList();
+
+        Map<String, List<ProjectResponse.MemberInfo>> members = new HashMap<>();
+        for (ProjectRepository.MemberRow row : projectRepository.findMembersByProjectIds(projectIds)) {
+            members.computeIfAbsent(row.getProjectId(), k -> new ArrayList<>())
+                    .add(ProjectResponse.MemberInfo.builder()
+                            .id(row.getId())
+                            .name(row.getName())
+                            .email(row.getEmail())
+                            .role(row.getRole())
+                            .githubUsername(row.getGithubUsername())
+                            .build());
         }
-        projectRepository.deleteById(id);
-    }
 
-    private ProjectResponse mapToResponse(Project project) {
-        List<ProjectResponse.MemberInfo> teamInfo = project.getTeam() != null ? project.getTeam().stream()
-                .map(user -> ProjectResponse.MemberInfo.builder()
-                        .id(user.getId())
-                        .name(user.getName())
-                        .email(user.getEmail())
-                        .role(user.getRole())
-                        .githubUsername(user.getGithubUsername())
+        return projects.stream()
+                .map(project -> ProjectResponse.builder()
+                        .id(project.id())
+                        .title(project.title())
+                        .client(project.client())
+                        .budget(project.budget())
+                        .startDate(project.startDate())
+                        .endDate(project.endDate())
+                        .status(project.status())
+                        .progress(project.progress() != null ? project.progress() : 0)
+                        .description(project.description())
+                        .team(members.getOrDefault(project.id(), new ArrayList<>()))
+                        .githubRepo(project.githubRepo())
+                        .githubBranch(project.githubBranch())
+                        .backupConfig(project.backupConfig())
+                        .githubSyncStatus(project.githubSyncStatus())
+                        .githubSyncError(project.githubSyncError())
+                        .fileLocation(project.fileLocation())
+                        .createdAt(project.createdAt())
+                        .updatedAt(project.updatedAt())
                         .build())
-                .collect(Collectors.toList()) : null;
-
-        return ProjectResponse.builder()
-                .id(project.getId())
-                .title(project.getTitle())
-                .client(project.getClient())
-                .budget(project.getBudget())
-                .startDate(project.getStartDate())
-                .endDate(project.getEndDate())
-                .status(project.getStatus())
-                .progress(calculateProgress(project.getId()))
-                .description(project.getDescription())
-                .team(teamInfo)
-                .githubRepo(project.getGithubRepo())
-                .githubBranch(project.getGithubBranch())
-                .backupConfig(project.getBackupConfig())
-                .githubToken(project.getGithubToken())
-                .fileLocation(project.getFileLocation())
-                .createdAt(project.getCreatedAt())
-                .updatedAt(project.getUpdatedAt())
-                .build();
-    }
-
-    private Integer calculateProgress(String projectId) {
-        Integer totalTasks = taskRepository.countByProjectId(projectId);
-        if (totalTasks == 0) {
-            return 0;
-        }
-        Integer completedTasks = taskRepository.countByProjectIdAndStatus(projectId, com.erp.entity.TaskStatus.DONE);
-        return (int) Math.round(((double) completedTasks / totalTasks) * 100);
+                .collect(Collectors.toList());
     }
 }
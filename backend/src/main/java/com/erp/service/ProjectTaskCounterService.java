@@ -0,0 +1,97 @@
+package com.erp.service;
+
+import com.erp.entity.TaskStatus;
+import com.erp.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * @file ProjectTaskCounterService.java
+ * @description 專案任務計數服務 / Project Task Counter Service
+ * @description_en Keeps the per-status task counters and progress stored on each
+ *                 project in step with task writes, inside the caller's
+ *                 transaction, and periodically repairs any drift
+ * @description_zh 於任務寫入的同一交易中，維護專案上依狀態分類的任務計數與進度，並定期
+ *                 修正可能的偏差
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectTaskCounterService {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectCache projectCache;
+
+    public void taskCreated(String projectId, TaskStatus status) {
+        apply(projectId, status, 1);
+    }
+
+    public void taskDeleted(String projectId, TaskStatus status) {
+        apply(projectId, status, -1);
+    }
+
+    public void taskStatusChanged(String projectId, TaskStatus from, TaskStatus to) {
+        if (from == to) {
+            return;
+        }
+        int[] delta = new int[TaskStatus.values().length];
+        delta[from.ordinal()]--;
+        delta[to.ordinal()]++;
+        apply(projectId, delta);
+    }
+
+    /**
+     * 多張任務改為同一狀態，合併為單一更新 / Many tasks moved to one status, as a single update
+     */
+    public void tasksStatusChanged(String projectId, List<TaskStatus> from, TaskStatus to) {
+        int[] delta = new int[TaskStatus.values().length];
+        for (TaskStatus status : from) {
+            if (status != to) {
+                delta[status.ordinal()]--;
+                delta[to.ordinal()]++;
+            }
+        }
+        apply(projectId, delta);
+    }
+
+    private void apply(String projectId, TaskStatus status, int amount) {
+        int[] delta = new int[TaskStatus.values().length];
+        delta[status.ordinal()] += amount;
+        apply(projectId, delta);
+    }
+
+    private void apply(String projectId, int[] delta) {
+        projectRepository.applyTaskCountDelta(projectId,
+                delta[TaskStatus.TODO.ordinal()],
+                delta[TaskStatus.DOING.ordinal()],
+                delta[TaskStatus.DONE.ordinal()]);
+    }
+
+    // ========================================
+    // 修正 / Repair
+    // ========================================
+
+    /**
+     * 啟動時及每日凌晨由 tasks 重新統計，修正偏差的計數器
+     * Recount from tasks at startup and nightly, fixing drifted counters.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 3 * * *")
+    public void repair() {
+        try {
+            int repaired = projectRepository.repairTaskCounters();
+            if (repaired > 0) {
+                log.warn("Repaired task counters of {} projects", repaired);
+                projectCache.evictAll();
+            }
+        } catch (Exception e) {
+            log.error("Failed to repair project task counters", e);
+        }
+    }
+}
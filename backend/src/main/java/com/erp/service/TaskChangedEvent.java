@@ -0,0 +1,29 @@
+package com.erp.service;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * @file TaskChangedEvent.java
+ * @description 任務變更事件 / Task Changed Event
+ * @description_en Published when tasks are created, edited, moved or deleted,
+ *                 so in-memory views of them (the reminder engine) reload those
+ *                 rows after commit
+ * @description_zh 任務新增、修改、移動或刪除時發布，讓記憶體中的檢視（提醒引擎）於交易提交
+ *                 後重新載入這些任務
+ */
+@Getter
+public class TaskChangedEvent {
+
+    private final Set<String> taskIds;
+
+    public TaskChangedEvent(String taskId) {
+        this.taskIds = Set.of(taskId);
+    }
+
+    public TaskChangedEvent(Collection<String> taskIds) {
+        this.taskIds = Set.copyOf(taskIds);
+    }
+}
@@ -0,0 +1,118 @@
+package com.erp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file TaskRank.java
+ * @description 任務排序鍵 / Task Rank Keys
+ * @description_en Fractional ordering keys for board cards. A key is a base-36
+ *                 fraction written with 0-9a-z; comparing keys as plain strings
+ *                 orders the cards, and a key strictly between any two keys
+ *                 always exists, so moving a card only rewrites that card.
+ *                 Keys never end in '0', which keeps room below every key.
+ *                 The column uses the "C" collation so Postgres compares them
+ *                 byte by byte, like String.compareTo
+ * @description_zh 看板卡片的分數排序鍵。鍵為以 0-9a-z 表示的 36 進位小數，直接以字串比較即為
+ *                 卡片順序；任兩個鍵之間必定存在另一個鍵，因此移動卡片只需改寫該卡片。
+ *                 鍵不會以 '0' 結尾，確保每個鍵之前都還有空間。資料欄使用 "C" 定序，
+ *                 讓 Postgres 與 String.compareTo 一樣逐位元組比較
+ */
+public final class TaskRank {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private TaskRank() {
+    }
+
+    /**
+     * 介於兩個鍵之間的最短鍵 / Shortest key strictly between two keys
+     *
+     * @param lower 下界，null 為最前 / lower bound, null for the start of the column
+     * @param upper 上界，null 為最後 / upper bound, null for the end of the column
+     * @throws IllegalArgumentException 下界不小於上界 / lower is not below upper
+     */
+    public static String between(String lower, String upper) {
+        String low = lower != null ? lower : "";
+        if (upper != null && low.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Rank " + lower + " is not below " + upper);
+        }
+        StringBuilder key = new StringBuilder();
+        String high = upper;
+        for (int i = 0;; i++) {
+            int lo = i < low.length() ? digit(low.charAt(i)) : 0;
+            int hi = high != null && i < high.length() ? digit(high.charAt(i)) : BASE;
+            if (lo == hi) {
+                key.append(DIGITS.charAt(lo));
+                continue;
+            }
+            int mid = (lo + hi) / 2;
+            if (mid > lo) {
+                key.append(DIGITS.charAt(mid));
+                return key.toString();
+            }
+            // 相鄰位數：沿用下界位數，之後的位數不再受上界限制 / Adjacent digits: keep lo, upper no longer binds
+            key.append(DIGITS.charAt(lo));
+            high = null;
+        }
+    }
+
+    /**
+     * 接在 lower 之後的 count 個遞增鍵（之後沒有其他卡片），用於一次附加多張卡片
+     * Count increasing keys after lower, with nothing after them, for
+     * appending many cards at once.
+     */
+    public static List<String> after(String lower, int count) {
+        String prefix = between(lower, null);
+        if (count == 1) {
+            return List.of(prefix);
+        }
+        List<String> keys = new ArrayList<>(count);
+        for (String suffix : spread(count)) {
+            keys.add(prefix + suffix);
+        }
+        return keys;
+    }
+
+    /**
+     * 平均分布的鍵，用於重新整理整欄 / Evenly spaced keys for rebalancing a whole column
+     */
+    public static List<String> spread(int count) {
+        // 預留約 16 倍的空間，讓之後的插入仍維持短鍵 / Leave ~16x room so later inserts stay short
+        int width = 1;
+        long space = BASE;
+        while (space < (long) count * 16 + 1) {
+            width++;
+            space *= BASE;
+        }
+        long step = space / (count + 1L);
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(encode(i * step, width));
+        }
+        return keys;
+    }
+
+    /** 固定寬度的 36 進位表示，去除結尾的 0 / Fixed-width base 36 without trailing zeros */
+    private static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = width;
+        while (length > 1 && chars[length - 1] == '0') {
+            length--;
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid rank character: " + c);
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,171 @@
+package com.erp.service;
+
+import com.erp.entity.TaskStatus;
+import com.erp.repository.TaskRepository;
+import com.erp.repository.TaskRepository.RankRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file TaskRankService.java
+ * @description 看板排序服務 / Task Rank Service
+ * @description_en Assigns board ranks (see TaskRank) and rebalances columns whose
+ *                 keys grew long or that still hold unranked cards. Every writer
+ *                 of a column takes a transaction-scoped advisory lock on it
+ *                 first, so two moves into the same gap cannot produce the same
+ *                 key and a move never computes a key from ranks a concurrent
+ *                 rebalance is rewriting
+ * @description_zh 指派看板排序鍵（見 TaskRank），並重新整理鍵過長或仍有未排序卡片的欄。
+ *                 寫入某欄前皆先取得該欄的交易層級 advisory lock，避免兩個移動落在同一
+ *                 間隙而產生相同的鍵，也避免以正在重新整理的舊鍵計算新鍵
+ */
+@Service
+@Slf4j
+public class TaskRankService {
+
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxLength;
+
+    public TaskRankService(TaskRepository taskRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.tasks.rank-max-length:12}") int maxLength) {
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxLength = maxLength;
+    }
+
+    // ========================================
+    // 指派 / Assignment
+    // ========================================
+
+    /**
+     * 鎖定看板欄直到交易結束 / Lock a board column until the transaction ends
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockColumn(String projectId, TaskStatus status) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null,
+                "task-board:" + projectId + ":" + status.name());
+    }
+
+    /**
+     * 欄末的鍵（呼叫前須已鎖定該欄）/ Rank at the end of a column; the column must be locked
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String rankAtEnd(String projectId, TaskStatus status, String excludeId) {
+        return TaskRank.between(taskRepository.findLastRank(projectId, status, exclude(excludeId)).orElse(null),
+                null);
+    }
+
+    /**
+     * 依序將多張卡片附加到欄末，一次批次寫入（呼叫前須已鎖定該欄）
+     * Append cards to the end of a column in the given order with one batch
+     * write; the column must be locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendToEnd(String projectId, TaskStatus status, List<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        String last = taskRepository.findLastRank(projectId, status, "").orElse(null);
+        List<String> keys = TaskRank.after(last, taskIds.size());
+        List<Object[]> rows = new ArrayList<>(taskIds.size());
+        for (int i = 0; i < taskIds.size(); i++) {
+            rows.add(new Object[] { keys.get(i), taskIds.get(i) });
+        }
+        jdbcTemplate.batchUpdate("UPDATE tasks SET board_rank = ? WHERE id = ?", rows);
+    }
+
+    /**
+     * 將卡片放在 prev 之後或 next 之前的鍵（呼叫前須已鎖定該欄）。以伺服器端實際的相鄰卡片
+     * 計算，用戶端看到的順序過期時仍會得到一致的結果
+     * Rank placing a card right after prev, or right before next; the column
+     * must be locked. The actual neighbour is looked up server side, so a stale
+     * client view still yields a consistent order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String rankBetween(String projectId, TaskStatus status, String taskId, RankRow prev, RankRow next) {
+        if ((prev != null && prev.getRank() == null) || (next != null && next.getRank() == null)) {
+            rebalanceColumn(projectId, status);
+            prev = prev != null ? reload(prev) : null;
+            next = next != null ? reload(next) : null;
+        }
+        if (prev != null) {
+            String upper = taskRepository.findRankAfter(projectId, status, prev.getRank(), taskId).orElse(null);
+            return TaskRank.between(prev.getRank(), upper);
+        }
+        if (next != null) {
+            String lower = taskRepository.findRankBefore(projectId, status, next.getRank(), taskId).orElse(null);
+            return TaskRank.between(lower, next.getRank());
+        }
+        return rankAtEnd(projectId, status, taskId);
+    }
+
+    private RankRow reload(RankRow row) {
+        return taskRepository.findRankRowById(row.getId())
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + row.getId()));
+    }
+
+    private static String exclude(String taskId) {
+        return taskId != null ? taskId : "";
+    }
+
+    // ========================================
+    // 重新整理 / Rebalancing
+    // ========================================
+
+    /**
+     * 依目前順序為整欄重新指派平均分布的短鍵；未排序的卡片依舊的 orderIndex 接在最後
+     * Reassign evenly spaced short keys to a column in its current order;
+     * unranked cards follow by their legacy orderIndex.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rebalanceColumn(String projectId, TaskStatus status) {
+        lockColumn(projectId, status);
+        List<String> ids = taskRepository.findIdsInBoardOrder(projectId, status);
+        List<String> keys = TaskRank.spread(ids.size());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[] { keys.get(i), ids.get(i) });
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE tasks SET board_rank = ? WHERE id = ?", rows);
+        }
+    }
+
+    /**
+     * 啟動時補齊舊資料的排序鍵，之後定期整理鍵過長的欄
+     * Backfill ranks of existing cards at startup, then periodically rebalance
+     * columns whose keys grew long.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.tasks.rank-rebalance-cron:0 */10 * * * *}")
+    public void rebalance() {
+        try {
+            List<Object[]> columns = taskRepository.findColumnsNeedingRebalance(maxLength);
+            for (Object[] column : columns) {
+                transactionTemplate.executeWithoutResult(
+                        status -> rebalanceColumn((String) column[0], (TaskStatus) column[1]));
+            }
+            if (!columns.isEmpty()) {
+                log.info("Rebalanced task ranks of {} board columns", columns.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to rebalance task ranks", e);
+        }
+    }
+}
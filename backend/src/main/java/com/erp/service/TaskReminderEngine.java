@@ -0,0 +1,566 @@
+package com.erp.service;
+
+import com.erp.dto.TaskReminderResponse;
+import com.erp.entity.TaskPriority;
+import com.erp.entity.TaskReminderState;
+import com.erp.entity.TaskStatus;
+import com.erp.repository.ProjectRepository;
+import com.erp.repository.TaskRepository;
+import com.erp.repository.TaskRepository.ReminderRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * @file TaskReminderEngine.java
+ * @description 截止提醒引擎 / Task Reminder Engine
+ * @description_en Keeps every open task with a deadline in memory, loaded once
+ *                 at startup and kept current by task and project events. Each
+ *                 task has one timer on a hierarchical timing wheel, for the
+ *                 moment it becomes due soon or overdue, so polling for
+ *                 reminders never touches the database. Sending a reminder
+ *                 first advances tasks.reminder_state with a conditional update;
+ *                 only the instance whose update matched publishes
+ *                 TaskReminderEvent, so each transition is pushed exactly once
+ *                 even with several instances. Instances tell each other about
+ *                 changes over Redis pub/sub, and an hourly reload repairs drift.
+ *                 The reload builds a fresh state outside the lock and swaps it
+ *                 in, so polls never wait for it, and it only writes tasks whose
+ *                 stored reminder_state lags behind
+ * @description_zh 將所有未完成且有截止時間的任務保存在記憶體中：啟動時載入一次，之後依任務
+ *                 與專案事件更新。每個任務在階層式時間輪上只有一個計時器，對應其進入「即將
+ *                 到期」或「已逾期」的時刻，因此輪詢提醒完全不需查詢資料庫。送出提醒前先以
+ *                 條件式更新推進 tasks.reminder_state，只有更新成功的實例才會發布
+ *                 TaskReminderEvent，多實例下每個狀態轉換也只推送一次。實例間透過 Redis
+ *                 發布/訂閱同步變更，並每小時重新載入以修正偏差。重新載入在鎖外建立新狀態後
+ *                 整份換上，輪詢不必等待；只寫入已記錄狀態落後的任務
+ */
+@Service
+@Slf4j
+public class TaskReminderEngine implements MessageListener {
+
+    private static final String CHANNEL = "tasks:reminders:changed";
+    private static final int UPDATE_CHUNK = 500;
+    private static final Comparator<Entry> BY_DEADLINE = Comparator.comparing(Entry::deadline)
+            .thenComparing(Entry::id);
+
+    private static final String MARK_DUE_SOON = "UPDATE tasks SET reminder_state = 'DUE_SOON' " +
+            "WHERE id = ANY(?) AND status <> 'DONE' AND deadline > ? AND deadline <= ? " +
+            "AND (reminder_state IS NULL OR reminder_state = 'NONE') RETURNING id";
+    private static final String MARK_OVERDUE = "UPDATE tasks SET reminder_state = 'OVERDUE' " +
+            "WHERE id = ANY(?) AND status <> 'DONE' AND deadline <= ? " +
+            "AND (reminder_state IS NULL OR reminder_state <> 'OVERDUE') RETURNING id";
+
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Duration dueSoon;
+    private final long tickMillis;
+    private final String pushChannel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<TaskReminderState, Counter> sent = new EnumMap<>(TaskReminderState.class);
+
+    /** 變更須持有 this，換上新狀態亦同 / Changed, and replaced, only while holding this */
+    private volatile State state;
+    // 以下由 this 保護 / Guarded by this
+    private boolean loaded;
+    /** 重新載入期間變更的任務，載入完成後補讀 / Tasks changed while a reload runs, re-read afterwards */
+    private Set<String> changedDuringReload;
+
+    /** 待寫入並推送的狀態轉換 / Transitions waiting to be recorded and pushed */
+    private final Queue<Transition> pending = new ConcurrentLinkedQueue<>();
+
+    private record Entry(String id, String title, String projectId, TaskStatus status, TaskPriority priority,
+            LocalDateTime deadline) {
+    }
+
+    private record Transition(Entry entry, TaskReminderState state) {
+    }
+
+    public TaskReminderEngine(TaskRepository taskRepository, ProjectRepository projectRepository,
+            JdbcTemplate jdbcTemplate, StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer, ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${application.tasks.reminders.due-soon-hours:72}") long dueSoonHours,
+            @Value("${application.tasks.reminders.tick-ms:1000}") long tickMillis,
+            @Value("${application.tasks.reminders.push-channel:}") String pushChannel) {
+        this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.dueSoon = Duration.ofHours(dueSoonHours);
+        this.tickMillis = tickMillis;
+        this.pushChannel = pushChannel;
+        for (TaskReminderState state : List.of(TaskReminderState.DUE_SOON, TaskReminderState.OVERDUE)) {
+            sent.put(state, Counter.builder("task.reminders.sent")
+                    .tag("state", state.name())
+                    .register(meterRegistry));
+        }
+        this.state = new State();
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // ========================================
+    // 查詢 / Read
+    // ========================================
+
+    /**
+     * 使用者可見專案中即將到期或已逾期的任務，依截止時間排序
+     * Due-soon and overdue tasks in the user's projects, by deadline.
+     */
+    public List<TaskReminderResponse> getReminders(String userId) {
+        // 已快取者不需加鎖 / A cached list needs no lock
+        List<TaskReminderResponse> cached = state.byUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            State current = state;
+            return current.byUser.computeIfAbsent(userId, current::remindersOf);
+        }
+    }
+
+    // ========================================
+    // 載入 / Loading
+    // ========================================
+
+    /**
+     * 啟動時及每小時整批重新載入，修正遺漏的變更
+     * Full reload at startup and hourly, repairing any missed change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.tasks.reminders.resync-cron:0 0 * * * *}")
+    public void reload() {
+        try {
+            synchronized (this) {
+                changedDuringReload = new HashSet<>();
+            }
+            List<ReminderRow> rows = taskRepository.findReminderRows();
+            Map<String, Set<String>> audiences = loadAudiences(rows.stream().map(ReminderRow::getProjectId).toList());
+
+            // 在鎖外建立，輪詢與事件不必等待 / Built outside the lock so polls and events never wait for it
+            State fresh = new State();
+            audiences.forEach(fresh::setAudience);
+            rows.forEach(row -> fresh.track(toEntry(row), recorded(row)));
+
+            Set<String> changed;
+            synchronized (this) {
+                state = fresh;
+                loaded = true;
+                changed = changedDuringReload;
+                changedDuringReload = null;
+            }
+            if (!changed.isEmpty()) {
+                reloadTasks(changed);
+            }
+            log.info("Tracking {} task deadlines for reminders", rows.size());
+        } catch (DataAccessException e) {
+            synchronized (this) {
+                changedDuringReload = null;
+            }
+            log.error("Failed to load task deadlines for reminders", e);
+        }
+        flush();
+    }
+
+    private void reloadTasks(Collection<String> taskIds) {
+        List<ReminderRow> rows = taskRepository.findReminderRowsByIdIn(taskIds);
+        Set<String> unknownProjects = new HashSet<>();
+        synchronized (this) {
+            rows.forEach(row -> {
+                if (!state.audience.containsKey(row.getProjectId())) {
+                    unknownProjects.add(row.getProjectId());
+                }
+            });
+        }
+        Map<String, Set<String>> audiences = loadAudiences(unknownProjects);
+
+        synchronized (this) {
+            if (changedDuringReload != null) {
+                changedDuringReload.addAll(taskIds);
+            }
+            State current = state;
+            audiences.forEach((projectId, userIds) -> {
+                if (!current.audience.containsKey(projectId)) {
+                    current.setAudience(projectId, userIds);
+                }
+            });
+            Set<String> missing = new HashSet<>(taskIds);
+            for (ReminderRow row : rows) {
+                missing.remove(row.getId());
+                current.track(toEntry(row), recorded(row));
+            }
+            missing.forEach(current::untrack);
+        }
+    }
+
+    private void reloadProject(String projectId) {
+        synchronized (this) {
+            if (!state.audience.containsKey(projectId)) {
+                return;
+            }
+        }
+        Map<String, Set<String>> audiences = loadAudiences(List.of(projectId));
+        synchronized (this) {
+            State current = state;
+            Set<String> userIds = audiences.get(projectId);
+            if (userIds != null) {
+                current.setAudience(projectId, userIds);
+                return;
+            }
+            // 專案已刪除 / The project is gone
+            current.tasks.values().stream()
+                    .filter(entry -> entry.projectId().equals(projectId))
+                    .map(Entry::id)
+                    .toList()
+                    .forEach(current::untrack);
+            current.setAudience(projectId, Set.of());
+            current.audience.remove(projectId);
+        }
+    }
+
+    /**
+     * 專案建立者與成員；不存在的專案不會出現在結果中
+     * Creator and members per project; projects that no longer exist are absent.
+     */
+    private Map<String, Set<String>> loadAudiences(Collection<String> projectIds) {
+        Map<String, Set<String>> audiences = new HashMap<>();
+        if (projectIds.isEmpty()) {
+            return audiences;
+        }
+        Set<String> ids = new HashSet<>(projectIds);
+        projectRepository.findCreatorsByProjectIds(ids).forEach(row -> {
+            Set<String> userIds = audiences.computeIfAbsent(row.getProjectId(), key -> new HashSet<>());
+            if (row.getCreatorId() != null) {
+                userIds.add(row.getCreatorId());
+            }
+        });
+        projectRepository.findMembersByProjectIds(ids).forEach(member -> {
+            Set<String> userIds = audiences.get(member.getProjectId());
+            if (userIds != null) {
+                userIds.add(member.getId());
+            }
+        });
+        return audiences;
+    }
+
+    private static Entry toEntry(ReminderRow row) {
+        return new Entry(row.getId(), row.getTitle(), row.getProjectId(), row.getStatus(), row.getPriority(),
+                row.getDeadline());
+    }
+
+    private static TaskReminderState recorded(ReminderRow row) {
+        return row.getReminderState() != null ? row.getReminderState() : TaskReminderState.NONE;
+    }
+
+    // ========================================
+    // 變更通知 / Change Notifications
+    // ========================================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTasksChanged(TaskChangedEvent event) {
+        if (event.getTaskIds().isEmpty()) {
+            return;
+        }
+        try {
+            reloadTasks(event.getTaskIds());
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh reminders of tasks {}: {}", event.getTaskIds(), e.getMessage());
+        }
+        announce("task:" + String.join(",", event.getTaskIds()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        try {
+            reloadProject(event.getProjectId());
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh reminder audience of project {}: {}", event.getProjectId(), e.getMessage());
+        }
+        announce("project:" + event.getProjectId());
+    }
+
+    private void announce(String change) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + change);
+        } catch (DataAccessException e) {
+            log.warn("Failed to announce reminder change {}: {}", change, e.getMessage());
+        }
+    }
+
+    /**
+     * 套用其他實例的變更 / Apply a change announced by another instance
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        String change = body.substring(separator + 1);
+        try {
+            if (change.startsWith("task:")) {
+                reloadTasks(Arrays.asList(change.substring(5).split(",")));
+            } else if (change.startsWith("project:")) {
+                reloadProject(change.substring(8));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to apply reminder change {}: {}", change, e.getMessage());
+        }
+    }
+
+    // ========================================
+    // 排程 / Scheduling
+    // ========================================
+
+    /**
+     * 推進時間輪，並寫入、推送累積的狀態轉換
+     * Advance the wheel, then record and push the pending transitions.
+     */
+    @Scheduled(fixedDelayString = "${application.tasks.reminders.tick-ms:1000}")
+    public void advance() {
+        synchronized (this) {
+            if (loaded) {
+                State current = state;
+                for (String taskId : current.wheel.advanceTo(clock.millis())) {
+                    Entry entry = current.tasks.get(taskId);
+                    if (entry != null) {
+                        current.track(entry, current.active.getOrDefault(taskId, TaskReminderState.NONE));
+                    }
+                }
+            }
+        }
+        flush();
+    }
+
+    /**
+     * 追蹤中的任務、時間輪與各使用者的提醒列表；除 byUser 外僅在持有鎖時讀寫，
+     * 尚未換上的新狀態則只屬於建立它的執行緒
+     * Tracked tasks, their wheel and the per-user lists. Apart from byUser it
+     * is only touched while holding the lock, or by the thread building a
+     * state that is not yet in place.
+     */
+    private final class State {
+
+        final Map<String, Entry> tasks = new HashMap<>();
+        final Map<String, TaskReminderState> active = new HashMap<>();
+        final Map<String, NavigableSet<Entry>> activeByProject = new HashMap<>();
+        final Map<String, Set<String>> audience = new HashMap<>();
+        final Map<String, Set<String>> projectsByUser = new HashMap<>();
+        /** 輪詢不加鎖讀取 / Read by polls without the lock */
+        final Map<String, List<TaskReminderResponse>> byUser = new ConcurrentHashMap<>();
+        final TimingWheel<String> wheel = new TimingWheel<>(tickMillis, clock.millis());
+
+        /**
+         * 追蹤任務並依目前時間決定其狀態與下一個計時器；已記錄的狀態落後時才排入寫入
+         * Track a task, settling its state and next timer from the current
+         * time. A transition is queued only when the recorded state lags.
+         */
+        void track(Entry entry, TaskReminderState recorded) {
+            untrack(entry.id());
+            if (entry.status() == TaskStatus.DONE || entry.deadline() == null) {
+                return;
+            }
+            tasks.put(entry.id(), entry);
+
+            long now = clock.millis();
+            long dueAt = entry.deadline().atZone(clock.getZone()).toInstant().toEpochMilli();
+            long soonAt = dueAt - dueSoon.toMillis();
+            TaskReminderState reminder;
+            if (now < soonAt && wheel.schedule(entry.id(), soonAt)) {
+                reminder = TaskReminderState.NONE;
+            } else if (now < dueAt && wheel.schedule(entry.id(), dueAt)) {
+                reminder = TaskReminderState.DUE_SOON;
+            } else {
+                reminder = TaskReminderState.OVERDUE;
+            }
+            if (reminder == TaskReminderState.NONE) {
+                return;
+            }
+
+            active.put(entry.id(), reminder);
+            activeByProject.computeIfAbsent(entry.projectId(), key -> new TreeSet<>(BY_DEADLINE)).add(entry);
+            invalidate(entry.projectId());
+            // 狀態只會前進 / Reminder states only move forward
+            if (reminder.compareTo(recorded) > 0) {
+                pending.add(new Transition(entry, reminder));
+            }
+        }
+
+        void untrack(String taskId) {
+            wheel.cancel(taskId);
+            Entry entry = tasks.remove(taskId);
+            if (entry == null || active.remove(taskId) == null) {
+                return;
+            }
+            NavigableSet<Entry> projectEntries = activeByProject.get(entry.projectId());
+            if (projectEntries != null) {
+                projectEntries.remove(entry);
+                if (projectEntries.isEmpty()) {
+                    activeByProject.remove(entry.projectId());
+                }
+            }
+            invalidate(entry.projectId());
+        }
+
+        void setAudience(String projectId, Set<String> userIds) {
+            Set<String> former = audience.put(projectId, new HashSet<>(userIds));
+            if (former != null) {
+                for (String userId : former) {
+                    if (!userIds.contains(userId)) {
+                        Set<String> projects = projectsByUser.get(userId);
+                        if (projects != null && projects.remove(projectId) && projects.isEmpty()) {
+                            projectsByUser.remove(userId);
+                        }
+                    }
+                    byUser.remove(userId);
+                }
+            }
+            for (String userId : userIds) {
+                projectsByUser.computeIfAbsent(userId, key -> new HashSet<>()).add(projectId);
+                byUser.remove(userId);
+            }
+        }
+
+        void invalidate(String projectId) {
+            audience.getOrDefault(projectId, Set.of()).forEach(byUser::remove);
+        }
+
+        List<TaskReminderResponse> remindersOf(String userId) {
+            List<Entry> entries = new ArrayList<>();
+            for (String projectId : projectsByUser.getOrDefault(userId, Set.of())) {
+                NavigableSet<Entry> projectEntries = activeByProject.get(projectId);
+                if (projectEntries != null) {
+                    entries.addAll(projectEntries);
+                }
+            }
+            entries.sort(BY_DEADLINE);
+            return entries.stream().map(this::toResponse).toList();
+        }
+
+        private TaskReminderResponse toResponse(Entry entry) {
+            return TaskReminderResponse.builder()
+                    .id(entry.id())
+                    .title(entry.title())
+                    .projectId(entry.projectId())
+                    .status(entry.status())
+                    .priority(entry.priority())
+                    .deadline(entry.deadline())
+                    .reminder(active.get(entry.id()))
+                    .build();
+        }
+    }
+
+    // ========================================
+    // 推送 / Push
+    // ========================================
+
+    /**
+     * 以條件式更新記錄狀態轉換，只推送本實例成功更新的任務
+     * Record transitions with conditional updates and push only the tasks this
+     * instance actually moved forward.
+     */
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<TaskReminderState, Map<String, Transition>> byState = new EnumMap<>(TaskReminderState.class);
+        Transition transition;
+        while ((transition = pending.poll()) != null) {
+            byState.computeIfAbsent(transition.state(), key -> new LinkedHashMap<>())
+                    .put(transition.entry().id(), transition);
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        byState.forEach((state, transitions) -> {
+            List<String> ids = new ArrayList<>(transitions.keySet());
+            for (int from = 0; from < ids.size(); from += UPDATE_CHUNK) {
+                String[] chunk = ids.subList(from, Math.min(from + UPDATE_CHUNK, ids.size())).toArray(new String[0]);
+                try {
+                    List<String> marked = state == TaskReminderState.DUE_SOON
+                            ? jdbcTemplate.queryForList(MARK_DUE_SOON, String.class, chunk, now, now.plus(dueSoon))
+                            : jdbcTemplate.queryForList(MARK_OVERDUE, String.class, chunk, now);
+                    marked.forEach(id -> publish(transitions.get(id)));
+                } catch (DataAccessException e) {
+                    // 下次重新載入時會再嘗試 / Retried by the next reload
+                    log.error("Failed to record {} reminders", state, e);
+                }
+            }
+        });
+    }
+
+    private void publish(Transition transition) {
+        Entry entry = transition.entry();
+        Set<String> userIds;
+        synchronized (this) {
+            userIds = Set.copyOf(state.audience.getOrDefault(entry.projectId(), Set.of()));
+        }
+        TaskReminderEvent event = new TaskReminderEvent(entry.id(), entry.projectId(), entry.title(),
+                entry.deadline(), transition.state(), userIds);
+        sent.get(transition.state()).increment();
+        eventPublisher.publishEvent(event);
+
+        if (pushChannel == null || pushChannel.isBlank()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(pushChannel, objectMapper.writeValueAsString(event));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to relay reminder for task {}: {}", entry.id(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.erp.service;
+
+import com.erp.entity.TaskReminderState;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * @file TaskReminderEvent.java
+ * @description 任務提醒事件 / Task Reminder Event
+ * @description_en Published once per task and deadline when it becomes due soon
+ *                 and again when it becomes overdue. This is the hook for push
+ *                 channels; the engine also relays it to a Redis channel
+ * @description_zh 任務在同一截止時間下，進入「即將到期」與「已逾期」時各發布一次，供推播
+ *                 通道掛載；提醒引擎也會轉發至 Redis 頻道
+ */
+@Getter
+public class TaskReminderEvent {
+
+    private final String taskId;
+    private final String projectId;
+    private final String title;
+    private final LocalDateTime deadline;
+    private final TaskReminderState state;
+    /** 專案建立者與成員 / Project creator and members */
+    private final Set<String> userIds;
+
+    public TaskReminderEvent(String taskId, String projectId, String title, LocalDateTime deadline,
+            TaskReminderState state, Set<String> userIds) {
+        this.taskId = taskId;
+        this.projectId = projectId;
+        this.title = title;
+        this.deadline = deadline;
+        this.state = state;
+        this.userIds = userIds;
+    }
+}
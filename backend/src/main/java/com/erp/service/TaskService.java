@@ -1,5 +1,12 @@
 package com.erp.service;
 
+import com.erp.config.security.CurrentUser;
+import com.erp.dto.CalendarTaskResponse;
+import com.erp.dto.TaskBulkUpdateRequest;
+import com.erp.dto.TaskBulkUpdateResponse;
+import com.erp.dto.TaskMoveRequest;
+import com.erp.dto.TaskMoveResponse;
+import com.erp.dto.TaskReminderResponse;
 import com.erp.dto.TaskRequest;
 import com.erp.dto.TaskResponse;
 import com.erp.entity.Project;
@@ -8,13 +15,24 @@ import com.erp.entity.TaskStatus;
 import com.erp.entity.User;
 import com.erp.repository.ProjectRepository;
 import com.erp.repository.TaskRepository;
+import com.erp.repository.TaskRepository.RankRow;
+import com.erp.repository.TaskRepositoryCustom.TaskPatch;
 import com.erp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -29,9 +47,20 @@ import java.util.stream.Collectors;
 @SuppressWarnings("null")
 public class TaskService {
 
+    /** 行事曆單次查詢的最長天數 / Longest calendar window one request may ask for */
+    private static final int MAX_CALENDAR_DAYS = 366;
+
+    /** 單次批次修改的任務上限 / Most tasks one bulk update may touch */
+    private static final int MAX_BULK_TASKS = 500;
+
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final ProjectTaskCounterService taskCounters;
+    private final TaskRankService taskRanks;
+    private final TaskReminderEngine reminderEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get tasks by project ID / 獲取專案的所有任務
@@ -39,45 +68,34 @@ public class TaskService {
     @Transactional(readOnly = true)
     public List<TaskResponse> getTasksByProjectId(String projectId) {
         return taskRepository.findByProjectId(projectId).stream()
+                .sorted(java.util.Comparator.comparing(Task::getRank,
+                        java.util.Comparator.nullsLast(java.util.Comparator.naturalOrder())))
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     /**
-     * 獲取當前登入使用者的專案待辦事項 (用於行事曆同步) / Get all tasks for the current user's projects
+     * 獲取當前登入使用者專案中截止日落在 [from, to) 的任務 (用於行事曆同步)
+     * Get tasks due in [from, to) across the current user's projects, in one query
      */
     @Transactional(readOnly = true)
-    public List<TaskResponse> getMyCalendarTasks() {
-        User currentUser = getCurrentUser();
-        List<Project> myProjects = projectRepository.findByCreatorOrTeamContaining(currentUser, currentUser);
-
-        if (myProjects.isEmpty()) {
-            return new ArrayList<>();
+    public List<CalendarTaskResponse> getMyCalendarTasks(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
         }
-
-        return taskRepository.findByProjectIn(myProjects).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (ChronoUnit.DAYS.between(from, to) > MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Calendar window cannot exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+        return taskRepository.findCalendarTasks(currentUser.getId(), from.atStartOfDay(), to.atStartOfDay());
     }
 
     /**
-     * 獲取近期將到期或已逾期的任務 (用於通知提醒) / Get upcoming or overdue tasks for reminders
+     * 獲取近期將到期或已逾期的任務 (用於通知提醒)，由提醒引擎的記憶體資料提供
+     * Get upcoming or overdue tasks for reminders, served from the reminder engine's memory
      */
     @Transactional(readOnly = true)
-    public List<TaskResponse> getReminders() {
-        User currentUser = getCurrentUser();
-        List<Project> myProjects = projectRepository.findByCreatorOrTeamContaining(currentUser, currentUser);
-
-        if (myProjects.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        // Search for tasks due within the next 3 days, or overdue, excluding DONE tasks
-        java.time.LocalDateTime threshold = java.time.LocalDateTime.now().plusDays(3);
-
-        return taskRepository.findUpcomingAndOverdueTasks(myProjects, threshold).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public List<TaskReminderResponse> getReminders() {
+        return reminderEngine.getReminders(currentUser.getId());
     }
 
     /**
@@ -93,21 +111,28 @@ public class TaskService {
                     .orElse(null);
         }
 
+        TaskStatus status = request.getStatus() != null ? request.getStatus() : TaskStatus.TODO;
+        taskRanks.lockColumn(project.getId(), status);
+
         Task task = Task.builder()
                 .title(request.getTitle())
-                .status(request.getStatus() != null ? request.getStatus() : TaskStatus.TODO)
+                .status(status)
                 .priority(request.getPriority() != null ? request.getPriority() : com.erp.entity.TaskPriority.MEDIUM)
                 .orderIndex(request.getOrderIndex() != null ? request.getOrderIndex() : 0)
+                .rank(taskRanks.rankAtEnd(project.getId(), status, null))
                 .deadline(request.getDeadline())
                 .description(request.getDescription())
                 .project(project)
                 .assignee(assignee)
-                .reporter(getCurrentUser())
+                .reporter(currentUser.getReference())
                 .estimateMinutes(request.getEstimateMinutes() != null ? request.getEstimateMinutes() : 0)
                 .spentMinutes(request.getSpentMinutes() != null ? request.getSpentMinutes() : 0)
                 .build();
 
         Task savedTask = taskRepository.save(task);
+        taskCounters.taskCreated(project.getId(), savedTask.getStatus());
+        eventPublisher.publishEvent(new ProjectChangedEvent(project.getId()));
+        eventPublisher.publishEvent(new TaskChangedEvent(savedTask.getId()));
         return mapToResponse(savedTask);
     }
 
@@ -115,20 +140,34 @@ public class TaskService {
      * Update task / 更新任務
      */
     public TaskResponse updateTask(String id, TaskRequest request) {
-        Task task = taskRepository.findById(id)
+        if (request.getStatus() != null) {
+            // 先鎖目標欄再鎖任務列，與批次修改的順序一致；專案不會變動，可不加鎖讀取
+            // Target column before the row, the order bulk updates use; the project never changes, so read it unlocked
+            RankRow row = taskRepository.findRankRowById(id)
+                    .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
+            taskRanks.lockColumn(row.getProjectId(), request.getStatus());
+        }
+        // 計數器的增減須依鎖定後讀到的狀態 / Counter deltas must come from the status read under the row lock
+        Task task = taskRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
 
         if (request.getTitle() != null) {
             task.setTitle(request.getTitle());
         }
-        if (request.getStatus() != null) {
+        if (request.getStatus() != null && request.getStatus() != task.getStatus()) {
+            taskCounters.taskStatusChanged(task.getProject().getId(), task.getStatus(), request.getStatus());
+            eventPublisher.publishEvent(new ProjectChangedEvent(task.getProject().getId()));
             task.setStatus(request.getStatus());
+            // 換欄時放到新欄最後（該欄已於上方鎖定）/ A column change puts the card at the end of its new, already locked, column
+            task.setRank(taskRanks.rankAtEnd(task.getProject().getId(), task.getStatus(), task.getId()));
         }
         if (request.getOrderIndex() != null) {
             task.setOrderIndex(request.getOrderIndex());
         }
-        if (request.getDeadline() != null) {
+        if (request.getDeadline() != null && !request.getDeadline().equals(task.getDeadline())) {
             task.setDeadline(request.getDeadline());
+            // 提醒狀態不隨實體寫入，另以單列更新重設 / The reminder state is not saved with the entity; reset it on its own
+            taskRepository.resetReminderState(task.getId());
         }
         if (request.getDescription() != null) {
             task.setDescription(request.getDescription());
@@ -165,17 +204,135 @@ public class TaskService {
         }
 
         Task updatedTask = taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskChangedEvent(updatedTask.getId()));
         return mapToResponse(updatedTask);
     }
 
+    /**
+     * 移動看板卡片：單列更新狀態與排序鍵，不改寫其他卡片
+     * Move a board card: one single-row update of its status and rank; sibling
+     * cards are never rewritten.
+     */
+    public TaskMoveResponse moveTask(TaskMoveRequest request) {
+        RankRow unlocked = taskRepository.findRankRowById(request.getTaskId())
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + request.getTaskId()));
+        String projectId = unlocked.getProjectId();
+        // 未指定欄時為用戶端看到的那一欄 / Without a status, the column the client saw
+        TaskStatus target = request.getStatus() != null ? request.getStatus() : unlocked.getStatus();
+
+        // 先鎖目標欄再鎖卡片列，之後重新讀取的狀態與排序鍵才可信
+        // Target column, then the card's row; only the status and rank re-read afterwards can be trusted
+        taskRanks.lockColumn(projectId, target);
+        taskRepository.lockByIdIn(List.of(unlocked.getId()));
+        RankRow task = taskRepository.findRankRowById(unlocked.getId())
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + request.getTaskId()));
+        RankRow prev = neighbour(request.getPrevTaskId(), task, target);
+        RankRow next = prev == null ? neighbour(request.getNextTaskId(), task, target) : null;
+        String rank = taskRanks.rankBetween(projectId, target, task.getId(), prev, next);
+
+        taskRepository.moveTo(task.getId(), target, rank, LocalDateTime.now());
+        if (target != task.getStatus()) {
+            taskCounters.taskStatusChanged(projectId, task.getStatus(), target);
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+            eventPublisher.publishEvent(new TaskChangedEvent(task.getId()));
+        }
+        return TaskMoveResponse.builder()
+                .id(task.getId())
+                .status(target)
+                .rank(rank)
+                .build();
+    }
+
+    private RankRow neighbour(String neighbourId, RankRow task, TaskStatus target) {
+        if (neighbourId == null || neighbourId.isEmpty() || neighbourId.equals(task.getId())) {
+            return null;
+        }
+        RankRow neighbour = taskRepository.findRankRowById(neighbourId)
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + neighbourId));
+        if (!neighbour.getProjectId().equals(task.getProjectId()) || neighbour.getStatus() != target) {
+            throw new RuntimeException("Task " + neighbourId + " is not in the target column");
+        }
+        return neighbour;
+    }
+
+    /**
+     * 批次修改任務：負責人只查詢一次，所有任務以單一 UPDATE 更新，換欄的卡片以一次批次寫入
+     * 附加到新欄最後；陳述式數量與任務數無關
+     * Bulk-update tasks: the assignee is looked up once, every task is changed
+     * by one UPDATE and cards changing column are appended to it with one batch
+     * write, so the statement count does not grow with the number of tasks.
+     */
+    public TaskBulkUpdateResponse bulkUpdateTasks(TaskBulkUpdateRequest request) {
+        Set<String> requested = new LinkedHashSet<>();
+        if (request.getTaskIds() != null) {
+            request.getTaskIds().stream().filter(id -> id != null && !id.isEmpty()).forEach(requested::add);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("taskIds is required");
+        }
+        if (requested.size() > MAX_BULK_TASKS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_TASKS + " tasks can be updated at once");
+        }
+
+        TaskPatch.TaskPatchBuilder patch = TaskPatch.builder()
+                .status(request.getStatus())
+                .priority(request.getPriority());
+        if (request.getAssigneeId() != null) {
+            User assignee = request.getAssigneeId().isEmpty() ? null
+                    : userRepository.findById(request.getAssigneeId())
+                            .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getAssigneeId()));
+            patch.assigneeChanged(true).assignee(assignee);
+        }
+
+        List<RankRow> rows = taskRepository.findRankRowsByIdIn(requested);
+        Set<String> found = new LinkedHashSet<>();
+        rows.forEach(row -> found.add(row.getId()));
+        List<String> notFound = requested.stream().filter(id -> !found.contains(id)).toList();
+
+        // 換欄的卡片依專案分組，在狀態改變前附加到新欄最後 / Append column changes before the status moves
+        TaskStatus target = request.getStatus();
+        Map<String, List<RankRow>> moved = new LinkedHashMap<>();
+        if (target != null && !found.isEmpty()) {
+            // 依專案順序取得欄鎖、依 id 順序鎖定任務列，並行的批次修改不會互相死結
+            // Column locks in project order and row locks in id order, so concurrent bulk updates cannot deadlock
+            rows.stream().map(RankRow::getProjectId).collect(Collectors.toCollection(TreeSet::new))
+                    .forEach(projectId -> taskRanks.lockColumn(projectId, target));
+            taskRepository.lockByIdIn(found);
+            // 鎖定後重新讀取狀態，計數器的增減與實際更新一致 / Re-read statuses under the locks so counter deltas match the update
+            for (RankRow row : taskRepository.findRankRowsByIdIn(found)) {
+                if (row.getStatus() != target) {
+                    moved.computeIfAbsent(row.getProjectId(), key -> new ArrayList<>()).add(row);
+                }
+            }
+            moved.forEach((projectId, projectRows) -> taskRanks.appendToEnd(projectId, target,
+                    projectRows.stream().map(RankRow::getId).toList()));
+        }
+
+        int updated = taskRepository.bulkUpdate(found, patch.build(), LocalDateTime.now());
+
+        moved.forEach((projectId, projectRows) -> {
+            taskCounters.tasksStatusChanged(projectId, projectRows.stream().map(RankRow::getStatus).toList(), target);
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        });
+        if (!found.isEmpty()) {
+            eventPublisher.publishEvent(new TaskChangedEvent(found));
+        }
+        return TaskBulkUpdateResponse.builder()
+                .updated(updated)
+                .notFound(notFound)
+                .build();
+    }
+
     /**
      * Delete task / 刪除任務
      */
     public void deleteTask(String id) {
-        if (!taskRepository.existsById(id)) {
-            throw new RuntimeException("Task not found with id: " + id);
-        }
-        taskRepository.deleteById(id);
+        Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
+        taskRepository.delete(task);
+        taskCounters.taskDeleted(task.getProject().getId(), task.getStatus());
+        eventPublisher.publishEvent(new ProjectChangedEvent(task.getProject().getId()));
+        eventPublisher.publishEvent(new TaskChangedEvent(id));
     }
 
     private TaskResponse mapToResponse(Task task) {
@@ -203,6 +360,7 @@ public class TaskService {
                 .status(task.getStatus())
                 .priority(task.getPriority())
                 .orderIndex(task.getOrderIndex())
+                .rank(task.getRank())
                 .projectId(task.getProject().getId())
                 .assignee(assigneeInfo)
                 .reporter(reporterInfo)
@@ -214,16 +372,4 @@ public class TaskService {
                 .updatedAt(task.getUpdatedAt())
                 .build();
     }
-
-    private User getCurrentUser() {
-        var authentication = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()
-                || "anonymousUser".equals(authentication.getPrincipal())) {
-            throw new RuntimeException("Unauthorized");
-        }
-        String loginId = authentication.getName();
-        return userRepository.findByUsernameOrEmployeeIdOrEmail(loginId, loginId, loginId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
@@ -0,0 +1,134 @@
+package com.erp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @file TimingWheel.java
+ * @description 階層式時間輪 / Hierarchical Timing Wheel
+ * @description_en Keyed timers in levels of 64 slots, each level 64 times
+ *                 coarser than the one below. Scheduling, rescheduling and
+ *                 cancelling are O(1); advancing one tick only touches the slot
+ *                 that comes due and, every 64^n ticks, re-spreads one slot of
+ *                 level n into the finer levels. Not thread-safe: callers hold
+ *                 their own lock
+ * @description_zh 以鍵識別的計時器，分為多層、每層 64 格，每往上一層時間粒度放大 64 倍。
+ *                 排程、改期與取消皆為 O(1)；每前進一個刻度只處理到期的那一格，並每隔
+ *                 64^n 個刻度將第 n 層的一格重新分散到較細的層。非執行緒安全，由呼叫端
+ *                 自行加鎖
+ */
+final class TimingWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    /** 6 層、每刻度 1 秒時可涵蓋約 2000 年 / Six levels of one-second ticks span about 2000 years */
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final List<List<Set<K>>> wheels = new ArrayList<>(LEVELS);
+    private final Map<K, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    private record Timer(long tick, int level, int slot) {
+    }
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    /**
+     * 排程或改期計時器；時間已過者回傳 false 且不排程
+     * Schedule or reschedule a timer. Returns false, leaving the key
+     * unscheduled, when the time has already come.
+     */
+    boolean schedule(K key, long atMillis) {
+        cancel(key);
+        long tick = Math.floorDiv(atMillis, tickMillis);
+        if (tick <= currentTick) {
+            return false;
+        }
+        place(key, tick);
+        return true;
+    }
+
+    void cancel(K key) {
+        Timer timer = timers.remove(key);
+        if (timer != null) {
+            wheels.get(timer.level()).get(timer.slot()).remove(key);
+        }
+    }
+
+    /**
+     * 前進到指定時間，依到期順序回傳到期的鍵
+     * Advance to the given time, returning the keys that came due in order.
+     */
+    List<K> advanceTo(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        List<K> due = new ArrayList<>();
+        while (currentTick < target) {
+            if (timers.isEmpty()) {
+                currentTick = target;
+                break;
+            }
+            currentTick++;
+            // 由粗到細下放，下放到本刻度的計時器隨即在第 0 層到期 / Cascade coarse to fine, then fire level 0
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+                }
+            }
+            Set<K> slot = wheels.get(0).get((int) (currentTick & MASK));
+            for (K key : slot) {
+                timers.remove(key);
+                due.add(key);
+            }
+            slot.clear();
+        }
+        return due;
+    }
+
+    private void cascade(int level, int slotIndex) {
+        Set<K> slot = wheels.get(level).get(slotIndex);
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(slot);
+        slot.clear();
+        for (K key : keys) {
+            place(key, timers.remove(key).tick());
+        }
+    }
+
+    private void place(K key, long tick) {
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        // 超出最上層範圍者暫放最遠一格，下放時再依實際時間重新分配 / Park beyond-range timers in the farthest slot
+        long slotTick = Math.min(tick, currentTick + (1L << (BITS * LEVELS)) - 1);
+        int slot = (int) ((slotTick >>> (BITS * level)) & MASK);
+        wheels.get(level).get(slot).add(key);
+        timers.put(key, new Timer(tick, level, slot));
+    }
+}
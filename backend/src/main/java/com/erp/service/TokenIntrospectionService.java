@@ -0,0 +1,103 @@
+package com.erp.service;
+
+import com.erp.config.security.JwtService;
+import com.erp.config.security.SecurityStampStore;
+import com.erp.config.security.TokenRevocationStore;
+import com.erp.config.security.VerifiedToken;
+import com.erp.dto.TokenIntrospectionResponse;
+import com.erp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file TokenIntrospectionService.java
+ * @description Token 檢查服務 / Token Introspection Service
+ * @description_en Verifies tokens on behalf of internal services and returns the
+ *                 owner's public profile. Signature, revocation and security stamp
+ *                 are checked from memory and Redis; the profile comes from
+ *                 {@link UserProfileCache}
+ * @description_zh 代內部服務驗證 Token 並回傳使用者公開資料。簽章、撤銷與安全戳記皆由
+ *                 記憶體與 Redis 檢查；使用者資料取自 {@link UserProfileCache}
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final SecurityStampStore securityStampStore;
+    private final UserProfileCache userProfileCache;
+    private final UserRepository userRepository;
+
+    public TokenIntrospectionResponse introspect(String token) {
+        return introspectAll(List.of(token == null ? "" : token)).get(0);
+    }
+
+    /**
+     * 批次檢查，回傳順序與輸入相同；使用者資料以一次批次查詢取得
+     * Checks many tokens at once; results keep the input order and profiles are
+     * fetched in a single batch.
+     */
+    public List<TokenIntrospectionResponse> introspectAll(List<String> tokens) {
+        List<String> userIds = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            userIds.add(resolveUserId(token));
+        }
+
+        Map<String, UserProfileCache.Profile> profiles = userProfileCache.getAll(
+                userIds.stream().filter(id -> id != null).toList());
+
+        List<TokenIntrospectionResponse> results = new ArrayList<>(tokens.size());
+        for (String userId : userIds) {
+            UserProfileCache.Profile profile = userId != null ? profiles.get(userId) : null;
+            if (profile == null) {
+                results.add(TokenIntrospectionResponse.inactive());
+                continue;
+            }
+            results.add(TokenIntrospectionResponse.builder()
+                    .active(true)
+                    .id(profile.getId())
+                    .name(profile.getName())
+                    .username(profile.getUsername())
+                    .role(profile.getRole())
+                    .avatar(profile.getAvatar())
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * 驗證 Token 並回傳使用者 ID；無效、過期或已撤銷時回傳 null
+     * Verified user id of the token, or null when invalid, expired or revoked.
+     */
+    private String resolveUserId(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (Exception e) {
+            return null;
+        }
+        if (verified.isExpired(System.currentTimeMillis()) || tokenRevocationStore.isRevoked(verified)) {
+            return null;
+        }
+
+        String userId = verified.getUserId();
+        if (userId == null) {
+            // 舊版 Token 無 uid 聲明，只能依帳號查詢 / Legacy token without uid, look up by subject
+            String subject = verified.getSubject();
+            return subject == null ? null
+                    : userRepository.findByUsernameOrEmployeeIdOrEmail(subject, subject, subject)
+                            .map(user -> user.getId())
+                            .orElse(null);
+        }
+        return securityStampStore.matches(verified) ? userId : null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.erp.service;
+
+import com.erp.entity.User;
+import com.erp.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file UserProfileCache.java
+ * @description 使用者公開資料快取 / User Profile Cache
+ * @description_en Caches the small public part of a user (id, name, username,
+ *                 role, avatar) in Redis. It is warmed at login and evicted when
+ *                 the profile changes, so token introspection normally never
+ *                 reaches Postgres
+ * @description_zh 以 Redis 快取使用者的公開資料（ID、名稱、帳號、角色、大頭貼）。登入時
+ *                 預先寫入、資料變更時清除，使 Token 檢查通常不需查詢 Postgres
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserProfileCache {
+
+    private static final String KEY_PREFIX = "user:profile:";
+    private static final Duration TTL = Duration.ofHours(12);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Profile {
+        private String id;
+        private String name;
+        private String username;
+        private String role;
+        private String avatar;
+
+        static Profile of(User user) {
+            return new Profile(user.getId(), user.getName(), user.getUsername(),
+                    user.getRole() != null ? user.getRole().name() : null, user.getAvatar());
+        }
+    }
+
+    public Profile get(String userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批次取得：一次 MGET，未命中者以單一查詢載入並回寫
+     * Batch lookup: a single MGET, with misses loaded in one query and written back.
+     */
+    public Map<String, Profile> getAll(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        Map<String, Profile> profiles = new HashMap<>();
+        if (ids.isEmpty()) {
+            return profiles;
+        }
+
+        List<String> missing = new ArrayList<>();
+        try {
+            List<String> cached = redisTemplate.opsForValue()
+                    .multiGet(ids.stream().map(id -> KEY_PREFIX + id).toList());
+            for (int i = 0; i < ids.size(); i++) {
+                Profile profile = cached != null ? deserialize(cached.get(i)) : null;
+                if (profile != null) {
+                    profiles.put(ids.get(i), profile);
+                } else {
+                    missing.add(ids.get(i));
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Profile cache unavailable, loading from database: {}", e.getMessage());
+            missing = ids;
+        }
+
+        if (!missing.isEmpty()) {
+            for (User user : userRepository.findAllById(missing)) {
+                Profile profile = Profile.of(user);
+                profiles.put(user.getId(), profile);
+                store(profile);
+            }
+        }
+        return profiles;
+    }
+
+    public void put(User user) {
+        store(Profile.of(user));
+    }
+
+    public void evict(String userId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict profile of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void store(Profile profile) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + profile.getId(),
+                    objectMapper.writeValueAsString(profile), TTL);
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Failed to cache profile of user {}: {}", profile.getId(), e.getMessage());
+        }
+    }
+
+    private Profile deserialize(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Profile.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
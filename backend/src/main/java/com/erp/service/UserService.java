@@ -30,6 +30,7 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
 
     @Value("${app.upload.dir:/app/uploads}")
     private String baseUploadDir;
@@ -68,6 +69,7 @@ public class UserService {
             String avatarUrl = "/api/v1/users/avatars/" + fileName;
             user.setAvatar(avatarUrl);
             userRepository.save(user);
+            userProfileCache.put(user);
 
             log.info("User {} uploaded new avatar {}", userId, avatarUrl);
         } catch (Exception e) {
@@ -0,0 +1,109 @@
+package com.erp.benchmark;
+
+import com.erp.config.security.JwtKeyRing;
+import com.erp.config.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * @file JwtVerificationBenchmark.java
+ * @description JWT 驗證效能基準 / JWT Verification Benchmark
+ * @description_en Per-request cost of token verification: the former path that
+ *                 parsed and checked the signature three times per request, a
+ *                 single uncached parse, and a verified-token cache hit. Run through
+ *                 main() on the test classpath
+ * @description_zh 每個請求驗證 Token 的成本：舊流程每個請求解析並驗章三次、單次未快取解析，
+ *                 以及命中已驗證 Token 快取。以測試類別路徑執行 main()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String KEY_ID = "bench";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        JwtKeyRing keyRing = Mockito.mock(JwtKeyRing.class);
+        when(keyRing.publicKey(KEY_ID)).thenReturn((RSAPublicKey) keyPair.getPublic());
+
+        jwtService = new JwtService(keyRing);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10_000);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        parser = Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build();
+        token = Jwts.builder()
+                .setHeaderParam("kid", KEY_ID)
+                .setSubject("bench-user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+        jwtService.verify(token);
+    }
+
+    /** 舊流程：extractUsername、isTokenValid 內的 extractUsername 與 extractExpiration / The former three parses */
+    @Benchmark
+    public void threeParsesPerRequest(Blackhole blackhole) {
+        Claims first = parser.parseClaimsJws(token).getBody();
+        Claims second = parser.parseClaimsJws(token).getBody();
+        Claims third = parser.parseClaimsJws(token).getBody();
+        blackhole.consume(first.getSubject());
+        blackhole.consume(second.getSubject());
+        blackhole.consume(third.getExpiration());
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Object cachedVerify() {
+        return jwtService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
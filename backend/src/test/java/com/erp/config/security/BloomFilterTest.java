@@ -0,0 +1,60 @@
+package com.erp.config.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @file BloomFilterTest.java
+ * @description 布隆過濾器測試 / Bloom Filter Tests
+ * @description_en No false negatives, and a false positive rate near the target
+ * @description_zh 不會漏判，且誤判率接近設定目標
+ */
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnInsertedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("jti-" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("jti-" + i))).isTrue();
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1024, 0.01);
+
+        assertThat(filter.mightContain("jti-1")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("jti-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other-" + i))
+                .count();
+        // 目標 1%，保留餘裕避免測試不穩定 / 1% target, with headroom so the test is not flaky
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void concurrentPutsAreAllVisible() throws InterruptedException {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int offset = w * 10_000;
+            writers[w] = new Thread(() -> IntStream.range(offset, offset + 10_000).forEach(i -> filter.put("jti-" + i)));
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(IntStream.range(0, 40_000).allMatch(i -> filter.mightContain("jti-" + i))).isTrue();
+    }
+}
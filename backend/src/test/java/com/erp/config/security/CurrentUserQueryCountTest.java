@@ -0,0 +1,116 @@
+package com.erp.config.security;
+
+import com.erp.entity.User;
+import com.erp.support.JpaQueryTest;
+import com.erp.support.SqlCapture;
+import com.erp.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @file CurrentUserQueryCountTest.java
+ * @description 目前使用者查詢數量測試 / Current User Query-Count Test
+ * @description_en A request resolves the logged-in user with at most one users
+ *                 query, and only when the full entity is needed. Off the request
+ *                 thread the user comes from the SecurityContext
+ * @description_zh 每個請求最多只以一次查詢解析登入者，且僅在需要完整實體時查詢；請求執行緒
+ *                 以外則由 SecurityContext 取得
+ */
+@JpaQueryTest
+@Import(CurrentUser.class)
+class CurrentUserQueryCountTest {
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistFlushFind(TestData.user("alice", User.Role.DEV));
+        entityManager.clear();
+        authenticate(user);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        SqlCapture.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(User user) {
+        JwtUserPrincipal principal = new JwtUserPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                "jti", System.currentTimeMillis() + 60_000);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void idRoleAndReferenceNeverQuery() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(currentUser.getId()).isEqualTo(user.getId());
+            assertThat(currentUser.getRole()).isEqualTo(User.Role.DEV);
+            assertThat(currentUser.isAdmin()).isFalse();
+            assertThat(currentUser.getReference()).isNotNull();
+        }
+        assertThat(SqlCapture.selectsFrom("users")).isZero();
+    }
+
+    @Test
+    void entityIsLoadedOncePerRequest() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(currentUser.get().getUsername()).isEqualTo("alice");
+            currentUser.getReference();
+        }
+        assertThat(SqlCapture.selectsFrom("users")).isEqualTo(1);
+    }
+
+    @Test
+    void eachRequestResolvesAgain() {
+        currentUser.get();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        entityManager.clear();
+        currentUser.get();
+        assertThat(SqlCapture.selectsFrom("users")).isEqualTo(2);
+    }
+
+    @Test
+    void offRequestThreadUsesSecurityContext() throws ExecutionException, InterruptedException {
+        User snapshot = user;
+        String id = CompletableFuture.supplyAsync(() -> {
+            authenticate(snapshot);
+            try {
+                return currentUser.getId();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }).get();
+        assertThat(id).isEqualTo(user.getId());
+    }
+
+    @Test
+    void offRequestThreadWithoutContextIsUnauthorized() {
+        assertThatThrownBy(() -> CompletableFuture.supplyAsync(currentUser::getId).join())
+                .hasRootCauseMessage("Unauthorized");
+    }
+}
@@ -0,0 +1,63 @@
+package com.erp.config.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @file JwtKeyCipherTest.java
+ * @description JWT 私鑰加密測試 / JWT Private Key Cipher Tests
+ * @description_en Round trip, legacy plaintext rows and tampered or moved ciphertexts
+ * @description_zh 加解密往返、加密前的明文舊值，以及遭竄改或搬移的密文
+ */
+class JwtKeyCipherTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final byte[] SECRET = "pkcs8-bytes".getBytes(StandardCharsets.UTF_8);
+
+    private final JwtKeyCipher cipher = new JwtKeyCipher(KEY);
+
+    @Test
+    void roundTripsUnderTheSameKid() {
+        String stored = cipher.encrypt("kid-1", SECRET);
+
+        assertThat(cipher.isEncrypted(stored)).isTrue();
+        assertThat(stored).doesNotContain(Base64.getEncoder().encodeToString(SECRET));
+        assertThat(cipher.decrypt("kid-1", stored)).isEqualTo(SECRET);
+    }
+
+    @Test
+    void readsPlaintextRowsWrittenBeforeEncryption() {
+        String legacy = Base64.getEncoder().encodeToString(SECRET);
+
+        assertThat(cipher.isEncrypted(legacy)).isFalse();
+        assertThat(cipher.decrypt("kid-1", legacy)).isEqualTo(SECRET);
+    }
+
+    @Test
+    void rejectsCiphertextMovedToAnotherKid() {
+        String stored = cipher.encrypt("kid-1", SECRET);
+
+        assertThatThrownBy(() -> cipher.decrypt("kid-2", stored)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsADifferentEncryptionKey() {
+        byte[] other = new byte[32];
+        other[0] = 1;
+        String stored = new JwtKeyCipher(Base64.getEncoder().encodeToString(other)).encrypt("kid-1", SECRET);
+
+        assertThatThrownBy(() -> cipher.decrypt("kid-1", stored)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void requiresAnEncryptionKey() {
+        assertThatThrownBy(() -> new JwtKeyCipher("")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new JwtKeyCipher(Base64.getEncoder().encodeToString(new byte[5])))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
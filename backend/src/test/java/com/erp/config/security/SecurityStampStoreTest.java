@@ -0,0 +1,162 @@
+package com.erp.config.security;
+
+import com.erp.entity.User;
+import com.erp.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file SecurityStampStoreTest.java
+ * @description 安全戳記儲存測試 / Security Stamp Store Tests
+ * @description_en Stamps are read from the database once per user, rotations
+ *                 from other instances apply without a lookup, a token newer
+ *                 than the local stamp re-checks the database, a slow database
+ *                 read never overrides a newer rotation, and the resync merges
+ *                 and prunes the rotation record
+ * @description_zh 每位使用者的戳記只讀取資料庫一次；其他實例的輪替無須查詢即可套用；晚於本地
+ *                 戳記簽發的 Token 會回讀資料庫；較慢的資料庫讀取不會蓋過較新的輪替；重新同步
+ *                 會合併並清理輪替記錄
+ */
+class SecurityStampStoreTest {
+
+    private static final long EXPIRATION = 86_400_000L;
+    private static final String ROTATIONS_KEY = "auth:stamp:rotations";
+
+    private StringRedisTemplate redisTemplate;
+    private HashOperations<String, Object, Object> hashOps;
+    private UserRepository userRepository;
+    private SecurityStampStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOps);
+        when(hashOps.entries(anyString())).thenReturn(Map.of());
+        userRepository = mock(UserRepository.class);
+        store = new SecurityStampStore(redisTemplate, mock(RedisMessageListenerContainer.class), userRepository,
+                EXPIRATION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static VerifiedToken token(String stamp, long issuedAtMillis) {
+        Claims claims = Jwts.claims();
+        claims.put(JwtService.CLAIM_USER_ID, "u1");
+        claims.put(JwtService.CLAIM_SECURITY_STAMP, stamp);
+        claims.setIssuedAt(new Date(issuedAtMillis / 1000 * 1000));
+        Date expiration = new Date(issuedAtMillis + EXPIRATION);
+        claims.setExpiration(expiration);
+        return new VerifiedToken("user", expiration, claims);
+    }
+
+    private void announce(String userId, long at, String stamp) {
+        String body = userId + "|" + at + ":" + stamp;
+        store.onMessage(new DefaultMessage("auth:stamp:changed".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    void readsTheDatabaseOncePerUser() {
+        when(userRepository.findSecurityStampById("u1")).thenReturn(Optional.of("s1"));
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.matches(token("s1", now))).isTrue();
+        }
+        verify(userRepository, times(1)).findSecurityStampById("u1");
+    }
+
+    @Test
+    void rotationsFromOtherInstancesApplyWithoutALookup() {
+        long issued = System.currentTimeMillis() - 5000;
+        announce("u1", System.currentTimeMillis(), "s2");
+
+        assertThat(store.matches(token("s1", issued))).isFalse();
+        assertThat(store.matches(token("s2", System.currentTimeMillis()))).isTrue();
+        verify(userRepository, never()).findSecurityStampById(anyString());
+    }
+
+    @Test
+    void aTokenNewerThanTheLocalStampRechecksTheDatabase() {
+        long loadedAt = System.currentTimeMillis() - 10_000;
+        announce("u1", loadedAt, "s1");
+        // 錯過了其他實例的輪替 / A rotation on another instance was missed
+        when(userRepository.findSecurityStampById("u1")).thenReturn(Optional.of("s2"));
+
+        assertThat(store.matches(token("s2", System.currentTimeMillis()))).isTrue();
+        assertThat(store.matches(token("s1", loadedAt - 5000))).isFalse();
+        verify(userRepository, times(1)).findSecurityStampById("u1");
+    }
+
+    @Test
+    void aSlowDatabaseReadNeverOverridesANewerRotation() {
+        when(userRepository.findSecurityStampById("u1")).thenAnswer(invocation -> {
+            // 讀取期間其他實例完成輪替 / Another instance rotates while the read is in flight
+            announce("u1", System.currentTimeMillis() + 1, "s2");
+            return Optional.of("s1");
+        });
+
+        assertThat(store.matches(token("s1", System.currentTimeMillis() - 5000))).isFalse();
+        assertThat(store.matches(token("s2", System.currentTimeMillis()))).isTrue();
+    }
+
+    @Test
+    void rotationIsAnnouncedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        User user = User.builder().id("u1").build();
+
+        String stamp = store.rotate(user);
+        assertThat(user.getSecurityStamp()).isEqualTo(stamp);
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(hashOps).put(eq(ROTATIONS_KEY), eq("u1"), anyString());
+        verify(redisTemplate).convertAndSend(eq("auth:stamp:changed"), startsWith("u1|"));
+        assertThat(store.matches(token(stamp, System.currentTimeMillis()))).isTrue();
+        verify(userRepository, never()).findSecurityStampById(anyString());
+    }
+
+    @Test
+    void resyncMergesRecentRotationsAndPrunesOldOnes() {
+        long now = System.currentTimeMillis();
+        long stale = now - EXPIRATION - 1000;
+        when(hashOps.entries(ROTATIONS_KEY)).thenReturn(Map.of("u1", now + ":s2", "u2", stale + ":old"));
+
+        store.resync();
+
+        assertThat(store.matches(token("s2", now))).isTrue();
+        verify(hashOps).delete(ROTATIONS_KEY, "u2");
+        verify(hashOps, never()).delete(ROTATIONS_KEY, "u1");
+    }
+}
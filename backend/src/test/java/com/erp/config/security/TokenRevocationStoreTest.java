@@ -0,0 +1,118 @@
+package com.erp.config.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file TokenRevocationStoreTest.java
+ * @description Token 撤銷清單測試 / Token Revocation Store Tests
+ * @description_en Cutoff precision and revocations that arrive during a rebuild
+ * @description_zh 簽發時間下限的精度，以及重建期間收到的撤銷
+ */
+class TokenRevocationStoreTest {
+
+    private static final long EXPIRATION = 86_400_000L;
+    private static final String INDEX_KEY = "auth:revoked";
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOps;
+    private HashOperations<String, Object, Object> hashOps;
+    private TokenRevocationStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOps = mock(ZSetOperations.class);
+        hashOps = mock(HashOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOps);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(redisTemplate.hasKey(anyString())).thenReturn(true);
+        when(zSetOps.range(INDEX_KEY, 0, -1)).thenReturn(Set.of());
+        when(hashOps.entries(anyString())).thenReturn(Map.of());
+        store = new TokenRevocationStore(redisTemplate, mock(RedisMessageListenerContainer.class), EXPIRATION);
+    }
+
+    private static VerifiedToken token(String userId, String tokenId, long issuedAtMillis) {
+        Claims claims = Jwts.claims();
+        claims.put(JwtService.CLAIM_USER_ID, userId);
+        claims.setId(tokenId);
+        claims.setIssuedAt(new Date(issuedAtMillis));
+        Date expiration = new Date(issuedAtMillis + EXPIRATION);
+        claims.setExpiration(expiration);
+        return new VerifiedToken(userId, expiration, claims);
+    }
+
+    @Test
+    void revokesTokensIssuedInTheSameSecondAsTheCutoff() {
+        long second = System.currentTimeMillis() / 1000 * 1000;
+        store.revokeAllForUser("u1");
+
+        // iat 只有秒精度 / iat only carries whole seconds
+        assertThat(store.isRevoked(token("u1", null, second))).isTrue();
+        assertThat(store.isRevoked(token("u1", null, second - 1000))).isTrue();
+        assertThat(store.isRevoked(token("u1", null, second + 1000))).isFalse();
+        assertThat(store.isRevoked(token("u2", null, second))).isFalse();
+    }
+
+    @Test
+    void keepsTokensRevokedWhileARebuildIsReadingRedis() {
+        when(zSetOps.range(INDEX_KEY, 0, -1)).thenAnswer(invocation -> {
+            // 其他實例在讀取快照後才廣播 / Announced after the snapshot was read
+            store.revokeToken("late", System.currentTimeMillis() + 60_000);
+            return Set.of("early");
+        });
+
+        store.rebuild();
+
+        long now = System.currentTimeMillis();
+        assertThat(store.isRevoked(token("u1", "early", now))).isTrue();
+        assertThat(store.isRevoked(token("u1", "late", now))).isTrue();
+    }
+
+    @Test
+    void keepsCutoffsRecordedWhileARebuildIsReadingRedis() {
+        when(hashOps.entries(anyString())).thenAnswer(invocation -> {
+            store.revokeAllForUser("u1");
+            return Map.of();
+        });
+
+        store.rebuild();
+
+        assertThat(store.isRevoked(token("u1", null, System.currentTimeMillis() - 5000))).isTrue();
+    }
+
+    @Test
+    void dropsCutoffsOlderThanATokenLifetime() {
+        long stale = System.currentTimeMillis() - EXPIRATION - 1000;
+        when(hashOps.entries(anyString())).thenReturn(Map.of("u1", Long.toString(stale)));
+
+        store.rebuild();
+
+        assertThat(store.isRevoked(token("u1", null, stale - 1000))).isFalse();
+    }
+
+    @Test
+    void unknownTokenIdsSkipRedis() {
+        when(redisTemplate.hasKey(anyString())).thenThrow(new AssertionError("Redis should not be consulted"));
+
+        assertThat(store.isRevoked(token("u1", "never-revoked", System.currentTimeMillis()))).isFalse();
+    }
+}
@@ -0,0 +1,119 @@
+package com.erp.config.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @file VerifiedTokenCacheTest.java
+ * @description 已驗證 Token 快取測試 / Verified Token Cache Tests
+ * @description_en Hits, expiry, the CLOCK bound under single-threaded and
+ *                 concurrent use, and the disabled cache
+ * @description_zh 命中、到期、單執行緒與並行下的 CLOCK 上限，以及停用時的行為
+ */
+class VerifiedTokenCacheTest {
+
+    private static VerifiedToken token(String subject, long expiresInMillis) {
+        Date expiration = new Date(System.currentTimeMillis() + expiresInMillis);
+        return new VerifiedToken(subject, expiration, Jwts.claims().setSubject(subject).setExpiration(expiration));
+    }
+
+    @Test
+    void returnsCachedToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        VerifiedToken verified = token("alice", 60_000);
+        cache.put("t1", verified);
+
+        assertThat(cache.get("t1")).isSameAs(verified);
+        assertThat(cache.get("unknown")).isNull();
+    }
+
+    @Test
+    void dropsExpiredTokenOnRead() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("t1", token("alice", -1));
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictsATokenNotReadSinceTheLastSweep() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(3);
+        cache.put("t1", token("a", 60_000));
+        cache.put("t2", token("b", 60_000));
+        cache.put("t3", token("c", 60_000));
+        // t1 取得第二次機會 / t1 earns a second chance
+        assertThat(cache.get("t1")).isNotNull();
+
+        cache.put("t4", token("d", 60_000));
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("t1")).isNotNull();
+        assertThat(cache.get("t4")).isNotNull();
+        // 未被讀取的 t2、t3 之一被淘汰 / One of the unread t2 and t3 went
+        assertThat(cache.get("t2") == null ^ cache.get("t3") == null).isTrue();
+    }
+
+    @Test
+    void expiredTokensGoBeforeUnreadOnes() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        cache.put("t1", token("a", 60_000));
+        cache.put("t2", token("b", -1));
+
+        cache.put("t3", token("c", 60_000));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("t3")).isNotNull();
+    }
+
+    @Test
+    void staysBoundedUnderManyInserts() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("t" + i, token("u" + i, 60_000));
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.get("t9999")).isNotNull();
+        assertThat(cache.get("t0")).isNull();
+    }
+
+    @Test
+    void concurrentReadsAndInsertsStayBounded() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(64);
+        VerifiedToken hot = token("hot", 60_000);
+        cache.put("hot", hot);
+        AtomicInteger misses = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    cache.put("t" + offset + "-" + i, token("u", 60_000));
+                    if (cache.get("hot") != hot) {
+                        misses.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(misses).hasValue(0);
+        // 最後一次插入後必回到上限內 / Back within the limit once the last insert is done
+        cache.put("last", token("z", 60_000));
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(cache.get("hot")).isSameAs(hot);
+    }
+
+    @Test
+    void zeroSizeDisablesCaching() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+        cache.put("t1", token("alice", 60_000));
+        assertThat(cache.get("t1")).isNull();
+    }
+}
@@ -0,0 +1,172 @@
+package com.erp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.function.InputStreamFunction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file GitHubArchiveCacheTest.java
+ * @description GitHub 壓縮檔快取測試 / GitHub Archive Cache Tests
+ * @description_en A download is served while it is still being written, every
+ *                 request for the same commit shares it, a cached file that
+ *                 disappears is fetched again instead of failing, and a failed
+ *                 download fails its readers
+ * @description_zh 下載尚在寫入時即可傳送，同一提交的請求共用同一份下載；快取檔消失時
+ *                 重新下載而非失敗；下載失敗時讀取者一併失敗
+ */
+class GitHubArchiveCacheTest {
+
+    private static final String REPO = "org/repo";
+    private static final String SHA = "0123456789abcdef";
+
+    @TempDir
+    Path directory;
+
+    private final byte[] zip = new byte[300_000];
+    private final AtomicInteger fetches = new AtomicInteger();
+    /** 放行上游串流前半段之後的位元組 / Releases the upstream stream past its first half */
+    private CountDownLatch release;
+    private IOException failure;
+    private GitHub github;
+    private GitHubArchiveCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new Random(7).nextBytes(zip);
+        release = new CountDownLatch(0);
+        GitHubTreeCache treeCache = mock(GitHubTreeCache.class);
+        when(treeCache.resolveCommitSha(any(), anyString(), eq(REPO), any())).thenReturn(SHA);
+        GHRepository repository = mock(GHRepository.class);
+        when(repository.readZip(any(), eq(SHA))).thenAnswer(invocation -> {
+            fetches.incrementAndGet();
+            InputStreamFunction<?> function = invocation.getArgument(0);
+            return function.apply(upstream());
+        });
+        github = mock(GitHub.class);
+        when(github.getRepository(REPO)).thenReturn(repository);
+        cache = new GitHubArchiveCache(treeCache, new SimpleMeterRegistry(), directory.toString(), 2048);
+    }
+
+    @Test
+    void streamsWhileDownloadingAndSharesTheFetch() throws Exception {
+        release = new CountDownLatch(1);
+
+        try (GitHubArchiveCache.Archive first = cache.get(github, "token", REPO, "main");
+                GitHubArchiveCache.Archive second = cache.get(github, "token", REPO, "main")) {
+            assertThat(first.isComplete()).isFalse();
+            assertThat(second.isComplete()).isFalse();
+            release.countDown();
+
+            assertThat(readAll(first)).isEqualTo(zip);
+            assertThat(readAll(second)).isEqualTo(zip);
+        }
+        assertThat(fetches).hasValue(1);
+
+        try (GitHubArchiveCache.Archive cached = cache.get(github, "token", REPO, "main")) {
+            assertThat(cached.isComplete()).isTrue();
+            assertThat(cached.length()).isEqualTo(zip.length);
+            assertThat(readAll(cached)).isEqualTo(zip);
+        }
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void openArchiveSurvivesEvictionAndAMissingFileIsFetchedAgain() throws Exception {
+        readAll(cache.get(github, "token", REPO, "main"));
+        // 下載結束前已搬移到位 / Moved into place before readers see the end
+        Path file = directory.resolve(REPO.replace('/', '_') + "-" + SHA + ".zip");
+        assertThat(file).exists();
+
+        try (GitHubArchiveCache.Archive cached = cache.get(github, "token", REPO, "main")) {
+            Files.delete(file);
+            assertThat(readAll(cached)).isEqualTo(zip);
+        }
+
+        try (GitHubArchiveCache.Archive refetched = cache.get(github, "token", REPO, "main")) {
+            assertThat(readAll(refetched)).isEqualTo(zip);
+        }
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void failedDownloadFailsItsReaders() throws Exception {
+        failure = new IOException("connection reset");
+
+        try (GitHubArchiveCache.Archive archive = cache.get(github, "token", REPO, "main")) {
+            assertThatThrownBy(() -> readAll(archive)).hasMessage("connection reset");
+        }
+        // 暫存檔於讀取者收到失敗後才刪除 / The partial file is removed just after readers see the failure
+        for (int i = 0; i < 200 && !isEmpty(directory); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(isEmpty(directory)).isTrue();
+    }
+
+    // ========================================
+    // 輔助 / Helpers
+    // ========================================
+
+    /** 前半段立即可讀，其餘等待放行；設定失敗時於中途拋出 / First half at once, the rest once released */
+    private InputStream upstream() {
+        return new FilterInputStream(new ByteArrayInputStream(zip)) {
+            private int position;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position >= zip.length / 2) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                int read = super.read(buffer, offset, Math.min(length, 8192));
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
+    private static byte[] readAll(GitHubArchiveCache.Archive archive) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.transferTo(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,144 @@
+package com.erp.service;
+
+import com.erp.entity.GitHubOutboxEntry;
+import com.erp.repository.GitHubOutboxRepository;
+import com.erp.repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.HttpException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file GitHubOutboxWorkerTest.java
+ * @description GitHub 發件匣工作者測試 / GitHub Outbox Worker Tests
+ * @description_en Retried repository creation only adopts a repository the
+ *                 earlier attempt created, and a failed creation fails the
+ *                 project's queued collaborator changes with it
+ * @description_zh 重試建立倉庫時只接手先前嘗試所建立的倉庫；建立失敗時，專案排隊中的
+ *                 協作者操作一併失敗
+ */
+class GitHubOutboxWorkerTest {
+
+    private static final String EXISTS = "{\"message\":\"Repository creation failed.\","
+            + "\"errors\":[{\"message\":\"name already exists on this account\"}]}";
+
+    private GitHubOutboxRepository outboxRepository;
+    private ProjectRepository projectRepository;
+    private GitHubService githubService;
+    private GitHubOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        outboxRepository = mock(GitHubOutboxRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        githubService = mock(GitHubService.class);
+        when(githubService.getOrganizationName()).thenReturn("org");
+        worker = new GitHubOutboxWorker(outboxRepository, projectRepository, githubService,
+                mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 20, 8, 5, 600, 120);
+    }
+
+    private GitHubOutboxEntry createEntry(int attemptsSoFar, LocalDateTime queuedAt) {
+        GitHubOutboxEntry entry = GitHubOutboxEntry.builder()
+                .id(1L)
+                .projectId("p1")
+                .operation(GitHubOutboxEntry.Operation.CREATE_REPOSITORY)
+                .repoName("alpha")
+                .description("Alpha")
+                .privateRepo(true)
+                .status(GitHubOutboxEntry.Status.PENDING)
+                .attempts(attemptsSoFar)
+                .nextAttemptAt(queuedAt)
+                .createdAt(queuedAt)
+                .updatedAt(queuedAt)
+                .build();
+        when(outboxRepository.lockDue(any(), eq(20))).thenReturn(List.of(entry), List.of());
+        return entry;
+    }
+
+    private GHRepository existingRepo(LocalDateTime createdAt, String description) throws Exception {
+        GHRepository repo = mock(GHRepository.class);
+        when(repo.getCreatedAt()).thenReturn(Date.from(createdAt.atZone(ZoneId.systemDefault()).toInstant()));
+        when(repo.getDescription()).thenReturn(description);
+        when(repo.getFullName()).thenReturn("org/alpha");
+        when(githubService.findOrganizationRepository("alpha")).thenReturn(repo);
+        return repo;
+    }
+
+    @Test
+    void adoptsARepositoryCreatedByAnEarlierAttempt() throws Exception {
+        LocalDateTime queuedAt = LocalDateTime.now().minusMinutes(30);
+        GitHubOutboxEntry entry = createEntry(1, queuedAt);
+        when(githubService.createOrganizationRepository(anyString(), any(), anyBoolean()))
+                .thenThrow(new HttpException(EXISTS, 422, "Unprocessable Entity", "https://api.github.com"));
+        existingRepo(queuedAt.plusMinutes(1), "Alpha");
+        when(projectRepository.findIdsByGithubRepo("org/alpha")).thenReturn(List.of());
+
+        worker.poll();
+
+        verify(projectRepository).updateGithubRepo("p1", "org/alpha");
+        assertThat(entry.getStatus()).isEqualTo(GitHubOutboxEntry.Status.DONE);
+    }
+
+    @Test
+    void refusesARepositoryThatExistedBeforeTheEntry() throws Exception {
+        LocalDateTime queuedAt = LocalDateTime.now().minusMinutes(30);
+        GitHubOutboxEntry entry = createEntry(1, queuedAt);
+        when(githubService.createOrganizationRepository(anyString(), any(), anyBoolean()))
+                .thenThrow(new HttpException(EXISTS, 422, "Unprocessable Entity", "https://api.github.com"));
+        existingRepo(queuedAt.minus(Duration.ofDays(200)), "Alpha");
+
+        worker.poll();
+
+        verify(projectRepository, never()).updateGithubRepo(anyString(), anyString());
+        assertThat(entry.getStatus()).isEqualTo(GitHubOutboxEntry.Status.FAILED);
+        verify(outboxRepository).failPending(eq("p1"), startsWith("Repository was not created"), any());
+    }
+
+    @Test
+    void refusesARepositoryLinkedToAnotherProject() throws Exception {
+        LocalDateTime queuedAt = LocalDateTime.now().minusMinutes(30);
+        GitHubOutboxEntry entry = createEntry(1, queuedAt);
+        when(githubService.createOrganizationRepository(anyString(), any(), anyBoolean()))
+                .thenThrow(new HttpException(EXISTS, 422, "Unprocessable Entity", "https://api.github.com"));
+        existingRepo(queuedAt.plusMinutes(1), "Alpha");
+        when(projectRepository.findIdsByGithubRepo("org/alpha")).thenReturn(List.of("p2"));
+
+        worker.poll();
+
+        verify(projectRepository, never()).updateGithubRepo(anyString(), anyString());
+        assertThat(entry.getStatus()).isEqualTo(GitHubOutboxEntry.Status.FAILED);
+    }
+
+    @Test
+    void retryableCreateFailureLeavesCollaboratorEntriesQueued() throws Exception {
+        GitHubOutboxEntry entry = createEntry(0, LocalDateTime.now());
+        when(githubService.createOrganizationRepository(anyString(), any(), anyBoolean()))
+                .thenThrow(new HttpException("{}", 502, "Bad Gateway", "https://api.github.com"));
+
+        worker.poll();
+
+        assertThat(entry.getStatus()).isEqualTo(GitHubOutboxEntry.Status.PENDING);
+        verify(outboxRepository, never()).failPending(anyString(), anyString(), any());
+    }
+}
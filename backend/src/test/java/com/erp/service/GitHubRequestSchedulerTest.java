@@ -0,0 +1,169 @@
+package com.erp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file GitHubRequestSchedulerTest.java
+ * @description GitHub 請求排程器測試 / GitHub Request Scheduler Tests
+ * @description_en Drives one token's bucket through the wrapped connector: the
+ *                 burst, the interactive overdraft, the reserve background work
+ *                 may not use, Retry-After blocking, cache refunds and the
+ *                 spacing of mutating calls
+ * @description_zh 透過包裝後的連線器驅動單一 Token 的令牌桶：突發量、互動請求預支、背景
+ *                 工作不得使用的保留配額、Retry-After 暫停、快取退回令牌與寫入請求間隔
+ */
+class GitHubRequestSchedulerTest {
+
+    private static final int BURST = 2;
+    private static final long MAX_WAIT_MS = 100;
+
+    private GitHubRequestScheduler scheduler;
+    /** 下一個回應的標頭與狀態碼 / Headers and status of the next response */
+    private final Map<String, String> headers = new HashMap<>();
+    private int status = 200;
+    private int sent;
+    private GitHubConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        // 寫入間隔遠大於最長等待，第二個寫入必定逾時 / Mutation interval far above the max wait
+        scheduler = new GitHubRequestScheduler(new SimpleMeterRegistry(), BURST, 0.2, 60_000,
+                MAX_WAIT_MS, MAX_WAIT_MS);
+        connector = scheduler.connectorFor("token-" + System.nanoTime(), request -> {
+            sent++;
+            GitHubConnectorResponse response = mock(GitHubConnectorResponse.class);
+            when(response.statusCode()).thenReturn(status);
+            when(response.header(anyString())).thenAnswer(invocation -> headers.get(invocation.<String>getArgument(0)));
+            return response;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void backgroundCallsWaitOnceTheBurstIsSpent() throws IOException {
+        for (int i = 0; i < BURST; i++) {
+            send("GET");
+        }
+
+        assertThatThrownBy(() -> send("GET"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("waited longer than allowed (background)");
+        assertThat(sent).isEqualTo(BURST);
+    }
+
+    @Test
+    void interactiveCallsMayBorrowOneBurst() throws IOException {
+        for (int i = 0; i < BURST; i++) {
+            send("GET");
+        }
+
+        interactive();
+        for (int i = 0; i < BURST; i++) {
+            send("GET");
+        }
+        assertThatThrownBy(() -> send("GET"))
+                .hasMessageContaining("waited longer than allowed (interactive)");
+        assertThat(sent).isEqualTo(2 * BURST);
+    }
+
+    @Test
+    void backgroundCallsLeaveTheReserveToInteractiveCalls() throws IOException {
+        rateLimit(100, 10);
+        send("GET");
+
+        assertThatThrownBy(() -> send("GET")).hasMessageContaining("(background)");
+        interactive();
+        send("GET");
+        assertThat(sent).isEqualTo(2);
+    }
+
+    @Test
+    void retryAfterBlocksEveryCallOnTheToken() throws IOException {
+        status = 429;
+        headers.put("Retry-After", "60");
+        send("GET");
+        status = 200;
+        headers.clear();
+
+        interactive();
+        assertThatThrownBy(() -> send("GET")).hasMessageContaining("(interactive)");
+        assertThat(sent).isEqualTo(1);
+    }
+
+    @Test
+    void permissionErrorsDoNotBlockTheToken() throws IOException {
+        rateLimit(5000, 4000);
+        status = 403;
+        send("GET");
+
+        status = 200;
+        send("GET");
+        assertThat(sent).isEqualTo(2);
+    }
+
+    @Test
+    void cachedResponsesGiveTheTokenBack() throws IOException {
+        headers.put(GitHubClientPool.CACHE_HEADER, "hit");
+        for (int i = 0; i < 3 * BURST; i++) {
+            send("GET");
+        }
+
+        headers.put(GitHubClientPool.CACHE_HEADER, "miss");
+        send("GET");
+        send("GET");
+        assertThatThrownBy(() -> send("GET")).hasMessageContaining("(background)");
+    }
+
+    @Test
+    void mutatingCallsAreSpacedButReadsAreNot() throws IOException {
+        send("POST");
+
+        assertThatThrownBy(() -> send("DELETE")).hasMessageContaining("(background)");
+        send("GET");
+        assertThat(sent).isEqualTo(2);
+    }
+
+    // ========================================
+    // 輔助 / Helpers
+    // ========================================
+
+    private void send(String method) throws IOException {
+        GitHubConnectorRequest request = mock(GitHubConnectorRequest.class);
+        when(request.method()).thenReturn(method);
+        connector.send(request);
+    }
+
+    /** 於 HTTP 請求執行緒上呼叫即為互動 / Calls on an HTTP request thread are interactive */
+    private static void interactive() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private void rateLimit(int limit, int remaining) {
+        headers.put("X-RateLimit-Limit", String.valueOf(limit));
+        headers.put("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.put("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+    }
+}
@@ -0,0 +1,101 @@
+package com.erp.service;
+
+import com.erp.dto.ProjectResponse;
+import com.erp.repository.ProjectRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file ProjectCacheTest.java
+ * @description 專案快取測試 / Project Cache Tests
+ * @description_en Fills are conditional on the generation read before loading,
+ *                 eviction bumps generations before deleting, and the GitHub
+ *                 token never reaches the cached JSON
+ * @description_zh 寫入以載入前讀到的世代為條件、清除時先遞增世代再刪除，且 GitHub Token
+ *                 不會出現在快取的 JSON 中
+ */
+class ProjectCacheTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private ProjectRepository projectRepository;
+    private ProjectCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        projectRepository = mock(ProjectRepository.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        cache = new ProjectCache(redisTemplate, new ObjectMapper().findAndRegisterModules(), projectRepository,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fillIsConditionalOnTheGenerationReadBeforeLoading() {
+        when(valueOps.multiGet(List.of("project:gen:project:item:p1", "project:epoch")))
+                .thenReturn(Arrays.asList("7", null));
+        ProjectResponse loaded = ProjectResponse.builder().id("p1").title("Alpha").build();
+
+        assertThat(cache.getItem("p1", () -> loaded)).isSameAs(loaded);
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("project:item:p1", "project:gen:project:item:p1", "project:epoch")),
+                eq("7"), eq("0"), argThat(json -> json.toString().contains("\"Alpha\"")), eq("600000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsTheFillWhenTheGenerationCannotBeRead() {
+        when(valueOps.multiGet(anyList())).thenThrow(new org.springframework.dao.QueryTimeoutException("down"));
+
+        cache.getItem("p1", () -> ProjectResponse.builder().id("p1").build());
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void evictionBumpsGenerationsBeforeDeleting() {
+        when(projectRepository.findCreatorIdById("p1")).thenReturn(Optional.of("u1"));
+        when(projectRepository.findMembersByProjectIds(List.of("p1"))).thenReturn(List.of());
+
+        cache.onProjectChanged(new ProjectChangedEvent("p1"));
+
+        InOrder order = inOrder(valueOps, redisTemplate);
+        order.verify(valueOps).increment("project:gen:project:item:p1");
+        order.verify(redisTemplate).delete(argThat((List<String> keys) -> keys.containsAll(
+                List.of("project:item:p1", "project:list:admin", "project:list:u1"))));
+        verify(valueOps).increment("project:gen:project:list:admin");
+        verify(valueOps).increment("project:gen:project:list:u1");
+    }
+
+    @Test
+    void cachedJsonHasNoGithubToken() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(ProjectResponse.builder().id("p1").build());
+
+        assertThat(json).doesNotContain("githubToken");
+    }
+}
@@ -0,0 +1,142 @@
+package com.erp.service;
+
+import com.erp.config.security.CurrentUser;
+import com.erp.config.security.JwtUserPrincipal;
+import com.erp.dto.ProjectPageResponse;
+import com.erp.dto.ProjectResponse;
+import com.erp.entity.Project;
+import com.erp.entity.User;
+import com.erp.support.JpaQueryTest;
+import com.erp.support.SqlCapture;
+import com.erp.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file ProjectListQueryBudgetTest.java
+ * @description 專案列表查詢數量測試 / Project List Query-Budget Test
+ * @description_en Listing projects costs two statements however many projects
+ *                 and members there are: one projection over projects and one
+ *                 member fetch
+ * @description_zh 不論專案與成員數量，列出專案只需兩個查詢：一次專案欄位投影、一次成員查詢
+ */
+@JpaQueryTest
+@Import({ ProjectService.class, CurrentUser.class })
+class ProjectListQueryBudgetTest {
+
+    private static final int PROJECTS = 20;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private GitHubService githubService;
+
+    @MockBean
+    private GitHubOutbox githubOutbox;
+
+    @MockBean
+    private GitHubCollaboratorReconciler collaboratorReconciler;
+
+    @MockBean
+    private ProjectCache projectCache;
+
+    private User admin;
+    private User member;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        admin = entityManager.persist(TestData.user("admin", User.Role.ADMIN));
+        member = entityManager.persist(TestData.user("dev", User.Role.DEV));
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            others.add(entityManager.persist(TestData.user("other" + i, User.Role.DEV)));
+        }
+        for (int i = 0; i < PROJECTS; i++) {
+            Project project = TestData.project("Project " + i, admin);
+            project.setTeam(Set.of(member, others.get(i % others.size())));
+            entityManager.persist(project);
+        }
+        // 僅管理員可見、dev 不在其中 / Visible to the admin only
+        entityManager.persist(TestData.project("Private", admin));
+        entityManager.flush();
+        entityManager.clear();
+
+        when(projectCache.getList(anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<List<ProjectResponse>>) invocation.getArgument(1)).get());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        SqlCapture.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(User user) {
+        JwtUserPrincipal principal = new JwtUserPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                "jti", System.currentTimeMillis() + 60_000);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void adminListCostsTwoQueries() {
+        authenticate(admin);
+
+        List<ProjectResponse> projects = projectService.getAllProjects();
+
+        assertThat(projects).hasSize(PROJECTS + 1);
+        assertThat(projects).filteredOn(p -> !p.getTitle().equals("Private"))
+                .allSatisfy(p -> assertThat(p.getTeam()).hasSize(2));
+        assertThat(SqlCapture.selects()).isEqualTo(2);
+        assertThat(SqlCapture.selectsFrom("users")).isZero();
+    }
+
+    @Test
+    void memberListCostsTwoQueries() {
+        authenticate(member);
+
+        List<ProjectResponse> projects = projectService.getAllProjects();
+
+        assertThat(projects).hasSize(PROJECTS);
+        assertThat(SqlCapture.selects()).isEqualTo(2);
+        assertThat(SqlCapture.selectsFrom("users")).isZero();
+    }
+
+    @Test
+    void pageCostsTwoQueries() {
+        authenticate(member);
+
+        ProjectPageResponse page = projectService.getProjectPage(null, 5, null, null, null, null, null);
+
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(SqlCapture.selects()).isEqualTo(2);
+    }
+}
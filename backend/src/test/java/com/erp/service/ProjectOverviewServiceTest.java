@@ -0,0 +1,99 @@
+package com.erp.service;
+
+import com.erp.config.security.CurrentUser;
+import com.erp.dto.ProjectOverviewResponse;
+import com.erp.dto.ProjectResponse;
+import com.erp.entity.Project;
+import com.erp.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @file ProjectOverviewServiceTest.java
+ * @description 專案總覽服務測試 / Project Overview Service Tests
+ * @description_en A slow section is cut off at the deadline and the other
+ *                 sections are returned without waiting for it
+ * @description_zh 過慢的區塊於期限到時中止，其餘區塊不必等待它即回傳
+ */
+class ProjectOverviewServiceTest {
+
+    private static final long TIMEOUT_MS = 300;
+
+    private ProjectService projectService;
+    private TaskService taskService;
+    private FinancialService financialService;
+    private FileService fileService;
+    private ProjectOverviewService overviewService;
+
+    @BeforeEach
+    void setUp() {
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        projectService = mock(ProjectService.class);
+        taskService = mock(TaskService.class);
+        financialService = mock(FinancialService.class);
+        fileService = mock(FileService.class);
+        CurrentUser currentUser = mock(CurrentUser.class);
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(projectRepository.findById("p1")).thenReturn(Optional.of(Project.builder().id("p1").budget(10.0).build()));
+        when(projectService.getProjectById("p1")).thenReturn(ProjectResponse.builder().id("p1").team(List.of()).build());
+        overviewService = new ProjectOverviewService(projectRepository, projectService, taskService,
+                financialService, fileService, currentUser, TIMEOUT_MS);
+    }
+
+    @Test
+    void returnsPartialResultsAtTheDeadline() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // 模擬不理會中斷的阻塞呼叫（如 JDBC）/ Simulates a blocking call that ignores interrupts, like JDBC
+        when(taskService.getTasksByProjectId("p1")).thenAnswer(invocation -> {
+            // 以 park 等待而非忙等，單核心時不會佔住唯一的載體執行緒
+            // Park rather than spin so a single-core run does not starve the other sections
+            long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (System.nanoTime() < until) {
+                LockSupport.parkNanos(until - System.nanoTime());
+                if (Thread.interrupted()) {
+                    interrupted.countDown();
+                }
+            }
+            return List.of();
+        });
+        when(financialService.getProjectFinancialSummary(eq("p1"), any())).thenReturn(Map.of("budget", 10.0));
+        when(fileService.listFiles(eq("p1"), any())).thenReturn(List.of("a.txt"));
+
+        long started = System.nanoTime();
+        ProjectOverviewResponse overview = overviewService.getOverview("p1");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(elapsedMs).isLessThan(TIMEOUT_MS + 1_000);
+        assertThat(overview.getProject().getId()).isEqualTo("p1");
+        assertThat(overview.getTasks()).isNull();
+        assertThat(overview.getErrors()).containsEntry("tasks", "Timed out").hasSize(1);
+        assertThat(overview.getFiles()).containsExactly("a.txt");
+        // 逾時的區塊仍會收到中斷 / The timed-out section is still interrupted
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void reportsAFailingSectionWithoutFailingTheRest() throws Exception {
+        when(taskService.getTasksByProjectId("p1")).thenReturn(List.of());
+        when(financialService.getProjectFinancialSummary(eq("p1"), any())).thenThrow(new RuntimeException("boom"));
+        when(fileService.listFiles(eq("p1"), any())).thenReturn(List.of());
+
+        ProjectOverviewResponse overview = overviewService.getOverview("p1");
+
+        assertThat(overview.getErrors()).containsEntry("financialSummary", "boom").hasSize(1);
+        assertThat(overview.getTasks()).isEmpty();
+    }
+}
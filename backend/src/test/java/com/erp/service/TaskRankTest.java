@@ -0,0 +1,109 @@
+package com.erp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @file TaskRankTest.java
+ * @description 任務排序鍵測試 / Task Rank Key Tests
+ * @description_en between() always lands strictly inside its bounds, including
+ *                 adjacent digits and keys that are prefixes of each other, never
+ *                 ends in '0', and keeps keys short under repeated inserts at the
+ *                 same spot; after() and spread() produce increasing keys
+ * @description_zh between() 一定落在上下界之間（含相鄰位數與互為前綴的鍵），不會以 '0'
+ *                 結尾，且在同一位置反覆插入時鍵長仍維持短；after() 與 spread() 產生遞增的鍵
+ */
+class TaskRankTest {
+
+    @Test
+    void betweenOpenBoundsIsTheMiddleDigit() {
+        assertThat(TaskRank.between(null, null)).isEqualTo("i");
+        assertThat(TaskRank.between(null, "i")).isEqualTo("9");
+        assertThat(TaskRank.between("i", null)).isEqualTo("r");
+    }
+
+    @Test
+    void betweenAdjacentDigitsExtendsTheLowerKey() {
+        assertThat(TaskRank.between("a", "b")).isEqualTo("ai");
+        assertThat(TaskRank.between("az", "b")).isEqualTo("azi");
+        assertStrictlyBetween("a", "b");
+        assertStrictlyBetween("az", "b");
+    }
+
+    @Test
+    void betweenKeysThatArePrefixesOfEachOther() {
+        assertThat(TaskRank.between("a", "a1")).isEqualTo("a0i");
+        assertThat(TaskRank.between("a", "ai")).isEqualTo("a9");
+        assertStrictlyBetween("a", "a01");
+        assertStrictlyBetween("a0i", "a1");
+        assertStrictlyBetween(null, "01");
+    }
+
+    @Test
+    void rejectsBoundsOutOfOrderAndInvalidCharacters() {
+        assertThatThrownBy(() -> TaskRank.between("b", "a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaskRank.between("a", "a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaskRank.between("A", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid rank character");
+    }
+
+    @Test
+    void randomInsertsKeepTheColumnOrdered() {
+        Random random = new Random(42);
+        List<String> column = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int position = random.nextInt(column.size() + 1);
+            String lower = position > 0 ? column.get(position - 1) : null;
+            String upper = position < column.size() ? column.get(position) : null;
+            String key = assertStrictlyBetween(lower, upper);
+            column.add(position, key);
+        }
+        assertThat(column).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void repeatedInsertsAtOneSpotGrowSlowly() {
+        String lower = "a";
+        String upper = "b";
+        String front = null;
+        for (int i = 0; i < 200; i++) {
+            // 一直插在同一張卡片之後與最前面 / Keep inserting right after one card, and at the very top
+            upper = assertStrictlyBetween(lower, upper);
+            front = assertStrictlyBetween(null, front != null ? front : "1");
+        }
+        // 每個位數可再對分約 5 次 / Each digit can be halved about five times
+        assertThat(upper).hasSizeLessThanOrEqualTo(45);
+        assertThat(front).hasSizeLessThanOrEqualTo(45);
+    }
+
+    @Test
+    void afterAndSpreadProduceIncreasingKeys() {
+        List<String> appended = TaskRank.after("r", 500);
+        assertThat(appended).hasSize(500).isSorted().doesNotHaveDuplicates();
+        assertThat(appended.get(0)).isGreaterThan("r");
+        assertThat(TaskRank.after("r", 1)).containsExactly(TaskRank.between("r", null));
+
+        List<String> spread = TaskRank.spread(1_000);
+        assertThat(spread).hasSize(1_000).isSorted().doesNotHaveDuplicates();
+        assertThat(spread).allSatisfy(key -> assertThat(key).hasSizeLessThanOrEqualTo(3).doesNotEndWith("0"));
+    }
+
+    private static String assertStrictlyBetween(String lower, String upper) {
+        String key = TaskRank.between(lower, upper);
+        if (lower != null) {
+            assertThat(key).isGreaterThan(lower);
+        }
+        if (upper != null) {
+            assertThat(key).isLessThan(upper);
+        }
+        assertThat(key).doesNotEndWith("0");
+        return key;
+    }
+}
@@ -0,0 +1,145 @@
+package com.erp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @file TimingWheelTest.java
+ * @description 階層式時間輪測試 / Hierarchical Timing Wheel Tests
+ * @description_en Timers fire at their own tick in deadline order, rescheduling
+ *                 and cancelling replace the earlier timer, past times are
+ *                 refused, timers on coarse levels cascade down on time, and a
+ *                 randomized run of 400k operations matches a plain map of
+ *                 deadlines
+ * @description_zh 計時器於各自的刻度依時間順序到期；改期與取消會取代先前的計時器；過去的
+ *                 時間不予排程；粗層的計時器準時下放；40 萬次隨機操作的結果與單純的截止
+ *                 時間對照表一致
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    /** 不落在層邊界上的起點 / A start that is not on a level boundary */
+    private static final long START = 1_700_000_123_456L;
+
+    @Test
+    void firesEachTimerAtItsTickInOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        wheel.schedule("late", START + 3 * TICK);
+        wheel.schedule("early", START + TICK);
+        wheel.schedule("middle", START + 2 * TICK);
+
+        assertThat(wheel.advanceTo(START + TICK / 2)).isEmpty();
+        assertThat(wheel.advanceTo(START + 2 * TICK)).containsExactly("early", "middle");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(START + 10 * TICK)).containsExactly("late");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheEarlierTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        wheel.schedule("moved", START + TICK);
+        wheel.schedule("moved", START + 5 * TICK);
+        wheel.schedule("cancelled", START + 2 * TICK);
+        wheel.cancel("cancelled");
+        wheel.cancel("unknown");
+
+        assertThat(wheel.advanceTo(START + 4 * TICK)).isEmpty();
+        assertThat(wheel.advanceTo(START + 5 * TICK)).containsExactly("moved");
+    }
+
+    @Test
+    void refusesTimesThatHaveComeAndDropsTheirEarlierTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        wheel.schedule("key", START + 10 * TICK);
+
+        assertThat(wheel.schedule("key", START)).isFalse();
+        assertThat(wheel.schedule("other", START - TICK)).isFalse();
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advanceTo(START + 20 * TICK)).isEmpty();
+        assertThatThrownBy(() -> new TimingWheel<String>(0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void timersOnCoarseLevelsCascadeDownOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        long[] distances = {64, 64 * 64 + 5, 64 * 64 * 64 + 7, 64L * 64 * 64 * 64 - 1};
+        for (long distance : distances) {
+            wheel.schedule("at-" + distance, START + distance * TICK);
+        }
+
+        for (long distance : distances) {
+            assertThat(wheel.advanceTo(START + (distance - 1) * TICK)).isEmpty();
+            assertThat(wheel.advanceTo(START + distance * TICK)).containsExactly("at-" + distance);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void randomOperationsMatchAReferenceMap() {
+        Random random = new Random(2024);
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, START);
+        // 對照組：鍵對應到期刻度 / Reference: key to the tick it is due
+        Map<Integer, Long> reference = new HashMap<>();
+        long now = START;
+        long currentTick = Math.floorDiv(now, TICK);
+        int fired = 0;
+
+        for (int op = 0; op < 400_000; op++) {
+            int choice = random.nextInt(100);
+            if (choice < 55) {
+                int key = random.nextInt(5_000);
+                long at = now + randomDistance(random) - TICK;
+                long tick = Math.floorDiv(at, TICK);
+                boolean scheduled = wheel.schedule(key, at);
+                assertThat(scheduled).isEqualTo(tick > currentTick);
+                if (scheduled) {
+                    reference.put(key, tick);
+                } else {
+                    reference.remove(key);
+                }
+            } else if (choice < 70) {
+                int key = random.nextInt(5_000);
+                wheel.cancel(key);
+                reference.remove(key);
+            } else {
+                now += random.nextInt(10) == 0 ? random.nextInt(5_000) * TICK : random.nextInt(64 * (int) TICK);
+                long target = Math.floorDiv(now, TICK);
+                List<Integer> due = wheel.advanceTo(now);
+
+                Set<Integer> expected = new HashSet<>();
+                reference.forEach((key, tick) -> {
+                    if (tick <= target) {
+                        expected.add(key);
+                    }
+                });
+                assertThat(due).containsExactlyInAnyOrderElementsOf(expected);
+                List<Long> ticks = new ArrayList<>();
+                due.forEach(key -> ticks.add(reference.remove(key)));
+                assertThat(ticks).isSorted();
+                currentTick = target;
+                fired += due.size();
+            }
+            assertThat(wheel.size()).isEqualTo(reference.size());
+        }
+        // 確認確實有大量計時器到期，而非全被取消 / Plenty of timers really fired
+        assertThat(fired).isGreaterThan(10_000);
+    }
+
+    /** 多數落在第 0、1 層，部分落在第 2、3 層 / Mostly levels 0 and 1, some on levels 2 and 3 */
+    private static long randomDistance(Random random) {
+        int level = random.nextInt(10);
+        long span = level < 5 ? 64 : level < 8 ? 64 * 64 : level < 9 ? 64 * 64 * 64 : 64L * 64 * 64 * 64;
+        return (long) (random.nextDouble() * span * TICK);
+    }
+}
@@ -0,0 +1,26 @@
+package com.erp.support;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @file JpaQueryTest.java
+ * @description JPA 查詢數量測試 / JPA Query-Count Test
+ * @description_en JPA slice on an in-memory H2 database in PostgreSQL mode, with
+ *                 {@link SqlCapture} recording the statements Hibernate runs
+ * @description_zh 以 PostgreSQL 相容模式的記憶體 H2 資料庫執行 JPA 切片測試，並由
+ *                 {@link SqlCapture} 記錄 Hibernate 執行的陳述式
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("jpa-test")
+public @interface JpaQueryTest {
+}
@@ -0,0 +1,54 @@
+package com.erp.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * @file SqlCapture.java
+ * @description SQL 擷取 / SQL Capture
+ * @description_en Hibernate statement inspector that records every statement it
+ *                 prepares, so tests can assert a query budget
+ * @description_zh 記錄 Hibernate 準備的每個 SQL 陳述式，供測試驗證查詢數量上限
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+
+    /** SELECT 陳述式數量 / Number of SELECT statements */
+    public static long selects() {
+        return statements().stream().filter(sql -> sql.startsWith("select")).count();
+    }
+
+    /** 以指定資料表為主表的 SELECT 數量 / SELECTs whose main table is the given one */
+    public static long selectsFrom(String table) {
+        Pattern from = Pattern.compile("\\bfrom " + Pattern.quote(table) + "\\b");
+        return statements().stream()
+                .filter(sql -> sql.startsWith("select"))
+                .filter(sql -> from.matcher(sql).find())
+                .count();
+    }
+}
@@ -0,0 +1,42 @@
+package com.erp.support;
+
+import com.erp.entity.Project;
+import com.erp.entity.ProjectStatus;
+import com.erp.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * @file TestData.java
+ * @description 測試資料 / Test Data
+ * @description_en Minimal valid entities for repository and query-count tests
+ * @description_zh 儲存庫與查詢數量測試用的最小合法實體
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static User user(String username, User.Role role) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("{noop}secret")
+                .name(username)
+                .role(role)
+                .build();
+    }
+
+    public static Project project(String title, User creator) {
+        return Project.builder()
+                .title(title)
+                .client("Client")
+                .budget(1000.0)
+                .startDate(LocalDate.of(2026, 1, 1))
+                .endDate(LocalDate.of(2026, 12, 31))
+                .status(ProjectStatus.PLANNING)
+                .progress(0)
+                .creator(creator)
+                .build();
+    }
+}
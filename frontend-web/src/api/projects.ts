@@ -33,6 +33,33 @@ export interface UpdateTaskRequest {
     orderIndex?: number;
 }
 
+// 看板移動：提供上方或下方的卡片，皆未提供時放到欄末
+export interface MoveTaskRequest {
+    taskId: string;
+    status?: Task['status'];
+    prevTaskId?: string;
+    nextTaskId?: string;
+}
+
+export interface MoveTaskResponse {
+    id: string;
+    status: Task['status'];
+    rank: string;
+}
+
+// 批次修改：未提供的欄位不變，assigneeId 為空字串時取消指派
+export interface BulkUpdateTasksRequest {
+    taskIds: string[];
+    status?: Task['status'];
+    priority?: string;
+    assigneeId?: string;
+}
+
+export interface BulkUpdateTasksResponse {
+    updated: number;
+    notFound: string[];
+}
+
 // Export Project type with GitHub fields
 export interface Project {
     id: string;
@@ -97,6 +124,16 @@ export const projectApi = {
         return response.data;
     },
 
+    moveTask: async (data: MoveTaskRequest): Promise<MoveTaskResponse> => {
+        const response = await api.post<MoveTaskResponse>('/v1/tasks/move', data);
+        return response.data;
+    },
+
+    bulkUpdateTasks: async (data: BulkUpdateTasksRequest): Promise<BulkUpdateTasksResponse> => {
+        const response = await api.patch<BulkUpdateTasksResponse>('/v1/tasks/bulk', data);
+        return response.data;
+    },
+
     deleteTask: async (id: string): Promise<void> => {
         await api.delete(`/v1/tasks/${id}`);
     },
@@ -141,9 +178,17 @@ export const projectApi = {
         return response.data; // Blob
     },
 
-    githubGetContents: async (owner: string, repo: string, path?: string) => {
+    githubGetContents: async (owner: string, repo: string, path?: string, branch?: string) => {
         const response = await api.get<ApiResponse<any[]>>(`/v1/github/repos/${owner}/${repo}/contents`, {
-            params: { path }
+            params: { path, branch }
+        });
+        return response.data;
+    },
+
+    // 私有倉庫的檔案下載網址於點擊時才取得 / Private repositories' file URLs are resolved on click
+    githubGetFileDownloadUrl: async (owner: string, repo: string, path: string, branch?: string) => {
+        const response = await api.get<ApiResponse<string>>(`/v1/github/repos/${owner}/${repo}/contents/download-url`, {
+            params: { path, branch }
         });
         return response.data;
     },
@@ -60,10 +60,15 @@ export default function ChangePasswordModal({ open, onClose }: ChangePasswordMod
         try {
             setLoading(true);
             setError(null);
-            await api.post('/v1/auth/change-password', {
+            const res = await api.post('/v1/auth/change-password', {
                 oldPassword: formData.oldPassword,
                 newPassword: formData.newPassword
             });
+            // 修改密碼會讓舊 Token 失效，改用伺服器回傳的新 Token / The old token is revoked; keep the new one
+            const token = res.data?.data?.token;
+            if (token) {
+                localStorage.setItem('token', token);
+            }
 
             setSuccess(true);
 
@@ -45,7 +45,7 @@ export const ProjectFiles = ({ project }: ProjectFilesProps) => {
         if (project.githubRepo) {
             fetchContents('');
         }
-    }, [project.githubRepo]);
+    }, [project.githubRepo, project.githubBranch]);
 
     const fetchContents = async (path: string) => {
         setLoading(true);
@@ -56,7 +56,7 @@ export const ProjectFiles = ({ project }: ProjectFilesProps) => {
                 return;
             }
 
-            const res = await projectApi.githubGetContents(owner, repo, path);
+            const res = await projectApi.githubGetContents(owner, repo, path, project.githubBranch || undefined);
             // API returns array on success, or object on error/single file
             if (res.success && Array.isArray(res.data)) {
                 // Sort: folders first, then files
@@ -214,7 +214,9 @@ export default function ProjectKanban({ projectId }: ProjectKanbanProps) {
 
             // Handle tasks response
             const tasksData = (tasksRes as any).data || tasksRes;
-            const sortedTasks = [...(tasksData as Task[])].sort((a: Task, b: Task) => (a.orderIndex || 0) - (b.orderIndex || 0));
+            // Ranks compare as plain strings; unranked cards go last
+            const sortedTasks = [...(tasksData as Task[])].sort((a: Task, b: Task) =>
+                (a.rank ?? '\uffff') < (b.rank ?? '\uffff') ? -1 : (a.rank ?? '\uffff') > (b.rank ?? '\uffff') ? 1 : 0);
             setTasks(sortedTasks);
 
             // Handle project response
@@ -233,8 +235,7 @@ export default function ProjectKanban({ projectId }: ProjectKanbanProps) {
             const newTask = await projectApi.createTask({
                 title,
                 status: 'TODO',
-                projectId,
-                orderIndex: tasks.length // Append to end roughly
+                projectId
             });
             setTasks([...tasks, newTask]);
         } catch (err) {
@@ -351,76 +352,29 @@ export default function ProjectKanban({ projectId }: ProjectKanbanProps) {
         if (!over) return;
 
         const activeId = active.id as string;
-        const overId = over.id;
 
         const activeTask = tasks.find(t => t.id === activeId);
         if (!activeTask) return;
 
-        // Calculate new tasks state locally to ensure we have the final order
-        // Note: handleDragOver might have already rearranged the tasks visually
-        // But we need to be sure about the final state to persist it.
-
-        // However, since handleDragOver updates state, 'tasks' here *should* be the reordered list
-        // IF the component re-rendered.
-        // To be safe and deterministic, let's recalculate the final move if needed,
-        // or just trust 'tasks' if we are sure.
-
-        // Actually, for "Sortable", usually onDragEnd performs the final arrayMove if active.id !== over.id
-        // But our handleDragOver does it too.
-        // Let's assume 'tasks' is the current visual state.
-
-        // We need to check if any task's orderIndex doesn't match its array index.
-        const updates: Promise<any>[] = [];
-
-        const newTasks = [...tasks];
-
-        // We need to apply the final move if it wasn't applied or if we want to be sure?
-        // If we rely on handleDragOver, we take 'tasks' as is. 
-        // But handleDragOver doesn't always fire on the very last pixel drop?
-        // Re-running arrayMove here is safer for the "same container" case.
-
-        if (activeId !== overId) {
-            const oldIndex = tasks.findIndex((t) => t.id === activeId);
-            const newIndex = tasks.findIndex((t) => t.id === overId);
-            if (oldIndex !== -1 && newIndex !== -1) {
-                // Note: arrayMove returns a new array
-                // We don't update state here yet, just calculate
-                // Actually, if handleDragOver already moved it, oldIndex might EQUAL newIndex (visually)?
-                // No, active.id and over.id are distinct.
-                // If handleDragOver moved it, the item at 'newIndex' is 'activeId'?
-                // Let's check: tasks.findIndex(t => t.id === activeId).
-                // If handleDragOver worked, this index is already the "new" position.
-                // So 'activeId' position is already where it should be?
-                // No, 'overId' is the item *underneath* the cursor.
-                // If the item is already moved, 'overId' might be the item *next* to it?
-
-                // Simpler approach: Just look at the 'tasks' array. It reflects the visual order.
-                // We iterate and save.
-            }
-        }
+        // 'tasks' already reflects the visual order (handleDragOver rearranges it),
+        // so the card's neighbours in its column are its new position.
+        const column = tasks.filter(t => t.status === activeTask.status);
+        const position = column.findIndex(t => t.id === activeId);
+        const prevTask = position > 0 ? column[position - 1] : undefined;
+        const nextTask = position < column.length - 1 ? column[position + 1] : undefined;
 
-        // Just iterate current 'tasks' (which includes DragOver changes) and save if needed.
-        newTasks.forEach((t, index) => {
-            if (t.orderIndex !== index) {
-                // Update local state first to avoid flicker? 
-                // We shouldn't mutate state directly.
-                // We'll update the 'tasks' state with new order indices at the end.
-                updates.push(projectApi.updateTask(t.id, {
-                    orderIndex: index,
-                    status: t.status // Ensure status is synced too
-                }));
-                t.orderIndex = index;
-            }
-        });
-
-        if (updates.length > 0) {
-            try {
-                await Promise.all(updates);
-                // Update local state with new indices
-                setTasks(newTasks);
-            } catch (err) {
-                console.error('Failed to update task order:', err);
-            }
+        try {
+            // One request moves one card; sibling cards keep their ranks
+            const moved = await projectApi.moveTask({
+                taskId: activeId,
+                status: activeTask.status,
+                prevTaskId: prevTask?.id,
+                nextTaskId: prevTask ? undefined : nextTask?.id,
+            });
+            setTasks(current => current.map(t => t.id === moved.id ? { ...t, status: moved.status, rank: moved.rank } : t));
+        } catch (err) {
+            console.error('Failed to move task:', err);
+            fetchData();
         }
     };
 
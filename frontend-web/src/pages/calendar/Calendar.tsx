@@ -7,6 +7,7 @@ import {
 } from '@mui/material';
 import {
     addMonths,
+    addDays,
     subMonths,
     format,
     startOfMonth,
@@ -41,16 +42,12 @@ export default function Calendar() {
     const [modalOpen, setModalOpen] = useState(false);
     const [selectedEvent, setSelectedEvent] = useState<any>(null);
 
-    useEffect(() => {
-        fetchEvents();
-    }, [fetchEvents]);
-
     const calendarItems = useMemo(() => {
         const mappedTasks = (tasks || []).map(t => ({
             id: t.id,
             title: t.title,
-            startDate: t.deadline || t.createdAt,
-            endDate: t.deadline || t.createdAt,
+            startDate: t.deadline,
+            endDate: t.deadline,
             description: t.description || `狀態: ${t.status}`,
             category: 'Project Task',
             priority: 'Medium',
@@ -74,6 +71,14 @@ export default function Calendar() {
     // User requested 7 days logic back (weekStartsOn: 1 for Monday)
     const startDate = startOfWeek(monthStart, { weekStartsOn: 1 });
     const endDate = endOfWeek(monthEnd, { weekStartsOn: 1 });
+
+    // 只載入目前畫面格線內的任務，區間為 [from, to) / Load only the tasks inside the visible grid
+    const rangeFrom = format(startDate, 'yyyy-MM-dd');
+    const rangeTo = format(addDays(endDate, 1), 'yyyy-MM-dd');
+
+    useEffect(() => {
+        fetchEvents({ from: rangeFrom, to: rangeTo });
+    }, [fetchEvents, rangeFrom, rangeTo]);
     const dateFormat = "d";
     
     // We generate all 7 days intervals
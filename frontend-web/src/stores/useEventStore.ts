@@ -1,7 +1,7 @@
 import { create } from 'zustand';
 import api from '../api/axios';
 import type { EventResponse, EventRequest } from '../types/event';
-import type { Task } from '../types/project';
+import type { CalendarTask } from '../types/project';
 
 /**
  * @file useEventStore.ts
@@ -10,12 +10,19 @@ import type { Task } from '../types/project';
  * @description_zh 管理與獲取行事曆事件的 Zustand Store
  */
 
+// 行事曆任務的查詢區間 [from, to)，日期格式 yyyy-MM-dd
+export interface CalendarRange {
+    from: string;
+    to: string;
+}
+
 interface EventState {
     events: EventResponse[];
-    tasks: Task[];
+    tasks: CalendarTask[];
+    range: CalendarRange | null;
     loading: boolean;
     error: string | null;
-    fetchEvents: () => Promise<void>;
+    fetchEvents: (range?: CalendarRange) => Promise<void>;
     createEvent: (data: EventRequest) => Promise<void>;
     updateEvent: (id: string, data: EventRequest) => Promise<void>;
     deleteEvent: (id: string) => Promise<void>;
@@ -24,19 +31,22 @@ interface EventState {
 export const useEventStore = create<EventState>((set, get) => ({
     events: [],
     tasks: [],
+    range: null,
     loading: false,
     error: null,
 
-    fetchEvents: async () => {
-        set({ loading: true, error: null });
+    fetchEvents: async (range?: CalendarRange) => {
+        // Reuse the last window when called after create/update/delete
+        const window = range ?? get().range;
+        set({ loading: true, error: null, range: window });
         try {
             const [eventsRes, tasksRes] = await Promise.all([
                 api.get('/v1/events'),
-                api.get('/v1/tasks/my-calendar-tasks')
+                api.get('/v1/tasks/my-calendar-tasks', { params: window ?? undefined })
             ]);
             set({
                 events: eventsRes.data.data,
-                tasks: tasksRes.data, // Assuming task controller returns standard list or ApiResponse? Wait, TaskController returns ResponseEntity.ok(list) directly, no ApiResponse wrapper! Let me check TaskController.
+                tasks: tasksRes.data, // TaskController returns the list directly, without an ApiResponse wrapper
                 loading: false
             });
         } catch (error: any) {
@@ -1,5 +1,6 @@
 export type ProjectStatus = 'PLANNING' | 'IN_PROGRESS' | 'REVIEW' | 'DONE';
 export type TaskStatus = 'TODO' | 'DOING' | 'DONE';
+export type TaskPriority = 'LOW' | 'MEDIUM' | 'HIGH';
 
 export interface UserInfo {
     id: string;
@@ -23,7 +24,6 @@ export interface Project {
     githubRepo?: string;
     githubBranch?: string;
     backupConfig?: string;
-    githubToken?: string;
     fileLocation?: string;
     createdAt?: string;
     updatedAt?: string;
@@ -36,8 +36,23 @@ export interface Task {
     status: TaskStatus;
     assignee?: UserInfo;
     orderIndex?: number;
+    rank?: string;
     deadline?: string;
     description?: string;
     createdAt?: string;
     updatedAt?: string;
 }
+
+// 行事曆任務（後端 CalendarTaskResponse），只含截止日落在查詢區間內的任務
+export interface CalendarTask {
+    id: string;
+    title: string;
+    status: TaskStatus;
+    priority?: TaskPriority;
+    deadline: string;
+    description?: string;
+    projectId: string;
+    projectTitle: string;
+    assignee?: { id: string; name: string };
+    reporter?: { id: string; name: string };
+}
@@ -0,0 +1,197 @@
+/**
+ * @file jwks.go
+ * @description JWT 本地驗證 / Local JWT Verification
+ * @description_en Verifies RS256 tokens locally against the Java backend's JWKS,
+ *                 which is cached and refetched when an unknown kid appears
+ * @description_zh 以 Java 後端公開的 JWKS 在本地驗證 RS256 Token；金鑰會被快取，
+ *                 遇到未知的 kid 時重新取得
+ */
+
+package auth
+
+import (
+	"crypto"
+	"crypto/rsa"
+	"crypto/sha256"
+	"encoding/base64"
+	"encoding/json"
+	"errors"
+	"fmt"
+	"math/big"
+	"net/http"
+	"strings"
+	"sync"
+	"time"
+)
+
+// ========================================
+// 錯誤 / Errors
+// ========================================
+
+// errKeysUnavailable 無法取得公鑰，呼叫端可改用遠端檢查 / Caller may fall back to remote checks
+var errKeysUnavailable = errors.New("signing keys unavailable")
+
+// errMissingClaims Token 有效但缺少本地驗證所需聲明 / Valid token without the claims we need
+var errMissingClaims = errors.New("token lacks claims for local verification")
+
+// ========================================
+// 金鑰快取 / Key Cache
+// ========================================
+
+const jwksRefreshInterval = 10 * time.Second
+
+type jwk struct {
+	Kty string `json:"kty"`
+	Kid string `json:"kid"`
+	Alg string `json:"alg"`
+	N   string `json:"n"`
+	E   string `json:"e"`
+}
+
+type keySet struct {
+	mu          sync.RWMutex
+	keys        map[string]*rsa.PublicKey
+	lastFetched time.Time
+}
+
+var jwksCache = &keySet{keys: map[string]*rsa.PublicKey{}}
+
+// get 取得公鑰；未知 kid 時最多每 10 秒重新抓取一次 / Refetch at most every 10s on a miss
+func (s *keySet) get(backendURL, kid string) (*rsa.PublicKey, error) {
+	s.mu.RLock()
+	key, ok := s.keys[kid]
+	fresh := time.Since(s.lastFetched) < jwksRefreshInterval
+	s.mu.RUnlock()
+	if ok {
+		return key, nil
+	}
+	if fresh {
+		return nil, fmt.Errorf("unknown signing key %q", kid)
+	}
+
+	if err := s.fetch(backendURL); err != nil {
+		return nil, err
+	}
+
+	s.mu.RLock()
+	defer s.mu.RUnlock()
+	if key, ok := s.keys[kid]; ok {
+		return key, nil
+	}
+	return nil, fmt.Errorf("unknown signing key %q", kid)
+}
+
+func (s *keySet) fetch(backendURL string) error {
+	s.mu.Lock()
+	defer s.mu.Unlock()
+	if time.Since(s.lastFetched) < jwksRefreshInterval {
+		return nil
+	}
+	s.lastFetched = time.Now()
+
+	resp, err := backendClient.Get(backendURL + "/api/v1/auth/jwks")
+	if err != nil {
+		return fmt.Errorf("%w: %v", errKeysUnavailable, err)
+	}
+	defer resp.Body.Close()
+	if resp.StatusCode != http.StatusOK {
+		return fmt.Errorf("%w: status %d", errKeysUnavailable, resp.StatusCode)
+	}
+
+	var body struct {
+		Keys []jwk `json:"keys"`
+	}
+	if err := json.NewDecoder(resp.Body).Decode(&body); err != nil {
+		return fmt.Errorf("%w: %v", errKeysUnavailable, err)
+	}
+
+	keys := make(map[string]*rsa.PublicKey, len(body.Keys))
+	for _, k := range body.Keys {
+		if k.Kty != "RSA" || k.Alg != "RS256" {
+			continue
+		}
+		n, errN := base64.RawURLEncoding.DecodeString(k.N)
+		e, errE := base64.RawURLEncoding.DecodeString(k.E)
+		if errN != nil || errE != nil {
+			continue
+		}
+		keys[k.Kid] = &rsa.PublicKey{
+			N: new(big.Int).SetBytes(n),
+			E: int(new(big.Int).SetBytes(e).Int64()),
+		}
+	}
+	s.keys = keys
+	return nil
+}
+
+// ========================================
+// 驗證 / Verification
+// ========================================
+
+type tokenClaims struct {
+	Subject string `json:"sub"`
+	UserID  string `json:"uid"`
+	Role    string `json:"role"`
+	Name    string `json:"name"`
+	Expires int64  `json:"exp"`
+}
+
+// verifyLocally 驗證簽章與到期時間，並由聲明組成使用者資訊
+// Checks the RS256 signature and expiry, then builds the user from claims.
+func verifyLocally(backendURL, token string) (*UserInfo, error) {
+	parts := strings.Split(token, ".")
+	if len(parts) != 3 {
+		return nil, errors.New("malformed token")
+	}
+
+	headerJSON, err := base64.RawURLEncoding.DecodeString(parts[0])
+	if err != nil {
+		return nil, errors.New("malformed token header")
+	}
+	var header struct {
+		Alg string `json:"alg"`
+		Kid string `json:"kid"`
+	}
+	if err := json.Unmarshal(headerJSON, &header); err != nil {
+		return nil, errors.New("malformed token header")
+	}
+	if header.Alg != "RS256" || header.Kid == "" {
+		return nil, fmt.Errorf("unsupported token algorithm %q", header.Alg)
+	}
+
+	key, err := jwksCache.get(backendURL, header.Kid)
+	if err != nil {
+		return nil, err
+	}
+
+	signature, err := base64.RawURLEncoding.DecodeString(parts[2])
+	if err != nil {
+		return nil, errors.New("malformed token signature")
+	}
+	digest := sha256.Sum256([]byte(parts[0] + "." + parts[1]))
+	if err := rsa.VerifyPKCS1v15(key, crypto.SHA256, digest[:], signature); err != nil {
+		return nil, errors.New("invalid token signature")
+	}
+
+	payload, err := base64.RawURLEncoding.DecodeString(parts[1])
+	if err != nil {
+		return nil, errors.New("malformed token payload")
+	}
+	var claims tokenClaims
+	if err := json.Unmarshal(payload, &claims); err != nil {
+		return nil, errors.New("malformed token payload")
+	}
+	if claims.Expires == 0 || time.Now().Unix() >= claims.Expires {
+		return nil, errors.New("token expired")
+	}
+	if claims.UserID == "" || claims.Name == "" {
+		return nil, errMissingClaims
+	}
+
+	return &UserInfo{
+		ID:       claims.UserID,
+		Name:     claims.Name,
+		Username: claims.Subject,
+		Role:     claims.Role,
+	}, nil
+}
@@ -1,20 +1,28 @@
 /**
  * @file jwt.go
  * @description JWT 認證中介層 / JWT Auth Middleware
- * @description_en Verifies JWT tokens by calling Java backend /auth/me
- * @description_zh 透過呼叫 Java 後端 /auth/me 來驗證 JWT Token
+ * @description_en Verifies JWT tokens locally against the backend's JWKS. With
+ *                 JWT_VERIFY_MODE=remote, or for tokens lacking the needed
+ *                 claims, it calls the internal introspection endpoint instead
+ *                 (or /auth/me when no INTERNAL_API_KEY is configured)
+ * @description_zh 以後端公開的 JWKS 在本地驗證 JWT。設定 JWT_VERIFY_MODE=remote 或 Token
+ *                 缺少所需聲明時，改為呼叫內部 Token 檢查端點（未設定 INTERNAL_API_KEY
+ *                 時呼叫 /auth/me）
  */
 
 package auth
 
 import (
+	"bytes"
 	"context"
 	"encoding/json"
+	"errors"
 	"fmt"
 	"io"
 	"net/http"
 	"os"
 	"strings"
+	"time"
 )
 
 // ========================================
@@ -26,6 +34,23 @@ type UserInfo struct {
 	Name     string `json:"name"`
 	Username string `json:"username"`
 	Role     string `json:"role"`
+	Avatar   string `json:"avatar,omitempty"`
+}
+
+// introspectionResult 內部檢查端點的回應 / Response of the internal introspection endpoint
+type introspectionResult struct {
+	Active bool `json:"active"`
+	UserInfo
+}
+
+// 共用連線池，避免每次請求重新建立連線 / Shared keep-alive client
+var backendClient = &http.Client{
+	Timeout: 5 * time.Second,
+	Transport: &http.Transport{
+		MaxIdleConns:        100,
+		MaxIdleConnsPerHost: 100,
+		IdleConnTimeout:     90 * time.Second,
+	},
 }
 
 type contextKey string
@@ -42,13 +67,29 @@ func GetUserFromToken(token string) (*UserInfo, error) {
 		backendURL = "http://backend:8081"
 	}
 
+	// 本地驗證不會得知登出撤銷，需即時撤銷時請設為 remote
+	// Local verification cannot see logout revocations; use remote when that matters
+	if os.Getenv("JWT_VERIFY_MODE") != "remote" {
+		user, err := verifyLocally(backendURL, token)
+		if err == nil {
+			return user, nil
+		}
+		if !errors.Is(err, errKeysUnavailable) && !errors.Is(err, errMissingClaims) {
+			return nil, err
+		}
+	}
+
+	if apiKey := os.Getenv("INTERNAL_API_KEY"); apiKey != "" {
+		return introspectToken(backendURL, apiKey, token)
+	}
+
 	req, err := http.NewRequest("GET", backendURL+"/api/v1/auth/me", nil)
 	if err != nil {
 		return nil, fmt.Errorf("failed to create request: %w", err)
 	}
 	req.Header.Set("Authorization", "Bearer "+token)
 
-	resp, err := http.DefaultClient.Do(req)
+	resp, err := backendClient.Do(req)
 	if err != nil {
 		return nil, fmt.Errorf("failed to call auth service: %w", err)
 	}
@@ -67,6 +108,45 @@ func GetUserFromToken(token string) (*UserInfo, error) {
 	return &user, nil
 }
 
+// introspectToken 呼叫內部檢查端點，不經過完整的 Spring Security 流程與資料庫
+// Calls the internal introspection endpoint, which answers from cache without
+// the full Spring Security chain or a database lookup.
+func introspectToken(backendURL, apiKey, token string) (*UserInfo, error) {
+	body, err := json.Marshal(map[string]string{"token": token})
+	if err != nil {
+		return nil, fmt.Errorf("failed to encode request: %w", err)
+	}
+
+	req, err := http.NewRequest("POST", backendURL+"/api/v1/internal/auth/introspect", bytes.NewReader(body))
+	if err != nil {
+		return nil, fmt.Errorf("failed to create request: %w", err)
+	}
+	req.Header.Set("Content-Type", "application/json")
+	req.Header.Set("X-Internal-Api-Key", apiKey)
+
+	resp, err := backendClient.Do(req)
+	if err != nil {
+		return nil, fmt.Errorf("failed to call auth service: %w", err)
+	}
+	defer resp.Body.Close()
+
+	if resp.StatusCode != http.StatusOK {
+		respBody, _ := io.ReadAll(resp.Body)
+		return nil, fmt.Errorf("introspection failed (%d): %s", resp.StatusCode, string(respBody))
+	}
+
+	var result introspectionResult
+	if err := json.NewDecoder(resp.Body).Decode(&result); err != nil {
+		return nil, fmt.Errorf("failed to decode introspection result: %w", err)
+	}
+	if !result.Active {
+		return nil, fmt.Errorf("token is not active")
+	}
+
+	user := result.UserInfo
+	return &user, nil
+}
+
 // ========================================
 // HTTP 中介層 / HTTP Middleware
 // ========================================
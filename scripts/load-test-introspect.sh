@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# =========================================================================
+# Token 檢查端點壓力測試 (Token Introspection Load Test)
+# =========================================================================
+# 登入取得 Token 後，以 hey 對內部 /introspect 端點持續送出請求，
+# 用於確認每秒可處理數千次呼叫。需先安裝 hey (https://github.com/rakyll/hey)。
+#
+# 用法:
+# INTERNAL_API_KEY=xxx ./scripts/load-test-introspect.sh [總請求數] [並行數]
+# =========================================================================
+
+BACKEND_URL="${BACKEND_URL:-http://localhost:8081}"
+LOGIN_ID="${LOGIN_ID:-admin}"
+PASSWORD="${PASSWORD:-ERP@123456}"
+REQUESTS="${1:-50000}"
+CONCURRENCY="${2:-100}"
+
+if [ -z "$INTERNAL_API_KEY" ]; then
+    echo "錯誤: 請設定 INTERNAL_API_KEY"
+    exit 1
+fi
+
+if ! command -v hey > /dev/null; then
+    echo "錯誤: 找不到 hey，請先安裝 (go install github.com/rakyll/hey@latest)"
+    exit 1
+fi
+
+# 1. 登入取得 Token
+TOKEN=$(curl -s -X POST -H "Content-Type: application/json" \
+    -d "{\"loginId\":\"$LOGIN_ID\", \"password\":\"$PASSWORD\"}" \
+    "$BACKEND_URL/api/v1/auth/login" | grep -o '"token":"[^"]*"' | cut -d\" -f4)
+
+if [ -z "$TOKEN" ]; then
+    echo "❌ 登入失敗，無法取得 Token"
+    exit 1
+fi
+
+# 2. 單一 Token 檢查
+echo "🚀 /introspect: $REQUESTS 次請求, 並行 $CONCURRENCY"
+hey -n "$REQUESTS" -c "$CONCURRENCY" -m POST \
+    -H "Content-Type: application/json" \
+    -H "X-Internal-Api-Key: $INTERNAL_API_KEY" \
+    -d "{\"token\":\"$TOKEN\"}" \
+    "$BACKEND_URL/api/v1/internal/auth/introspect"
+
+# 3. 批次檢查 (每批 50 個 Token)
+BATCH=$(printf '"%s",' $(for i in $(seq 1 50); do echo "$TOKEN"; done))
+echo "🚀 /introspect/batch: $((REQUESTS / 10)) 次請求 (每批 50 個 Token)"
+hey -n "$((REQUESTS / 10))" -c "$CONCURRENCY" -m POST \
+    -H "Content-Type: application/json" \
+    -H "X-Internal-Api-Key: $INTERNAL_API_KEY" \
+    -d "{\"tokens\":[${BATCH%,}]}" \
+    "$BACKEND_URL/api/v1/internal/auth/introspect/batch"
@@ -0,0 +1,121 @@
+#!/usr/bin/env python3
+
+# =========================================================================
+# GitHub API 模擬伺服器 (Mock GitHub API Server)
+# =========================================================================
+# 提供後端發件匣使用的 GitHub REST 端點（建立組織倉庫、加入/移除協作者），
+# 可注入延遲、失敗與次級限流 (403 + Retry-After)，並支援 ETag 條件式請求，
+# 用於在本機驗證重試、退避、請求排程、HTTP 快取與專案同步狀態。
+#
+# 用法:
+# MOCK_FAIL_RATE=0.3 MOCK_LIMIT_RATE=0.1 MOCK_LATENCY_MS=500 ./scripts/mock-github-server.py [port]
+# 後端設定 GITHUB_API_URL=http://localhost:9090 與任意 GITHUB_ORG_TOKEN 即可
+# =========================================================================
+
+import hashlib
+import json
+import os
+import random
+import sys
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+PORT = int(sys.argv[1]) if len(sys.argv) > 1 else 9090
+FAIL_RATE = float(os.environ.get("MOCK_FAIL_RATE", "0"))
+LIMIT_RATE = float(os.environ.get("MOCK_LIMIT_RATE", "0"))
+LATENCY_MS = int(os.environ.get("MOCK_LATENCY_MS", "0"))
+BASE = f"http://localhost:{PORT}"
+
+repos = {}          # "org/repo" -> {login: permission}
+
+
+def repo_json(full_name, private=False):
+    owner, name = full_name.split("/")
+    return {"id": abs(hash(full_name)) % 10**8, "name": name, "full_name": full_name,
+            "private": private, "owner": {"login": owner, "type": "Organization"},
+            "html_url": f"{BASE}/{full_name}", "url": f"{BASE}/repos/{full_name}"}
+
+
+class Handler(BaseHTTPRequestHandler):
+
+    def send(self, status, body=None, headers=None):
+        data = json.dumps(body).encode() if body is not None else b""
+        if self.command == "GET" and status == 200:
+            # 支援條件式請求 / Conditional requests
+            etag = '"' + hashlib.md5(data).hexdigest() + '"'
+            headers = dict(headers or {}, ETag=etag, Vary="Accept, Authorization")
+            headers["Cache-Control"] = "private, max-age=60, s-maxage=60"
+            if self.headers.get("If-None-Match") == etag:
+                status, data = 304, b""
+        self.send_response(status)
+        for name, value in (headers or {}).items():
+            self.send_header(name, value)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(data)))
+        self.send_header("X-RateLimit-Limit", "5000")
+        self.send_header("X-RateLimit-Remaining", "4999")
+        self.send_header("X-RateLimit-Reset", str(int(time.time()) + 3600))
+        self.end_headers()
+        self.wfile.write(data)
+
+    def handle_any(self, method):
+        if LATENCY_MS:
+            time.sleep(LATENCY_MS / 1000)
+        parts = [p for p in self.path.split("?")[0].split("/") if p]
+        if parts and FAIL_RATE and random.random() < FAIL_RATE:
+            return self.send(502, {"message": "Injected failure"})
+        if parts and LIMIT_RATE and random.random() < LIMIT_RATE:
+            return self.send(403, {"message": "You have exceeded a secondary rate limit."}, {"Retry-After": "2"})
+
+        length = int(self.headers.get("Content-Length") or 0)
+        body = json.loads(self.rfile.read(length) or b"{}") if length else {}
+
+        # GET / — checkApiUrlValidity
+        if not parts:
+            return self.send(200, {"rate_limit_url": f"{BASE}/rate_limit"})
+        if method == "GET" and parts[0] == "orgs" and len(parts) == 2:
+            return self.send(200, {"login": parts[1], "url": f"{BASE}/orgs/{parts[1]}"})
+        if method == "POST" and parts[0] == "orgs" and parts[2:] == ["repos"]:
+            full_name = f"{parts[1]}/{body.get('name')}"
+            if full_name in repos:
+                return self.send(422, {"message": "Repository creation failed.",
+                                       "errors": [{"message": "name already exists on this account"}]})
+            repos[full_name] = {}
+            return self.send(201, repo_json(full_name, body.get("private", False)))
+        if method == "GET" and parts[0] == "users" and len(parts) == 2:
+            return self.send(200, {"login": parts[1], "type": "User"})
+        if parts[0] == "repos" and len(parts) >= 3:
+            full_name = f"{parts[1]}/{parts[2]}"
+            if full_name not in repos:
+                return self.send(404, {"message": "Not Found"})
+            if len(parts) == 3 and method == "GET":
+                return self.send(200, repo_json(full_name))
+            if parts[3:4] == ["collaborators"]:
+                collaborators = repos[full_name]
+                if len(parts) == 4 and method == "GET":
+                    return self.send(200, [{"login": login} for login in collaborators])
+                login = parts[4]
+                if method == "PUT":
+                    collaborators[login] = body.get("permission", "push")
+                    return self.send(204)
+                if method == "DELETE":
+                    collaborators.pop(login, None)
+                    return self.send(204)
+        return self.send(404, {"message": "Not Found"})
+
+    def do_GET(self):
+        self.handle_any("GET")
+
+    def do_POST(self):
+        self.handle_any("POST")
+
+    def do_PUT(self):
+        self.handle_any("PUT")
+
+    def do_DELETE(self):
+        self.handle_any("DELETE")
+
+
+if __name__ == "__main__":
+    print(f"Mock GitHub API on {BASE} (fail rate {FAIL_RATE}, latency {LATENCY_MS}ms)")
+    ThreadingHTTPServer(("", PORT), Handler).serve_forever()
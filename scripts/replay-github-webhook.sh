@@ -0,0 +1,40 @@
+#!/bin/bash
+
+# =========================================================================
+# GitHub Webhook 重播 (GitHub Webhook Replay)
+# =========================================================================
+# 以 GITHUB_WEBHOOK_SECRET 簽署錄製的 payload，並送到本機的 Webhook 端點，
+# 與 GitHub 實際投遞的標頭相同。可用 scripts/webhook-payloads/ 下的範例，
+# 或從 GitHub 的 Recent Deliveries 複製的內容。
+#
+# 用法:
+# GITHUB_WEBHOOK_SECRET=xxx ./scripts/replay-github-webhook.sh <事件> <payload.json> [投遞ID]
+# 例如: ./scripts/replay-github-webhook.sh push scripts/webhook-payloads/push.json
+# =========================================================================
+
+BACKEND_URL="${BACKEND_URL:-http://localhost:8081}"
+EVENT="$1"
+PAYLOAD="$2"
+DELIVERY_ID="${3:-$(cat /proc/sys/kernel/random/uuid 2>/dev/null || uuidgen)}"
+
+if [ -z "$GITHUB_WEBHOOK_SECRET" ]; then
+    echo "錯誤: 請設定 GITHUB_WEBHOOK_SECRET"
+    exit 1
+fi
+
+if [ -z "$EVENT" ] || [ ! -f "$PAYLOAD" ]; then
+    echo "用法: $0 <push|member|repository> <payload.json> [投遞ID]"
+    exit 1
+fi
+
+# 簽章需針對原始位元組計算 / The signature covers the exact bytes sent
+SIGNATURE=$(openssl dgst -sha256 -hmac "$GITHUB_WEBHOOK_SECRET" -hex < "$PAYLOAD" | awk '{print $NF}')
+
+echo "🚀 $EVENT ($DELIVERY_ID) -> $BACKEND_URL/api/v1/github/webhooks"
+curl -s -w "\nHTTP %{http_code}\n" -X POST \
+    -H "Content-Type: application/json" \
+    -H "X-GitHub-Event: $EVENT" \
+    -H "X-GitHub-Delivery: $DELIVERY_ID" \
+    -H "X-Hub-Signature-256: sha256=$SIGNATURE" \
+    --data-binary "@$PAYLOAD" \
+    "$BACKEND_URL/api/v1/github/webhooks"